@@ -184,4 +184,18 @@ public @interface JMSConfiguration {
      */
     long backoffPeriod() default -1;
 
+    /**
+     * Specifies the maximum number of messages received in a single transaction or acknowledgement. Batching does not apply to auto-acknowledge sessions.
+     *
+     * @return the maximum number of messages in a batch
+     */
+    int batchSize() default 1;
+
+    /**
+     * Specifies the maximum time to wait for additional messages once a batch has been started.
+     *
+     * @return the time in milliseconds
+     */
+    long batchTimeout() default 100;
+
 }
@@ -211,4 +211,16 @@ public class JmsBindingBuilder extends AbstractBuilder {
         return this;
     }
 
+    public JmsBindingBuilder batchSize(int size) {
+        checkState();
+        binding.getJmsMetadata().setBatchSize(size);
+        return this;
+    }
+
+    public JmsBindingBuilder batchTimeout(long timeout) {
+        checkState();
+        binding.getJmsMetadata().setBatchTimeout(timeout);
+        return this;
+    }
+
 }
@@ -58,6 +58,8 @@ public class JmsBindingMetadata extends ModelObject {
     private String subscriptionIdPrefix;
     private boolean clientAcknowledge;
     private long backoffPeriod = -1;
+    private int batchSize = 1;
+    private long batchTimeout = 100;
 
     public ConnectionFactoryDefinition getConnectionFactory() {
         return connectionFactory;
@@ -269,6 +271,22 @@ public class JmsBindingMetadata extends ModelObject {
         this.backoffPeriod = backoffPeriod;
     }
 
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public long getBatchTimeout() {
+        return batchTimeout;
+    }
+
+    public void setBatchTimeout(long batchTimeout) {
+        this.batchTimeout = batchTimeout;
+    }
+
     public JmsBindingMetadata snapshot() {
         JmsBindingMetadata copy = new JmsBindingMetadata();
         copy.correlationScheme = this.correlationScheme;
@@ -312,6 +330,8 @@ public class JmsBindingMetadata extends ModelObject {
         copy.activationSpec = this.activationSpec;
         copy.clientAcknowledge = this.clientAcknowledge;
         copy.backoffPeriod = this.backoffPeriod;
+        copy.batchSize = this.batchSize;
+        copy.batchTimeout = this.batchTimeout;
         return copy;
     }
 
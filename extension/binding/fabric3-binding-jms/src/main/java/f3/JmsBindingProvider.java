@@ -24,6 +24,7 @@ import org.fabric3.binding.jms.runtime.container.MessageContainerFactoryImpl;
 import org.fabric3.binding.jms.runtime.container.MessageContainerManagerImpl;
 import org.fabric3.binding.jms.runtime.jndi.JndiAdministeredObjectResolver;
 import org.fabric3.binding.jms.runtime.jndi.JndiClassLoaderUpdater;
+import org.fabric3.binding.jms.runtime.pool.JmsResourcePoolManagerImpl;
 import org.fabric3.binding.jms.runtime.resolver.AdministeredObjectResolverImpl;
 import org.fabric3.binding.jms.runtime.resolver.connectionfactory.AlwaysConnectionFactoryStrategy;
 import org.fabric3.binding.jms.runtime.resolver.connectionfactory.IfNotExistConnectionFactoryStrategy;
@@ -43,10 +44,9 @@ public class JmsBindingProvider {
     @Provides
     public static Composite getComposite() {
         CompositeBuilder compositeBuilder = CompositeBuilder.newBuilder(QNAME);
-        SystemComponentBuilder builder = SystemComponentBuilder.newBuilder(MessageContainerFactoryImpl.class);
-        builder.reference("executorService", "RuntimeThreadPoolExecutor");
-        compositeBuilder.component(builder.build());
+        compositeBuilder.component(SystemComponentBuilder.newBuilder(MessageContainerFactoryImpl.class).build());
         compositeBuilder.component(SystemComponentBuilder.newBuilder(MessageContainerManagerImpl.class).build());
+        compositeBuilder.component(SystemComponentBuilder.newBuilder(JmsResourcePoolManagerImpl.class).build());
         compositeBuilder.component(SystemComponentBuilder.newBuilder(JmsSourceWireAttacher.class).build());
         compositeBuilder.component(SystemComponentBuilder.newBuilder(JmsTargetWireAttacher.class).build());
         compositeBuilder.component(SystemComponentBuilder.newBuilder(JmsConnectionSourceAttacher.class).build());
@@ -113,6 +113,8 @@ public class JmsBindingLoader extends AbstractValidatingTypeLoader<JmsBinding> {
                       "recovery.interval",
                       "max.receivers",
                       "min.receivers",
+                      "batch.size",
+                      "batch.timeout",
                       "clientAcknowledge");
     }
 
@@ -324,6 +326,38 @@ public class JmsBindingLoader extends AbstractValidatingTypeLoader<JmsBinding> {
             }
         }
 
+        String batchSize = reader.getAttributeValue(null, "batch.size");
+        if (batchSize != null) {
+            try {
+                int val = Integer.parseInt(batchSize);
+                if (val < 1) {
+                    InvalidValue error = new InvalidValue("The batch.size attribute must be greater than 0: " + val, startLocation);
+                    context.addError(error);
+                } else {
+                    metadata.setBatchSize(val);
+                }
+            } catch (NumberFormatException e) {
+                InvalidValue error = new InvalidValue("Invalid batch.size attribute", startLocation, e);
+                context.addError(error);
+            }
+        }
+
+        String batchTimeout = reader.getAttributeValue(null, "batch.timeout");
+        if (batchTimeout != null) {
+            try {
+                long val = Long.parseLong(batchTimeout);
+                if (val < 0) {
+                    InvalidValue error = new InvalidValue("The batch.timeout attribute must not be negative: " + val, startLocation);
+                    context.addError(error);
+                } else {
+                    metadata.setBatchTimeout(val);
+                }
+            } catch (NumberFormatException e) {
+                InvalidValue error = new InvalidValue("Invalid batch.timeout attribute", startLocation, e);
+                context.addError(error);
+            }
+        }
+
         String ack = reader.getAttributeValue(null, "clientAcknowledge");
         metadata.setClientAcknowledge(Boolean.valueOf(ack));
     }
@@ -120,6 +120,8 @@ public class JmsBindingPostProcessor extends AbstractBindingPostProcessor<JMS> {
         metadata.setRecoveryInterval(configuration.recoveryInterval());
         metadata.setClientAcknowledge(configuration.clientAcknowledge());
         metadata.setBackoffPeriod(configuration.backoffPeriod());
+        metadata.setBatchSize(configuration.batchSize());
+        metadata.setBatchTimeout(configuration.batchTimeout());
 
         parseResponse(configuration, metadata, implClass, implClass, context);
     }
@@ -20,6 +20,8 @@
 package org.fabric3.binding.jms.runtime;
 
 import javax.jms.ConnectionFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.fabric3.api.annotation.wire.Key;
 import org.fabric3.api.binding.jms.model.ConnectionFactoryDefinition;
@@ -28,11 +30,14 @@ import org.fabric3.api.binding.jms.model.Destination;
 import org.fabric3.api.binding.jms.model.HeadersDefinition;
 import org.fabric3.api.binding.jms.model.JmsBindingMetadata;
 import org.fabric3.binding.jms.runtime.channel.JmsEventStreamHandler;
+import org.fabric3.binding.jms.runtime.pool.JmsResourcePool;
+import org.fabric3.binding.jms.runtime.pool.JmsResourcePoolManager;
 import org.fabric3.binding.jms.runtime.resolver.AdministeredObjectResolver;
 import org.fabric3.binding.jms.spi.provision.JmsConnectionTarget;
 import org.fabric3.spi.container.builder.TargetConnectionAttacher;
 import org.fabric3.spi.container.channel.ChannelConnection;
 import org.fabric3.spi.container.channel.EventStream;
+import org.fabric3.spi.model.physical.PhysicalAttachPoint;
 import org.fabric3.spi.model.physical.PhysicalConnectionSource;
 import org.oasisopen.sca.annotation.Reference;
 
@@ -42,9 +47,14 @@ import org.oasisopen.sca.annotation.Reference;
 @Key("org.fabric3.binding.jms.spi.provision.JmsConnectionTarget")
 public class JmsConnectionTargetAttacher implements TargetConnectionAttacher<JmsConnectionTarget> {
     private AdministeredObjectResolver resolver;
+    private JmsResourcePoolManager poolManager;
 
-    public JmsConnectionTargetAttacher(@Reference AdministeredObjectResolver resolver) {
+    // connection factories with pools held by an attached producer, keyed by the connection source and target
+    private Map<String, ConnectionFactory> pooledFactories = new ConcurrentHashMap<>();
+
+    public JmsConnectionTargetAttacher(@Reference AdministeredObjectResolver resolver, @Reference JmsResourcePoolManager poolManager) {
         this.resolver = resolver;
+        this.poolManager = poolManager;
     }
 
     public void attach(PhysicalConnectionSource source, JmsConnectionTarget target, ChannelConnection connection) {
@@ -56,13 +66,24 @@ public class JmsConnectionTargetAttacher implements TargetConnectionAttacher<Jms
         ConnectionFactory connectionFactory = resolver.resolve(connectionFactoryDefinition);
         Destination destinationDefinition = metadata.getDestination();
         javax.jms.Destination destination = resolver.resolve(destinationDefinition, connectionFactory);
+        JmsResourcePool pool = poolManager.getPool(connectionFactoryDefinition.getName(), connectionFactory);
+        pooledFactories.put(getKey(source, target), connectionFactory);
         EventStream stream = connection.getEventStream();
-        JmsEventStreamHandler handler = new JmsEventStreamHandler(destination, connectionFactory, persistent);
+        JmsEventStreamHandler handler = new JmsEventStreamHandler(destination, connectionFactory, pool, persistent);
         stream.addHandler(handler);
     }
 
     public void detach(PhysicalConnectionSource source, JmsConnectionTarget target) {
-        resolver.release(target.getMetadata().getConnectionFactory());
+        ConnectionFactoryDefinition definition = target.getMetadata().getConnectionFactory();
+        ConnectionFactory connectionFactory = pooledFactories.remove(getKey(source, target));
+        if (connectionFactory != null) {
+            poolManager.release(connectionFactory);
+        }
+        resolver.release(definition);
+    }
+
+    private String getKey(PhysicalAttachPoint source, PhysicalAttachPoint target) {
+        return source.getUri() + "->" + target.getUri();
     }
 
 }
\ No newline at end of file
@@ -142,6 +142,8 @@ public class JmsSourceWireAttacher implements SourceWireAttacher<JmsWireSource>
         }
         configuration.setIdleLimit(metadata.getIdleLimit());
         configuration.setMaxMessagesToProcess(metadata.getMaxMessagesToProcess());
+        configuration.setBatchSize(metadata.getBatchSize());
+        configuration.setBatchTimeout(metadata.getBatchTimeout());
         configuration.setMaxReceivers(metadata.getMaxReceivers());
         configuration.setMinReceivers(metadata.getMinReceivers());
         configuration.setReceiveTimeout(metadata.getReceiveTimeout());
@@ -28,6 +28,7 @@ import javax.transaction.TransactionManager;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.fabric3.api.annotation.wire.Key;
 import org.fabric3.api.binding.jms.model.ConnectionFactoryDefinition;
@@ -40,6 +41,8 @@ import org.fabric3.api.binding.jms.model.JmsBindingMetadata;
 import org.fabric3.api.binding.jms.model.OperationPropertiesDefinition;
 import org.fabric3.api.host.Fabric3Exception;
 import org.fabric3.api.model.type.contract.DataType;
+import org.fabric3.binding.jms.runtime.pool.JmsResourcePool;
+import org.fabric3.binding.jms.runtime.pool.JmsResourcePoolManager;
 import org.fabric3.binding.jms.runtime.resolver.AdministeredObjectResolver;
 import org.fabric3.binding.jms.runtime.wire.InterceptorConfiguration;
 import org.fabric3.binding.jms.runtime.wire.JmsInterceptor;
@@ -56,6 +59,7 @@ import org.fabric3.spi.container.wire.TransformerInterceptorFactory;
 import org.fabric3.spi.container.wire.Wire;
 import org.fabric3.spi.model.physical.PhysicalBindingHandler;
 import org.fabric3.spi.model.physical.PhysicalDataTypes;
+import org.fabric3.spi.model.physical.PhysicalAttachPoint;
 import org.fabric3.spi.model.physical.PhysicalOperation;
 import org.fabric3.spi.model.physical.PhysicalWireSource;
 import org.oasisopen.sca.annotation.Reference;
@@ -69,15 +73,21 @@ public class JmsTargetWireAttacher implements TargetWireAttacher<JmsWireTarget>
     private TransactionManager tm;
     private BindingHandlerRegistry handlerRegistry;
     private TransformerInterceptorFactory interceptorFactory;
+    private JmsResourcePoolManager poolManager;
+
+    // connection factories with pools held by an attached wire, keyed by the wire source and target
+    private Map<String, List<ConnectionFactory>> pooledFactories = new ConcurrentHashMap<>();
 
     public JmsTargetWireAttacher(@Reference AdministeredObjectResolver resolver,
                                  @Reference TransactionManager tm,
                                  @Reference BindingHandlerRegistry handlerRegistry,
-                                 @Reference TransformerInterceptorFactory interceptorFactory) {
+                                 @Reference TransformerInterceptorFactory interceptorFactory,
+                                 @Reference JmsResourcePoolManager poolManager) {
         this.resolver = resolver;
         this.tm = tm;
         this.handlerRegistry = handlerRegistry;
         this.interceptorFactory = interceptorFactory;
+        this.poolManager = poolManager;
     }
 
     public void attach(PhysicalWireSource source, JmsWireTarget target, Wire wire) {
@@ -96,7 +106,9 @@ public class JmsTargetWireAttacher implements TargetWireAttacher<JmsWireTarget>
         wireConfiguration.setPersistent(persistent);
 
         // resolve the connection factories and destinations for the wire
-        resolveAdministeredObjects(target, wireConfiguration);
+        List<ConnectionFactory> pooled = new ArrayList<>();
+        pooledFactories.put(getKey(source, target), pooled);
+        resolveAdministeredObjects(target, wireConfiguration, pooled);
 
         List<BindingHandler<Message>> handlers = createHandlers(target);
 
@@ -121,7 +133,12 @@ public class JmsTargetWireAttacher implements TargetWireAttacher<JmsWireTarget>
     }
 
     public void detach(PhysicalWireSource source, JmsWireTarget target) {
-        resolver.release(target.getMetadata().getConnectionFactory());
+        ConnectionFactoryDefinition definition = target.getMetadata().getConnectionFactory();
+        List<ConnectionFactory> pooled = pooledFactories.remove(getKey(source, target));
+        if (pooled != null) {
+            pooled.forEach(poolManager::release);
+        }
+        resolver.release(definition);
     }
 
     /**
@@ -217,6 +234,11 @@ public class JmsTargetWireAttacher implements TargetWireAttacher<JmsWireTarget>
         }
     }
 
+    private boolean isSharedResponse(JmsBindingMetadata metadata) {
+        // responses can only be dispatched from a shared consumer if they are correlated
+        return poolManager.isResponseConsumerShared() && CorrelationScheme.NONE != metadata.getCorrelationScheme();
+    }
+
     private void addJAXBInterceptor(PhysicalWireSource source, PhysicalOperation op, InvocationChain chain, ClassLoader targetClassLoader) {
         ClassLoader sourceClassLoader = source.getClassLoader();
         List<DataType> jaxTypes = DataTypeHelper.createTypes(op);
@@ -224,7 +246,11 @@ public class JmsTargetWireAttacher implements TargetWireAttacher<JmsWireTarget>
         chain.addInterceptor(jaxbInterceptor);
     }
 
-    private void resolveAdministeredObjects(JmsWireTarget target, WireConfiguration wireConfiguration) {
+    private String getKey(PhysicalAttachPoint source, PhysicalAttachPoint target) {
+        return source.getUri() + "->" + target.getUri();
+    }
+
+    private void resolveAdministeredObjects(JmsWireTarget target, WireConfiguration wireConfiguration, List<ConnectionFactory> pooled) {
         JmsBindingMetadata metadata = target.getMetadata();
 
         ConnectionFactoryDefinition connectionFactoryDefinition = metadata.getConnectionFactory();
@@ -234,6 +260,8 @@ public class JmsTargetWireAttacher implements TargetWireAttacher<JmsWireTarget>
             Destination destination = metadata.getDestination();
             javax.jms.Destination requestDestination = resolver.resolve(destination, requestConnectionFactory);
             wireConfiguration.setRequestConnectionFactory(requestConnectionFactory);
+            wireConfiguration.setRequestPool(poolManager.getPool(connectionFactoryDefinition.getName(), requestConnectionFactory));
+            pooled.add(requestConnectionFactory);
             wireConfiguration.setRequestDestination(requestDestination);
             validateDestination(requestDestination, destination);
             if (metadata.isResponse()) {
@@ -243,7 +271,14 @@ public class JmsTargetWireAttacher implements TargetWireAttacher<JmsWireTarget>
                 destination = metadata.getResponseDestination();
                 javax.jms.Destination responseDestination = resolver.resolve(destination, responseConnectionFactory);
                 CorrelationScheme scheme = metadata.getCorrelationScheme();
-                ResponseListener listener = new ResponseListener(responseDestination, scheme);
+                ResponseListener listener;
+                if (isSharedResponse(metadata)) {
+                    JmsResourcePool responsePool = poolManager.getPool(connectionFactoryDefinition.getName(), responseConnectionFactory);
+                    pooled.add(responseConnectionFactory);
+                    listener = responsePool.getResponseListener(responseDestination, scheme);
+                } else {
+                    listener = new ResponseListener(responseDestination, scheme);
+                }
                 wireConfiguration.setResponseListener(listener);
                 validateDestination(responseDestination, destination);
             }
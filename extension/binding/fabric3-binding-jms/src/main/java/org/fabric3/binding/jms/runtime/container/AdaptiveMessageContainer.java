@@ -26,12 +26,14 @@ import javax.jms.MessageListener;
 import javax.jms.Session;
 import javax.jms.Topic;
 import java.net.URI;
-import java.util.HashSet;
-import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.fabric3.api.annotation.management.Management;
 import org.fabric3.api.annotation.management.ManagementOperation;
@@ -48,11 +50,29 @@ import static org.fabric3.binding.jms.runtime.common.JmsRuntimeConstants.CACHE_N
  * A container for a JMS MessageListener that is capable of adapting to varying workloads by dispatching messages from a destination to the listener on
  * different managed threads. Workload management is performed by sizing up or down the number of managed threads reserved for message processing.  Note this
  * implementation supports dispatching transactional and non-transactional messages.
+ *
+ * For transacted and client-acknowledged sessions, messages may be received in batches: up to the batch size messages received within the batch timeout are
+ * dispatched in a single unit of work, which is committed or acknowledged once. If dispatching a message fails, the unit of work is rolled back and all messages
+ * in the batch are redelivered, including those already dispatched successfully. Redelivered messages are dispatched in single-message units of work so that a
+ * message that repeatedly fails does not cause the other messages of its batch to exceed the provider redelivery limit.
+ *
+ * Receivers are scaled based on load. A receiver is added when a message is received without waiting, indicating a backlog, no other receiver is idle, and the
+ * number of receivers is not more than one greater than the average number of units of work processed concurrently, calculated from the time receivers spend
+ * in units of work. The latter condition prevents adding receivers when throughput does not increase with additional receivers. Until an estimate is
+ * available, receivers are added on backlog alone up to the maximum. A receiver is removed when it
+ * has been idle for the idle limit or the number of receivers exceeds the required concurrency, provided another receiver is idle and the minimum number of
+ * receivers is maintained.
+ *
+ * Container state and statistics are read without locking on the receive path. The container lock is only taken when receivers are added or removed and
+ * when the container is started, stopped or shut down.
  */
 @Management
 public class AdaptiveMessageContainer {
     private static final int BACKOFF_RETRIES = 5;
 
+    // messages received in less than this time are assumed to have been waiting at the destination
+    private static final long BACKLOG_THRESHOLD = TimeUnit.MILLISECONDS.toNanos(1);
+
     private final ConnectionManager connectionManager;
     private UnitOfWork work;
     private ContainerStatistics statistics;
@@ -67,32 +87,34 @@ public class AdaptiveMessageContainer {
     private Destination destination;
     private int cacheLevel;
     private SessionType sessionType;
-    private int minReceivers;
-    private int maxReceivers;
-    private int idleLimit;
-    private int maxMessagesToProcess;
+    private volatile int minReceivers;
+    private volatile int maxReceivers;
+    private volatile int idleLimit;
+    private volatile int maxMessagesToProcess;
     private String subscriptionId;
     private boolean localDelivery;
     private String messageSelector;
     private long recoveryInterval;
     private long backoffPeriod;
+    private volatile int batchSize;
+    private volatile long batchTimeout;
 
     // listeners to receive incoming messages or errors
     private MessageListener messageListener;
     private ExceptionListener exceptionListener;
 
     // state information
-    private boolean initialized;
-    private boolean running;
-    private int activeReceiverCount;
+    private volatile boolean initialized;
+    private volatile boolean running;
+    private AtomicInteger activeReceiverCount = new AtomicInteger();
 
     // sync objects
     private final Object syncMonitor = new Object();
     private final Object recoverySyncMonitor = new Object();
     private Object recoveryMarker = new Object();
 
-    private Set<MessageReceiver> receivers = new HashSet<>();
-    private List<Runnable> pausedWork = new LinkedList<>();
+    private Set<MessageReceiver> receivers = ConcurrentHashMap.newKeySet();
+    private Queue<Runnable> pausedWork = new ConcurrentLinkedQueue<>();
     private boolean javaEEXAEnabled;
 
     /**
@@ -131,6 +153,8 @@ public class AdaptiveMessageContainer {
         setMinReceivers(configuration.getMinReceivers());
         setRecoveryInterval(configuration.getRecoveryInterval());
         setIdleLimit(configuration.getIdleLimit());
+        setBatchSize(configuration.getBatchSize());
+        setBatchTimeout(configuration.getBatchTimeout());
 
         setRecoveryInterval(configuration.getRecoveryInterval());
 
@@ -216,9 +240,7 @@ public class AdaptiveMessageContainer {
      */
     @ManagementOperation(description = "The minimum number of receivers to create for a destination")
     public int getMinReceivers() {
-        synchronized (syncMonitor) {
-            return minReceivers;
-        }
+        return minReceivers;
     }
 
     /**
@@ -241,9 +263,7 @@ public class AdaptiveMessageContainer {
      */
     @ManagementOperation(description = "The maximum number of receivers to create for a destination")
     public int getMaxReceivers() {
-        synchronized (syncMonitor) {
-            return maxReceivers;
-        }
+        return maxReceivers;
     }
 
     /**
@@ -253,9 +273,7 @@ public class AdaptiveMessageContainer {
      */
     @ManagementOperation(description = "The number of scheduled receivers")
     public int getReceiverCount() {
-        synchronized (syncMonitor) {
-            return receivers.size();
-        }
+        return statistics.getReceivers();
     }
 
     /**
@@ -265,9 +283,7 @@ public class AdaptiveMessageContainer {
      */
     @ManagementOperation(description = "The number of receivers actively processing messages")
     public int getActiveReceiverCount() {
-        synchronized (syncMonitor) {
-            return activeReceiverCount;
-        }
+        return activeReceiverCount.get();
     }
 
     /**
@@ -277,9 +293,7 @@ public class AdaptiveMessageContainer {
      */
     @ManagementOperation(description = "The number of paused receivers")
     public int getPausedReceiversCount() {
-        synchronized (syncMonitor) {
-            return pausedWork.size();
-        }
+        return pausedWork.size();
     }
 
     /**
@@ -291,9 +305,7 @@ public class AdaptiveMessageContainer {
      */
     @ManagementOperation(description = "The times a receiver can be marked idle during execution before it is removed from the work scheduler")
     public void setIdleLimit(int limit) {
-        synchronized (syncMonitor) {
-            idleLimit = limit;
-        }
+        idleLimit = limit;
     }
 
     /**
@@ -303,9 +315,7 @@ public class AdaptiveMessageContainer {
      */
     @ManagementOperation(description = "The times a receiver can be marked idle during execution before it is removed from the work scheduler")
     public int getIdleLimit() {
-        synchronized (syncMonitor) {
-            return idleLimit;
-        }
+        return idleLimit;
     }
 
     /**
@@ -317,9 +327,7 @@ public class AdaptiveMessageContainer {
      */
     @ManagementOperation(description = "The maximum number of messages to process by a receivers")
     public void setMaxMessagesToProcess(int max) {
-        synchronized (syncMonitor) {
-            maxMessagesToProcess = max;
-        }
+        maxMessagesToProcess = max;
     }
 
     /**
@@ -329,9 +337,50 @@ public class AdaptiveMessageContainer {
      */
     @ManagementOperation(description = "The maximum number of messages to process by a receivers")
     public int getMaxMessagesToProcess() {
-        synchronized (syncMonitor) {
-            return maxMessagesToProcess;
+        return maxMessagesToProcess;
+    }
+
+    /**
+     * Sets the maximum number of messages dispatched in a single unit of work. Batching is not performed for auto-acknowledge sessions.
+     *
+     * @param size the maximum number of messages in a batch
+     */
+    @ManagementOperation(description = "The maximum number of messages dispatched in a single unit of work")
+    public void setBatchSize(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Batch size must be greater than 0");
         }
+        batchSize = size;
+    }
+
+    /**
+     * Returns the maximum number of messages dispatched in a single unit of work.
+     *
+     * @return the maximum number of messages in a batch
+     */
+    @ManagementOperation(description = "The maximum number of messages dispatched in a single unit of work")
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Sets the maximum time in milliseconds to wait for additional messages once a batch has been started.
+     *
+     * @param timeout the time in milliseconds
+     */
+    @ManagementOperation(description = "The maximum time to wait for additional messages once a batch has been started")
+    public void setBatchTimeout(long timeout) {
+        batchTimeout = timeout;
+    }
+
+    /**
+     * Returns the maximum time in milliseconds to wait for additional messages once a batch has been started.
+     *
+     * @return the time in milliseconds
+     */
+    @ManagementOperation(description = "The maximum time to wait for additional messages once a batch has been started")
+    public long getBatchTimeout() {
+        return batchTimeout;
     }
 
     /**
@@ -366,9 +415,7 @@ public class AdaptiveMessageContainer {
      */
     @ManagementOperation(description = "True if the container is initialized")
     public boolean isInitialized() {
-        synchronized (syncMonitor) {
-            return initialized;
-        }
+        return initialized;
     }
 
     /**
@@ -378,9 +425,7 @@ public class AdaptiveMessageContainer {
      */
     @ManagementOperation(description = "True if the container is running")
     public boolean isRunning() {
-        synchronized (syncMonitor) {
-            return running;
-        }
+        return running;
     }
 
     /**
@@ -390,13 +435,7 @@ public class AdaptiveMessageContainer {
      */
     @ManagementOperation(description = "The current number of idle receivers")
     public int getIdleCount() {
-        int count = 0;
-        for (MessageReceiver receiver : receivers) {
-            if (receiver.isIdle()) {
-                count++;
-            }
-        }
-        return count;
+        return statistics.getIdleReceivers();
     }
 
     @ManagementOperation(description = "The time this container has been running")
@@ -414,6 +453,21 @@ public class AdaptiveMessageContainer {
         return statistics.getMaxReceivers();
     }
 
+    @ManagementOperation(description = "The number of messages dispatched per second")
+    public double getMessageRate() {
+        return statistics.getMessageRate();
+    }
+
+    @ManagementOperation(description = "The mean time to dispatch a message in microseconds")
+    public long getMeanDispatchLatency() {
+        return TimeUnit.NANOSECONDS.toMicros(statistics.getMeanLatency());
+    }
+
+    @ManagementOperation(description = "Approximate dispatch latency percentiles in microseconds")
+    public Map<String, Long> getDispatchLatencyPercentiles() {
+        return statistics.getLatencyPercentiles();
+    }
+
     @ManagementOperation(description = "The total number of committed transactions")
     public int getTransactions() {
         return statistics.getTransactions();
@@ -495,7 +549,7 @@ public class AdaptiveMessageContainer {
             }
             try {
                 // wait for active receivers to finish processing
-                while (activeReceiverCount > 0) {
+                while (activeReceiverCount.get() > 0) {
                     syncMonitor.wait();
                 }
             } catch (InterruptedException ex) {
@@ -509,19 +563,51 @@ public class AdaptiveMessageContainer {
     }
 
     /**
-     * Re-sizes the receivers pool. If there are no idle receivers and the maximum number of receivers has not been reached, a new receiver will be scheduled.
+     * Re-sizes the receivers pool after a message is received. A new receiver will be scheduled if there is a backlog of messages, there are no idle
+     * receivers, and neither the maximum number of receivers nor the number required for the current load has been reached.
+     *
+     * @param backlog true if the message was received without waiting
      */
-    private void resizePool() {
-        if (isRunning()) {
+    private void resizePool(boolean backlog) {
+        if (!running) {
+            return;
+        }
+        if (!pausedWork.isEmpty()) {
             resumePausedWork();
-            synchronized (syncMonitor) {
-                if (receivers.size() < maxReceivers && getIdleCount() == 0) {
-                    addReceiver();
-                }
+        }
+        if (!backlog || statistics.getIdleReceivers() > 0 || !belowTarget()) {
+            return;
+        }
+        synchronized (syncMonitor) {
+            if (statistics.getIdleReceivers() == 0 && belowTarget()) {
+                addReceiver();
             }
         }
     }
 
+    /**
+     * Returns true if the number of receivers is less than the maximum and does not exceed the number of units of work processed concurrently by more than
+     * one. If there is no concurrency estimate, for example during the first window, the backlog alone permits adding receivers up to the maximum.
+     *
+     * @return true if a receiver may be added
+     */
+    private boolean belowTarget() {
+        int count = statistics.getReceivers();
+        if (count >= maxReceivers) {
+            return false;
+        }
+        return statistics.getConcurrency() == 0 || count <= getRequiredReceivers();
+    }
+
+    /**
+     * Returns the number of receivers required for the current load, calculated as the average number of units of work processed concurrently.
+     *
+     * @return the required number of receivers
+     */
+    private int getRequiredReceivers() {
+        return Math.max(minReceivers, (int) Math.ceil(statistics.getConcurrency()));
+    }
+
     /**
      * Instantiates and schedules a new receiver.
      */
@@ -529,10 +615,20 @@ public class AdaptiveMessageContainer {
         MessageReceiver receiver = new MessageReceiver();
         if (rescheduleWork(receiver)) {
             receivers.add(receiver);
-            if (statistics.getMaxReceivers() < receivers.size()) {
-                statistics.incrementMaxReceivers();
-            }
-            monitor.increaseReceivers(receivers.size());
+            statistics.receiverAdded();
+            monitor.increaseReceivers(statistics.getReceivers());
+        }
+    }
+
+    /**
+     * Removes a receiver.
+     *
+     * @param receiver the receiver
+     */
+    private void removeReceiver(MessageReceiver receiver) {
+        if (receivers.remove(receiver)) {
+            statistics.receiverRemoved(receiver.isIdle());
+            monitor.decreaseReceivers(statistics.getReceivers());
         }
     }
 
@@ -544,7 +640,23 @@ public class AdaptiveMessageContainer {
      */
     private boolean shouldRescheduleReceiver(int count) {
         boolean extra = (count >= idleLimit && getIdleCount() > 1);
-        return (receivers.size() <= (extra ? minReceivers : maxReceivers));
+        return (statistics.getReceivers() <= (extra ? minReceivers : maxReceivers));
+    }
+
+    /**
+     * Determines if an idle receiver should be removed because it has been idle for the idle limit or there are more receivers than required for the current
+     * load. Receivers are only removed if another receiver is idle and the minimum number of receivers is maintained. Must be called while holding the
+     * container lock.
+     *
+     * @param count the number of consecutive idle receives the receiver has accumulated
+     * @return true if the receiver should be removed
+     */
+    private boolean shouldRetireReceiver(int count) {
+        int size = statistics.getReceivers();
+        if (size <= minReceivers || statistics.getIdleReceivers() < 2) {
+            return false;
+        }
+        return count >= idleLimit || size > getRequiredReceivers() + 1;
     }
 
     /**
@@ -589,18 +701,15 @@ public class AdaptiveMessageContainer {
      * Attempts to reschedule paused work.
      */
     private void resumePausedWork() {
-        synchronized (syncMonitor) {
-            if (!pausedWork.isEmpty()) {
-                for (Iterator<Runnable> it = pausedWork.iterator(); it.hasNext(); ) {
-                    Runnable runnable = it.next();
-                    try {
-                        executorService.execute(runnable);
-                        it.remove();
-                    } catch (RuntimeException e) {
-                        // keep the work paused paused and log the event
-                        monitor.reject(e);
-                    }
-                }
+        Runnable runnable;
+        while ((runnable = pausedWork.poll()) != null) {
+            try {
+                executorService.execute(runnable);
+            } catch (RuntimeException e) {
+                // keep the work paused and log the event
+                monitor.reject(e);
+                pausedWork.add(runnable);
+                return;
             }
         }
     }
@@ -661,16 +770,14 @@ public class AdaptiveMessageContainer {
         private int recoveryAttempt = 0;
         private int idleWorkCount = 0;
         private volatile boolean idle = true;
+        private boolean retired;
 
         public boolean isIdle() {
             return idle;
         }
 
         public void run() {
-            synchronized (syncMonitor) {
-                activeReceiverCount++;
-                syncMonitor.notifyAll();
-            }
+            activeReceiverCount.incrementAndGet();
             boolean messageReceived = false;
             try {
                 if (maxMessagesToProcess < 0) {
@@ -678,7 +785,7 @@ public class AdaptiveMessageContainer {
                     messageReceived = receiveLoop();
                 } else {
                     int messageCount = 0;
-                    while (isRunning() && messageCount < maxMessagesToProcess) {
+                    while (running && messageCount < maxMessagesToProcess) {
                         messageReceived = (receive() || messageReceived);
                         messageCount++;
                     }
@@ -698,9 +805,12 @@ public class AdaptiveMessageContainer {
                     }
                 }
             }
-            synchronized (syncMonitor) {
-                activeReceiverCount--;
-                syncMonitor.notifyAll();
+            activeReceiverCount.decrementAndGet();
+            if (retired) {
+                synchronized (syncMonitor) {
+                    syncMonitor.notifyAll();
+                }
+                return;
             }
             if (!messageReceived) {
                 idleWorkCount++;
@@ -708,14 +818,13 @@ public class AdaptiveMessageContainer {
                 idleWorkCount = 0;
             }
             synchronized (syncMonitor) {
+                syncMonitor.notifyAll();
                 // attempt to reschedule this receiver
                 if (!shouldRescheduleReceiver(idleWorkCount) || !rescheduleWork(this)) {
                     // shutdown this receiver as it should not be rescheduled or the reschedule failed
-                    receivers.remove(this);
-                    monitor.decreaseReceivers(receivers.size());
-                    syncMonitor.notifyAll();
+                    removeReceiver(this);
                     closeSession();
-                } else if (isRunning()) {
+                } else if (running) {
                     int nonPausedReceivers = getReceiverCount() - getPausedReceiversCount();
                     if (nonPausedReceivers < 1) {
                         monitor.pauseError(containerUri.toString());
@@ -727,7 +836,8 @@ public class AdaptiveMessageContainer {
         }
 
         /**
-         * Loops while the container is running, receiving and dispatching messages.
+         * Loops while the container is running, receiving and dispatching messages. The loop exits if the container is paused, in which case the receiver
+         * is rescheduled when the container is restarted, or if the receiver is no longer required.
          *
          * @return true if a message was received on executing the loop
          * @throws JMSException     if an error occurs processing a message
@@ -735,42 +845,50 @@ public class AdaptiveMessageContainer {
          */
         private boolean receiveLoop() throws JMSException, Fabric3Exception {
             boolean received = false;
-            boolean active = true;
-            while (active) {
-
-                synchronized (syncMonitor) {
-                    boolean interrupted = false;
-                    boolean waiting = false;
-                    while ((active = isInitialized()) && !isRunning()) {
-                        if (interrupted) {
-                            throw new IllegalStateException("Interrupted while waiting for restart for " + containerUri);
-                        }
-                        if (!isRunning()) {
-                            return false;
-                        }
-                        if (!waiting && isRunning()) {
-                            activeReceiverCount--;
-                        }
-                        waiting = true;
-                        try {
-                            syncMonitor.wait();
-                        } catch (InterruptedException ex) {
-                            Thread.currentThread().interrupt();
-                            interrupted = true;
-                        }
-                    }
-                    if (waiting) {
-                        activeReceiverCount++;
-                    }
+            int idleCount = 0;
+            while (initialized) {
+                if (!running) {
+                    return false;
                 }
-                if (active) {
-                    received = (receive() || received);
+                if (receive()) {
+                    received = true;
+                    idleCount = 0;
+                } else if (idle && retire(++idleCount)) {
+                    break;
                 }
             }
             closeResources(true);
             return received;
         }
 
+        /**
+         * Removes this receiver if it is no longer required.
+         *
+         * @param idleCount the number of consecutive idle receives
+         * @return true if the receiver was removed
+         */
+        private boolean retire(int idleCount) {
+            if (statistics.getReceivers() <= minReceivers || statistics.getIdleReceivers() < 2) {
+                // avoid taking the lock when the receiver cannot be removed
+                return false;
+            }
+            synchronized (syncMonitor) {
+                if (!shouldRetireReceiver(idleCount)) {
+                    return false;
+                }
+                removeReceiver(this);
+                retired = true;
+                return true;
+            }
+        }
+
+        private void setIdle(boolean value) {
+            if (idle != value) {
+                idle = value;
+                statistics.receiverIdle(value);
+            }
+        }
+
         /**
          * Waits to receive a single message. If a message is received in the configured timeframe, it is dispatched to the listener.
          *
@@ -800,13 +918,12 @@ public class AdaptiveMessageContainer {
          * @throws Fabric3Exception if a transaction exception occurred during thr receive
          */
         private boolean doReceive() throws JMSException, Fabric3Exception {
-            synchronized (syncMonitor) {
-                if (!isRunning()) {
-                    return false;
-                }
-                work.begin();
-                connection = connectionManager.getConnection();
+            if (!running) {
+                return false;
             }
+            long workBegin = System.nanoTime();
+            work.begin();
+            connection = connectionManager.getConnection();
             if (session == null) {
                 session = createSession(connection);
             }
@@ -814,47 +931,106 @@ public class AdaptiveMessageContainer {
                 consumer = createConsumer(session);
             }
             // wait for a message, blocking for the timeout period, which, if 0, will be indefinitely
-            Message message = null;
+            long begin = System.nanoTime();
+            Message message = receiveMessage(receiveTimeout);
+            if (message == null) {
+                setIdle(true);
+                work.end(session, null);
+                return false;
+            }
+
+            setIdle(false);
+            long received = System.nanoTime();
+            resizePool(received - begin < BACKLOG_THRESHOLD);
             try {
-                message = consumer.receive(receiveTimeout);
-            } catch (JMSException e) {
-                if (e.getCause() instanceof InterruptedException) {
-                    // some providers may throw an InterruptedException if the receiver is blocking when the runtime is signalled to shutdown
-                    // ignore the exception
-                } else {
-                    throw e;
-                }
+                return dispatchBatch(message);
+            } finally {
+                // the receiver is busy from the start of the unit of work until it completes, excluding the time it was idle waiting for the first message
+                statistics.recordUnitOfWork(System.nanoTime() - workBegin - (received - begin));
             }
-            if (message != null) {
-                if (!isRunning()) {
+        }
+
+        /**
+         * Dispatches a received message and any messages received within the batch timeout, up to the batch size, and completes the unit of work.
+         *
+         * @param message the first message of the unit of work
+         * @return true if the unit of work completed
+         * @throws JMSException     if a JMS-related exception occurred
+         * @throws Fabric3Exception if a transaction exception occurred
+         */
+        private boolean dispatchBatch(Message message) throws JMSException, Fabric3Exception {
+
+            // messages are batched in a single unit of work unless each message is acknowledged by the session as it is received. Redelivered messages
+            // are dispatched in their own unit of work after a batch fails so that only the message that caused the failure is dead-lettered
+            int maxBatch = SessionType.AUTO_ACKNOWLEDGE == sessionType || message.getJMSRedelivered() ? 1 : batchSize;
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(batchTimeout);
+            Message last = null;
+            int count = 0;
+            while (message != null) {
+                if (!running) {
                     // container is shutting down.
                     work.rollback(session);
-                    idle = true;
+                    setIdle(true);
                     return false;
                 }
-
-                idle = false;
-                resizePool();
-                try {
-                    messageListener.onMessage(message);
-                    statistics.incrementMessagesReceived();
-                    work.end(session, message);
-                    return true;
-                } catch (InvocationRuntimeException e) {
-                    // report original exception
-                    monitor.receiveError(containerUri, e.getCause());
-                    work.rollback(session);
-                } catch (RuntimeException | Error e) {
-                    monitor.receiveError(containerUri, e);
+                if (!dispatch(message)) {
+                    // roll back the entire batch so that all of its messages are redelivered
                     work.rollback(session);
+                    return false;
                 }
-                return false;
-            } else {
-                idle = true;
-                work.end(session, message);
-                return false;
+                last = message;
+                if (++count >= maxBatch) {
+                    break;
+                }
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    break;
+                }
+                message = receiveMessage(remaining);
             }
+            work.end(session, last);
+            return true;
+        }
 
+        /**
+         * Receives a message, blocking for the timeout period.
+         *
+         * @param timeout the timeout in milliseconds
+         * @return the message or null if no message was received
+         * @throws JMSException if there was an error receiving the message
+         */
+        private Message receiveMessage(long timeout) throws JMSException {
+            try {
+                return consumer.receive(timeout);
+            } catch (JMSException e) {
+                if (e.getCause() instanceof InterruptedException) {
+                    // some providers may throw an InterruptedException if the receiver is blocking when the runtime is signalled to shutdown
+                    // ignore the exception
+                    return null;
+                }
+                throw e;
+            }
+        }
+
+        /**
+         * Dispatches a message to the listener.
+         *
+         * @param message the message
+         * @return true if the message was processed successfully
+         */
+        private boolean dispatch(Message message) {
+            try {
+                long start = System.nanoTime();
+                messageListener.onMessage(message);
+                statistics.recordDispatch(System.nanoTime() - start);
+                return true;
+            } catch (InvocationRuntimeException e) {
+                // report original exception
+                monitor.receiveError(containerUri, e.getCause());
+            } catch (RuntimeException | Error e) {
+                monitor.receiveError(containerUri, e);
+            }
+            return false;
         }
 
         private void closeSession() {
@@ -53,6 +53,8 @@ public class ContainerConfiguration {
     private DestinationType destinationType;
     private String subscriptionId;
     private long backoffPeriod = -1;
+    private int batchSize = 1;
+    private long batchTimeout = 100;
 
     public URI getUri() {
         return uri;
@@ -223,4 +225,20 @@ public class ContainerConfiguration {
     public void setBackoffPeriod(long backoffPeriod) {
         this.backoffPeriod = backoffPeriod;
     }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public long getBatchTimeout() {
+        return batchTimeout;
+    }
+
+    public void setBatchTimeout(long batchTimeout) {
+        this.batchTimeout = batchTimeout;
+    }
 }
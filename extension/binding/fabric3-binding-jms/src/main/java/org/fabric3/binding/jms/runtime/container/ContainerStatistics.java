@@ -16,18 +16,41 @@
  */
 package org.fabric3.binding.jms.runtime.container;
 
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.fabric3.spi.util.LatencyHistogram;
 
 /**
- * Tracks statistics for an {@link AdaptiveMessageContainer}.
+ * Tracks statistics for an {@link AdaptiveMessageContainer} and the destination it receives from.
+ *
+ * Statistics are recorded without locking. The message rate, mean dispatch latency and concurrency are calculated over one second windows, which are rolled
+ * by the receiver that records the first dispatch or unit of work after a window has elapsed or when the values are read. Dispatch latencies are also
+ * recorded in a {@link LatencyHistogram}.
  */
 public class ContainerStatistics {
+    private static final long WINDOW = TimeUnit.SECONDS.toNanos(1);
+
     private long start;
-    private AtomicLong messagesReceived = new AtomicLong();
+    private LongAdder messagesReceived = new LongAdder();
     private AtomicInteger maxReceivers = new AtomicInteger();
-    private AtomicInteger transactions = new AtomicInteger();
-    private AtomicInteger transactionsRolledBack = new AtomicInteger();
+    private LongAdder transactions = new LongAdder();
+    private LongAdder transactionsRolledBack = new LongAdder();
+
+    private AtomicInteger receivers = new AtomicInteger();
+    private AtomicInteger idleReceivers = new AtomicInteger();
+
+    private AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private LongAdder windowMessages = new LongAdder();
+    private LongAdder windowLatency = new LongAdder();
+    private LongAdder windowWork = new LongAdder();
+    private volatile double messageRate;
+    private volatile long meanLatency;
+    private volatile double concurrency;
+    private LatencyHistogram latencies = new LatencyHistogram();
 
     public ContainerStatistics() {
         start = System.currentTimeMillis();
@@ -38,34 +61,158 @@ public class ContainerStatistics {
     }
 
     public long getMessagesReceived() {
-        return messagesReceived.get();
+        return messagesReceived.sum();
+    }
+
+    /**
+     * Records a message dispatched to a listener.
+     *
+     * @param latency the time taken to dispatch the message in nanoseconds
+     */
+    public void recordDispatch(long latency) {
+        messagesReceived.increment();
+        windowMessages.increment();
+        windowLatency.add(latency);
+        latencies.record(TimeUnit.NANOSECONDS.toMicros(latency));
+        roll(System.nanoTime());
+    }
+
+    /**
+     * Records a completed or rolled back unit of work.
+     *
+     * @param time the time the receiver spent processing the unit of work in nanoseconds, including beginning and completing it and receiving and
+     *             dispatching its messages
+     */
+    public void recordUnitOfWork(long time) {
+        windowWork.add(time);
+        roll(System.nanoTime());
+    }
+
+    /**
+     * Returns the number of messages dispatched per second during the last window.
+     *
+     * @return the message rate
+     */
+    public double getMessageRate() {
+        roll(System.nanoTime());
+        return messageRate;
+    }
+
+    /**
+     * Returns the mean dispatch latency in nanoseconds during the last window in which messages were dispatched.
+     *
+     * @return the mean latency
+     */
+    public long getMeanLatency() {
+        roll(System.nanoTime());
+        return meanLatency;
+    }
+
+    /**
+     * Returns the average number of units of work processed concurrently during the last window, calculated as the time receivers spent processing units of
+     * work divided by the window length. Returns 0 if no unit of work completed in the last window or the first window has not elapsed.
+     *
+     * @return the average number of concurrently processed units of work
+     */
+    public double getConcurrency() {
+        roll(System.nanoTime());
+        return concurrency;
     }
 
-    public void incrementMessagesReceived() {
-        messagesReceived.incrementAndGet();
+    /**
+     * Returns the approximate 50th, 90th, 99th and 99.9th percentile dispatch latencies in microseconds. The reported value is the upper bound of the bucket
+     * containing the percentile.
+     *
+     * @return the percentiles
+     */
+    public Map<String, Long> getLatencyPercentiles() {
+        return latencies.getPercentiles();
     }
 
     public int getMaxReceivers() {
         return maxReceivers.get();
     }
 
-    public void incrementMaxReceivers() {
-        maxReceivers.incrementAndGet();
+    public int getReceivers() {
+        return receivers.get();
+    }
+
+    public int getIdleReceivers() {
+        return idleReceivers.get();
+    }
+
+    /**
+     * Returns the number of receivers dispatching messages.
+     *
+     * @return the number of active receivers
+     */
+    public int getActiveReceivers() {
+        return Math.max(0, receivers.get() - idleReceivers.get());
+    }
+
+    /**
+     * Records a receiver that was added. Receivers are idle until they receive a message.
+     */
+    public void receiverAdded() {
+        idleReceivers.incrementAndGet();
+        int count = receivers.incrementAndGet();
+        maxReceivers.accumulateAndGet(count, Math::max);
+    }
+
+    /**
+     * Records a receiver that was removed.
+     *
+     * @param idle true if the receiver was idle
+     */
+    public void receiverRemoved(boolean idle) {
+        if (idle) {
+            idleReceivers.decrementAndGet();
+        }
+        receivers.decrementAndGet();
+    }
+
+    /**
+     * Records a receiver becoming idle or active.
+     *
+     * @param idle true if the receiver became idle
+     */
+    public void receiverIdle(boolean idle) {
+        if (idle) {
+            idleReceivers.incrementAndGet();
+        } else {
+            idleReceivers.decrementAndGet();
+        }
     }
 
     public int getTransactions() {
-        return transactions.get();
+        return transactions.intValue();
     }
 
     public void incrementTransactions() {
-        transactions.incrementAndGet();
+        transactions.increment();
     }
 
     public int getTransactionsRolledBack() {
-        return transactionsRolledBack.get();
+        return transactionsRolledBack.intValue();
     }
 
     public void incrementTransactionsRolledBack() {
-        transactionsRolledBack.incrementAndGet();
+        transactionsRolledBack.increment();
     }
-}
\ No newline at end of file
+
+    private void roll(long now) {
+        long current = windowStart.get();
+        long elapsed = now - current;
+        if (elapsed < WINDOW || !windowStart.compareAndSet(current, now)) {
+            return;
+        }
+        long messages = windowMessages.sumThenReset();
+        long latency = windowLatency.sumThenReset();
+        messageRate = (double) messages * WINDOW / elapsed;
+        concurrency = (double) windowWork.sumThenReset() / elapsed;
+        if (messages > 0) {
+            meanLatency = latency / messages;
+        }
+    }
+
+}
@@ -25,6 +25,7 @@ import org.fabric3.api.annotation.Source;
 import org.fabric3.api.annotation.monitor.Monitor;
 import org.fabric3.api.host.runtime.HostInfo;
 import org.fabric3.binding.jms.spi.provision.SessionType;
+import org.fabric3.spi.threadpool.ExecutorRegistry;
 import org.oasisopen.sca.annotation.Property;
 import org.oasisopen.sca.annotation.Reference;
 import static org.fabric3.binding.jms.runtime.common.JmsRuntimeConstants.CACHE_CONNECTION;
@@ -35,7 +36,7 @@ import static org.fabric3.binding.jms.runtime.common.JmsRuntimeConstants.CACHE_C
 public class MessageContainerFactoryImpl implements MessageContainerFactory {
     private static final int DEFAULT_TRX_TIMEOUT = 30;
 
-    private ExecutorService executorService;
+    private ExecutorRegistry executorRegistry;
     private TransactionManager tm;
     private MessageContainerMonitor containerMonitor;
     private HostInfo hostInfo;
@@ -51,11 +52,11 @@ public class MessageContainerFactoryImpl implements MessageContainerFactory {
         this.transactionTimeout = timeout;
     }
 
-    public MessageContainerFactoryImpl(@Reference(name = "executorService") ExecutorService executorService,
+    public MessageContainerFactoryImpl(@Reference ExecutorRegistry executorRegistry,
                                        @Reference TransactionManager tm,
                                        @Reference HostInfo hostInfo,
                                        @Monitor MessageContainerMonitor containerMonitor) {
-        this.executorService = executorService;
+        this.executorRegistry = executorRegistry;
         this.tm = tm;
         this.hostInfo = hostInfo;
         this.containerMonitor = containerMonitor;
@@ -76,7 +77,9 @@ public class MessageContainerFactoryImpl implements MessageContainerFactory {
         ConnectionManager connectionManager = new ConnectionManager(factory, uri, cacheConnection, durable, containerMonitor);
         UnitOfWork work = createWork(uri, type, statistics);
         boolean javaEE = hostInfo.isJavaEEXAEnabled();
-        return new AdaptiveMessageContainer(configuration, receiveTimeout, connectionManager, work, statistics, executorService, javaEE, containerMonitor);
+        // receivers occupy a thread for as long as they run
+        ExecutorService executor = executorRegistry.getLongRunningExecutor(uri);
+        return new AdaptiveMessageContainer(configuration, receiveTimeout, connectionManager, work, statistics, executor, javaEE, containerMonitor);
     }
 
     private UnitOfWork createWork(URI uri, SessionType type, ContainerStatistics statistics) {
@@ -91,4 +94,5 @@ public class MessageContainerFactoryImpl implements MessageContainerFactory {
                 return new AutoAckUnitOfWork();
         }
     }
+
 }
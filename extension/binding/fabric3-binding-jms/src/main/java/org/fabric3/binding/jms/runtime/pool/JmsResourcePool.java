@@ -0,0 +1,560 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.binding.jms.runtime.pool;
+
+import javax.jms.Connection;
+import javax.jms.ConnectionFactory;
+import javax.jms.Destination;
+import javax.jms.JMSException;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
+import javax.jms.XAConnection;
+import javax.jms.XASession;
+import javax.transaction.RollbackException;
+import javax.transaction.Synchronization;
+import javax.transaction.SystemException;
+import javax.transaction.Transaction;
+import javax.transaction.TransactionManager;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.fabric3.api.annotation.management.Management;
+import org.fabric3.api.binding.jms.model.CorrelationScheme;
+import org.fabric3.api.annotation.management.ManagementOperation;
+import org.fabric3.binding.jms.runtime.common.JmsHelper;
+import org.fabric3.binding.jms.runtime.wire.ResponseListener;
+import org.fabric3.binding.jms.spi.provision.SessionType;
+
+/**
+ * Caches a started connection for a connection factory and pools sessions and their producers by destination and transaction mode.
+ *
+ * Sessions for non-transacted sends are returned to the pool when they are released. Sessions for global transactions are pooled if the connection is an
+ * {@link XAConnection}: the session XAResource is enlisted in the current transaction when the session is acquired and the session is returned to the pool
+ * after the transaction completes. Otherwise, the connection factory is expected to enlist sessions as they are created, for example a JTA-aware pooling
+ * factory, and sessions for global transactions are created for each send and closed when they are released.
+ *
+ * The maximum number of sessions applies to each destination and transaction mode. When the maximum is reached, callers wait for a session to be released
+ * up to the maximum wait time. Setting the maximum number of sessions to 0 disables session pooling.
+ *
+ * The pool also holds the shared {@link ResponseListener}s for response destinations resolved using the connection factory.
+ */
+@Management
+public class JmsResourcePool {
+    private ConnectionFactory factory;
+    private TransactionManager tm;
+    private volatile int maxSessions;
+    private volatile long maxWait;
+    private PoolStatistics statistics = new PoolStatistics();
+
+    private final Object sync = new Object();
+    private Connection connection;
+
+    private Map<PartitionKey, Partition> partitions = new ConcurrentHashMap<>();
+    private Map<ListenerKey, ResponseListener> listeners = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor.
+     *
+     * @param factory     the connection factory
+     * @param tm          the transaction manager used to enlist sessions in global transactions
+     * @param maxSessions the maximum number of sessions for each destination and transaction mode
+     * @param maxWait     the maximum time in milliseconds to wait for a session
+     */
+    public JmsResourcePool(ConnectionFactory factory, TransactionManager tm, int maxSessions, long maxWait) {
+        this.factory = factory;
+        this.tm = tm;
+        this.maxSessions = maxSessions;
+        this.maxWait = maxWait;
+    }
+
+    /**
+     * Returns a session and producer for the destination. If the session type is {@link SessionType#GLOBAL_TRANSACTED}, the session is enlisted in the
+     * current transaction.
+     *
+     * @param destination the destination
+     * @param type        the session type
+     * @return the session
+     * @throws JMSException if there is an error creating the session or a session is not available before the maximum wait time elapses
+     */
+    public PooledSession acquire(Destination destination, SessionType type) throws JMSException {
+        boolean global = SessionType.GLOBAL_TRANSACTED == type;
+        Connection connection = getConnection();
+        if (maxSessions <= 0 || (global && !(connection instanceof XAConnection))) {
+            statistics.incrementMisses();
+            return createSession(connection, destination, global, null);
+        }
+        PartitionKey key = new PartitionKey(destination, global);
+        Partition partition = partitions.computeIfAbsent(key, Partition::new);
+        PooledSession session = partition.take();
+        if (global) {
+            enlist(session);
+        }
+        return session;
+    }
+
+    /**
+     * Releases a session. A session enlisted in a global transaction is returned to the pool after the transaction completes.
+     *
+     * @param session the session
+     * @param valid   false if an error was encountered using the session, in which case it will be closed rather than pooled
+     */
+    public void release(PooledSession session, boolean valid) {
+        if (!session.isPooled()) {
+            JmsHelper.closeQuietly(session.getSession());
+            return;
+        }
+        if (!valid) {
+            session.invalid = true;
+        }
+        if (session.holds.decrementAndGet() == 0) {
+            returnSession(session);
+        }
+    }
+
+    /**
+     * Returns the shared listener for a response destination, creating one if necessary. The listener consumes responses using a dedicated connection.
+     *
+     * @param destination the response destination
+     * @param scheme      the correlation scheme
+     * @return the listener
+     */
+    public ResponseListener getResponseListener(Destination destination, CorrelationScheme scheme) {
+        return listeners.computeIfAbsent(new ListenerKey(destination, scheme), k -> new ResponseListener(destination, scheme, factory));
+    }
+
+    /**
+     * Closes pooled sessions, shared response listeners and the cached connection. Sessions in use are closed when they are released.
+     */
+    public void close() {
+        listeners.values().forEach(ResponseListener::close);
+        listeners.clear();
+        synchronized (sync) {
+            partitions.values().forEach(Partition::clear);
+            partitions.clear();
+            JmsHelper.closeQuietly(connection);
+            connection = null;
+        }
+    }
+
+    @ManagementOperation(description = "The maximum number of sessions for each destination and transaction mode")
+    public int getMaxSessions() {
+        return maxSessions;
+    }
+
+    @ManagementOperation(description = "The maximum number of sessions for each destination and transaction mode")
+    public void setMaxSessions(int maxSessions) {
+        this.maxSessions = maxSessions;
+        partitions.values().forEach(Partition::signalAll);
+    }
+
+    @ManagementOperation(description = "The maximum time in milliseconds to wait for a session")
+    public long getMaxWait() {
+        return maxWait;
+    }
+
+    @ManagementOperation(description = "The maximum time in milliseconds to wait for a session")
+    public void setMaxWait(long maxWait) {
+        this.maxWait = maxWait;
+    }
+
+    @ManagementOperation(description = "The number of sessions in use")
+    public int getActiveSessions() {
+        int count = 0;
+        for (Partition partition : partitions.values()) {
+            count += partition.getActive();
+        }
+        return count;
+    }
+
+    @ManagementOperation(description = "The number of idle pooled sessions")
+    public int getIdleSessions() {
+        int count = 0;
+        for (Partition partition : partitions.values()) {
+            count += partition.getIdle();
+        }
+        return count;
+    }
+
+    @ManagementOperation(description = "The number of requests served by a pooled session")
+    public long getHits() {
+        return statistics.getHits();
+    }
+
+    @ManagementOperation(description = "The number of requests that created a session")
+    public long getMisses() {
+        return statistics.getMisses();
+    }
+
+    @ManagementOperation(description = "The number of requests that waited for a session to be released")
+    public long getWaits() {
+        return statistics.getWaits();
+    }
+
+    @ManagementOperation(description = "The total time in milliseconds requests waited for a session to be released")
+    public long getWaitTime() {
+        return statistics.getWaitTime();
+    }
+
+    @ManagementOperation(description = "The number of requests that timed out waiting for a session")
+    public long getTimeouts() {
+        return statistics.getTimeouts();
+    }
+
+    /**
+     * Returns the cached connection, creating and starting it if necessary.
+     *
+     * @return the connection
+     * @throws JMSException if there is an error creating the connection
+     */
+    private Connection getConnection() throws JMSException {
+        synchronized (sync) {
+            if (connection == null) {
+                Connection created = factory.createConnection();
+                try {
+                    created.start();
+                } catch (JMSException e) {
+                    JmsHelper.closeQuietly(created);
+                    throw e;
+                }
+                try {
+                    // discard the connection and its idle sessions as soon as the provider reports it has failed
+                    created.setExceptionListener(e -> resetConnection(created));
+                } catch (JMSException e) {
+                    // the provider does not permit exception listeners, e.g. in a managed environment; failures are detected when creating a session
+                }
+                connection = created;
+            }
+            return connection;
+        }
+    }
+
+    /**
+     * Discards a connection that failed or could not create a session along with the idle sessions created from it.
+     *
+     * @param failed the connection
+     */
+    private void resetConnection(Connection failed) {
+        synchronized (sync) {
+            if (connection != failed) {
+                // already reset by another thread
+                return;
+            }
+            partitions.values().forEach(Partition::clear);
+            JmsHelper.closeQuietly(connection);
+            connection = null;
+        }
+    }
+
+    /**
+     * Creates a pooled session for a partition, resetting the connection and retrying once if the connection has failed.
+     *
+     * @param key the partition key
+     * @return the session
+     * @throws JMSException if there is an error creating the session
+     */
+    private PooledSession createPooledSession(PartitionKey key) throws JMSException {
+        Connection connection = getConnection();
+        try {
+            return createSession(connection, key.destination, key.global, key);
+        } catch (JMSException e) {
+            resetConnection(connection);
+            return createSession(getConnection(), key.destination, key.global, key);
+        }
+    }
+
+    private PooledSession createSession(Connection connection, Destination destination, boolean global, PartitionKey key) throws JMSException {
+        Session session;
+        XASession xaSession = null;
+        if (global && key != null) {
+            xaSession = ((XAConnection) connection).createXASession();
+            session = xaSession;
+        } else if (global) {
+            session = connection.createSession(true, Session.SESSION_TRANSACTED);
+        } else {
+            session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+        }
+        try {
+            MessageProducer producer = session.createProducer(destination);
+            return new PooledSession(connection, session, producer, key, xaSession == null ? null : xaSession.getXAResource());
+        } catch (JMSException e) {
+            JmsHelper.closeQuietly(session);
+            throw e;
+        }
+    }
+
+    /**
+     * Enlists a session in the current transaction. The session is returned to the pool after it is released and the transaction completes.
+     *
+     * @param session the session
+     * @throws JMSException if there is an error enlisting the session
+     */
+    private void enlist(PooledSession session) throws JMSException {
+        try {
+            Transaction transaction = tm.getTransaction();
+            if (transaction == null) {
+                return;
+            }
+            transaction.enlistResource(session.getXAResource());
+            session.holds.incrementAndGet();
+            try {
+                transaction.registerSynchronization(new Synchronization() {
+                    public void beforeCompletion() {
+                    }
+
+                    public void afterCompletion(int status) {
+                        if (session.holds.decrementAndGet() == 0) {
+                            returnSession(session);
+                        }
+                    }
+                });
+            } catch (RollbackException | SystemException | IllegalStateException e) {
+                session.holds.decrementAndGet();
+                throw e;
+            }
+        } catch (SystemException | RollbackException | IllegalStateException e) {
+            release(session, false);
+            JMSException ex = new JMSException("Error enlisting session in transaction: " + e.getMessage());
+            ex.setLinkedException(e);
+            throw ex;
+        }
+    }
+
+    private void returnSession(PooledSession session) {
+        Partition partition = partitions.get(session.getKey());
+        if (partition == null) {
+            // the pool was closed
+            JmsHelper.closeQuietly(session.getSession());
+            return;
+        }
+        synchronized (sync) {
+            if (session.getConnection() != connection) {
+                // the connection was reset while the session was in use
+                session.invalid = true;
+            }
+        }
+        partition.put(session);
+    }
+
+    private class PartitionKey {
+        private Destination destination;
+        private boolean global;
+
+        public PartitionKey(Destination destination, boolean global) {
+            this.destination = destination;
+            this.global = global;
+        }
+
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            PartitionKey that = (PartitionKey) o;
+            return global == that.global && destination.equals(that.destination);
+        }
+
+        public int hashCode() {
+            return 31 * destination.hashCode() + (global ? 1 : 0);
+        }
+    }
+
+    private class ListenerKey {
+        private Destination destination;
+        private CorrelationScheme scheme;
+
+        public ListenerKey(Destination destination, CorrelationScheme scheme) {
+            this.destination = destination;
+            this.scheme = scheme;
+        }
+
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            ListenerKey that = (ListenerKey) o;
+            return scheme == that.scheme && destination.equals(that.destination);
+        }
+
+        public int hashCode() {
+            return 31 * destination.hashCode() + scheme.hashCode();
+        }
+    }
+
+    /**
+     * The sessions for a destination and transaction mode.
+     */
+    private class Partition {
+        private PartitionKey key;
+        private Deque<PooledSession> idle = new ArrayDeque<>();
+        private int created;
+
+        private ReentrantLock lock = new ReentrantLock();
+        private Condition available = lock.newCondition();
+
+        public Partition(PartitionKey key) {
+            this.key = key;
+        }
+
+        /**
+         * Returns an idle session, creates a session if the maximum has not been reached, or waits for a session to be released.
+         *
+         * @return the session
+         * @throws JMSException if there is an error creating the session or the wait times out
+         */
+        public PooledSession take() throws JMSException {
+            long start = 0;
+            lock.lock();
+            try {
+                while (true) {
+                    PooledSession session = idle.pollFirst();
+                    if (session != null) {
+                        session.holds.set(1);
+                        statistics.incrementHits();
+                        recordWait(start);
+                        return session;
+                    }
+                    if (created < maxSessions) {
+                        created++;
+                        break;
+                    }
+                    if (start == 0) {
+                        start = System.nanoTime();
+                    }
+                    long remaining = TimeUnit.MILLISECONDS.toNanos(maxWait) - (System.nanoTime() - start);
+                    if (remaining <= 0) {
+                        statistics.incrementTimeouts();
+                        recordWait(start);
+                        throw new JMSException("Timeout waiting for a session for destination: " + key.destination);
+                    }
+                    try {
+                        available.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new JMSException("Interrupted waiting for a session for destination: " + key.destination);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+            // create the session outside of the lock
+            try {
+                PooledSession session = createPooledSession(key);
+                statistics.incrementMisses();
+                recordWait(start);
+                return session;
+            } catch (JMSException e) {
+                discard();
+                throw e;
+            }
+        }
+
+        /**
+         * Returns a released session to the partition. Invalid sessions and sessions exceeding the maximum are closed.
+         *
+         * @param session the session
+         */
+        public void put(PooledSession session) {
+            lock.lock();
+            try {
+                if (session.invalid || created > maxSessions) {
+                    created--;
+                    JmsHelper.closeQuietly(session.getSession());
+                } else {
+                    // return to the head so recently used sessions are reused first
+                    idle.addFirst(session);
+                }
+                available.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Releases the capacity reserved for a session that could not be created.
+         */
+        public void discard() {
+            lock.lock();
+            try {
+                created--;
+                available.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Closes idle sessions.
+         */
+        public void clear() {
+            lock.lock();
+            try {
+                for (PooledSession session : idle) {
+                    JmsHelper.closeQuietly(session.getSession());
+                }
+                created -= idle.size();
+                idle.clear();
+                available.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public void signalAll() {
+            lock.lock();
+            try {
+                available.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public int getActive() {
+            lock.lock();
+            try {
+                return created - idle.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public int getIdle() {
+            lock.lock();
+            try {
+                return idle.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void recordWait(long start) {
+            if (start != 0) {
+                statistics.addWait(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,54 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.binding.jms.runtime.pool;
+
+import javax.jms.ConnectionFactory;
+
+import org.fabric3.api.host.Fabric3Exception;
+
+/**
+ * Manages {@link JmsResourcePool}s for sending messages.
+ */
+public interface JmsResourcePoolManager {
+
+    /**
+     * Returns the pool for a connection factory, creating one if necessary. Pools are kept per connection factory instance. Each call must be matched by a
+     * call to {@link #release(ConnectionFactory)}.
+     *
+     * @param name    the connection factory name or null if the factory is not named, for example when it is configured by class
+     * @param factory the connection factory
+     * @return the pool
+     * @throws Fabric3Exception if the name is in use by a pool for a different connection factory
+     */
+    JmsResourcePool getPool(String name, ConnectionFactory factory) throws Fabric3Exception;
+
+    /**
+     * Releases a pool obtained by {@link #getPool(String, ConnectionFactory)}. The pool is closed when it is no longer in use.
+     *
+     * @param factory the connection factory
+     */
+    void release(ConnectionFactory factory);
+
+    /**
+     * Returns true if responses for request-response operations are received by a consumer shared per response destination rather than a consumer created
+     * for each request.
+     *
+     * @return true if response consumers are shared
+     */
+    boolean isResponseConsumerShared();
+
+}
@@ -0,0 +1,140 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.binding.jms.runtime.pool;
+
+import javax.jms.ConnectionFactory;
+import javax.transaction.TransactionManager;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.fabric3.api.annotation.Source;
+import org.fabric3.api.host.Fabric3Exception;
+import org.fabric3.spi.management.ManagementService;
+import org.oasisopen.sca.annotation.Destroy;
+import org.oasisopen.sca.annotation.Property;
+import org.oasisopen.sca.annotation.Reference;
+
+/**
+ * Keeps a reference-counted pool per connection factory instance. Pools are exported to the management service using the connection factory name, or an
+ * identifier derived from the instance for factories that are not named.
+ */
+public class JmsResourcePoolManagerImpl implements JmsResourcePoolManager {
+    private static final String GROUP = "JMS/producer pools";
+
+    private TransactionManager tm;
+    private ManagementService managementService;
+
+    private int maxSessions = 10;
+    private long maxWait = 5000;
+    private boolean responseConsumerShared;
+
+    private Map<ConnectionFactory, Holder> pools = new IdentityHashMap<>();
+    private Map<String, ConnectionFactory> names = new HashMap<>();
+
+    public JmsResourcePoolManagerImpl(@Reference TransactionManager tm, @Reference ManagementService managementService) {
+        this.tm = tm;
+        this.managementService = managementService;
+    }
+
+    @Property(required = false)
+    @Source("$systemConfig//f3:jms/@pool.sessions.max")
+    public void setMaxSessions(int maxSessions) {
+        this.maxSessions = maxSessions;
+    }
+
+    @Property(required = false)
+    @Source("$systemConfig//f3:jms/@pool.wait")
+    public void setMaxWait(long maxWait) {
+        this.maxWait = maxWait;
+    }
+
+    @Property(required = false)
+    @Source("$systemConfig//f3:jms/@response.consumer.shared")
+    public void setResponseConsumerShared(boolean responseConsumerShared) {
+        this.responseConsumerShared = responseConsumerShared;
+    }
+
+    @Destroy
+    public synchronized void destroy() {
+        for (Holder holder : pools.values()) {
+            remove(holder);
+        }
+        pools.clear();
+        names.clear();
+    }
+
+    public synchronized JmsResourcePool getPool(String name, ConnectionFactory factory) throws Fabric3Exception {
+        if (name != null) {
+            ConnectionFactory existing = names.get(name);
+            if (existing != null && existing != factory) {
+                throw new Fabric3Exception("Connection factory name is already in use by a different connection factory: " + name);
+            }
+        }
+        Holder holder = pools.get(factory);
+        if (holder == null) {
+            JmsResourcePool pool = new JmsResourcePool(factory, tm, maxSessions, maxWait);
+            String exportName = name != null ? name : factory.getClass().getSimpleName() + "-" + Integer.toHexString(System.identityHashCode(factory));
+            holder = new Holder(pool, name, exportName);
+            pools.put(factory, holder);
+            if (name != null) {
+                names.put(name, factory);
+            }
+            managementService.export(encodeName(exportName), GROUP, "JMS producer pool", pool);
+        }
+        holder.count++;
+        return holder.pool;
+    }
+
+    public synchronized void release(ConnectionFactory factory) {
+        Holder holder = pools.get(factory);
+        if (holder == null || --holder.count > 0) {
+            return;
+        }
+        pools.remove(factory);
+        if (holder.name != null) {
+            names.remove(holder.name);
+        }
+        remove(holder);
+    }
+
+    public boolean isResponseConsumerShared() {
+        return responseConsumerShared;
+    }
+
+    private void remove(Holder holder) {
+        managementService.remove(encodeName(holder.exportName), GROUP);
+        holder.pool.close();
+    }
+
+    private String encodeName(String name) {
+        return "transports/jms/producers/" + name.toLowerCase();
+    }
+
+    private class Holder {
+        private JmsResourcePool pool;
+        private String name;
+        private String exportName;
+        private int count;
+
+        public Holder(JmsResourcePool pool, String name, String exportName) {
+            this.pool = pool;
+            this.name = name;
+            this.exportName = exportName;
+        }
+    }
+}
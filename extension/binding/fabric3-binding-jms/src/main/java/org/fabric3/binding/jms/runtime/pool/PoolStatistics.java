@@ -0,0 +1,68 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.binding.jms.runtime.pool;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tracks statistics for a {@link JmsResourcePool}.
+ */
+public class PoolStatistics {
+    private LongAdder hits = new LongAdder();
+    private LongAdder misses = new LongAdder();
+    private LongAdder waits = new LongAdder();
+    private LongAdder waitTime = new LongAdder();
+    private LongAdder timeouts = new LongAdder();
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public void incrementHits() {
+        hits.increment();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public void incrementMisses() {
+        misses.increment();
+    }
+
+    public long getWaits() {
+        return waits.sum();
+    }
+
+    public long getWaitTime() {
+        return waitTime.sum();
+    }
+
+    public void addWait(long time) {
+        waits.increment();
+        waitTime.add(time);
+    }
+
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    public void incrementTimeouts() {
+        timeouts.increment();
+    }
+
+}
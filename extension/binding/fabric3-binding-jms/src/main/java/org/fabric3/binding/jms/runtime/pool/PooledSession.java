@@ -0,0 +1,88 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.binding.jms.runtime.pool;
+
+import javax.jms.Connection;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
+import javax.transaction.xa.XAResource;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A session and producer for a destination obtained from a {@link JmsResourcePool}. Pooled sessions must be returned to the pool using {@link
+ * JmsResourcePool#release(PooledSession, boolean)}.
+ */
+public class PooledSession {
+    private Connection connection;
+    private Session session;
+    private MessageProducer producer;
+    private Object key;
+    private XAResource xaResource;
+    private boolean pooled;
+
+    // the number of parties that must release the session before it is returned: the caller and, if enlisted, the transaction
+    final AtomicInteger holds = new AtomicInteger(1);
+    volatile boolean invalid;
+
+    /**
+     * Constructor.
+     *
+     * @param connection the connection the session was created from
+     * @param session    the session
+     * @param producer   the producer for the pooled destination
+     * @param key        the pool partition key or null if the session is not pooled
+     * @param xaResource the XA resource if the session is enlisted in global transactions, otherwise null
+     */
+    PooledSession(Connection connection, Session session, MessageProducer producer, Object key, XAResource xaResource) {
+        this.connection = connection;
+        this.session = session;
+        this.producer = producer;
+        this.key = key;
+        this.xaResource = xaResource;
+        this.pooled = key != null;
+    }
+
+    public Session getSession() {
+        return session;
+    }
+
+    public MessageProducer getProducer() {
+        return producer;
+    }
+
+    /**
+     * Returns true if the session is returned to the pool when released. Otherwise, the session is closed.
+     *
+     * @return true if the session is pooled
+     */
+    public boolean isPooled() {
+        return pooled;
+    }
+
+    Connection getConnection() {
+        return connection;
+    }
+
+    Object getKey() {
+        return key;
+    }
+
+    XAResource getXAResource() {
+        return xaResource;
+    }
+
+}
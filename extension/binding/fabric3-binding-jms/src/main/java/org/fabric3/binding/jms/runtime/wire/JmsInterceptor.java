@@ -19,7 +19,6 @@
  */
 package org.fabric3.binding.jms.runtime.wire;
 
-import javax.jms.Connection;
 import javax.jms.ConnectionFactory;
 import javax.jms.DeliveryMode;
 import javax.jms.Destination;
@@ -40,8 +39,9 @@ import java.util.Map;
 import java.util.UUID;
 
 import org.fabric3.api.binding.jms.model.CorrelationScheme;
-import org.fabric3.binding.jms.runtime.common.JmsHelper;
 import org.fabric3.binding.jms.runtime.common.JmsRuntimeConstants;
+import org.fabric3.binding.jms.runtime.pool.JmsResourcePool;
+import org.fabric3.binding.jms.runtime.pool.PooledSession;
 import org.fabric3.binding.jms.spi.provision.OperationPayloadTypes;
 import org.fabric3.binding.jms.spi.provision.SessionType;
 import org.fabric3.spi.container.binding.BindingHandler;
@@ -66,6 +66,7 @@ public class JmsInterceptor implements Interceptor {
     private Destination callbackDestination;
     private String callbackUri;
     private ConnectionFactory connectionFactory;
+    private JmsResourcePool pool;
     private CorrelationScheme correlationScheme;
     private ResponseListener responseListener;
     private ClassLoader classLoader;
@@ -93,6 +94,7 @@ public class JmsInterceptor implements Interceptor {
         this.callbackDestination = wireConfig.getCallbackDestination();
         this.callbackUri = wireConfig.getCallbackUri();
         this.connectionFactory = wireConfig.getRequestConnectionFactory();
+        this.pool = wireConfig.getRequestPool();
         this.correlationScheme = wireConfig.getCorrelationScheme();
         this.classLoader = wireConfig.getClassloader();
         this.responseListener = wireConfig.getResponseListener();
@@ -113,15 +115,12 @@ public class JmsInterceptor implements Interceptor {
     }
 
     public Message invoke(Message message) {
-        Connection connection = null;
-        Session session = null;
+        PooledSession pooledSession = null;
         ClassLoader oldCl = Thread.currentThread().getContextClassLoader();
         try {
             // set the context classloader to the one that loaded the connection factory implementation.
             // this is required by some JMS providers
             Thread.currentThread().setContextClassLoader(connectionFactory.getClass().getClassLoader());
-            connection = connectionFactory.createConnection();
-            connection.start();
             int status = tm.getStatus();
             Transaction suspended = null;
             boolean begun = false;
@@ -132,27 +131,26 @@ public class JmsInterceptor implements Interceptor {
                 suspended = tm.suspend();
             }
 
-            if (SessionType.GLOBAL_TRANSACTED == sessionType) {
-                session = connection.createSession(true, Session.SESSION_TRANSACTED);
-            } else {
-                session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
-            }
-
-            MessageProducer producer = session.createProducer(destination);
+            // the session is enlisted in the current transaction for global transacted sends
+            pooledSession = pool.acquire(destination, sessionType);
+            Session session = pooledSession.getSession();
+            MessageProducer producer = pooledSession.getProducer();
 
+            // producers are pooled so the delivery mode and time to live must be set for each send
             if (!persistent || DeliveryMode.NON_PERSISTENT == deliveryMode) {
                 producer.setDeliveryMode(DeliveryMode.NON_PERSISTENT);
+            } else {
+                producer.setDeliveryMode(DeliveryMode.PERSISTENT);
             }
 
-            if (timeToLive >= 0) {
-                producer.setTimeToLive(timeToLive);
-            }
+            producer.setTimeToLive(timeToLive >= 0 ? timeToLive : javax.jms.Message.DEFAULT_TIME_TO_LIVE);
 
             javax.jms.Message jmsMessage = createMessage(message, session);
             setHeaders(jmsMessage);
             String correlationId = null;
             if (correlationScheme == CorrelationScheme.CORRELATION_ID) {
-                correlationId = UUID.randomUUID().toString();
+                // correlation ids are generated by the response listener as they may be used to select responses
+                correlationId = responseListener != null ? responseListener.createCorrelationId() : UUID.randomUUID().toString();
                 jmsMessage.setJMSCorrelationID(correlationId);
             }
 
@@ -167,10 +165,14 @@ public class JmsInterceptor implements Interceptor {
             if (correlationScheme == CorrelationScheme.MESSAGE_ID) {
                 correlationId = jmsMessage.getJMSMessageID();
             }
+            // return the session to the pool as soon as the request is sent so callers waiting for responses do not exhaust the pool. Sessions
+            // enlisted in a global transaction are returned when the transaction completes
+            pool.release(pooledSession, true);
+            pooledSession = null;
 
             if (!oneWay) {
                 // request-response, block on response
-                Message resp = receive(correlationId, session, message);
+                Message resp = receive(correlationId, message);
                 if (begun) {
                     tm.commit();
                 }
@@ -196,8 +198,10 @@ public class JmsInterceptor implements Interceptor {
         } catch (SystemException | RollbackException | HeuristicRollbackException | HeuristicMixedException | NotSupportedException e) {
             throw new ServiceRuntimeException(e);
         } finally {
-            JmsHelper.closeQuietly(session);
-            JmsHelper.closeQuietly(connection);
+            if (pooledSession != null) {
+                // the send failed
+                pool.release(pooledSession, false);
+            }
             Thread.currentThread().setContextClassLoader(oldCl);
         }
     }
@@ -214,14 +218,28 @@ public class JmsInterceptor implements Interceptor {
      * Blocks waiting for a response message from the service provider.
      *
      * @param correlationId the id for correlating the response message
-     * @param session       the session to perform the receive in
      * @param message       the current message
      * @return the response message
      * @throws JMSException           if an error occurs in the JMS provider waiting for or processing the response
      * @throws JmsBadMessageException if an unrecoverable error such as a bad message type occurs waiting for or processing the response
      */
-    private Message receive(String correlationId, Session session, Message message) throws JMSException, JmsBadMessageException {
-        javax.jms.Message resultMessage = responseListener.receive(correlationId, session, responseTimeout);
+    private Message receive(String correlationId, Message message) throws JMSException, JmsBadMessageException {
+        javax.jms.Message resultMessage;
+        if (responseListener.startShared()) {
+            // responses are dispatched by the shared consumer so waiting callers do not hold a session
+            resultMessage = responseListener.receive(correlationId, null, responseTimeout);
+        } else {
+            // the per-request consumer is created in a session taken from the response destination partition so waiting callers do not hold request
+            // sessions
+            PooledSession receiveSession = pool.acquire(responseListener.getDestination(), sessionType);
+            boolean valid = false;
+            try {
+                resultMessage = responseListener.receive(correlationId, receiveSession.getSession(), responseTimeout);
+                valid = true;
+            } finally {
+                pool.release(receiveSession, valid);
+            }
+        }
         if (resultMessage == null) {
             throw new ServiceUnavailableException("Timeout waiting for response to message: " + correlationId);
         }
@@ -19,24 +19,59 @@
  */
 package org.fabric3.binding.jms.runtime.wire;
 
+import javax.jms.Connection;
+import javax.jms.ConnectionFactory;
 import javax.jms.Destination;
+import javax.jms.ExceptionListener;
 import javax.jms.JMSException;
 import javax.jms.Message;
 import javax.jms.MessageConsumer;
+import javax.jms.MessageListener;
 import javax.jms.Session;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.fabric3.api.binding.jms.model.CorrelationScheme;
+import org.fabric3.binding.jms.runtime.common.JmsHelper;
 import org.oasisopen.sca.ServiceRuntimeException;
 
 /**
  * MessageListener that blocks for responses from a service provider. This listener is attached to the reference side of a wire.
+ *
+ * By default, a consumer is created for each request using a selector on the request correlation id. Alternatively, the listener may be shared by all
+ * wires using a response destination, in which case a single long-lived consumer receives responses and dispatches them to waiting callers using a
+ * correlation id map. Since the consumer is shared, response destinations must not be shared with other runtimes unless the correlation id scheme is used:
+ * generated correlation ids are prefixed with an id unique to the listener and the consumer only selects responses with that prefix.
+ *
+ * The shared consumer relies on an exception listener to detect connection failures. When the connection fails, waiting callers are failed and the
+ * consumer is recreated. If the connection does not accept an exception listener, as is the case with some managed connection factories, failures
+ * could not be detected and the listener falls back to creating a consumer per request.
  */
-public class ResponseListener {
+public class ResponseListener implements MessageListener, ExceptionListener {
+    // the time after which responses that arrive without a waiting caller are discarded
+    private static final long ORPHAN_TIMEOUT = TimeUnit.MINUTES.toNanos(1);
+
     private Destination destination;
     private CorrelationScheme scheme;
+    private ConnectionFactory factory;
+    private String prefix = "";
+    private volatile boolean fallback;
+
+    private final Object sync = new Object();
+    private Connection connection;
+
+    private Map<String, CompletableFuture<Message>> pending = new ConcurrentHashMap<>();
+    private Queue<Orphan> orphans = new ConcurrentLinkedQueue<>();
 
     /**
-     * Constructor.
+     * Constructor for a listener that creates a consumer per request.
      *
      * @param destination the response destination
      * @param scheme      the correlation scheme
@@ -46,6 +81,23 @@ public class ResponseListener {
         this.scheme = scheme;
     }
 
+    /**
+     * Constructor for a listener that receives responses for all requests using a shared consumer. The correlation scheme must not be {@link
+     * CorrelationScheme#NONE}.
+     *
+     * @param destination the response destination
+     * @param scheme      the correlation scheme
+     * @param factory     the connection factory used to create the shared consumer
+     */
+    public ResponseListener(Destination destination, CorrelationScheme scheme, ConnectionFactory factory) {
+        this(destination, scheme);
+        if (CorrelationScheme.NONE == scheme) {
+            throw new IllegalArgumentException("A correlation scheme is required for shared response listeners");
+        }
+        this.factory = factory;
+        this.prefix = UUID.randomUUID().toString() + ":";
+    }
+
     /**
      * Returns the destination for the listener
      *
@@ -55,17 +107,61 @@ public class ResponseListener {
         return destination;
     }
 
+    /**
+     * Returns true if responses are received by a shared consumer.
+     *
+     * @return true if responses are received by a shared consumer
+     */
+    public boolean isShared() {
+        return factory != null && !fallback;
+    }
+
+    /**
+     * Starts the shared consumer if it is not running and returns true if responses are received by it. Callers use this to determine if a session must be
+     * provided to {@link #receive(String, Session, long)}, since the listener falls back to creating a consumer per request if the shared consumer cannot
+     * detect connection failures.
+     *
+     * @return true if responses are received by the shared consumer
+     * @throws ServiceRuntimeException if there is an error starting the shared consumer
+     */
+    public boolean startShared() {
+        if (!isShared()) {
+            return false;
+        }
+        try {
+            start();
+        } catch (JMSException e) {
+            throw new ServiceRuntimeException("Unable to start response consumer", e);
+        }
+        return isShared();
+    }
+
+    /**
+     * Creates a correlation id for a request using the {@link CorrelationScheme#CORRELATION_ID} scheme.
+     *
+     * @return the correlation id
+     */
+    public String createCorrelationId() {
+        return prefix + UUID.randomUUID().toString();
+    }
+
     /**
      * Performs a blocking receive, i.e. control will not be returned to application code until a response is received.
      *
      * @param correlationId Correlation id
-     * @param session       the session to use for processing
+     * @param session       the session to use for processing. Not used if responses are received by a shared consumer.
      * @param timeout       the receive timeout
      * @return the received message or null if the operation timed out.
      */
     public Message receive(String correlationId, Session session, long timeout) {
+        if (startShared()) {
+            return receiveShared(correlationId, timeout);
+        }
+        if (session == null) {
+            throw new ServiceRuntimeException("A session is required to receive response for message with correlation id: " + correlationId);
+        }
+        MessageConsumer consumer = null;
         try {
-            MessageConsumer consumer;
             if (CorrelationScheme.MESSAGE_ID == scheme || CorrelationScheme.CORRELATION_ID == scheme) {
                 String selector = "JMSCorrelationID = '" + correlationId + "'";
                 consumer = session.createConsumer(destination, selector);
@@ -76,8 +172,152 @@ public class ResponseListener {
         } catch (JMSException e) {
             // bubble exception to the client
             throw new ServiceRuntimeException("Unable to receive response for message with correlation id: " + correlationId, e);
+        } finally {
+            // sessions are pooled so the consumer must be closed
+            JmsHelper.closeQuietly(consumer);
         }
 
     }
 
+    /**
+     * Dispatches a response received by the shared consumer to the waiting caller. If the caller is not yet waiting, the response is held until it is
+     * received or discarded after a timeout.
+     *
+     * @param message the response
+     */
+    public void onMessage(Message message) {
+        try {
+            String correlationId = message.getJMSCorrelationID();
+            if (correlationId == null) {
+                return;
+            }
+            CompletableFuture<Message> created = new CompletableFuture<>();
+            CompletableFuture<Message> future = pending.putIfAbsent(correlationId, created);
+            if (future == null) {
+                // the response arrived before the caller started waiting or after it timed out
+                future = created;
+                orphans.add(new Orphan(correlationId, future));
+            }
+            future.complete(message);
+        } catch (JMSException e) {
+            // ignore the response, the waiting caller will time out
+        } finally {
+            purgeOrphans();
+        }
+    }
+
+    /**
+     * Fails waiting callers and recreates the shared consumer when the connection fails. If the consumer cannot be recreated, it is recreated for the
+     * next request.
+     *
+     * @param exception the connection exception
+     */
+    public void onException(JMSException exception) {
+        close();
+        for (CompletableFuture<Message> future : pending.values()) {
+            future.completeExceptionally(exception);
+        }
+        pending.clear();
+        orphans.clear();
+        try {
+            start();
+        } catch (JMSException e) {
+            // the consumer is recreated for the next request
+        }
+    }
+
+    /**
+     * Closes the shared consumer.
+     */
+    public void close() {
+        synchronized (sync) {
+            JmsHelper.closeQuietly(connection);
+            connection = null;
+        }
+    }
+
+    /**
+     * Returns the number of callers waiting for a response and responses held for callers that are not yet waiting.
+     *
+     * @return the number of pending responses
+     */
+    int getPendingCount() {
+        return pending.size();
+    }
+
+    private Message receiveShared(String correlationId, long timeout) {
+        CompletableFuture<Message> future = pending.computeIfAbsent(correlationId, k -> new CompletableFuture<>());
+        try {
+            return timeout > 0 ? future.get(timeout, TimeUnit.MILLISECONDS) : future.get();
+        } catch (TimeoutException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceRuntimeException("Interrupted waiting for response for message with correlation id: " + correlationId, e);
+        } catch (ExecutionException e) {
+            throw new ServiceRuntimeException("Unable to receive response for message with correlation id: " + correlationId, e.getCause());
+        } finally {
+            pending.remove(correlationId);
+        }
+    }
+
+    /**
+     * Starts the shared consumer if it is not running. If the connection does not accept an exception listener, the listener falls back to creating a
+     * consumer per request.
+     *
+     * @throws JMSException if there is an error starting the consumer
+     */
+    private void start() throws JMSException {
+        synchronized (sync) {
+            if (connection != null || fallback) {
+                return;
+            }
+            Connection created = factory.createConnection();
+            try {
+                try {
+                    created.setExceptionListener(this);
+                } catch (JMSException e) {
+                    // connection failures would not be detected and waiting callers would block until they time out
+                    fallback = true;
+                    JmsHelper.closeQuietly(created);
+                    return;
+                }
+                Session session = created.createSession(false, Session.AUTO_ACKNOWLEDGE);
+                MessageConsumer consumer;
+                if (CorrelationScheme.CORRELATION_ID == scheme) {
+                    consumer = session.createConsumer(destination, "JMSCorrelationID LIKE '" + prefix + "%'");
+                } else {
+                    consumer = session.createConsumer(destination);
+                }
+                consumer.setMessageListener(this);
+                created.start();
+                connection = created;
+            } catch (JMSException e) {
+                JmsHelper.closeQuietly(created);
+                throw e;
+            }
+        }
+    }
+
+    private void purgeOrphans() {
+        long now = System.nanoTime();
+        Orphan orphan;
+        while ((orphan = orphans.peek()) != null && now - orphan.received > ORPHAN_TIMEOUT) {
+            if (orphans.remove(orphan)) {
+                pending.remove(orphan.correlationId, orphan.future);
+            }
+        }
+    }
+
+    private class Orphan {
+        private String correlationId;
+        private CompletableFuture<Message> future;
+        private long received = System.nanoTime();
+
+        public Orphan(String correlationId, CompletableFuture<Message> future) {
+            this.correlationId = correlationId;
+            this.future = future;
+        }
+    }
+
 }
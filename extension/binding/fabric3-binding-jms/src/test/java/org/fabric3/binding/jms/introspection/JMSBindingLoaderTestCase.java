@@ -43,6 +43,7 @@ import org.fabric3.api.model.type.component.BindingHandler;
 import org.fabric3.spi.container.binding.BindingHandlerRegistry;
 import org.fabric3.spi.introspection.DefaultIntrospectionContext;
 import org.fabric3.spi.introspection.IntrospectionContext;
+import org.fabric3.spi.introspection.xml.InvalidValue;
 import org.fabric3.spi.introspection.xml.LoaderRegistry;
 
 public class JMSBindingLoaderTestCase extends TestCase {
@@ -96,6 +97,10 @@ public class JMSBindingLoaderTestCase extends TestCase {
                                                   "         <f3:handler target=\"SomeHandler\" xmlns:f3=\"urn:fabric3.org\" />" +
                                                   "</binding.jms>";
 
+    private static final String INVALID_BATCH = "   <binding.jms batch.size='0' batch.timeout='-1'>" +
+                                                "      <destination jndiName='serviceQueue'/>" +
+                                                "   </binding.jms>";
+
     private XMLInputFactory factory;
     private JmsBindingLoader loader;
     private IntrospectionContext context;
@@ -178,6 +183,16 @@ public class JMSBindingLoaderTestCase extends TestCase {
 
     }
 
+    public void testInvalidBatch() throws Exception {
+        XMLStreamReader streamReader = factory.createXMLStreamReader(new ByteArrayInputStream(INVALID_BATCH.getBytes()));
+        streamReader.nextTag();
+
+        loader.load(streamReader, context);
+        assertEquals(2, context.getErrors().size());
+        assertTrue(context.getErrors().get(0) instanceof InvalidValue);
+        assertTrue(context.getErrors().get(1) instanceof InvalidValue);
+    }
+
     public void testBindingHandler() throws Exception {
         XMLStreamReader reader = factory.createXMLStreamReader(new ByteArrayInputStream(BINDING_HANDLER.getBytes()));
         reader.nextTag();
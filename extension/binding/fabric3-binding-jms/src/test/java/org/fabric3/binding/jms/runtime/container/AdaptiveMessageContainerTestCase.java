@@ -0,0 +1,269 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.binding.jms.runtime.container;
+
+import javax.jms.Connection;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.MessageListener;
+import javax.jms.MessageProducer;
+import javax.jms.Queue;
+import javax.jms.Session;
+import javax.jms.TextMessage;
+import java.net.URI;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.apache.activemq.command.ActiveMQQueue;
+import org.easymock.EasyMock;
+import org.fabric3.api.binding.jms.model.DestinationType;
+import org.fabric3.binding.jms.spi.provision.SessionType;
+import static org.fabric3.binding.jms.runtime.common.JmsRuntimeConstants.CACHE_ADMINISTERED_OBJECTS;
+
+/**
+ * Exercises batched units of work against an embedded, non-persistent ActiveMQ broker.
+ */
+public class AdaptiveMessageContainerTestCase extends TestCase {
+    private static final String BROKER_URL = "vm://container?broker.persistent=false&broker.useJmx=false";
+    private static final int MESSAGES = 100;
+
+    private ActiveMQConnectionFactory factory;
+    private Queue queue;
+    private Connection connection;
+    private ExecutorService executorService;
+    private AdaptiveMessageContainer container;
+    private CountingUnitOfWork work;
+
+    public void testNoBatching() throws Exception {
+        assertCommits(1, MESSAGES);
+    }
+
+    public void testBatchSize10() throws Exception {
+        assertCommits(10, MESSAGES / 10);
+    }
+
+    public void testBatchSize100() throws Exception {
+        assertCommits(100, 1);
+    }
+
+    public void testBatchTimeout() throws Exception {
+        send(1);
+        CountDownLatch latch = new CountDownLatch(1);
+        startContainer(10, 50, message -> latch.countDown());
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        // the batch is committed after the timeout elapses even though it is not full
+        waitForCommits(1);
+    }
+
+    public void testRollbackRedeliversBatch() throws Exception {
+        send(10);
+        AtomicInteger deliveries = new AtomicInteger();
+        Set<String> received = ConcurrentHashMap.newKeySet();
+        CountDownLatch latch = new CountDownLatch(15);
+        startContainer(10, 5000, message -> {
+            deliveries.incrementAndGet();
+            latch.countDown();
+            try {
+                String text = ((TextMessage) message).getText();
+                if ("4".equals(text) && !message.getJMSRedelivered()) {
+                    throw new RuntimeException("test failure");
+                }
+                received.add(text);
+            } catch (JMSException e) {
+                throw new AssertionError(e);
+            }
+        });
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        // messages dispatched before the failure are redelivered, each in its own unit of work, and the messages not yet dispatched form a batch
+        waitForCommits(6);
+        assertEquals(15, deliveries.get());
+        assertEquals(10, received.size());
+        assertEquals(1, work.rollbacks.get());
+    }
+
+    public void testPoisonMessageDeadLetteredAlone() throws Exception {
+        factory.getRedeliveryPolicy().setMaximumRedeliveries(2);
+        send(10);
+        startContainer(10, 5000, message -> {
+            try {
+                if ("4".equals(((TextMessage) message).getText())) {
+                    throw new RuntimeException("test failure");
+                }
+            } catch (JMSException e) {
+                throw new AssertionError(e);
+            }
+        });
+
+        // the messages dispatched before the failure are committed individually on redelivery and the remaining messages in a batch
+        waitForCommits(5);
+
+        Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+        try {
+            connection.start();
+            MessageConsumer consumer = session.createConsumer(new ActiveMQQueue("ActiveMQ.DLQ"));
+            TextMessage deadLettered = (TextMessage) consumer.receive(5000);
+            assertNotNull(deadLettered);
+            assertEquals("4", deadLettered.getText());
+            assertNull(consumer.receive(100));
+        } finally {
+            session.close();
+        }
+    }
+
+    public void testScaleUpOnBacklog() throws Exception {
+        // prevent the first receiver from prefetching the backlog
+        factory.getPrefetchPolicy().setQueuePrefetch(1);
+        send(MESSAGES * 5);
+        CountDownLatch latch = new CountDownLatch(MESSAGES * 5);
+        startContainer(1, 0, 4, message -> {
+            try {
+                Thread.sleep(2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            latch.countDown();
+        });
+
+        assertTrue(latch.await(20, TimeUnit.SECONDS));
+        assertTrue(container.getMaxReceiversReached() > 1);
+        assertTrue(container.getDispatchLatencyPercentiles().get("p50") > 0);
+
+        // receivers are removed once the backlog has been processed
+        long deadline = System.currentTimeMillis() + 10000;
+        while (container.getReceiverCount() > 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, container.getReceiverCount());
+    }
+
+    public void setUp() throws Exception {
+        super.setUp();
+        factory = new ActiveMQConnectionFactory(BROKER_URL);
+        factory.getRedeliveryPolicy().setInitialRedeliveryDelay(0);
+        queue = new ActiveMQQueue("container.test." + getName());
+        // the embedded broker is stopped when its last connection is closed
+        connection = factory.createConnection();
+        executorService = Executors.newCachedThreadPool();
+    }
+
+    public void tearDown() throws Exception {
+        super.tearDown();
+        if (container != null) {
+            container.shutdown();
+        }
+        executorService.shutdownNow();
+        connection.close();
+    }
+
+    private void assertCommits(int batchSize, int commits) throws Exception {
+        send(MESSAGES);
+        CountDownLatch latch = new CountDownLatch(MESSAGES);
+        startContainer(batchSize, 5000, message -> latch.countDown());
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        waitForCommits(commits);
+        assertEquals(commits, work.commits.get());
+        assertEquals(MESSAGES, container.getMessagesReceived());
+    }
+
+    private void startContainer(int batchSize, long batchTimeout, MessageListener listener) {
+        startContainer(batchSize, batchTimeout, 1, listener);
+    }
+
+    private void startContainer(int batchSize, long batchTimeout, int maxReceivers, MessageListener listener) {
+        ContainerConfiguration configuration = new ContainerConfiguration();
+        configuration.setUri(URI.create("container"));
+        configuration.setDestination(queue);
+        configuration.setDestinationType(DestinationType.QUEUE);
+        configuration.setFactory(factory);
+        configuration.setCacheLevel(CACHE_ADMINISTERED_OBJECTS);
+        configuration.setSessionType(SessionType.LOCAL_TRANSACTED);
+        configuration.setMessageListener(listener);
+        configuration.setBatchSize(batchSize);
+        configuration.setBatchTimeout(batchTimeout);
+        configuration.setMaxReceivers(maxReceivers);
+
+        MessageContainerMonitor monitor = EasyMock.createNiceMock(MessageContainerMonitor.class);
+        EasyMock.replay(monitor);
+
+        ContainerStatistics statistics = new ContainerStatistics();
+        ConnectionManager connectionManager = new ConnectionManager(factory, configuration.getUri(), true, false, monitor);
+        work = new CountingUnitOfWork(new LocalTransactionUnitOfWork(configuration.getUri(), statistics));
+        container = new AdaptiveMessageContainer(configuration, 100, connectionManager, work, statistics, executorService, false, monitor);
+        container.initialize();
+    }
+
+    private void waitForCommits(int commits) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (work.commits.get() < commits && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(commits, work.commits.get());
+    }
+
+    private void send(int count) throws JMSException {
+        Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+        try {
+            MessageProducer producer = session.createProducer(queue);
+            for (int i = 0; i < count; i++) {
+                producer.send(session.createTextMessage(String.valueOf(i)));
+            }
+        } finally {
+            session.close();
+        }
+    }
+
+    /**
+     * Counts units of work that completed with at least one message.
+     */
+    private class CountingUnitOfWork implements UnitOfWork {
+        private UnitOfWork delegate;
+        private AtomicInteger commits = new AtomicInteger();
+        private AtomicInteger rollbacks = new AtomicInteger();
+
+        public CountingUnitOfWork(UnitOfWork delegate) {
+            this.delegate = delegate;
+        }
+
+        public void begin() {
+            delegate.begin();
+        }
+
+        public void end(Session session, Message message) {
+            delegate.end(session, message);
+            if (message != null) {
+                commits.incrementAndGet();
+            }
+        }
+
+        public void rollback(Session session) {
+            delegate.rollback(session);
+            rollbacks.incrementAndGet();
+        }
+    }
+
+}
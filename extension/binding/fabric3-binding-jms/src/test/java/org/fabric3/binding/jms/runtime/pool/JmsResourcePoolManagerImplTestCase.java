@@ -0,0 +1,71 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.binding.jms.runtime.pool;
+
+import javax.jms.ConnectionFactory;
+
+import junit.framework.TestCase;
+import org.easymock.EasyMock;
+import org.fabric3.api.host.Fabric3Exception;
+import org.fabric3.spi.management.ManagementService;
+
+/**
+ *
+ */
+public class JmsResourcePoolManagerImplTestCase extends TestCase {
+    private JmsResourcePoolManagerImpl manager;
+
+    public void testUnnamedFactoriesNotShared() throws Exception {
+        ConnectionFactory factory1 = EasyMock.createMock(ConnectionFactory.class);
+        ConnectionFactory factory2 = EasyMock.createMock(ConnectionFactory.class);
+
+        JmsResourcePool pool1 = manager.getPool(null, factory1);
+        JmsResourcePool pool2 = manager.getPool(null, factory2);
+        assertNotSame(pool1, pool2);
+        assertSame(pool1, manager.getPool(null, factory1));
+    }
+
+    public void testNameReusedForDifferentFactory() throws Exception {
+        ConnectionFactory factory1 = EasyMock.createMock(ConnectionFactory.class);
+        ConnectionFactory factory2 = EasyMock.createMock(ConnectionFactory.class);
+
+        manager.getPool("factory", factory1);
+        try {
+            manager.getPool("factory", factory2);
+            fail();
+        } catch (Fabric3Exception e) {
+            // expected
+        }
+    }
+
+    public void testReleaseFreesName() throws Exception {
+        ConnectionFactory factory1 = EasyMock.createMock(ConnectionFactory.class);
+        ConnectionFactory factory2 = EasyMock.createMock(ConnectionFactory.class);
+
+        JmsResourcePool pool1 = manager.getPool("factory", factory1);
+        manager.release(factory1);
+        JmsResourcePool pool2 = manager.getPool("factory", factory2);
+        assertNotSame(pool1, pool2);
+    }
+
+    public void setUp() throws Exception {
+        super.setUp();
+        ManagementService managementService = EasyMock.createNiceMock(ManagementService.class);
+        EasyMock.replay(managementService);
+        manager = new JmsResourcePoolManagerImpl(null, managementService);
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.binding.jms.runtime.pool;
+
+import javax.jms.Connection;
+import javax.jms.JMSException;
+import javax.jms.MessageConsumer;
+import javax.jms.Queue;
+import javax.jms.Session;
+import javax.transaction.Synchronization;
+import javax.transaction.Transaction;
+import javax.transaction.TransactionManager;
+import javax.transaction.xa.XAResource;
+
+import junit.framework.TestCase;
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.apache.activemq.ActiveMQXAConnectionFactory;
+import org.apache.activemq.command.ActiveMQQueue;
+import org.easymock.Capture;
+import org.easymock.EasyMock;
+import org.fabric3.binding.jms.spi.provision.SessionType;
+
+/**
+ * Exercises the pool against an embedded, non-persistent ActiveMQ broker.
+ */
+public class JmsResourcePoolTestCase extends TestCase {
+    private static final String BROKER_URL = "vm://pool?broker.persistent=false&broker.useJmx=false";
+    private static final int MESSAGES = 100;
+
+    private ActiveMQConnectionFactory factory;
+    private Queue queue;
+    private JmsResourcePool pool;
+
+    public void testSessionReused() throws Exception {
+        pool = new JmsResourcePool(factory, null, 2, 1000);
+        for (int i = 0; i < MESSAGES; i++) {
+            send(SessionType.AUTO_ACKNOWLEDGE);
+        }
+        assertEquals(1, pool.getMisses());
+        assertEquals(MESSAGES - 1, pool.getHits());
+        assertEquals(1, pool.getIdleSessions());
+        assertEquals(0, pool.getActiveSessions());
+        assertEquals(MESSAGES, receive());
+    }
+
+    public void testPoolingDisabled() throws Exception {
+        pool = new JmsResourcePool(factory, null, 0, 1000);
+        for (int i = 0; i < MESSAGES; i++) {
+            send(SessionType.AUTO_ACKNOWLEDGE);
+        }
+        assertEquals(MESSAGES, pool.getMisses());
+        assertEquals(0, pool.getIdleSessions());
+        assertEquals(MESSAGES, receive());
+    }
+
+    public void testInvalidSessionClosed() throws Exception {
+        pool = new JmsResourcePool(factory, null, 2, 1000);
+        PooledSession session = pool.acquire(queue, SessionType.AUTO_ACKNOWLEDGE);
+        pool.release(session, false);
+        assertEquals(0, pool.getIdleSessions());
+
+        PooledSession next = pool.acquire(queue, SessionType.AUTO_ACKNOWLEDGE);
+        assertNotSame(session, next);
+        assertEquals(2, pool.getMisses());
+        pool.release(next, true);
+    }
+
+    public void testWaitTimeout() throws Exception {
+        pool = new JmsResourcePool(factory, null, 1, 10);
+        PooledSession session = pool.acquire(queue, SessionType.AUTO_ACKNOWLEDGE);
+        try {
+            pool.acquire(queue, SessionType.AUTO_ACKNOWLEDGE);
+            fail();
+        } catch (JMSException e) {
+            // expected
+        }
+        assertEquals(1, pool.getTimeouts());
+        assertEquals(1, pool.getWaits());
+        pool.release(session, true);
+
+        assertSame(session, pool.acquire(queue, SessionType.AUTO_ACKNOWLEDGE));
+    }
+
+    public void testEnlistedSessionReturnedAfterCompletion() throws Exception {
+        ActiveMQXAConnectionFactory xaFactory = new ActiveMQXAConnectionFactory(BROKER_URL);
+
+        Capture<Synchronization> capture = new Capture<>();
+        Transaction transaction = EasyMock.createMock(Transaction.class);
+        EasyMock.expect(transaction.enlistResource(EasyMock.isA(XAResource.class))).andReturn(true).times(2);
+        transaction.registerSynchronization(EasyMock.capture(capture));
+        EasyMock.expectLastCall().times(2);
+        TransactionManager tm = EasyMock.createMock(TransactionManager.class);
+        EasyMock.expect(tm.getTransaction()).andReturn(transaction).times(2);
+        EasyMock.replay(tm, transaction);
+
+        pool = new JmsResourcePool(xaFactory, tm, 2, 1000);
+        PooledSession session = pool.acquire(queue, SessionType.GLOBAL_TRANSACTED);
+        pool.release(session, true);
+        // the session is not returned until the transaction completes
+        assertEquals(0, pool.getIdleSessions());
+
+        capture.getValue().afterCompletion(javax.transaction.Status.STATUS_COMMITTED);
+        assertEquals(1, pool.getIdleSessions());
+
+        assertSame(session, pool.acquire(queue, SessionType.GLOBAL_TRANSACTED));
+        EasyMock.verify(tm, transaction);
+    }
+
+    public void setUp() throws Exception {
+        super.setUp();
+        factory = new ActiveMQConnectionFactory(BROKER_URL);
+        queue = new ActiveMQQueue("pool.test." + getName());
+    }
+
+    public void tearDown() throws Exception {
+        super.tearDown();
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    private void send(SessionType type) throws JMSException {
+        PooledSession session = pool.acquire(queue, type);
+        try {
+            session.getProducer().send(session.getSession().createTextMessage("test"));
+        } finally {
+            pool.release(session, true);
+        }
+    }
+
+    private int receive() throws JMSException {
+        Connection connection = factory.createConnection();
+        try {
+            connection.start();
+            Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            MessageConsumer consumer = session.createConsumer(queue);
+            int count = 0;
+            while (consumer.receive(1000) != null) {
+                count++;
+            }
+            return count;
+        } finally {
+            connection.close();
+        }
+    }
+
+}
@@ -0,0 +1,145 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.binding.jms.runtime.wire;
+
+import javax.jms.Connection;
+import javax.jms.JMSException;
+import javax.jms.MessageConsumer;
+import javax.jms.MessageProducer;
+import javax.jms.Queue;
+import javax.jms.Session;
+import javax.jms.TextMessage;
+import javax.transaction.Status;
+import javax.transaction.TransactionManager;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import junit.framework.TestCase;
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.apache.activemq.command.ActiveMQQueue;
+import org.easymock.EasyMock;
+import org.fabric3.api.binding.jms.model.CorrelationScheme;
+import org.fabric3.binding.jms.runtime.pool.JmsResourcePool;
+import org.fabric3.binding.jms.spi.provision.OperationPayloadTypes;
+import org.fabric3.binding.jms.spi.provision.PayloadType;
+import org.fabric3.binding.jms.spi.provision.SessionType;
+import org.fabric3.spi.container.invocation.Message;
+import org.fabric3.spi.container.invocation.MessageImpl;
+import org.fabric3.spi.container.invocation.WorkContextCache;
+
+/**
+ * Verifies callers waiting for responses do not hold pooled sessions using an embedded, non-persistent ActiveMQ broker.
+ */
+public class JmsInterceptorTestCase extends TestCase {
+    private static final String BROKER_URL = "vm://interceptor?broker.persistent=false&broker.useJmx=false";
+    private static final int MAX_SESSIONS = 2;
+    private static final int CALLERS = 8;
+
+    private ActiveMQConnectionFactory factory;
+    private Queue requestQueue;
+    private Queue responseQueue;
+    private Connection serviceConnection;
+    private JmsResourcePool pool;
+
+    public void testMoreWaitingCallersThanSessions() throws Exception {
+        JmsInterceptor interceptor = createInterceptor();
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<Object>> futures = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                String body = "request" + i;
+                futures.add(executor.submit(() -> {
+                    Message message = new MessageImpl();
+                    message.setWorkContext(WorkContextCache.getAndResetThreadWorkContext());
+                    message.setBody(new Object[]{body});
+                    return interceptor.invoke(message).getBody();
+                }));
+            }
+            for (int i = 0; i < CALLERS; i++) {
+                assertEquals("request" + i, futures.get(i).get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(0, pool.getTimeouts());
+        assertEquals(0, pool.getActiveSessions());
+    }
+
+    public void setUp() throws Exception {
+        super.setUp();
+        factory = new ActiveMQConnectionFactory(BROKER_URL);
+        requestQueue = new ActiveMQQueue("request." + getName());
+        responseQueue = new ActiveMQQueue("response." + getName());
+        pool = new JmsResourcePool(factory, null, MAX_SESSIONS, 1000);
+
+        // echo service that responds only after all callers are waiting
+        serviceConnection = factory.createConnection();
+        Session serviceSession = serviceConnection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+        MessageProducer responseProducer = serviceSession.createProducer(null);
+        MessageConsumer requestConsumer = serviceSession.createConsumer(requestQueue);
+        List<javax.jms.Message> requests = Collections.synchronizedList(new ArrayList<>());
+        requestConsumer.setMessageListener(request -> {
+            requests.add(request);
+            if (requests.size() < CALLERS) {
+                return;
+            }
+            try {
+                for (javax.jms.Message received : requests) {
+                    TextMessage response = serviceSession.createTextMessage(((TextMessage) received).getText());
+                    response.setJMSCorrelationID(received.getJMSCorrelationID());
+                    responseProducer.send(received.getJMSReplyTo(), response);
+                }
+            } catch (JMSException e) {
+                throw new AssertionError(e);
+            }
+        });
+        serviceConnection.start();
+    }
+
+    public void tearDown() throws Exception {
+        super.tearDown();
+        pool.close();
+        serviceConnection.close();
+    }
+
+    private JmsInterceptor createInterceptor() throws Exception {
+        TransactionManager tm = EasyMock.createMock(TransactionManager.class);
+        EasyMock.expect(tm.getStatus()).andReturn(Status.STATUS_NO_TRANSACTION).anyTimes();
+        EasyMock.replay(tm);
+
+        WireConfiguration wireConfiguration = new WireConfiguration();
+        wireConfiguration.setRequestDestination(requestQueue);
+        wireConfiguration.setRequestConnectionFactory(factory);
+        wireConfiguration.setRequestPool(pool);
+        wireConfiguration.setCorrelationScheme(CorrelationScheme.CORRELATION_ID);
+        wireConfiguration.setResponseListener(pool.getResponseListener(responseQueue, CorrelationScheme.CORRELATION_ID));
+        wireConfiguration.setClassloader(getClass().getClassLoader());
+        wireConfiguration.setSessionType(SessionType.AUTO_ACKNOWLEDGE);
+        wireConfiguration.setTransactionManager(tm);
+        wireConfiguration.setResponseTimeout(5000);
+
+        InterceptorConfiguration configuration = new InterceptorConfiguration(wireConfiguration);
+        configuration.setOperationName("echo");
+        configuration.setPayloadType(new OperationPayloadTypes("echo", PayloadType.TEXT, PayloadType.TEXT, PayloadType.TEXT));
+        return new JmsInterceptor(configuration, null);
+    }
+
+}
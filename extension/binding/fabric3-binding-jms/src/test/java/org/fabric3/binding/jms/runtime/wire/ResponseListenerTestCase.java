@@ -0,0 +1,225 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.binding.jms.runtime.wire;
+
+import javax.jms.Connection;
+import javax.jms.ConnectionFactory;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.MessageProducer;
+import javax.jms.Queue;
+import javax.jms.Session;
+import javax.jms.TextMessage;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.apache.activemq.command.ActiveMQQueue;
+import org.apache.activemq.command.ActiveMQTextMessage;
+import org.fabric3.api.binding.jms.model.CorrelationScheme;
+import org.oasisopen.sca.ServiceRuntimeException;
+
+/**
+ * Exercises request-response correlation against an embedded, non-persistent ActiveMQ broker and an echo service.
+ */
+public class ResponseListenerTestCase extends TestCase {
+    private static final String BROKER_URL = "vm://response?broker.persistent=false&broker.useJmx=false";
+    private static final int THREADS = 4;
+    private static final int REQUESTS = 25;
+
+    private ActiveMQConnectionFactory factory;
+    private Queue requestQueue;
+    private Queue responseQueue;
+    private Connection serviceConnection;
+    private Connection clientConnection;
+    private ResponseListener listener;
+
+    public void testSelectorReceive() throws Exception {
+        listener = new ResponseListener(responseQueue, CorrelationScheme.MESSAGE_ID);
+        invokeConcurrently(CorrelationScheme.MESSAGE_ID);
+    }
+
+    public void testSharedReceiveMessageId() throws Exception {
+        listener = new ResponseListener(responseQueue, CorrelationScheme.MESSAGE_ID, factory);
+        invokeConcurrently(CorrelationScheme.MESSAGE_ID);
+    }
+
+    public void testSharedReceiveCorrelationId() throws Exception {
+        listener = new ResponseListener(responseQueue, CorrelationScheme.CORRELATION_ID, factory);
+        invokeConcurrently(CorrelationScheme.CORRELATION_ID);
+    }
+
+    public void testSharedReceiveTimeout() throws Exception {
+        listener = new ResponseListener(responseQueue, CorrelationScheme.CORRELATION_ID, factory);
+        assertNull(listener.receive(listener.createCorrelationId(), null, 10));
+    }
+
+    public void testResponseBeforeReceive() throws Exception {
+        listener = new ResponseListener(responseQueue, CorrelationScheme.CORRELATION_ID, factory);
+        String correlationId = listener.createCorrelationId();
+        ActiveMQTextMessage response = new ActiveMQTextMessage();
+        response.setJMSCorrelationID(correlationId);
+        listener.onMessage(response);
+
+        assertSame(response, listener.receive(correlationId, null, 10));
+    }
+
+    public void testExceptionFailsPendingAndRecreatesConsumer() throws Exception {
+        listener = new ResponseListener(responseQueue, CorrelationScheme.CORRELATION_ID, factory);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            String correlationId = listener.createCorrelationId();
+            Future<Message> future = executor.submit(() -> listener.receive(correlationId, null, 10000));
+            while (listener.getPendingCount() == 0) {
+                Thread.sleep(1);
+            }
+            listener.onException(new JMSException("test"));
+            try {
+                future.get(5, TimeUnit.SECONDS);
+                fail();
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof ServiceRuntimeException);
+            }
+            assertEquals(0, listener.getPendingCount());
+        } finally {
+            executor.shutdownNow();
+        }
+        // the consumer was recreated and receives subsequent responses
+        invokeConcurrently(CorrelationScheme.CORRELATION_ID);
+    }
+
+    public void testFallbackWithoutExceptionListener() throws Exception {
+        ConnectionFactory rejecting = new ActiveMQConnectionFactory(BROKER_URL) {
+            public Connection createConnection() throws JMSException {
+                Connection connection = super.createConnection();
+                return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    if ("setExceptionListener".equals(method.getName())) {
+                        throw new JMSException("Not supported");
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+            }
+        };
+        listener = new ResponseListener(responseQueue, CorrelationScheme.CORRELATION_ID, rejecting);
+        invokeConcurrently(CorrelationScheme.CORRELATION_ID);
+        assertFalse(listener.isShared());
+    }
+
+    public void testSharedRequiresCorrelation() throws Exception {
+        try {
+            new ResponseListener(responseQueue, CorrelationScheme.NONE, factory);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    public void setUp() throws Exception {
+        super.setUp();
+        factory = new ActiveMQConnectionFactory(BROKER_URL);
+        requestQueue = new ActiveMQQueue("request." + getName());
+        responseQueue = new ActiveMQQueue("response." + getName());
+
+        // echo service
+        serviceConnection = factory.createConnection();
+        Session serviceSession = serviceConnection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+        MessageProducer responseProducer = serviceSession.createProducer(null);
+        MessageConsumer requestConsumer = serviceSession.createConsumer(requestQueue);
+        requestConsumer.setMessageListener(request -> {
+            try {
+                TextMessage response = serviceSession.createTextMessage(((TextMessage) request).getText());
+                String correlationId = request.getJMSCorrelationID();
+                response.setJMSCorrelationID(correlationId != null ? correlationId : request.getJMSMessageID());
+                responseProducer.send(request.getJMSReplyTo(), response);
+            } catch (JMSException e) {
+                throw new AssertionError(e);
+            }
+        });
+        serviceConnection.start();
+
+        clientConnection = factory.createConnection();
+        clientConnection.start();
+    }
+
+    public void tearDown() throws Exception {
+        super.tearDown();
+        if (listener != null) {
+            listener.close();
+        }
+        clientConnection.close();
+        serviceConnection.close();
+    }
+
+    private void invokeConcurrently(CorrelationScheme scheme) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                int thread = i;
+                futures.add(executor.submit(() -> {
+                    Session session = clientConnection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+                    try {
+                        MessageProducer producer = session.createProducer(requestQueue);
+                        for (int j = 0; j < REQUESTS; j++) {
+                            String body = thread + ":" + j;
+                            assertEquals(body, invoke(scheme, session, producer, body));
+                        }
+                    } finally {
+                        session.close();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private String invoke(CorrelationScheme scheme, Session session, MessageProducer producer, String body) throws JMSException {
+        TextMessage request = session.createTextMessage(body);
+        request.setJMSReplyTo(listener.getDestination());
+        String correlationId = null;
+        if (CorrelationScheme.CORRELATION_ID == scheme) {
+            correlationId = listener.createCorrelationId();
+            request.setJMSCorrelationID(correlationId);
+        }
+        producer.send(request);
+        if (correlationId == null) {
+            correlationId = request.getJMSMessageID();
+        }
+        Message response = listener.receive(correlationId, session, 5000);
+        assertNotNull(response);
+        return ((TextMessage) response).getText();
+    }
+
+}
@@ -22,6 +22,7 @@ import java.net.URL;
 
 import org.fabric3.api.annotation.model.Component;
 import org.fabric3.api.host.stream.UrlSource;
+import org.fabric3.spi.contribution.ClassFileInfo;
 import org.fabric3.spi.contribution.Constants;
 import org.fabric3.spi.contribution.Contribution;
 import org.fabric3.spi.contribution.JavaArtifactIntrospector;
@@ -53,4 +54,8 @@ public class RsProviderIntrospector implements JavaArtifactIntrospector {
         return resource;
     }
 
+    public boolean isCandidate(ClassFileInfo info, Contribution contribution) {
+        return info.isAnnotated() && !info.isAbstract();
+    }
+
 }
@@ -95,6 +95,7 @@ public class ZeroMQWireBrokerImpl implements ZeroMQWireBroker, DynamicOneWaySend
     private ExecutorService executorService;
     private MessagingMonitor monitor;
     private long pollTimeout = 10000000;
+    private long requestTimeout = 100000;
     private TransformerInterceptorFactory interceptorFactory;
     private String host;
     private String hostAddress;
@@ -137,6 +138,17 @@ public class ZeroMQWireBrokerImpl implements ZeroMQWireBroker, DynamicOneWaySend
         this.pollTimeout = timeout * 1000; // convert milliseconds to microseconds
     }
 
+    /**
+     * Sets the timeout in milliseconds to wait for a response to a request-reply invocation.
+     *
+     * @param timeout the timeout in milliseconds
+     */
+    @Property(required = false)
+    @Source("$systemConfig//f3:zeromq.binding/@request.timeout")
+    public void setRequestTimeout(long timeout) {
+        this.requestTimeout = timeout;
+    }
+
     /**
      * Sets this host to bind the publisher to.
      *
@@ -232,7 +244,7 @@ public class ZeroMQWireBrokerImpl implements ZeroMQWireBroker, DynamicOneWaySend
         if (oneWay) {
             receiver = new NonReliableOneWayReceiver(manager, address, chains, executorService, metadata, monitor);
         } else {
-            receiver = new NonReliableRequestReplyReceiver(manager, address, chains, executorService, pollTimeout, metadata, monitor);
+            receiver = new NonReliableRequestReplyReceiver(manager, address, chains, executorService, metadata, monitor);
         }
         receiver.start();
 
@@ -352,7 +364,7 @@ public class ZeroMQWireBrokerImpl implements ZeroMQWireBroker, DynamicOneWaySend
         if (oneWay) {
             sender = new NonReliableOneWaySender(endpointId, manager, addresses, pollTimeout, metadata, monitor);
         } else {
-            sender = new NonReliableRequestReplySender(endpointId, manager, addresses, pollTimeout, metadata, monitor);
+            sender = new NonReliableRequestReplySender(endpointId, manager, addresses, pollTimeout, requestTimeout, metadata, monitor);
         }
         SenderHolder holder = new SenderHolder(sender);
         sender.start();
@@ -54,6 +54,9 @@ public abstract class AbstractReceiver implements Receiver, Thread.UncaughtExcep
 
     protected Receiver receiver;
     protected ZeroMQMetadata metadata;
+
+    // set by subclasses that queue responses from other threads and must wake the receiver to send them
+    protected SignalSocket signal;
     protected String id = getClass().getName() + ":" + UUID.randomUUID().toString();
 
     /**
@@ -173,33 +176,24 @@ public abstract class AbstractReceiver implements Receiver, Thread.UncaughtExcep
                         monitor.error("Failed to initialize ZeroMQ socket, aborting receiver");
                         return;
                     }
-                    long val = poller.poll();
+                    long val = poller.poll(-1);
                     if (val > 0) {
                         byte[] controlPayload = controlSocket.recv(ZMQ.NOBLOCK);
                         if (controlPayload != null) {
-                            try {
-                                socket.close();
-                                controlSocket.close();
-                            } finally {
-                                manager.release(id);
-                            }
+                            close();
                             return;
                         }
-
-                        if (!invoke(socket)) {
-                            continue;
+                        if (signal != null) {
+                            // clear before responses are drained so responses queued afterwards signal again
+                            signal.clear();
                         }
-                        response(socket);
+                        invoke(socket);
                     }
+                    response(socket);
                 }
                 // the socket must be closed here on this thread!
                 if (socket != null) {
-                    try {
-                        socket.close();
-                        controlSocket.close();
-                    } finally {
-                        manager.release(id);
-                    }
+                    close();
                     socket = null;
                 }
             } catch (RuntimeException e) {
@@ -227,6 +221,21 @@ public abstract class AbstractReceiver implements Receiver, Thread.UncaughtExcep
             poller = manager.getContext().poller();
             poller.register(controlSocket, ZMQ.Poller.POLLIN);
             poller.register(socket, ZMQ.Poller.POLLIN);
+            if (signal != null) {
+                poller.register(signal.bind(), ZMQ.Poller.POLLIN);
+            }
+        }
+
+        private void close() {
+            try {
+                socket.close();
+                controlSocket.close();
+                if (signal != null) {
+                    signal.close();
+                }
+            } finally {
+                manager.release(id);
+            }
         }
 
     }
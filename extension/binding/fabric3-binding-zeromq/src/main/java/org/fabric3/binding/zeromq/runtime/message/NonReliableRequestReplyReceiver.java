@@ -23,7 +23,6 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.TimeUnit;
 
 import org.fabric3.api.annotation.management.Management;
 import org.fabric3.api.binding.zeromq.model.ZeroMQMetadata;
@@ -45,12 +44,15 @@ import org.zeromq.ZMQ.Socket;
  * Since ZeroMQ requires the creating socket thread to receive messages, a polling thread is used for reading messages from the ZeroMQ socket. The receiver
  * listens for address updates (e.g. a sender coming online or going away). Since ZeroMQ does not implement disconnect semantics on a socket, if an update is
  * received the original socket will be closed and a new one created to connect to the update set of addresses.
+ *
+ * Requests carry a correlation frame which is echoed on the response. Invocations are dispatched concurrently and responses are returned as they complete,
+ * allowing senders to pipeline requests. A completed invocation queues its response and wakes the polling thread through a {@link SignalSocket}, which
+ * then sends it.
  */
 @Management
 public class NonReliableRequestReplyReceiver extends AbstractReceiver implements Thread.UncaughtExceptionHandler {
-    private static final Response SHUTDOWN = new Response(null, null);
+    private static final Response SHUTDOWN = new Response(null, null, null);
     private LinkedBlockingQueue<Response> queue;
-    private final long pollTimeout;
 
     /**
      * Constructor.
@@ -60,19 +62,17 @@ public class NonReliableRequestReplyReceiver extends AbstractReceiver implements
      * @param chains          the invocation chains for dispatching invocations
      * @param executorService the runtime executor service
      * @param metadata        metadata
-     * @param pollTimeout     timeout for polling operations in microseconds
      * @param monitor         the monitor
      */
     public NonReliableRequestReplyReceiver(ContextManager manager,
                                            SocketAddress address,
                                            List<InvocationChain> chains,
                                            ExecutorService executorService,
-                                           long pollTimeout,
                                            ZeroMQMetadata metadata,
                                            MessagingMonitor monitor) {
         super(manager, address, chains, ZMQ.XREP, metadata, executorService, monitor);
-        this.pollTimeout = pollTimeout;
         queue = new LinkedBlockingQueue<>();
+        signal = new SignalSocket(manager);
     }
 
     protected boolean invoke(Socket socket) {
@@ -82,25 +82,33 @@ public class NonReliableRequestReplyReceiver extends AbstractReceiver implements
             // nothing was received, just return
             return false;
         }
-        final byte[][] frames = new byte[3][];
+        // frames are the correlation id, body, operation index and optional work context
+        final byte[][] frames = new byte[4][];
         int i = 1;
         frames[0] = socket.recv(0);
         while (socket.hasReceiveMore()) {
-            if (i > 2) {
-                monitor.error("Invalid message: received more than three frames");
+            if (i > 3) {
+                monitor.error("Invalid message: received more than four frames");
+                while (socket.hasReceiveMore()) {
+                    socket.recv(0);
+                }
                 return false;
             }
             frames[i] = socket.recv(0);
             i++;
         }
+        if (i < 3) {
+            monitor.error("Invalid message: missing correlation, body or operation frame");
+            return false;
+        }
         executorService.execute(new Runnable() {
             public void run() {
                 Message request = MessageCache.getAndResetMessage();
                 try {
 
-                    request.setBody(frames[0]);
-                    int methodIndex = ByteBuffer.wrap(frames[1]).getInt();
-                    WorkContext context = setWorkContext(frames[2]);
+                    request.setBody(frames[1]);
+                    int methodIndex = ByteBuffer.wrap(frames[2]).getInt();
+                    WorkContext context = setWorkContext(frames[3]);
 
                     request.setWorkContext(context);
 
@@ -114,9 +122,10 @@ public class NonReliableRequestReplyReceiver extends AbstractReceiver implements
                         throw new ServiceRuntimeException("Return value not serialized");
                     }
 
-                    // queue the response
+                    // queue the response and wake the polling thread to send it
                     try {
-                        queue.put(new Response(clientId, (byte[]) responseBody));
+                        queue.put(new Response(clientId, frames[0], (byte[]) responseBody));
+                        signal.signal();
                     } catch (InterruptedException e) {
                         Thread.interrupted();
                     }
@@ -132,34 +141,27 @@ public class NonReliableRequestReplyReceiver extends AbstractReceiver implements
     }
 
     protected void response(Socket socket) {
-        try {
-            Response first = queue.poll(pollTimeout, TimeUnit.MICROSECONDS);
-            if (first == null || SHUTDOWN == first) {
+        List<Response> drained = new ArrayList<>();
+        queue.drainTo(drained);
+        for (Response response : drained) {
+            if (SHUTDOWN == response) {
                 // don't close socket in case of shutdown as it is handled in the superclass
                 return;
             }
-            List<Response> drained = new ArrayList<>();
-            drained.add(first);
-            queue.drainTo(drained);
-
-            for (Response response : drained) {
-                if (SHUTDOWN == response){
-                    return;
-                }
-                socket.send(response.clientId, ZMQ.SNDMORE);
-                socket.send(response.body, 0);
-            }
-        } catch (InterruptedException e) {
-            Thread.interrupted();
+            socket.send(response.clientId, ZMQ.SNDMORE);
+            socket.send(response.correlationId, ZMQ.SNDMORE);
+            socket.send(response.body, 0);
         }
     }
 
     private static class Response {
         private byte[] clientId;
+        private byte[] correlationId;
         private byte[] body;
 
-        private Response(byte[] clientId, byte[] body) {
+        private Response(byte[] clientId, byte[] correlationId, byte[] body) {
             this.clientId = clientId;
+            this.correlationId = correlationId;
             this.body = body;
         }
     }
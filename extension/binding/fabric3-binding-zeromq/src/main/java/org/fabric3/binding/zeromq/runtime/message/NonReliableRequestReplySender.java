@@ -20,11 +20,11 @@ package org.fabric3.binding.zeromq.runtime.message;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
@@ -51,39 +51,60 @@ import org.zeromq.ZMQ.Socket;
  * A {@link RequestReplySender} that provides no qualities of service.
  *
  * Since ZeroMQ requires the creating socket thread to dispatch messages, a looping thread is used for sending messages. Messages are provided to the thread via
- * a queue.
+ * a queue. The thread polls the service sockets for responses and is woken through a {@link SignalSocket} when a request is queued.
+ *
+ * Requests are pipelined: each request is sent with a correlation frame and the dispatcher does not wait for a response before sending the next request.
+ * Responses echo the correlation frame and are matched to the waiting caller as they arrive, in any order. Requests that have not received a response within
+ * the request timeout are failed with a {@link ServiceUnavailableException}.
  */
 public class NonReliableRequestReplySender implements RequestReplySender, Thread.UncaughtExceptionHandler {
     private static final Callable<byte[]> CALLABLE = () -> null;
-    private static final Request SHUTDOWN = new Request(null, 0, null);
+    private static final Request SHUTDOWN = new Request(null, 0, null, 0);
+
+    // interval in milliseconds between sweeps for expired requests
+    private static final long EXPIRE_INTERVAL = 100;
 
     private String id;
     private ContextManager manager;
     private List<SocketAddress> addresses;
     private long pollTimeout;
+    private long requestTimeout;
     private MessagingMonitor monitor;
 
     private Dispatcher dispatcher;
 
     private RoundRobinSocketMultiplexer multiplexer;
-    private Map<Socket, ZMQ.Poller> pollers;
 
     private LinkedBlockingQueue<Request> queue;
+    private SignalSocket signal;
 
+    /**
+     * Constructor.
+     *
+     * @param id             the sender id
+     * @param manager        the ZeroMQ Context manager
+     * @param addresses      the addresses of the target service
+     * @param pollTimeout    timeout for polling the request queue in microseconds
+     * @param requestTimeout the time in milliseconds to wait for a response before a request is failed
+     * @param metadata       metadata
+     * @param monitor        the monitor
+     */
     public NonReliableRequestReplySender(String id,
                                          ContextManager manager,
                                          List<SocketAddress> addresses,
                                          long pollTimeout,
+                                         long requestTimeout,
                                          ZeroMQMetadata metadata,
                                          MessagingMonitor monitor) {
         this.id = id;
         this.manager = manager;
         this.addresses = addresses;
         this.pollTimeout = pollTimeout;
+        this.requestTimeout = requestTimeout;
         this.monitor = monitor;
         multiplexer = new RoundRobinSocketMultiplexer(manager, ZMQ.XREQ, metadata);
         queue = new LinkedBlockingQueue<>();
-        pollers = new ConcurrentHashMap<>();
+        signal = new SignalSocket(manager);
     }
 
     public void start() {
@@ -98,6 +119,7 @@ public class NonReliableRequestReplySender implements RequestReplySender, Thread
         try {
             dispatcher.stop();
             queue.put(SHUTDOWN);
+            signal.signal();
         } catch (InterruptedException e) {
             monitor.error(e);
         } finally {
@@ -113,20 +135,31 @@ public class NonReliableRequestReplySender implements RequestReplySender, Thread
         // refresh socket
         this.addresses = AddressUpdater.accept(change, entry, addresses);
         dispatcher.refresh();
+        signal.signal();
     }
 
     public byte[] sendAndReply(byte[] message, int index, WorkContext workContext) {
+        Request request = null;
         try {
             byte[] serializedWorkContext = serialize(workContext);
-            Request request = new Request(message, index, serializedWorkContext);
+            long expiration = System.currentTimeMillis() + requestTimeout;
+            request = new Request(message, index, serializedWorkContext, expiration);
             queue.put(request);
-            return request.get(100000, TimeUnit.MILLISECONDS);
+            signal.signal();
+            return request.get(requestTimeout, TimeUnit.MILLISECONDS);
         } catch (InterruptedException e) {
             Thread.interrupted();
             throw new ServiceRuntimeException(e);
         } catch (ExecutionException e) {
+            if (e.getCause() instanceof ServiceUnavailableException) {
+                throw (ServiceUnavailableException) e.getCause();
+            }
             throw new ServiceRuntimeException(e);
-        } catch (TimeoutException | Fabric3Exception e) {
+        } catch (TimeoutException e) {
+            // the dispatcher discards the cancelled request when it expires
+            request.cancel(false);
+            throw new ServiceUnavailableException(e);
+        } catch (Fabric3Exception e) {
             throw new ServiceUnavailableException(e);
         }
     }
@@ -158,12 +191,22 @@ public class NonReliableRequestReplySender implements RequestReplySender, Thread
     }
 
     /**
-     * Dispatches requests to the ZeroMQ socket.
+     * Dispatches requests to the ZeroMQ socket and matches responses to outstanding requests.
+     *
+     * Outstanding requests are only accessed from the dispatcher thread and therefore do not need to be guarded.
      */
     private class Dispatcher implements Runnable {
         private AtomicBoolean active = new AtomicBoolean(true);
         private AtomicBoolean doRefresh = new AtomicBoolean(true);
         private Socket controlSocket;
+        private Socket signalSocket;
+        private ZMQ.Poller poller;
+        // time in milliseconds to wait when no requests are outstanding before checking whether the dispatcher is active
+        private long idleTimeout = Math.max(1, TimeUnit.MICROSECONDS.toMillis(pollTimeout));
+        private List<Socket> sockets = new ArrayList<>();
+        private Map<Long, Request> outstanding = new HashMap<>();
+        private long correlationId;
+        private long lastExpiration = System.currentTimeMillis();
 
         /**
          * Signals to closes the old socket and establish a new one when publisher addresses have changed in the domain.
@@ -184,77 +227,137 @@ public class NonReliableRequestReplySender implements RequestReplySender, Thread
                 try {
                     reconnect();
 
-                    // handle pending requests
+                    // clear the signal before draining so requests queued afterwards wake the poller
+                    signal.clear();
                     List<Request> drained = new ArrayList<>();
-                    Request value = queue.poll(pollTimeout, TimeUnit.MICROSECONDS);
-                    if (SHUTDOWN == value) {
-                        multiplexer.close();
-                        controlSocket.close();
-                        return;
-                    }
-                    // if no available socket, drop the message
-                    if (!multiplexer.isAvailable()) {
-                        monitor.dropMessage();
-                        continue;
-                    }
-
-                    if (value != null) {
-                        drained.add(value);
-                        queue.drainTo(drained);
-                    }
+                    queue.drainTo(drained);
                     for (Request request : drained) {
-                        Socket socket = multiplexer.get();
-
-                        socket.send(request.getPayload(), ZMQ.SNDMORE);
-
-                        // serialize the operation index
-                        int index = request.getIndex();
-                        byte[] serializedIndex = ByteBuffer.allocate(4).putInt(index).array();
-
-                        byte[] context = request.getWorkContext();
-                        if (context != null && context.length > 0) {
-                            socket.send(serializedIndex, ZMQ.SNDMORE);
-                            socket.send(context, 0);
-                        } else {
-                            socket.send(serializedIndex, 0);
+                        if (SHUTDOWN == request) {
+                            close();
+                            return;
                         }
+                        send(request);
+                    }
 
-                        ZMQ.Poller poller = pollers.get(socket);
-                        long val = poller.poll(pollTimeout);
-                        if (val < 0) {
-                            // response timed out, return an error to the waiting thread
-                            //noinspection ThrowableInstanceNeverThrown
-                            request.setException(new ServiceUnavailableException("Timeout waiting on response"));
-                            request.run();
-                            continue;
-                        }
+                    // wait for responses or new requests, waking periodically to expire outstanding requests
+                    long val = poller.poll(outstanding.isEmpty() ? idleTimeout : EXPIRE_INTERVAL);
+                    if (val > 0) {
                         byte[] controlPayload = controlSocket.recv(ZMQ.NOBLOCK);
                         if (controlPayload != null) {
-                            multiplexer.close();
-                            if (controlSocket != null) {
-                                controlSocket.close();
-                            }
+                            close();
                             return;
                         }
-
-                        byte[] response = socket.recv(0);
-                        request.set(response);
-                        request.run();
+                        receive();
                     }
+                    expire();
                 } catch (RuntimeException e) {
                     // exception, make sure the thread is rescheduled
                     schedule();
                     throw e;
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
                 }
 
             }
+            close();
+        }
+
+        /**
+         * Sends a request on the next available socket, recording it as outstanding.
+         *
+         * @param request the request
+         */
+        private void send(Request request) {
+            // if no available socket, drop the message
+            if (!multiplexer.isAvailable()) {
+                monitor.dropMessage();
+                request.setException(new ServiceUnavailableException("No available service endpoint"));
+                return;
+            }
+            if (request.isCancelled()) {
+                // the caller timed out before the request was sent
+                return;
+            }
+            long correlation = correlationId++;
+            outstanding.put(correlation, request);
+
+            Socket socket = multiplexer.get();
+
+            socket.send(ByteBuffer.allocate(8).putLong(correlation).array(), ZMQ.SNDMORE);
+            socket.send(request.getPayload(), ZMQ.SNDMORE);
+
+            // serialize the operation index
+            int index = request.getIndex();
+            byte[] serializedIndex = ByteBuffer.allocate(4).putInt(index).array();
+
+            byte[] context = request.getWorkContext();
+            if (context != null && context.length > 0) {
+                socket.send(serializedIndex, ZMQ.SNDMORE);
+                socket.send(context, 0);
+            } else {
+                socket.send(serializedIndex, 0);
+            }
+        }
+
+        /**
+         * Reads all available responses and completes the corresponding requests. Responses for requests that have expired are discarded.
+         */
+        private void receive() {
+            for (Socket socket : sockets) {
+                byte[] correlation;
+                while ((correlation = socket.recv(ZMQ.NOBLOCK)) != null) {
+                    if (!socket.hasReceiveMore()) {
+                        monitor.error("Invalid response: missing body frame");
+                        continue;
+                    }
+                    byte[] response = socket.recv(0);
+                    while (socket.hasReceiveMore()) {
+                        // discard unexpected frames
+                        socket.recv(0);
+                    }
+                    if (correlation.length != 8) {
+                        monitor.error("Invalid response: malformed correlation frame");
+                        continue;
+                    }
+                    Request request = outstanding.remove(ByteBuffer.wrap(correlation).getLong());
+                    if (request != null) {
+                        request.set(response);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Fails outstanding requests that have passed their expiration time.
+         */
+        private void expire() {
+            long now = System.currentTimeMillis();
+            if (now - lastExpiration < EXPIRE_INTERVAL) {
+                return;
+            }
+            lastExpiration = now;
+            for (Iterator<Request> iterator = outstanding.values().iterator(); iterator.hasNext(); ) {
+                Request request = iterator.next();
+                if (request.isDone() || request.getExpiration() <= now) {
+                    iterator.remove();
+                    //noinspection ThrowableInstanceNeverThrown
+                    request.setException(new ServiceUnavailableException("Timeout waiting on response"));
+                }
+            }
+        }
+
+        /**
+         * Closes the sockets and fails outstanding requests.
+         */
+        private void close() {
+            for (Request request : outstanding.values()) {
+                //noinspection ThrowableInstanceNeverThrown
+                request.setException(new ServiceUnavailableException("Sender stopped"));
+            }
+            outstanding.clear();
             multiplexer.close();
             if (controlSocket != null) {
                 controlSocket.close();
             }
-
+            signal.close();
         }
 
         /**
@@ -266,16 +369,16 @@ public class NonReliableRequestReplySender implements RequestReplySender, Thread
             }
             if (controlSocket == null) {
                 controlSocket = manager.createControlSocket();
+                signalSocket = signal.bind();
             }
 
             multiplexer.update(addresses);
-            Collection<Socket> sockets = multiplexer.getAll();
-            pollers.clear();
+            sockets = new ArrayList<>(multiplexer.getAll());
+            poller = manager.getContext().poller();
+            poller.register(controlSocket, ZMQ.Poller.POLLIN);
+            poller.register(signalSocket, ZMQ.Poller.POLLIN);
             for (Socket socket : sockets) {
-                ZMQ.Poller poller = manager.getContext().poller();
                 poller.register(socket, ZMQ.Poller.POLLIN);
-                poller.register(controlSocket, ZMQ.Poller.POLLIN);
-                pollers.put(socket, poller);
             }
         }
     }
@@ -287,12 +390,14 @@ public class NonReliableRequestReplySender implements RequestReplySender, Thread
         private byte[] payload;
         private byte[] workContext;
         private int index;
+        private long expiration;
 
-        public Request(byte[] payload, int index, byte[] workContext) {
+        public Request(byte[] payload, int index, byte[] workContext, long expiration) {
             super(CALLABLE);
             this.payload = payload;
             this.index = index;
             this.workContext = workContext;
+            this.expiration = expiration;
         }
 
         public byte[] getPayload() {
@@ -307,6 +412,10 @@ public class NonReliableRequestReplySender implements RequestReplySender, Thread
             return workContext;
         }
 
+        public long getExpiration() {
+            return expiration;
+        }
+
         @Override
         public void set(byte[] s) {
             super.set(s);
@@ -0,0 +1,124 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.binding.zeromq.runtime.message;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.fabric3.binding.zeromq.runtime.context.ContextManager;
+import org.zeromq.ZMQ;
+import org.zeromq.ZMQ.Socket;
+
+/**
+ * Wakes a thread polling ZeroMQ sockets when work is queued for it by other threads.
+ *
+ * The polling thread binds an inproc socket using {@link #bind()} and registers it with its poller. Other threads call {@link #signal()} after queueing
+ * work. Signals are coalesced: only the first signal after the polling thread calls {@link #clear()} is sent. The polling thread must therefore clear the
+ * signal before it drains its work queue so that work queued afterwards results in a new signal.
+ *
+ * ZeroMQ sockets must not be used concurrently. The sending socket is shared by signalling threads and access to it is serialized.
+ */
+public class SignalSocket {
+    private static final byte[] SIGNAL = new byte[0];
+
+    private ContextManager manager;
+    private String address = "inproc://fabric3-signal-" + UUID.randomUUID().toString();
+
+    private AtomicBoolean pending = new AtomicBoolean();
+    private volatile boolean bound;
+
+    private Socket receiveSocket;
+    private Socket sendSocket;
+
+    public SignalSocket(ContextManager manager) {
+        this.manager = manager;
+    }
+
+    /**
+     * Creates and binds the socket that receives signals. Must be called by the polling thread.
+     *
+     * @return the socket to register with the poller
+     */
+    public Socket bind() {
+        receiveSocket = manager.getContext().socket(ZMQ.PULL);
+        receiveSocket.setLinger(0);
+        receiveSocket.bind(address);
+        bound = true;
+        return receiveSocket;
+    }
+
+    /**
+     * Wakes the polling thread if a signal is not already pending. Signals sent before the polling thread has bound its socket are discarded as the thread
+     * checks for work before it first polls.
+     */
+    public void signal() {
+        if (!bound || !pending.compareAndSet(false, true)) {
+            return;
+        }
+        synchronized (this) {
+            if (!bound) {
+                return;
+            }
+            if (sendSocket == null) {
+                sendSocket = manager.getContext().socket(ZMQ.PUSH);
+                sendSocket.setLinger(0);
+                sendSocket.connect(address);
+            }
+            sendSocket.send(SIGNAL, ZMQ.NOBLOCK);
+        }
+    }
+
+    /**
+     * Discards received signals and re-arms signalling. Must be called by the polling thread before it drains its work queue.
+     */
+    public void clear() {
+        discardSignals();
+        // reset after draining: a signal sent before the reset is either drained or arrives later as a spurious wakeup, while a signal sent after the
+        // reset is always delivered
+        pending.set(false);
+    }
+
+    /**
+     * Discards signals received by the socket.
+     */
+    void discardSignals() {
+        if (receiveSocket == null) {
+            return;
+        }
+        while (receiveSocket.recv(ZMQ.NOBLOCK) != null) {
+            // discard
+        }
+    }
+
+    /**
+     * Closes the sockets. Must be called by the polling thread.
+     */
+    public void close() {
+        synchronized (this) {
+            bound = false;
+            if (sendSocket != null) {
+                sendSocket.close();
+                sendSocket = null;
+            }
+        }
+        if (receiveSocket != null) {
+            receiveSocket.close();
+            receiveSocket = null;
+        }
+    }
+
+}
@@ -0,0 +1,164 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.binding.zeromq.runtime.message;
+
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+import org.easymock.EasyMock;
+import org.fabric3.api.binding.zeromq.model.ZeroMQMetadata;
+import org.fabric3.binding.zeromq.runtime.MessagingMonitor;
+import org.fabric3.binding.zeromq.runtime.SocketAddress;
+import org.fabric3.binding.zeromq.runtime.broker.SpecifiedPort;
+import org.fabric3.binding.zeromq.runtime.context.ContextManagerImpl;
+import org.fabric3.spi.container.invocation.Message;
+import org.fabric3.spi.container.invocation.WorkContextCache;
+import org.fabric3.spi.container.wire.Interceptor;
+import org.fabric3.spi.container.wire.InvocationChain;
+import org.oasisopen.sca.ServiceUnavailableException;
+
+/**
+ * Verifies request-reply invocations over local sockets.
+ */
+public class NonReliableRequestReplySenderTestCase extends TestCase {
+    private static final int CALLERS = 10;
+    private static final long DELAY = 300;
+
+    private ContextManagerImpl manager;
+    private ExecutorService executorService;
+    private SocketAddress address;
+    private NonReliableRequestReplyReceiver receiver;
+    private NonReliableRequestReplySender sender;
+
+    // when set, invocations wait until all callers have arrived instead of sleeping
+    private volatile CountDownLatch arrived;
+    private AtomicInteger overlapped = new AtomicInteger();
+
+    public void testPipelinedRequests() throws Exception {
+        arrived = new CountDownLatch(CALLERS);
+        createSender(10000);
+
+        List<Callable<String>> calls = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            String payload = "request" + i;
+            calls.add(() -> new String(sender.sendAndReply(payload.getBytes(), 0, WorkContextCache.getAndResetThreadWorkContext())));
+        }
+
+        List<Future<String>> results = executorService.invokeAll(calls);
+
+        for (int i = 0; i < CALLERS; i++) {
+            // responses must be correlated to the caller that issued the request
+            assertEquals("request" + i, results.get(i).get());
+        }
+        // every invocation was in progress at the same time: requests dispatched one at a time would never release the latch
+        assertEquals(CALLERS, overlapped.get());
+    }
+
+    public void testRequestTimeout() throws Exception {
+        createSender(DELAY / 3);
+        try {
+            sender.sendAndReply("request".getBytes(), 0, WorkContextCache.getAndResetThreadWorkContext());
+            fail();
+        } catch (ServiceUnavailableException e) {
+            // expected
+        }
+
+        // the late response is discarded and subsequent requests are not affected
+        Thread.sleep(DELAY);
+        sender.stop();
+        createSender(10000);
+        assertEquals("next", new String(sender.sendAndReply("next".getBytes(), 0, WorkContextCache.getAndResetThreadWorkContext())));
+    }
+
+    private void createSender(long requestTimeout) {
+        MessagingMonitor monitor = EasyMock.createNiceMock(MessagingMonitor.class);
+        EasyMock.replay(monitor);
+        List<SocketAddress> addresses = Collections.singletonList(address);
+        sender = new NonReliableRequestReplySender("sender", manager, addresses, 1000000, requestTimeout, new ZeroMQMetadata(), monitor);
+        sender.start();
+    }
+
+    public void setUp() throws Exception {
+        super.setUp();
+        manager = new ContextManagerImpl();
+        manager.init();
+
+        executorService = Executors.newCachedThreadPool();
+
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        address = new SocketAddress("tcp", "127.0.0.1", new SpecifiedPort(port));
+
+        InvocationChain chain = EasyMock.createMock(InvocationChain.class);
+        EasyMock.expect(chain.getHeadInterceptor()).andReturn(new EchoInterceptor());
+        MessagingMonitor monitor = EasyMock.createNiceMock(MessagingMonitor.class);
+        EasyMock.replay(chain, monitor);
+
+        receiver = new NonReliableRequestReplyReceiver(manager, address, Collections.singletonList(chain), executorService, new ZeroMQMetadata(), monitor);
+        receiver.start();
+    }
+
+    public void tearDown() throws Exception {
+        super.tearDown();
+        sender.stop();
+        receiver.stop();
+        manager.destroy();
+        executorService.shutdownNow();
+    }
+
+    /**
+     * Returns the request body after a delay or, when the arrival latch is set, once all callers have been dispatched.
+     */
+    private class EchoInterceptor implements Interceptor {
+
+        public Message invoke(Message msg) {
+            try {
+                CountDownLatch latch = arrived;
+                if (latch == null) {
+                    Thread.sleep(DELAY);
+                } else {
+                    latch.countDown();
+                    if (latch.await(5, TimeUnit.SECONDS)) {
+                        overlapped.incrementAndGet();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return msg;
+        }
+
+        public void setNext(Interceptor next) {
+        }
+
+        public Interceptor getNext() {
+            return null;
+        }
+    }
+}
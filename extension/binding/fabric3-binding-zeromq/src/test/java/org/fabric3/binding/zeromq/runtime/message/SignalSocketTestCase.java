@@ -0,0 +1,72 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.binding.zeromq.runtime.message;
+
+import junit.framework.TestCase;
+import org.fabric3.binding.zeromq.runtime.context.ContextManagerImpl;
+import org.zeromq.ZMQ;
+
+/**
+ *
+ */
+public class SignalSocketTestCase extends TestCase {
+    private ContextManagerImpl manager;
+
+    /**
+     * Verifies a response completed while the polling thread is clearing the signal does not prevent responses completed afterwards from waking the
+     * polling thread.
+     */
+    public void testSignalDuringClear() throws Exception {
+        SignalSocket signal = new SignalSocket(manager) {
+            private boolean signalled;
+
+            void discardSignals() {
+                if (!signalled) {
+                    // a response completes while the signal is being cleared
+                    signalled = true;
+                    signal();
+                }
+                super.discardSignals();
+            }
+        };
+        try {
+            ZMQ.Poller poller = manager.getContext().poller();
+            poller.register(signal.bind(), ZMQ.Poller.POLLIN);
+
+            signal.signal();
+            assertTrue(poller.poll(5000) > 0);
+            signal.clear();
+
+            // a response completed after the clear must wake the polling thread
+            signal.signal();
+            assertTrue(poller.poll(5000) > 0);
+        } finally {
+            signal.close();
+        }
+    }
+
+    public void setUp() throws Exception {
+        super.setUp();
+        manager = new ContextManagerImpl();
+        manager.init();
+    }
+
+    public void tearDown() throws Exception {
+        super.tearDown();
+        manager.destroy();
+    }
+}
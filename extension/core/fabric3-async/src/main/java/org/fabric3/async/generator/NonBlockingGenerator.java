@@ -33,6 +33,13 @@ import org.oasisopen.sca.annotation.EagerInit;
 public class NonBlockingGenerator implements InterceptorGenerator {
 
     public Optional<PhysicalInterceptor> generate(LogicalOperation source, LogicalOperation target) {
-        return source.getDefinition().isOneWay() ? Optional.of(new PhysicalNonBlockingInterceptor()) : Optional.empty();
+        if (!source.getDefinition().isOneWay()) {
+            return Optional.empty();
+        }
+        PhysicalNonBlockingInterceptor interceptor = new PhysicalNonBlockingInterceptor();
+        if (target != null && target.getParent() != null && target.getParent().getParent() != null) {
+            interceptor.setTargetComponent(target.getParent().getParent().getUri());
+        }
+        return Optional.of(interceptor);
     }
 }
@@ -18,12 +18,27 @@
  */
 package org.fabric3.async.provision;
 
+import java.net.URI;
+
 import org.fabric3.spi.model.physical.PhysicalInterceptor;
 
 /**
  * Physical definition for non-blocking operations.
  */
 public class PhysicalNonBlockingInterceptor extends PhysicalInterceptor {
+    private URI targetComponent;
+
+    /**
+     * Returns the URI of the component the operation is invoked on or null if not known.
+     *
+     * @return the target component URI or null
+     */
+    public URI getTargetComponent() {
+        return targetComponent;
+    }
 
+    public void setTargetComponent(URI targetComponent) {
+        this.targetComponent = targetComponent;
+    }
 }
  
\ No newline at end of file
@@ -18,46 +18,35 @@
  */
 package org.fabric3.async.runtime;
 
-import java.util.List;
-import java.util.Map;
-
-import org.fabric3.api.SecuritySubject;
 import org.fabric3.spi.container.invocation.Message;
 import org.fabric3.spi.container.invocation.MessageCache;
 import org.fabric3.spi.container.invocation.WorkContext;
 import org.fabric3.spi.container.invocation.WorkContextCache;
+import org.fabric3.spi.container.invocation.WorkContextSnapshot;
 import org.fabric3.spi.container.wire.Interceptor;
 
 /**
  * Encapsulates an invocation to be processed asynchronously.
+ *
+ * Requests dispatched through a {@link DispatchQueue} are pre-allocated and recycled; their contents are replaced using {@link #set(Interceptor,
+ * Object, WorkContextSnapshot)}.
  */
 public class AsyncRequest implements Runnable {
     private Interceptor next;
     private Object payload;
-    private SecuritySubject subject;
-    private List<String> stack;
-    private Map<String, Object> headers;
+    private WorkContextSnapshot snapshot;
     private NonBlockingMonitor monitor;
 
-    public AsyncRequest(Interceptor next,
-                        Object payload,
-                        SecuritySubject subject,
-                        List<String> stack,
-                        Map<String, Object> headers,
-                        NonBlockingMonitor monitor) {
+    public AsyncRequest(Interceptor next, Object payload, WorkContextSnapshot snapshot, NonBlockingMonitor monitor) {
         this.next = next;
         this.payload = payload;
-        this.subject = subject;
-        this.stack = stack;
-        this.headers = headers;
+        this.snapshot = snapshot;
         this.monitor = monitor;
     }
 
     public void run() {
         WorkContext workContext = WorkContextCache.getAndResetThreadWorkContext();
-        workContext.addCallbackReferences(stack);
-        workContext.addHeaders(headers);
-        workContext.setSubject(subject);
+        workContext.restore(snapshot);
 
         Message message = MessageCache.getAndResetMessage();
         message.setBody(payload);
@@ -78,4 +67,19 @@ public class AsyncRequest implements Runnable {
         return next;
     }
 
+    void set(Interceptor next, Object payload, WorkContextSnapshot snapshot) {
+        this.next = next;
+        this.payload = payload;
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Clears references held by a recycled request so they can be garbage collected.
+     */
+    void clear() {
+        next = null;
+        payload = null;
+        snapshot = null;
+    }
+
 }
@@ -0,0 +1,187 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.async.runtime;
+
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.fabric3.spi.container.invocation.WorkContextSnapshot;
+import org.fabric3.spi.container.wire.Interceptor;
+
+/**
+ * A bounded queue of one-way invocations dedicated to a target component.
+ *
+ * Requests are held in a ring of pre-allocated {@link AsyncRequest}s that are recycled once processed, so enqueuing does not allocate. The queue is
+ * drained serially by a single task scheduled on the executor when requests are pending; invocations on the target component are therefore processed
+ * in the order they were made and do not compete for the shared runtime executor queue.
+ *
+ * If the queue is full, callers block until space is available. Invocations made from the drain task itself, such as a component invoking itself,
+ * cannot wait as that would deadlock. They are instead appended to an unbounded overflow list which the drain task processes after the queued
+ * requests. While the overflow list is not empty, other callers block so that invocations are still processed in the order they were made.
+ */
+public class DispatchQueue implements Runnable {
+    private static final int MAX_DRAIN = 256;
+
+    private URI uri;
+    private Executor executor;
+    private NonBlockingMonitor monitor;
+
+    private final AsyncRequest[] slots;
+    private final int mask;
+    private long head;
+    private long tail;
+    private final ArrayDeque<AsyncRequest> overflow = new ArrayDeque<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private volatile Thread drainThread;
+
+    /**
+     * Constructor.
+     *
+     * @param uri      the target component URI
+     * @param capacity the queue capacity, rounded up to the next power of two
+     * @param executor the executor used to drain the queue
+     * @param monitor  the monitor
+     */
+    public DispatchQueue(URI uri, int capacity, Executor executor, NonBlockingMonitor monitor) {
+        this.uri = uri;
+        this.executor = executor;
+        this.monitor = monitor;
+        int size = Integer.highestOneBit(Math.max(capacity, 1) - 1) << 1;
+        slots = new AsyncRequest[Math.max(size, 1)];
+        mask = slots.length - 1;
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = new AsyncRequest(null, null, null, monitor);
+        }
+    }
+
+    public URI getUri() {
+        return uri;
+    }
+
+    /**
+     * Enqueues an invocation.
+     *
+     * @param next     the next interceptor in the invocation chain
+     * @param payload  the invocation payload
+     * @param snapshot the propagated work context state
+     */
+    public void offer(Interceptor next, Object payload, WorkContextSnapshot snapshot) {
+        lock.lock();
+        try {
+            if (Thread.currentThread() == drainThread) {
+                if (tail - head == slots.length || !overflow.isEmpty()) {
+                    // invoked from the drain task; waiting for space would never complete so append after the queued requests
+                    overflow.add(new AsyncRequest(next, payload, snapshot, monitor));
+                    return;
+                }
+            } else {
+                while (tail - head == slots.length || !overflow.isEmpty()) {
+                    notFull.awaitUninterruptibly();
+                }
+            }
+            slots[(int) (tail & mask)].set(next, payload, snapshot);
+            tail++;
+        } finally {
+            lock.unlock();
+        }
+        schedule();
+    }
+
+    /**
+     * Returns the number of pending invocations.
+     *
+     * @return the number of pending invocations
+     */
+    public int getQueueDepth() {
+        lock.lock();
+        try {
+            return (int) (tail - head) + overflow.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void run() {
+        drainThread = Thread.currentThread();
+        try {
+            for (int i = 0; i < MAX_DRAIN; i++) {
+                AsyncRequest request;
+                boolean queued;
+                lock.lock();
+                try {
+                    // overflow requests were added when the queue was full and therefore follow all queued requests
+                    queued = head != tail;
+                    if (queued) {
+                        request = slots[(int) (head & mask)];
+                    } else if (!overflow.isEmpty()) {
+                        request = overflow.peek();
+                    } else {
+                        break;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                try {
+                    // the request is processed in place; the slot is released once the invocation completes
+                    request.run();
+                } catch (RuntimeException e) {
+                    monitor.onError(e);
+                } finally {
+                    lock.lock();
+                    try {
+                        if (queued) {
+                            request.clear();
+                            head++;
+                            if (overflow.isEmpty()) {
+                                notFull.signal();
+                            }
+                        } else {
+                            overflow.poll();
+                            if (overflow.isEmpty()) {
+                                // callers were held back while overflow requests were pending
+                                notFull.signalAll();
+                            }
+                        }
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+            }
+        } finally {
+            drainThread = null;
+            scheduled.set(false);
+        }
+        if (getQueueDepth() > 0) {
+            // requests arrived after the queue was drained or the drain limit was reached
+            schedule();
+        }
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            executor.execute(this);
+        }
+    }
+
+}
@@ -18,50 +18,55 @@
  */
 package org.fabric3.async.runtime;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 import java.util.concurrent.ExecutorService;
 
-import org.fabric3.api.SecuritySubject;
 import org.fabric3.spi.container.invocation.Message;
 import org.fabric3.spi.container.invocation.WorkContext;
+import org.fabric3.spi.container.invocation.WorkContextSnapshot;
 import org.fabric3.spi.container.wire.Interceptor;
 
 /**
- * Adds non-blocking behavior to an invocation chain
+ * Adds non-blocking behavior to an invocation chain.
+ *
+ * The work context is propagated as an immutable {@link WorkContextSnapshot}. The last snapshot is retained and reused while the propagated state is
+ * unchanged, which is the common case for a stream of one-way invocations. Requests are either submitted to the runtime executor or, if the target
+ * component is configured with a dedicated queue, to its {@link DispatchQueue}.
  */
 public class NonBlockingInterceptor implements Interceptor {
     private static final Message RESPONSE = new ImmutableMessage();
 
     private final ExecutorService executorService;
+    private final DispatchQueue queue;
     private NonBlockingMonitor monitor;
     private Interceptor next;
 
+    // snapshots are immutable so a racy update by concurrent callers is safe
+    private volatile WorkContextSnapshot lastSnapshot;
+
     public NonBlockingInterceptor(ExecutorService executorService, NonBlockingMonitor monitor) {
         this.executorService = executorService;
+        this.queue = null;
+        this.monitor = monitor;
+    }
+
+    public NonBlockingInterceptor(DispatchQueue queue, NonBlockingMonitor monitor) {
+        this.executorService = null;
+        this.queue = queue;
         this.monitor = monitor;
     }
 
     public Message invoke(final Message msg) {
-        WorkContext workContext = msg.getWorkContext();
-        List<String> newStack = null;
-        List<String> stack = workContext.getCallbackReferences();
-        if (stack != null && !stack.isEmpty()) {
-            // clone the callstack to avoid multiple threads seeing changes
-            newStack = new ArrayList<>(stack);
-        }
-        Map<String, Object> newHeaders = null;
-        Map<String, Object> headers = workContext.getHeaders();
-        if (headers != null && !headers.isEmpty()) {
-            // clone the headers to avoid multiple threads seeing changes
-            newHeaders = new HashMap<>(headers);
+        WorkContextSnapshot previous = lastSnapshot;
+        WorkContextSnapshot snapshot = WorkContextSnapshot.capture(msg.getWorkContext(), previous);
+        if (snapshot != previous) {
+            lastSnapshot = snapshot;
         }
-        SecuritySubject subject = workContext.getSubject();
         Object payload = msg.getBody();
-        AsyncRequest request = new AsyncRequest(next, payload, subject, newStack, newHeaders, monitor);
-        executorService.execute(request);
+        if (queue != null) {
+            queue.offer(next, payload, snapshot);
+        } else {
+            executorService.execute(new AsyncRequest(next, payload, snapshot, monitor));
+        }
         return RESPONSE;
     }
 
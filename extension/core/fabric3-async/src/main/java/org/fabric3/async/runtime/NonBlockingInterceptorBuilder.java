@@ -18,28 +18,122 @@
  */
 package org.fabric3.async.runtime;
 
+import java.net.URI;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 
+import org.fabric3.api.annotation.Source;
 import org.fabric3.api.annotation.monitor.Monitor;
 import org.fabric3.async.provision.PhysicalNonBlockingInterceptor;
 import org.fabric3.spi.container.builder.InterceptorBuilder;
 import org.fabric3.spi.container.wire.Interceptor;
+import org.fabric3.spi.threadpool.ExecutorRegistry;
+import org.fabric3.spi.util.UriHelper;
+import org.oasisopen.sca.annotation.Property;
 import org.oasisopen.sca.annotation.Reference;
 
 /**
- * Creates a non-blocking interceptor
+ * Creates a non-blocking interceptor.
+ *
+ * By default, invocations are dispatched on the runtime executor. Components listed in the {@code dedicated.components} configuration attribute are
+ * given a {@link DispatchQueue} shared by all interceptors targeting them. A queue is released when the last wire using it is disconnected.
  */
 public class NonBlockingInterceptorBuilder implements InterceptorBuilder<PhysicalNonBlockingInterceptor> {
-    private ExecutorService executorService;
+    private static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    private ExecutorRegistry executorRegistry;
     private NonBlockingMonitor monitor;
 
-    public NonBlockingInterceptorBuilder(@Reference(name = "executorService") ExecutorService executorService, @Monitor NonBlockingMonitor monitor) {
-        this.executorService = executorService;
+    private Set<String> dedicatedComponents = Collections.emptySet();
+    private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+    private Map<URI, QueueHolder> queues = new ConcurrentHashMap<>();
+
+    public NonBlockingInterceptorBuilder(@Reference ExecutorRegistry executorRegistry, @Monitor NonBlockingMonitor monitor) {
+        this.executorRegistry = executorRegistry;
         this.monitor = monitor;
     }
 
+    /**
+     * Sets the names or URIs of components that are dispatched to through a dedicated queue.
+     *
+     * @param components a comma-separated list of component names or URIs
+     */
+    @Property(required = false)
+    @Source("$systemConfig//f3:async/@dedicated.components")
+    public void setDedicatedComponents(String components) {
+        Set<String> names = new HashSet<>();
+        for (String name : components.split(",")) {
+            if (!name.trim().isEmpty()) {
+                names.add(name.trim());
+            }
+        }
+        this.dedicatedComponents = names;
+    }
+
+    /**
+     * Sets the capacity of dedicated queues.
+     *
+     * @param capacity the capacity
+     */
+    @Property(required = false)
+    @Source("$systemConfig//f3:async/@queue.capacity")
+    public void setQueueCapacity(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Queue capacity must be greater than zero");
+        }
+        this.queueCapacity = capacity;
+    }
+
     public Interceptor build(PhysicalNonBlockingInterceptor definition) {
-        return new NonBlockingInterceptor(executorService, monitor);
+        URI target = definition.getTargetComponent();
+        ExecutorService executor = executorRegistry.getExecutor(target);
+        if (target != null && isDedicated(target)) {
+            QueueHolder holder = queues.compute(target, (uri, current) -> {
+                QueueHolder updated = current == null ? new QueueHolder(new DispatchQueue(uri, queueCapacity, executor, monitor)) : current;
+                updated.references++;
+                return updated;
+            });
+            return new NonBlockingInterceptor(holder.queue, monitor);
+        }
+        return new NonBlockingInterceptor(executor, monitor);
+    }
+
+    public void dispose(PhysicalNonBlockingInterceptor definition) {
+        URI target = definition.getTargetComponent();
+        if (target == null) {
+            return;
+        }
+        // queued requests are still drained by the queue after it is released
+        queues.computeIfPresent(target, (uri, holder) -> --holder.references == 0 ? null : holder);
+    }
+
+    /**
+     * Returns the number of dedicated queues in use.
+     *
+     * @return the number of dedicated queues
+     */
+    int getQueueCount() {
+        return queues.size();
+    }
+
+    private boolean isDedicated(URI uri) {
+        return !dedicatedComponents.isEmpty() && (dedicatedComponents.contains(uri.toString()) || dedicatedComponents.contains(UriHelper.getBaseName(uri)));
+    }
+
+    /**
+     * Tracks the number of interceptors using a dedicated queue.
+     */
+    private static class QueueHolder {
+        private DispatchQueue queue;
+        private int references;
+
+        public QueueHolder(DispatchQueue queue) {
+            this.queue = queue;
+        }
     }
 
 }
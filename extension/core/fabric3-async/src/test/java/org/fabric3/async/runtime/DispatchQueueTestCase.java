@@ -0,0 +1,137 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.async.runtime;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+import org.easymock.EasyMock;
+import org.fabric3.spi.container.invocation.Message;
+import org.fabric3.spi.container.invocation.WorkContextCache;
+import org.fabric3.spi.container.invocation.WorkContextSnapshot;
+import org.fabric3.spi.container.wire.Interceptor;
+
+/**
+ *
+ */
+public class DispatchQueueTestCase extends TestCase {
+    private ExecutorService executorService;
+    private NonBlockingMonitor monitor;
+
+    public void testOrderedDispatch() throws Exception {
+        DispatchQueue queue = new DispatchQueue(URI.create("component"), 8, executorService, monitor);
+        RecordingInterceptor interceptor = new RecordingInterceptor(1000);
+
+        for (int i = 0; i < 1000; i++) {
+            queue.offer(interceptor, i, WorkContextSnapshot.EMPTY);
+        }
+
+        assertTrue(interceptor.latch.await(10, TimeUnit.SECONDS));
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, interceptor.received.get(i).intValue());
+        }
+    }
+
+    public void testReentrantDispatchWhenFull() throws Exception {
+        final DispatchQueue queue = new DispatchQueue(URI.create("component"), 1, executorService, monitor);
+        final RecordingInterceptor target = new RecordingInterceptor(10);
+        Interceptor reentrant = new RecordingInterceptor(1) {
+            public Message invoke(Message msg) {
+                // the queue is full while this request is processed; the nested invocations must not deadlock
+                for (int i = 0; i < 10; i++) {
+                    queue.offer(target, i, WorkContextSnapshot.EMPTY);
+                }
+                return super.invoke(msg);
+            }
+        };
+
+        queue.offer(reentrant, -1, WorkContextSnapshot.EMPTY);
+
+        assertTrue(target.latch.await(10, TimeUnit.SECONDS));
+        // nested invocations are not run inline and keep their order
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i, target.received.get(i).intValue());
+        }
+    }
+
+    public void testSnapshotRestored() throws Exception {
+        WorkContextSnapshot snapshot = createSnapshot();
+        final CountDownLatch latch = new CountDownLatch(1);
+        final List<Object> headers = new ArrayList<>();
+        Interceptor interceptor = new RecordingInterceptor(1) {
+            public Message invoke(Message msg) {
+                headers.add(msg.getWorkContext().getHeader(String.class, "key"));
+                latch.countDown();
+                return msg;
+            }
+        };
+        DispatchQueue queue = new DispatchQueue(URI.create("component"), 8, executorService, monitor);
+
+        queue.offer(interceptor, null, snapshot);
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals("value", headers.get(0));
+    }
+
+    protected void setUp() throws Exception {
+        super.setUp();
+        executorService = Executors.newCachedThreadPool();
+        monitor = EasyMock.createNiceMock(NonBlockingMonitor.class);
+        EasyMock.replay(monitor);
+    }
+
+    protected void tearDown() throws Exception {
+        super.tearDown();
+        executorService.shutdownNow();
+    }
+
+    private WorkContextSnapshot createSnapshot() {
+        WorkContextCache.getAndResetThreadWorkContext().setHeader("key", "value");
+        WorkContextSnapshot snapshot = WorkContextSnapshot.capture(WorkContextCache.getThreadWorkContext());
+        WorkContextCache.getAndResetThreadWorkContext();
+        return snapshot;
+    }
+
+    private class RecordingInterceptor implements Interceptor {
+        private CountDownLatch latch;
+        private List<Integer> received = new ArrayList<>();
+
+        public RecordingInterceptor(int expected) {
+            latch = new CountDownLatch(expected);
+        }
+
+        public Message invoke(Message msg) {
+            received.add((Integer) msg.getBody());
+            latch.countDown();
+            msg.reset();
+            return msg;
+        }
+
+        public void setNext(Interceptor next) {
+        }
+
+        public Interceptor getNext() {
+            return null;
+        }
+    }
+}
@@ -18,17 +18,56 @@
  */
 package org.fabric3.async.runtime;
 
+import java.net.URI;
+
 import junit.framework.TestCase;
+import org.easymock.EasyMock;
 import org.fabric3.async.provision.PhysicalNonBlockingInterceptor;
+import org.fabric3.spi.threadpool.ExecutorRegistry;
 
 /**
  *
  */
 public class PhysicalNonBlockingInterceptorBuilderTestCase extends TestCase {
+    private ExecutorRegistry executorRegistry;
 
     public void testBuild() throws Exception {
-        NonBlockingInterceptorBuilder builder = new NonBlockingInterceptorBuilder(null, null);
+        NonBlockingInterceptorBuilder builder = new NonBlockingInterceptorBuilder(executorRegistry, null);
+        PhysicalNonBlockingInterceptor physicalInterceptor = new PhysicalNonBlockingInterceptor();
+        assertNotNull(builder.build(physicalInterceptor));
+    }
+
+    public void testBuildDedicated() throws Exception {
+        NonBlockingInterceptorBuilder builder = new NonBlockingInterceptorBuilder(executorRegistry, null);
+        builder.setDedicatedComponents("OrderService, InvoiceService");
+
         PhysicalNonBlockingInterceptor physicalInterceptor = new PhysicalNonBlockingInterceptor();
+        physicalInterceptor.setTargetComponent(URI.create("fabric3://domain/OrderService"));
+
         assertNotNull(builder.build(physicalInterceptor));
     }
+
+    public void testDisposeDedicated() throws Exception {
+        NonBlockingInterceptorBuilder builder = new NonBlockingInterceptorBuilder(executorRegistry, null);
+        builder.setDedicatedComponents("OrderService");
+
+        PhysicalNonBlockingInterceptor physicalInterceptor = new PhysicalNonBlockingInterceptor();
+        physicalInterceptor.setTargetComponent(URI.create("fabric3://domain/OrderService"));
+
+        builder.build(physicalInterceptor);
+        builder.build(physicalInterceptor);
+        assertEquals(1, builder.getQueueCount());
+
+        // the queue is shared and released with the last wire
+        builder.dispose(physicalInterceptor);
+        assertEquals(1, builder.getQueueCount());
+        builder.dispose(physicalInterceptor);
+        assertEquals(0, builder.getQueueCount());
+    }
+
+    public void setUp() throws Exception {
+        super.setUp();
+        executorRegistry = EasyMock.createNiceMock(ExecutorRegistry.class);
+        EasyMock.replay(executorRegistry);
+    }
 }
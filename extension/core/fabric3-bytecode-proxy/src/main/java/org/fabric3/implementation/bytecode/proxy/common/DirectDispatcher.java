@@ -0,0 +1,43 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * Portions originally based on Apache Tuscany 2007
+ * licensed under the Apache 2.0 license.
+ */
+package org.fabric3.implementation.bytecode.proxy.common;
+
+/**
+ * A {@link ProxyDispatcher} that can provide the target instance for an invocation so that generated proxies may call it directly. Direct calls pass
+ * parameters and return values without boxing them or allocating a parameter array.
+ */
+public interface DirectDispatcher extends ProxyDispatcher {
+
+    /**
+     * Returns the target instance to invoke directly for the method index. The instance must implement the interface the invoked method is declared on.
+     *
+     * @param index the method index
+     * @return the target instance or null if the invocation must be dispatched using {@link #_f3_invoke(int, Object)}
+     */
+    Object _f3_target(int index);
+
+    /**
+     * Releases a target instance returned by {@link #_f3_target(int)} after the direct call completes.
+     *
+     * @param index  the method index
+     * @param target the target instance
+     */
+    void _f3_release(int index, Object target);
+
+}
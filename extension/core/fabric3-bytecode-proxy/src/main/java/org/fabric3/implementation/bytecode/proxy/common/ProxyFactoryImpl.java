@@ -46,10 +46,14 @@ import static org.objectweb.asm.Opcodes.ASTORE;
 import static org.objectweb.asm.Opcodes.ATHROW;
 import static org.objectweb.asm.Opcodes.CHECKCAST;
 import static org.objectweb.asm.Opcodes.DUP;
+import static org.objectweb.asm.Opcodes.IFNULL;
 import static org.objectweb.asm.Opcodes.ILOAD;
+import static org.objectweb.asm.Opcodes.INVOKEINTERFACE;
 import static org.objectweb.asm.Opcodes.INVOKESPECIAL;
 import static org.objectweb.asm.Opcodes.INVOKESTATIC;
 import static org.objectweb.asm.Opcodes.INVOKEVIRTUAL;
+import static org.objectweb.asm.Opcodes.IRETURN;
+import static org.objectweb.asm.Opcodes.ISTORE;
 import static org.objectweb.asm.Opcodes.RETURN;
 
 /**
@@ -110,7 +114,9 @@ public class ProxyFactoryImpl implements ProxyFactory, ContributionServiceListen
         String handlerDescriptor = Type.getDescriptor(dispatcher);
         String classNameInternal = Type.getInternalName(interfaze) + "_Proxy_" + dispatcher.getSimpleName();
 
-        ClassWriter cw = new ClassWriter(0);
+        boolean direct = DirectDispatcher.class.isAssignableFrom(dispatcher);
+
+        ClassWriter cw = direct ? new DirectProxyClassWriter() : new ClassWriter(ClassWriter.COMPUTE_MAXS);
         MethodVisitor mv;
 
         cw.visit(Opcodes.V1_7, ACC_PUBLIC + ACC_SUPER, classNameInternal, null, handlerName, new String[]{interfazeName});
@@ -131,6 +137,10 @@ public class ProxyFactoryImpl implements ProxyFactory, ContributionServiceListen
             mv = cw.visitMethod(ACC_PUBLIC, method.getName(), methodSignature, null, exceptions);
             mv.visitCode();
 
+            if (direct && isDirectCallable(interfaze, method)) {
+                writeDirectInvoke(method, methodIndex, classNameInternal, mv);
+            }
+
             List<Label> exceptionLabels = new ArrayList<>();
             Label label2 = new Label();
             Label label3 = new Label();
@@ -175,7 +185,7 @@ public class ProxyFactoryImpl implements ProxyFactory, ContributionServiceListen
 
                 for (Class<?> param : method.getParameterTypes()) {
                     if (Integer.TYPE.equals(param)) {
-                        mv.visitInsn(Opcodes.ICONST_0 + index);
+                        writeInt(index, mv);
                         mv.visitVarInsn(Opcodes.ILOAD, stack);
                         mv.visitMethodInsn(INVOKESTATIC, "java/lang/Integer", "valueOf", "(I)Ljava/lang/Integer;");
                         mv.visitInsn(AASTORE);
@@ -183,7 +193,7 @@ public class ProxyFactoryImpl implements ProxyFactory, ContributionServiceListen
                             mv.visitInsn(DUP);
                         }
                     } else if (Float.TYPE.equals(param)) {
-                        mv.visitInsn(Opcodes.ICONST_0 + index);
+                        writeInt(index, mv);
                         mv.visitVarInsn(Opcodes.FLOAD, stack);
                         mv.visitMethodInsn(INVOKESTATIC, "java/lang/Float", "valueOf", "(F)Ljava/lang/Float;");
                         mv.visitInsn(AASTORE);
@@ -191,7 +201,7 @@ public class ProxyFactoryImpl implements ProxyFactory, ContributionServiceListen
                             mv.visitInsn(DUP);
                         }
                     } else if (Boolean.TYPE.equals(param)) {
-                        mv.visitInsn(Opcodes.ICONST_0 + index);
+                        writeInt(index, mv);
                         mv.visitVarInsn(Opcodes.ILOAD, stack);
                         mv.visitMethodInsn(INVOKESTATIC, "java/lang/Boolean", "valueOf", "(Z)Ljava/lang/Boolean;");
                         mv.visitInsn(AASTORE);
@@ -199,7 +209,7 @@ public class ProxyFactoryImpl implements ProxyFactory, ContributionServiceListen
                             mv.visitInsn(DUP);
                         }
                     } else if (Short.TYPE.equals(param)) {
-                        mv.visitInsn(Opcodes.ICONST_0 + index);
+                        writeInt(index, mv);
                         mv.visitVarInsn(Opcodes.ILOAD, stack);
                         mv.visitMethodInsn(INVOKESTATIC, "java/lang/Short", "valueOf", "(S)Ljava/lang/Short;");
                         mv.visitInsn(AASTORE);
@@ -207,15 +217,23 @@ public class ProxyFactoryImpl implements ProxyFactory, ContributionServiceListen
                             mv.visitInsn(DUP);
                         }
                     } else if (Byte.TYPE.equals(param)) {
-                        mv.visitInsn(Opcodes.ICONST_0 + index);
+                        writeInt(index, mv);
                         mv.visitVarInsn(Opcodes.ILOAD, stack);
                         mv.visitMethodInsn(INVOKESTATIC, "java/lang/Byte", "valueOf", "(B)Ljava/lang/Byte;");
                         mv.visitInsn(AASTORE);
                         if (index < numberOfParameters - 1) {
                             mv.visitInsn(DUP);
                         }
+                    } else if (Character.TYPE.equals(param)) {
+                        writeInt(index, mv);
+                        mv.visitVarInsn(Opcodes.ILOAD, stack);
+                        mv.visitMethodInsn(INVOKESTATIC, "java/lang/Character", "valueOf", "(C)Ljava/lang/Character;");
+                        mv.visitInsn(AASTORE);
+                        if (index < numberOfParameters - 1) {
+                            mv.visitInsn(DUP);
+                        }
                     } else if (Double.TYPE.equals(param)) {
-                        mv.visitInsn(Opcodes.ICONST_0 + index);
+                        writeInt(index, mv);
                         mv.visitVarInsn(Opcodes.DLOAD, stack);
                         mv.visitMethodInsn(INVOKESTATIC, "java/lang/Double", "valueOf", "(D)Ljava/lang/Double;");
                         mv.visitInsn(AASTORE);
@@ -225,7 +243,7 @@ public class ProxyFactoryImpl implements ProxyFactory, ContributionServiceListen
                         stack++;   // double occupies two positions
 
                     } else if (Long.TYPE.equals(param)) {
-                        mv.visitInsn(Opcodes.ICONST_0 + index);
+                        writeInt(index, mv);
                         mv.visitVarInsn(Opcodes.LLOAD, stack);
                         mv.visitMethodInsn(INVOKESTATIC, "java/lang/Long", "valueOf", "(J)Ljava/lang/Long;");
                         mv.visitInsn(AASTORE);
@@ -235,7 +253,7 @@ public class ProxyFactoryImpl implements ProxyFactory, ContributionServiceListen
                         stack++;   // long occupies two positions
                     } else {
                         // object type
-                        mv.visitInsn(Opcodes.ICONST_0 + index);
+                        writeInt(index, mv);
                         mv.visitVarInsn(ALOAD, stack);
                         mv.visitInsn(AASTORE);
                         if (index < numberOfParameters - 1) {
@@ -243,9 +261,8 @@ public class ProxyFactoryImpl implements ProxyFactory, ContributionServiceListen
                         }
                     }
                     index++;
+                    stack++;
                 }
-                // TODO other primitive types
-                stack++;
             }
 
             mv.visitMethodInsn(INVOKEVIRTUAL, classNameInternal, "_f3_invoke", "(ILjava/lang/Object;)Ljava/lang/Object;");
@@ -435,6 +452,101 @@ public class ProxyFactoryImpl implements ProxyFactory, ContributionServiceListen
         }
     }
 
+    /**
+     * Writes a direct call to the target instance returned by {@link DirectDispatcher#_f3_target(int)}. Parameters are passed and results returned without
+     * boxing. If the dispatcher does not return a target, execution continues with the dispatch code that follows. The target is released after the call
+     * completes, including when it throws an exception.
+     *
+     * @param method            the proxy method
+     * @param methodIndex       the method index
+     * @param classNameInternal the internal name of the proxy class
+     * @param mv                the method visitor
+     */
+    private void writeDirectInvoke(Method method, int methodIndex, String classNameInternal, MethodVisitor mv) {
+        Type[] parameterTypes = Type.getArgumentTypes(method);
+        Type returnType = Type.getReturnType(method);
+        int targetSlot = 1;
+        for (Type parameterType : parameterTypes) {
+            targetSlot += parameterType.getSize();
+        }
+        int resultSlot = targetSlot + 1;
+        int exceptionSlot = resultSlot + returnType.getSize();
+
+        Label tryStart = new Label();
+        Label tryEnd = new Label();
+        Label handler = new Label();
+        Label dispatch = new Label();
+        mv.visitTryCatchBlock(tryStart, tryEnd, handler, null);
+
+        mv.visitVarInsn(ALOAD, 0);
+        writeInt(methodIndex, mv);
+        mv.visitMethodInsn(INVOKEVIRTUAL, classNameInternal, "_f3_target", "(I)Ljava/lang/Object;");
+        mv.visitVarInsn(ASTORE, targetSlot);
+        mv.visitVarInsn(ALOAD, targetSlot);
+        mv.visitJumpInsn(IFNULL, dispatch);
+
+        mv.visitLabel(tryStart);
+        String owner = Type.getInternalName(method.getDeclaringClass());
+        mv.visitVarInsn(ALOAD, targetSlot);
+        mv.visitTypeInsn(CHECKCAST, owner);
+        int slot = 1;
+        for (Type parameterType : parameterTypes) {
+            mv.visitVarInsn(parameterType.getOpcode(ILOAD), slot);
+            slot += parameterType.getSize();
+        }
+        mv.visitMethodInsn(INVOKEINTERFACE, owner, method.getName(), Type.getMethodDescriptor(method));
+        mv.visitLabel(tryEnd);
+
+        if (returnType.getSort() != Type.VOID) {
+            mv.visitVarInsn(returnType.getOpcode(ISTORE), resultSlot);
+        }
+        writeRelease(methodIndex, targetSlot, classNameInternal, mv);
+        if (returnType.getSort() == Type.VOID) {
+            mv.visitInsn(RETURN);
+        } else {
+            mv.visitVarInsn(returnType.getOpcode(ILOAD), resultSlot);
+            mv.visitInsn(returnType.getOpcode(IRETURN));
+        }
+
+        // release the target and rethrow exceptions raised by the call
+        mv.visitLabel(handler);
+        mv.visitVarInsn(ASTORE, exceptionSlot);
+        writeRelease(methodIndex, targetSlot, classNameInternal, mv);
+        mv.visitVarInsn(ALOAD, exceptionSlot);
+        mv.visitInsn(ATHROW);
+
+        mv.visitLabel(dispatch);
+    }
+
+    private void writeRelease(int methodIndex, int targetSlot, String classNameInternal, MethodVisitor mv) {
+        mv.visitVarInsn(ALOAD, 0);
+        writeInt(methodIndex, mv);
+        mv.visitVarInsn(ALOAD, targetSlot);
+        mv.visitMethodInsn(INVOKEVIRTUAL, classNameInternal, "_f3_release", "(ILjava/lang/Object;)V");
+    }
+
+    private void writeInt(int value, MethodVisitor mv) {
+        if (value >= -1 && value <= 5) {
+            mv.visitInsn(Opcodes.ICONST_0 + value);
+        } else if (value <= Byte.MAX_VALUE) {
+            mv.visitIntInsn(Opcodes.BIPUSH, value);
+        } else {
+            mv.visitIntInsn(Opcodes.SIPUSH, value);
+        }
+    }
+
+    /**
+     * Returns true if the method can be invoked directly on the target instance, i.e. it is declared on an interface implemented by the proxy.
+     *
+     * @param interfaze the proxy interface
+     * @param method    the method
+     * @return true if the method can be invoked directly
+     */
+    private boolean isDirectCallable(Class<?> interfaze, Method method) {
+        Class<?> declaringClass = method.getDeclaringClass();
+        return declaringClass.isInterface() && declaringClass.isAssignableFrom(interfaze);
+    }
+
     private void writeConstructor(String handlerName, String handlerDescriptor, ClassWriter cw) {
         MethodVisitor mv;
         mv = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
@@ -494,6 +606,11 @@ public class ProxyFactoryImpl implements ProxyFactory, ContributionServiceListen
                 mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Boolean", "booleanValue", "()Z");
                 mv.visitLabel(endLabel);
                 mv.visitInsn(Opcodes.IRETURN);
+            } else if (Character.TYPE.equals(returnType)) {
+                mv.visitTypeInsn(CHECKCAST, "java/lang/Character");
+                mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Character", "charValue", "()C");
+                mv.visitLabel(endLabel);
+                mv.visitInsn(Opcodes.IRETURN);
             }
         } else {
             String internalTypeName = Type.getInternalName(returnType);
@@ -539,4 +656,19 @@ public class ProxyFactoryImpl implements ProxyFactory, ContributionServiceListen
     public void onRemove(Contribution contribution) {
 
     }
+
+    /**
+     * Computes stack map frames for proxies containing direct calls. Frames are only merged for identical types so class hierarchy information, which
+     * would require loading application classes, is not needed.
+     */
+    private static class DirectProxyClassWriter extends ClassWriter {
+
+        public DirectProxyClassWriter() {
+            super(ClassWriter.COMPUTE_FRAMES);
+        }
+
+        protected String getCommonSuperClass(String type1, String type2) {
+            return "java/lang/Object";
+        }
+    }
 }
@@ -18,7 +18,10 @@
  */
 package org.fabric3.implementation.bytecode.proxy.wire;
 
-import org.fabric3.implementation.bytecode.proxy.common.ProxyDispatcher;
+import org.fabric3.api.host.Fabric3Exception;
+import org.fabric3.implementation.bytecode.proxy.common.DirectDispatcher;
+import org.fabric3.implementation.pojo.component.InvokerInterceptor;
+import org.fabric3.spi.container.component.AtomicComponent;
 import org.fabric3.spi.container.invocation.Message;
 import org.fabric3.spi.container.invocation.MessageCache;
 import org.fabric3.spi.container.invocation.WorkContext;
@@ -31,18 +34,36 @@ import org.oasisopen.sca.ServiceUnavailableException;
 
 /**
  * Dispatches from a proxy to a wire.
+ *
+ * If the invocation chain for an operation consists only of an invoker interceptor, the target instance is returned to the proxy so that it can be
+ * called directly without creating a message. The chain head is checked on each invocation so that the full chain is used if an interceptor is added.
  */
-public class WireProxyDispatcher<B> implements ProxyDispatcher, ServiceReference<B> {
+public class WireProxyDispatcher<B> implements DirectDispatcher, ServiceReference<B> {
     private static final long serialVersionUID = -3766594738137530257L;
 
     private Class<B> interfaze;
     private String callbackUri;
     private transient InvocationChain[] chains;
+    private transient InvokerInterceptor[] invokers;
+    private transient AtomicComponent[] components;
 
     public void init(Class<B> interfaze, String callbackUri, InvocationChain[] chains) {
         this.interfaze = interfaze;
         this.callbackUri = callbackUri;
         this.chains = chains;
+        this.invokers = new InvokerInterceptor[chains.length];
+        this.components = new AtomicComponent[chains.length];
+        if (callbackUri != null) {
+            // the callback reference must be pushed for each invocation
+            return;
+        }
+        for (int i = 0; i < chains.length; i++) {
+            Interceptor head = chains[i].getHeadInterceptor();
+            if (head instanceof InvokerInterceptor && ((InvokerInterceptor) head).isDirect()) {
+                invokers[i] = (InvokerInterceptor) head;
+                components[i] = invokers[i].getComponent();
+            }
+        }
     }
 
     public B getService() {
@@ -53,6 +74,34 @@ public class WireProxyDispatcher<B> implements ProxyDispatcher, ServiceReference
         return interfaze;
     }
 
+    public Object _f3_target(int index) {
+        InvokerInterceptor invoker = invokers[index];
+        if (invoker == null || chains[index].getHeadInterceptor() != invoker) {
+            return null;
+        }
+        Object instance;
+        try {
+            instance = components[index].getInstance();
+        } catch (Fabric3Exception e) {
+            throw new ServiceUnavailableException(e);
+        }
+        if (!interfaze.isInstance(instance)) {
+            // the implementation does not implement the service interface, dispatch through the chain
+            _f3_release(index, instance);
+            invokers[index] = null;
+            return null;
+        }
+        return instance;
+    }
+
+    public void _f3_release(int index, Object target) {
+        try {
+            components[index].releaseInstance(target);
+        } catch (Fabric3Exception e) {
+            throw new ServiceUnavailableException(e);
+        }
+    }
+
     public Object _f3_invoke(int index, Object args) throws Throwable {
         InvocationChain chain = chains[index];
 
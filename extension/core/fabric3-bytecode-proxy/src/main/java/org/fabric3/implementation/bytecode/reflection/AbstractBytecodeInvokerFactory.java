@@ -0,0 +1,93 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.implementation.bytecode.reflection;
+
+import java.lang.reflect.Member;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.fabric3.api.host.Names;
+import org.fabric3.spi.classloader.BytecodeClassLoader;
+import org.fabric3.spi.classloader.ClassLoaderRegistry;
+import org.fabric3.spi.classloader.MultiParentClassLoader;
+import org.fabric3.spi.contribution.Contribution;
+import org.fabric3.spi.contribution.ContributionServiceListener;
+
+/**
+ * Base class for factories that generate invoker classes. Generated classes are defined in a classloader per contribution that is released when the
+ * contribution is uninstalled.
+ */
+public abstract class AbstractBytecodeInvokerFactory implements ContributionServiceListener {
+    private ClassLoaderRegistry classLoaderRegistry;
+
+    private Map<URI, BytecodeClassLoader> classLoaderCache = new HashMap<>();
+
+    protected AbstractBytecodeInvokerFactory(ClassLoaderRegistry classLoaderRegistry) {
+        this.classLoaderRegistry = classLoaderRegistry;
+    }
+
+    public void onUninstall(Contribution contribution) {
+        // remove cached classloader for the contribution on undeploy
+        classLoaderCache.remove(contribution.getUri());
+    }
+
+    /**
+     * Returns a classloader for loading the proxy class, creating one if necessary.
+     *
+     * @return the classloader
+     */
+    protected BytecodeClassLoader getClassLoader(Member method) {
+
+        URI classLoaderKey;
+        ClassLoader classLoader = method.getDeclaringClass().getClassLoader();
+        if (classLoader instanceof MultiParentClassLoader) {
+            classLoaderKey = ((MultiParentClassLoader) classLoader).getName();
+        } else {
+            classLoaderKey = Names.BOOT_CONTRIBUTION;
+        }
+
+        ClassLoader parent = classLoaderRegistry.getClassLoader(classLoaderKey);
+        BytecodeClassLoader generationClassLoader = classLoaderCache.get(classLoaderKey);
+        if (generationClassLoader == null) {
+            generationClassLoader = new BytecodeClassLoader(classLoaderKey, parent);
+            generationClassLoader.addParent(getClass().getClassLoader()); // SPI classes need to be visible as well
+            classLoaderCache.put(classLoaderKey, generationClassLoader);
+        }
+        return generationClassLoader;
+    }
+
+    public void onStore(Contribution contribution) {
+
+    }
+
+    public void onProcessManifest(Contribution contribution) {
+
+    }
+
+    public void onInstall(Contribution contribution) {
+
+    }
+
+    public void onUpdate(Contribution contribution) {
+
+    }
+
+    public void onRemove(Contribution contribution) {
+
+    }
+}
@@ -18,21 +18,13 @@
  */
 package org.fabric3.implementation.bytecode.reflection;
 
-import java.lang.reflect.Member;
 import java.lang.reflect.Method;
-import java.net.URI;
-import java.util.HashMap;
-import java.util.Map;
 
-import org.fabric3.api.host.Names;
 import org.fabric3.implementation.pojo.spi.reflection.ConsumerInvoker;
 import org.fabric3.implementation.pojo.spi.reflection.ConsumerInvokerFactory;
 import org.fabric3.implementation.pojo.spi.reflection.ServiceInvoker;
 import org.fabric3.spi.classloader.BytecodeClassLoader;
 import org.fabric3.spi.classloader.ClassLoaderRegistry;
-import org.fabric3.spi.classloader.MultiParentClassLoader;
-import org.fabric3.spi.contribution.Contribution;
-import org.fabric3.spi.contribution.ContributionServiceListener;
 import org.oasisopen.sca.annotation.Reference;
 import org.objectweb.asm.ClassWriter;
 import org.objectweb.asm.Label;
@@ -41,27 +33,16 @@ import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
 import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
 import static org.objectweb.asm.Opcodes.ACC_SUPER;
-import static org.objectweb.asm.Opcodes.INVOKESTATIC;
-import static org.objectweb.asm.Opcodes.INVOKEVIRTUAL;
 
 /**
  *
  */
-public class BytecodeConsumerInvokerFactory implements ConsumerInvokerFactory, ContributionServiceListener {
+public class BytecodeConsumerInvokerFactory extends AbstractBytecodeInvokerFactory implements ConsumerInvokerFactory {
     private static final String[] TARGET_INVOKER_INTERFACES = new String[]{Type.getInternalName(ConsumerInvoker.class)};
     private static final String[] EXCEPTIONS = new String[]{"java/lang/Exception"};
 
-    private ClassLoaderRegistry classLoaderRegistry;
-
-    private Map<URI, BytecodeClassLoader> classLoaderCache = new HashMap<>();
-
     public BytecodeConsumerInvokerFactory(@Reference ClassLoaderRegistry classLoaderRegistry) {
-        this.classLoaderRegistry = classLoaderRegistry;
-    }
-
-    public void onUninstall(Contribution contribution) {
-        // remove cached classloader for the contribution on undeploy
-        classLoaderCache.remove(contribution.getUri());
+        super(classLoaderRegistry);
     }
 
     public boolean isDefault() {
@@ -121,7 +102,7 @@ public class BytecodeConsumerInvokerFactory implements ConsumerInvokerFactory, C
             Class<?> paramType = method.getParameterTypes()[0];
             mv.visitVarInsn(Opcodes.ALOAD, 2);
 
-            writeParam(paramType, mv);
+            BytecodeHelper.writeUnbox(paramType, mv);
 
         } else if (method.getParameterTypes().length > 1) {
             // multi-argument method: cast the parameter to an object array and then load each element on the stack to be passed as params
@@ -134,10 +115,10 @@ public class BytecodeConsumerInvokerFactory implements ConsumerInvokerFactory, C
             int pos = 0;
             mv.visitVarInsn(Opcodes.ALOAD, 3);
             for (Class<?> paramType : method.getParameterTypes()) {
-                mv.visitInsn(Opcodes.ICONST_0 + pos);
+                BytecodeHelper.writeInt(pos, mv);
                 mv.visitInsn(Opcodes.AALOAD);
 
-                writeParam(paramType, mv);
+                BytecodeHelper.writeUnbox(paramType, mv);
 
                 if (pos < method.getParameterTypes().length - 1) {
                     mv.visitVarInsn(Opcodes.ALOAD, 3);
@@ -153,7 +134,7 @@ public class BytecodeConsumerInvokerFactory implements ConsumerInvokerFactory, C
         mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, internalTargetName, methodName, methodDescriptor);
 
         Class<?> returnType = method.getReturnType();
-        writeReturn(returnType, mv);
+        BytecodeHelper.writeBoxedReturn(returnType, mv);
 
         Label label2 = new Label();
         mv.visitLabel(label2);
@@ -165,108 +146,4 @@ public class BytecodeConsumerInvokerFactory implements ConsumerInvokerFactory, C
         mv.visitMaxs(2, 3);
         mv.visitEnd();
     }
-
-    private void writeReturn(Class<?> returnType, MethodVisitor mv) {
-        if (Void.TYPE.equals(returnType)) {
-            mv.visitInsn(Opcodes.ACONST_NULL);
-            mv.visitInsn(Opcodes.ARETURN);
-        } else if (returnType.isPrimitive()) {
-            if (Integer.TYPE.equals(returnType)) {
-                mv.visitMethodInsn(INVOKESTATIC, "java/lang/Integer", "valueOf", "(I)Ljava/lang/Integer;");
-                mv.visitInsn(Opcodes.ARETURN);
-            } else if (Boolean.TYPE.equals(returnType)) {
-                mv.visitMethodInsn(INVOKESTATIC, "java/lang/Boolean", "valueOf", "(Z)Ljava/lang/Boolean;");
-                mv.visitInsn(Opcodes.ARETURN);
-            } else if (Double.TYPE.equals(returnType)) {
-                mv.visitMethodInsn(INVOKESTATIC, "java/lang/Double", "valueOf", "(D)Ljava/lang/Double;");
-                mv.visitInsn(Opcodes.ARETURN);
-            } else if (Long.TYPE.equals(returnType)) {
-                mv.visitMethodInsn(INVOKESTATIC, "java/lang/Long", "valueOf", "(J)Ljava/lang/Long;");
-                mv.visitInsn(Opcodes.ARETURN);
-            } else if (Float.TYPE.equals(returnType)) {
-                mv.visitMethodInsn(INVOKESTATIC, "java/lang/Float", "valueOf", "(F)Ljava/lang/Float;");
-                mv.visitInsn(Opcodes.ARETURN);
-            } else if (Short.TYPE.equals(returnType)) {
-                mv.visitMethodInsn(INVOKESTATIC, "java/lang/Short", "valueOf", "(S)Ljava/lang/Short;");
-                mv.visitInsn(Opcodes.ARETURN);
-            } else if (Byte.TYPE.equals(returnType)) {
-                mv.visitMethodInsn(INVOKESTATIC, "java/lang/Byte", "valueOf", "(B)Ljava/lang/Byte;");
-                mv.visitInsn(Opcodes.ARETURN);
-            }
-        } else {
-            mv.visitInsn(Opcodes.ARETURN);
-        }
-    }
-
-    private void writeParam(Class<?> paramType, MethodVisitor mv) {
-        if (Integer.TYPE.equals(paramType)) {
-            mv.visitTypeInsn(Opcodes.CHECKCAST, "java/lang/Integer");
-            mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "java/lang/Integer", "intValue", "()I");
-        } else if (Boolean.TYPE.equals(paramType)) {
-            mv.visitTypeInsn(Opcodes.CHECKCAST, "java/lang/Boolean");
-            mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "java/lang/Boolean", "booleanValue", "()Z");
-        } else if (Double.TYPE.equals(paramType)) {
-            mv.visitTypeInsn(Opcodes.CHECKCAST, "java/lang/Double");
-            mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "java/lang/Double", "doubleValue", "()D");
-        } else if (Float.TYPE.equals(paramType)) {
-            mv.visitTypeInsn(Opcodes.CHECKCAST, "java/lang/Float");
-            mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "java/lang/Float", "floatValue", "()F");
-        } else if (Short.TYPE.equals(paramType)) {
-            mv.visitTypeInsn(Opcodes.CHECKCAST, "java/lang/Short");
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Short", "shortValue", "()S");
-        } else if (Byte.TYPE.equals(paramType)) {
-            mv.visitTypeInsn(Opcodes.CHECKCAST, "java/lang/Byte");
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Byte", "byteValue", "()B");
-        } else if (Long.TYPE.equals(paramType)) {
-            mv.visitTypeInsn(Opcodes.CHECKCAST, "java/lang/Long");
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Long", "longValue", "()J");
-        } else {
-            mv.visitTypeInsn(Opcodes.CHECKCAST, Type.getInternalName(paramType));
-        }
-    }
-
-    /**
-     * Returns a classloader for loading the proxy class, creating one if necessary.
-     *
-     * @return the classloader
-     */
-    private BytecodeClassLoader getClassLoader(Member method) {
-
-        URI classLoaderKey;
-        ClassLoader classLoader = method.getDeclaringClass().getClassLoader();
-        if (classLoader instanceof MultiParentClassLoader) {
-            classLoaderKey = ((MultiParentClassLoader) classLoader).getName();
-        } else {
-            classLoaderKey = Names.BOOT_CONTRIBUTION;
-        }
-
-        ClassLoader parent = classLoaderRegistry.getClassLoader(classLoaderKey);
-        BytecodeClassLoader generationClassLoader = classLoaderCache.get(classLoaderKey);
-        if (generationClassLoader == null) {
-            generationClassLoader = new BytecodeClassLoader(classLoaderKey, parent);
-            generationClassLoader.addParent(getClass().getClassLoader()); // SPI classes need to be visible as well
-            classLoaderCache.put(classLoaderKey, generationClassLoader);
-        }
-        return generationClassLoader;
-    }
-
-    public void onStore(Contribution contribution) {
-
-    }
-
-    public void onProcessManifest(Contribution contribution) {
-
-    }
-
-    public void onInstall(Contribution contribution) {
-
-    }
-
-    public void onUpdate(Contribution contribution) {
-
-    }
-
-    public void onRemove(Contribution contribution) {
-
-    }
 }
@@ -74,6 +74,73 @@ public class BytecodeHelper {
         }
     }
 
+    /**
+     * Writes instructions that convert the object on top of the stack to the given parameter type, unboxing primitives.
+     *
+     * @param type the parameter type
+     * @param mv   the method visitor
+     */
+    public static void writeUnbox(Class<?> type, MethodVisitor mv) {
+        if (type.isPrimitive()) {
+            Class<?> wrapper = wrapper(type);
+            String internalName = Type.getInternalName(wrapper);
+            mv.visitTypeInsn(Opcodes.CHECKCAST, internalName);
+            mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, internalName, type.getName() + "Value", "()" + Type.getDescriptor(type));
+        } else if (!Object.class.equals(type)) {
+            mv.visitTypeInsn(Opcodes.CHECKCAST, Type.getInternalName(type));
+        }
+    }
 
+    /**
+     * Writes instructions that return the value on top of the stack as an object, boxing primitives. Void methods return null.
+     *
+     * @param type the return type
+     * @param mv   the method visitor
+     */
+    public static void writeBoxedReturn(Class<?> type, MethodVisitor mv) {
+        if (Void.TYPE.equals(type)) {
+            mv.visitInsn(Opcodes.ACONST_NULL);
+        } else if (type.isPrimitive()) {
+            String internalName = Type.getInternalName(wrapper(type));
+            mv.visitMethodInsn(Opcodes.INVOKESTATIC, internalName, "valueOf", "(" + Type.getDescriptor(type) + ")L" + internalName + ";");
+        }
+        mv.visitInsn(Opcodes.ARETURN);
+    }
+
+    /**
+     * Writes an instruction that pushes an int constant.
+     *
+     * @param value the value
+     * @param mv    the method visitor
+     */
+    public static void writeInt(int value, MethodVisitor mv) {
+        if (value <= 5) {
+            mv.visitInsn(Opcodes.ICONST_0 + value);
+        } else if (value <= Byte.MAX_VALUE) {
+            mv.visitIntInsn(Opcodes.BIPUSH, value);
+        } else {
+            mv.visitIntInsn(Opcodes.SIPUSH, value);
+        }
+    }
+
+    private static Class<?> wrapper(Class<?> type) {
+        if (Integer.TYPE.equals(type)) {
+            return Integer.class;
+        } else if (Boolean.TYPE.equals(type)) {
+            return Boolean.class;
+        } else if (Double.TYPE.equals(type)) {
+            return Double.class;
+        } else if (Long.TYPE.equals(type)) {
+            return Long.class;
+        } else if (Float.TYPE.equals(type)) {
+            return Float.class;
+        } else if (Short.TYPE.equals(type)) {
+            return Short.class;
+        } else if (Byte.TYPE.equals(type)) {
+            return Byte.class;
+        } else {
+            return Character.class;
+        }
+    }
 
 }
@@ -0,0 +1,200 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.implementation.bytecode.reflection;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import org.fabric3.implementation.pojo.spi.reflection.ServiceInvoker;
+import org.fabric3.implementation.pojo.spi.reflection.ServiceInvokerFactory;
+import org.fabric3.spi.classloader.BytecodeClassLoader;
+import org.fabric3.spi.classloader.ClassLoaderRegistry;
+import org.oasisopen.sca.annotation.Reference;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.ACC_SUPER;
+
+/**
+ * Generates {@link ServiceInvoker}s that call the target method directly instead of using reflection. Exceptions thrown by the target method are
+ * wrapped in an {@link InvocationTargetException} as with reflective invocation.
+ *
+ * Methods that cannot be called from a generated class, such as non-public methods, are invoked using a {@link MethodHandleServiceInvoker}.
+ */
+public class BytecodeServiceInvokerFactory extends AbstractBytecodeInvokerFactory implements ServiceInvokerFactory {
+    private static final String[] SERVICE_INVOKER_INTERFACES = new String[]{Type.getInternalName(ServiceInvoker.class)};
+    private static final String[] EXCEPTIONS = new String[]{Type.getInternalName(InvocationTargetException.class)};
+    private static final String INVOCATION_EXCEPTION = Type.getInternalName(InvocationTargetException.class);
+
+    public BytecodeServiceInvokerFactory(@Reference ClassLoaderRegistry classLoaderRegistry) {
+        super(classLoaderRegistry);
+    }
+
+    public boolean isDefault() {
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    public ServiceInvoker createInvoker(Method method) {
+        if (!isAccessible(method)) {
+            return new MethodHandleServiceInvoker(method);
+        }
+
+        BytecodeClassLoader classLoader = getClassLoader(method);
+
+        Class<?> declaringClass = method.getDeclaringClass();
+
+        // use the toString() hashcode of the method since more than one invoker may be created per class (if it has multiple methods)
+        int code = Math.abs(method.toString().hashCode());
+        String className = declaringClass.getName() + "_ServiceInvoker" + code;
+
+        try {
+            Class<ServiceInvoker> invokerClass = (Class<ServiceInvoker>) classLoader.loadClass(className);
+            return invokerClass.newInstance();
+        } catch (ClassNotFoundException e) {
+            // ignore
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new AssertionError(e);
+        }
+
+        String internalTargetName = Type.getInternalName(declaringClass);
+        String internalInvokerName = internalTargetName + "_ServiceInvoker" + code;
+
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+
+        cw.visit(Opcodes.V1_7, ACC_PUBLIC + ACC_SUPER, internalInvokerName, null, "java/lang/Object", SERVICE_INVOKER_INTERFACES);
+
+        cw.visitSource(className + ".java", null);
+
+        BytecodeHelper.writeConstructor(cw, Object.class);
+
+        writeInvoke(method, internalTargetName, internalInvokerName, cw);
+
+        cw.visitEnd();
+
+        return BytecodeHelper.instantiate(ServiceInvoker.class, className, classLoader, cw);
+    }
+
+    /**
+     * Writes the invoke method. Arguments are passed as an object array which is unpacked onto the stack. Only the target invocation is guarded so that
+     * exceptions it throws are wrapped in an InvocationTargetException.
+     *
+     * @param method              the target method
+     * @param internalTargetName  the internal name of the target class
+     * @param internalInvokerName the internal name of the generated invoker class
+     * @param cw                  the class writer
+     */
+    private void writeInvoke(Method method, String internalTargetName, String internalInvokerName, ClassWriter cw) {
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "invoke", "(Ljava/lang/Object;Ljava/lang/Object;)Ljava/lang/Object;", null, EXCEPTIONS);
+        mv.visitCode();
+        Label start = new Label();
+        mv.visitLabel(start);
+        mv.visitLineNumber(9, start);
+
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        if (parameterTypes.length > 0) {
+            mv.visitVarInsn(Opcodes.ALOAD, 2);
+            mv.visitTypeInsn(Opcodes.CHECKCAST, "[Ljava/lang/Object;");
+            mv.visitVarInsn(Opcodes.ASTORE, 3);
+        }
+
+        mv.visitVarInsn(Opcodes.ALOAD, 1);
+        mv.visitTypeInsn(Opcodes.CHECKCAST, internalTargetName);
+        for (int i = 0; i < parameterTypes.length; i++) {
+            mv.visitVarInsn(Opcodes.ALOAD, 3);
+            BytecodeHelper.writeInt(i, mv);
+            mv.visitInsn(Opcodes.AALOAD);
+            BytecodeHelper.writeUnbox(parameterTypes[i], mv);
+        }
+
+        Label tryStart = new Label();
+        Label tryEnd = new Label();
+        Label handler = new Label();
+        mv.visitTryCatchBlock(tryStart, tryEnd, handler, "java/lang/Throwable");
+
+        mv.visitLabel(tryStart);
+        String methodDescriptor = Type.getMethodDescriptor(method);
+        if (method.getDeclaringClass().isInterface()) {
+            mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, internalTargetName, method.getName(), methodDescriptor);
+        } else {
+            mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, internalTargetName, method.getName(), methodDescriptor);
+        }
+        mv.visitLabel(tryEnd);
+
+        BytecodeHelper.writeBoxedReturn(method.getReturnType(), mv);
+
+        // wrap exceptions thrown by the target
+        mv.visitLabel(handler);
+        if (parameterTypes.length > 0) {
+            Object[] locals = {internalInvokerName, "java/lang/Object", "java/lang/Object", "[Ljava/lang/Object;"};
+            mv.visitFrame(Opcodes.F_FULL, locals.length, locals, 1, new Object[]{"java/lang/Throwable"});
+        } else {
+            Object[] locals = {internalInvokerName, "java/lang/Object", "java/lang/Object"};
+            mv.visitFrame(Opcodes.F_FULL, locals.length, locals, 1, new Object[]{"java/lang/Throwable"});
+        }
+        mv.visitVarInsn(Opcodes.ASTORE, 4);
+        mv.visitTypeInsn(Opcodes.NEW, INVOCATION_EXCEPTION);
+        mv.visitInsn(Opcodes.DUP);
+        mv.visitVarInsn(Opcodes.ALOAD, 4);
+        mv.visitMethodInsn(Opcodes.INVOKESPECIAL, INVOCATION_EXCEPTION, "<init>", "(Ljava/lang/Throwable;)V");
+        mv.visitInsn(Opcodes.ATHROW);
+
+        Label end = new Label();
+        mv.visitLabel(end);
+        String descriptor = "L" + internalInvokerName + ";";
+        mv.visitLocalVariable("this", descriptor, null, start, end, 0);
+        mv.visitLocalVariable("instance", "Ljava/lang/Object;", null, start, end, 1);
+        mv.visitLocalVariable("args", "Ljava/lang/Object;", null, start, end, 2);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    /**
+     * Returns true if the method can be called from a generated class defined in a different classloader than the target class.
+     *
+     * @param method the method
+     * @return true if the method can be called from a generated class
+     */
+    private boolean isAccessible(Method method) {
+        Class<?> declaringClass = method.getDeclaringClass();
+        if (!Modifier.isPublic(method.getModifiers()) || Modifier.isStatic(method.getModifiers()) || !isPublic(declaringClass)) {
+            return false;
+        }
+        if (declaringClass.getName().startsWith("java.")) {
+            // classes cannot be defined in java.* packages
+            return false;
+        }
+        for (Class<?> type : method.getParameterTypes()) {
+            if (!isPublic(type)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isPublic(Class<?> type) {
+        while (type.isArray()) {
+            type = type.getComponentType();
+        }
+        return type.isPrimitive() || Modifier.isPublic(type.getModifiers());
+    }
+
+}
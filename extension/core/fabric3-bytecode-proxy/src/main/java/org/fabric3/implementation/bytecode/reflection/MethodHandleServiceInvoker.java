@@ -0,0 +1,57 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.implementation.bytecode.reflection;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import org.fabric3.implementation.pojo.spi.reflection.ServiceInvoker;
+
+/**
+ * Invokes a service operation using a method handle. Used for methods that generated invokers cannot access, such as non-public methods or methods
+ * on non-public classes.
+ */
+public class MethodHandleServiceInvoker implements ServiceInvoker {
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+
+    private MethodHandle handle;
+
+    public MethodHandleServiceInvoker(Method method) {
+        method.setAccessible(true);
+        try {
+            MethodHandle handle = MethodHandles.lookup().unreflect(method);
+            if (Modifier.isStatic(method.getModifiers())) {
+                handle = MethodHandles.dropArguments(handle, 0, Object.class);
+            }
+            this.handle = handle.asSpreader(Object[].class, method.getParameterTypes().length).asType(INVOKER_TYPE);
+        } catch (IllegalAccessException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    public Object invoke(Object obj, Object args) throws InvocationTargetException {
+        try {
+            return handle.invokeExact(obj, (Object[]) args);
+        } catch (Throwable e) {
+            throw new InvocationTargetException(e);
+        }
+    }
+}
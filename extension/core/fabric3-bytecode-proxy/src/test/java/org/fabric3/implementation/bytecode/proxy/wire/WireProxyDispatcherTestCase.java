@@ -6,7 +6,10 @@ import java.lang.reflect.Method;
 import junit.framework.TestCase;
 import org.easymock.EasyMock;
 import org.fabric3.implementation.bytecode.proxy.common.ProxyFactoryImpl;
+import org.fabric3.implementation.pojo.component.InvokerInterceptor;
+import org.fabric3.implementation.pojo.spi.reflection.ServiceInvoker;
 import org.fabric3.spi.classloader.ClassLoaderRegistry;
+import org.fabric3.spi.container.component.AtomicComponent;
 import org.fabric3.spi.container.invocation.Message;
 import org.fabric3.spi.container.invocation.MessageImpl;
 import org.fabric3.spi.container.wire.Interceptor;
@@ -59,6 +62,33 @@ public class WireProxyDispatcherTestCase extends TestCase {
 
     }
 
+    public void testDirectDispatch() throws Exception {
+        Method[] methods = PrimitiveInterface.class.getMethods();
+        PrimitiveImpl instance = new PrimitiveImpl();
+
+        AtomicComponent component = EasyMock.createMock(AtomicComponent.class);
+        EasyMock.expect(component.getInstance()).andReturn(instance).times(2);
+        component.releaseInstance(instance);
+        EasyMock.expectLastCall().times(2);
+        ServiceInvoker invoker = EasyMock.createMock(ServiceInvoker.class);
+
+        InvocationChain directChain = EasyMock.createMock(InvocationChain.class);
+        EasyMock.expect(directChain.getHeadInterceptor()).andReturn(new InvokerInterceptor(invoker, component)).anyTimes();
+        EasyMock.replay(component, invoker, directChain);
+
+        PrimitiveInterface proxy = factory.createProxy(URI, PrimitiveInterface.class, methods, WireProxyDispatcher.class, true);
+        ((WireProxyDispatcher) proxy).init(PrimitiveInterface.class, null, new InvocationChain[]{directChain});
+
+        assertEquals(Long.MAX_VALUE - 1, proxy.add(Long.MAX_VALUE - 2, 1));
+        try {
+            proxy.add(-1, 1);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        EasyMock.verify(component, invoker, directChain);
+    }
+
     protected void setUp() throws Exception {
         super.setUp();
 
@@ -81,6 +111,21 @@ public class WireProxyDispatcherTestCase extends TestCase {
 
     }
 
+    public interface PrimitiveInterface {
+
+        long add(long value, int increment);
+    }
+
+    public static class PrimitiveImpl implements PrimitiveInterface {
+
+        public long add(long value, int increment) {
+            if (value < 0) {
+                throw new IllegalArgumentException();
+            }
+            return value + increment;
+        }
+    }
+
     public interface FaultProxyInterface {
 
         String invoke(String message) throws IOException;
@@ -0,0 +1,128 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.implementation.bytecode.reflection;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URI;
+
+import junit.framework.TestCase;
+import org.easymock.EasyMock;
+import org.fabric3.implementation.pojo.spi.reflection.ServiceInvoker;
+import org.fabric3.spi.classloader.ClassLoaderRegistry;
+
+/**
+ *
+ */
+public class BytecodeServiceInvokerFactoryTestCase extends TestCase {
+    private BytecodeServiceInvokerFactory factory;
+
+    public void testInvoke() throws Exception {
+        Method method = Target.class.getMethod("echo", String.class);
+        ServiceInvoker invoker = factory.createInvoker(method);
+        assertFalse(invoker instanceof MethodHandleServiceInvoker);
+
+        assertEquals("test", invoker.invoke(new Target(), new Object[]{"test"}));
+    }
+
+    public void testNoArgsInvoke() throws Exception {
+        Method method = Target.class.getMethod("invoke");
+        ServiceInvoker invoker = factory.createInvoker(method);
+        Target target = new Target();
+
+        assertNull(invoker.invoke(target, null));
+        assertTrue(target.invoked);
+    }
+
+    public void testPrimitivesInvoke() throws Exception {
+        Method method = Target.class.getMethod("add", Integer.TYPE, Long.TYPE, Double.TYPE, Character.TYPE, Boolean.TYPE, Short.TYPE, Byte.TYPE, Float.TYPE);
+        ServiceInvoker invoker = factory.createInvoker(method);
+
+        Object[] args = {1, 2L, 3d, 'a', true, (short) 4, (byte) 5, 6f};
+        assertEquals(1 + 2L + 3d + 'a' + 1 + 4 + 5 + 6f, invoker.invoke(new Target(), args));
+    }
+
+    public void testCheckedException() throws Exception {
+        Method method = Target.class.getMethod("fail");
+        ServiceInvoker invoker = factory.createInvoker(method);
+        try {
+            invoker.invoke(new Target(), null);
+            fail();
+        } catch (InvocationTargetException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+    }
+
+    public void testNonPublicInvoke() throws Exception {
+        Method method = Target.class.getDeclaredMethod("hidden", String.class);
+        ServiceInvoker invoker = factory.createInvoker(method);
+        assertTrue(invoker instanceof MethodHandleServiceInvoker);
+
+        assertEquals("test", invoker.invoke(new Target(), new Object[]{"test"}));
+    }
+
+    public void testNonPublicException() throws Exception {
+        Method method = Target.class.getDeclaredMethod("hiddenFail");
+        ServiceInvoker invoker = factory.createInvoker(method);
+        try {
+            invoker.invoke(new Target(), null);
+            fail();
+        } catch (InvocationTargetException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    public void setUp() throws Exception {
+        super.setUp();
+
+        ClassLoaderRegistry classLoaderRegistry = EasyMock.createMock(ClassLoaderRegistry.class);
+        EasyMock.expect(classLoaderRegistry.getClassLoader(EasyMock.isA(URI.class))).andReturn(getClass().getClassLoader()).anyTimes();
+        EasyMock.replay(classLoaderRegistry);
+
+        factory = new BytecodeServiceInvokerFactory(classLoaderRegistry);
+    }
+
+    public static class Target {
+        public boolean invoked;
+
+        public String echo(String message) {
+            return message;
+        }
+
+        public void invoke() {
+            invoked = true;
+        }
+
+        public double add(int i, long l, double d, char c, boolean b, short s, byte by, float f) {
+            return i + l + d + c + (b ? 1 : 0) + s + by + f;
+        }
+
+        public void fail() throws IOException {
+            throw new IOException();
+        }
+
+        String hidden(String message) {
+            return message;
+        }
+
+        void hiddenFail() {
+            throw new IllegalStateException();
+        }
+    }
+
+}
@@ -27,23 +27,30 @@ import com.lmax.disruptor.SleepingWaitStrategy;
 import com.lmax.disruptor.TimeoutBlockingWaitStrategy;
 import com.lmax.disruptor.WaitStrategy;
 import com.lmax.disruptor.YieldingWaitStrategy;
+import org.fabric3.api.ChannelEventFactory;
+import org.fabric3.api.ChannelPartitioner;
 import org.fabric3.api.host.Fabric3Exception;
 import org.fabric3.api.model.type.component.RingBufferData;
+import org.fabric3.channel.disruptor.impl.PartitionedRingBufferChannel;
 import org.fabric3.channel.disruptor.impl.RingBufferChannel;
+import org.fabric3.spi.classloader.ClassLoaderRegistry;
 import org.fabric3.spi.container.builder.ChannelBuilder;
 import org.fabric3.spi.container.channel.Channel;
 import org.fabric3.spi.model.physical.ChannelSide;
 import org.fabric3.spi.model.physical.PhysicalChannel;
+import org.fabric3.spi.threadpool.ExecutorRegistry;
 import org.oasisopen.sca.annotation.Reference;
 
 /**
- * Builds and disposes {@link RingBufferChannel}s.
+ * Builds and disposes {@link RingBufferChannel}s and {@link PartitionedRingBufferChannel}s.
  */
 public class RingBufferChannelBuilder implements ChannelBuilder {
-    private ExecutorService executorService;
+    private ExecutorRegistry executorRegistry;
+    private ClassLoaderRegistry classLoaderRegistry;
 
-    public RingBufferChannelBuilder(@Reference(name = "executorService") ExecutorService executorService) {
-        this.executorService = executorService;
+    public RingBufferChannelBuilder(@Reference ExecutorRegistry executorRegistry, @Reference ClassLoaderRegistry classLoaderRegistry) {
+        this.executorRegistry = executorRegistry;
+        this.classLoaderRegistry = classLoaderRegistry;
     }
 
     public Channel build(PhysicalChannel physicalChannel) throws Fabric3Exception {
@@ -57,13 +64,60 @@ public class RingBufferChannelBuilder implements ChannelBuilder {
 
         ChannelSide channelSide = physicalChannel.getChannelSide();
 
-        return new RingBufferChannel(uri, size, strategy, channelSide, executorService, contributionUri);
+        // event processors occupy a thread for as long as the channel runs
+        ExecutorService executorService = executorRegistry.getLongRunningExecutor(uri);
+        ChannelEventFactory<?> eventFactory = instantiate(data.getEventFactory(), ChannelEventFactory.class, contributionUri);
+
+        int partitions = data.getPartitions();
+        if (partitions > 1) {
+            ChannelPartitioner partitioner = instantiate(data.getPartitioner(), ChannelPartitioner.class, contributionUri);
+            return new PartitionedRingBufferChannel(uri,
+                                                    partitions,
+                                                    size,
+                                                    strategy,
+                                                    channelSide,
+                                                    executorService,
+                                                    contributionUri,
+                                                    partitioner,
+                                                    data.isSerializeConsumers(),
+                                                    eventFactory);
+        }
+        return new RingBufferChannel(uri, size, strategy, channelSide, executorService, contributionUri, eventFactory);
     }
 
     public void dispose(PhysicalChannel physicalChannel, Channel channel) throws Fabric3Exception {
         // no-op
     }
 
+    /**
+     * Instantiates an application-provided channel extension class such as a partitioner or event factory.
+     *
+     * @param className       the class name or null
+     * @param type            the type the class must implement
+     * @param contributionUri the contribution containing the class
+     * @return the instance or null if the class name is null
+     */
+    private <T> T instantiate(String className, Class<T> type, URI contributionUri) {
+        if (className == null) {
+            return null;
+        }
+        ClassLoader classLoader = classLoaderRegistry.getClassLoader(contributionUri);
+        if (classLoader == null) {
+            throw new Fabric3Exception("Classloader not found for contribution: " + contributionUri);
+        }
+        try {
+            Class<?> clazz = classLoader.loadClass(className);
+            if (!type.isAssignableFrom(clazz)) {
+                throw new Fabric3Exception("Class must implement " + type.getName() + ": " + className);
+            }
+            return type.cast(clazz.newInstance());
+        } catch (ClassNotFoundException e) {
+            throw new Fabric3Exception("Class not found: " + className, e);
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new Fabric3Exception("Error instantiating class: " + className, e);
+        }
+    }
+
     private WaitStrategy createWaitStrategy(RingBufferData data) {
         switch (data.getWaitStrategy()) {
             case YIELDING:
@@ -19,20 +19,60 @@ package org.fabric3.channel.disruptor.impl;
 import com.lmax.disruptor.EventHandler;
 import org.fabric3.spi.container.channel.ChannelConnection;
 import org.fabric3.spi.container.channel.EventStream;
+import org.fabric3.spi.container.channel.TopicPattern;
 
 /**
  * Dispatches an event from the channel ring buffer to consumer streams.
+ *
+ * If the consumer connection specifies a topic, only events published to a topic matching it are dispatched. The topic may contain wildcards as
+ * described by {@link TopicPattern}. Consumers that do not specify a topic receive all events.
+ *
+ * If a lock is provided, events are dispatched while holding it. Handlers for the same consumer on different ring buffers share a lock so that the
+ * consumer is not invoked concurrently.
  */
 public class ChannelEventHandler implements EventHandler<RingBufferEvent> {
     private final boolean channelEvent;
+    private final Object lock;
     private EventStream stream;
+    private TopicPattern pattern;
+
+    // cache of the last evaluated topic; publishers reuse the same topic instance so the pattern is rarely evaluated
+    private String lastTopic;
+    private boolean lastMatch;
 
     public ChannelEventHandler(ChannelConnection connection, boolean channelEvent) {
+        this(connection, channelEvent, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param connection   the consumer connection
+     * @param channelEvent true if the consumer takes a channel event
+     * @param lock         the lock held while dispatching to the consumer or null if dispatch is not serialized
+     */
+    public ChannelEventHandler(ChannelConnection connection, boolean channelEvent, Object lock) {
         this.channelEvent = channelEvent;
+        this.lock = lock;
         stream = connection.getEventStream();
+        String topic = connection.getTopic();
+        pattern = topic == null ? null : TopicPattern.compile(topic);
     }
 
     public void onEvent(RingBufferEvent event, long sequence, boolean endOfBatch) throws Exception {
+        if (pattern != null && !matches(event.getTopic())) {
+            return;
+        }
+        if (lock == null) {
+            dispatch(event, sequence, endOfBatch);
+        } else {
+            synchronized (lock) {
+                dispatch(event, sequence, endOfBatch);
+            }
+        }
+    }
+
+    private void dispatch(RingBufferEvent event, long sequence, boolean endOfBatch) {
         if (channelEvent) {
             // consumer takes a channel event, send that, making sure to set the end-of-batch marker and sequence number
             event.setEndOfBatch(endOfBatch);
@@ -48,4 +88,12 @@ public class ChannelEventHandler implements EventHandler<RingBufferEvent> {
             }
         }
     }
+
+    private boolean matches(String topic) {
+        if (topic != lastTopic) {
+            lastMatch = pattern.matches(topic);
+            lastTopic = topic;
+        }
+        return lastMatch;
+    }
 }
@@ -0,0 +1,37 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.channel.disruptor.impl;
+
+import com.lmax.disruptor.EventTranslatorTwoArg;
+import org.fabric3.api.ChannelEventFactory;
+
+/**
+ * Copies events sent through producer proxies into the pre-allocated payloads of {@link RingBufferEvent}s.
+ */
+public class CopyingEventTranslator implements EventTranslatorTwoArg<RingBufferEvent, Object, String> {
+    private ChannelEventFactory<Object> payloadFactory;
+
+    public CopyingEventTranslator(ChannelEventFactory<Object> payloadFactory) {
+        this.payloadFactory = payloadFactory;
+    }
+
+    public void translateTo(RingBufferEvent bufferEvent, long sequence, Object event, String topic) {
+        payloadFactory.copy(event, bufferEvent.getEvent(Object.class));
+        bufferEvent.setTopic(topic);
+        bufferEvent.setParsed(null);
+    }
+}
@@ -19,6 +19,7 @@ package org.fabric3.channel.disruptor.impl;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.NavigableMap;
 import java.util.TreeMap;
 
@@ -39,16 +40,24 @@ public class EventHandlerHelper {
      */
     public static NavigableMap<Integer, List<EventHandler<RingBufferEvent>>> createAndSort(Collection<ChannelConnection> connections) {
         NavigableMap<Integer, List<EventHandler<RingBufferEvent>>> sorted = new TreeMap<>();
-
         for (ChannelConnection connection : connections) {
-            Integer sequence = connection.getSequence();
-            List<EventHandler<RingBufferEvent>> handlers = sorted.get(sequence);
-            if (handlers == null) {
-                handlers = new ArrayList<>();
-                sorted.put(sequence, handlers);
-            }
-            boolean channelEvent = isChannelEvent(connection);
-            handlers.add(new ChannelEventHandler(connection, channelEvent));
+            add(connection, null, sorted);
+        }
+        return sorted;
+    }
+
+    /**
+     * Creates event handlers from a map of keyed {@link ChannelConnection}s and returns a Map sorted by connection sequence value. Handlers for
+     * connections with an entry in the lock map dispatch while holding the lock.
+     *
+     * @param connections the connections keyed by subscription
+     * @param locks       the dispatch locks keyed by subscription
+     * @return the sorted Map
+     */
+    public static <K> NavigableMap<Integer, List<EventHandler<RingBufferEvent>>> createAndSort(Map<K, ChannelConnection> connections, Map<K, Object> locks) {
+        NavigableMap<Integer, List<EventHandler<RingBufferEvent>>> sorted = new TreeMap<>();
+        for (Map.Entry<K, ChannelConnection> entry : connections.entrySet()) {
+            add(entry.getValue(), locks.get(entry.getKey()), sorted);
         }
         return sorted;
     }
@@ -57,6 +66,17 @@ public class EventHandlerHelper {
         return ChannelEvent.class.isAssignableFrom(connection.getEventStream().getEventType());
     }
 
+    private static void add(ChannelConnection connection, Object lock, NavigableMap<Integer, List<EventHandler<RingBufferEvent>>> sorted) {
+        Integer sequence = connection.getSequence();
+        List<EventHandler<RingBufferEvent>> handlers = sorted.get(sequence);
+        if (handlers == null) {
+            handlers = new ArrayList<>();
+            sorted.put(sequence, handlers);
+        }
+        boolean channelEvent = isChannelEvent(connection);
+        handlers.add(new ChannelEventHandler(connection, channelEvent, lock));
+    }
+
     private EventHandlerHelper() {
     }
 }
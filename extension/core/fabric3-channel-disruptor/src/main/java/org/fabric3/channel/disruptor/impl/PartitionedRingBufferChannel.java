@@ -0,0 +1,265 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.channel.disruptor.impl;
+
+import java.net.URI;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.lmax.disruptor.WaitStrategy;
+import org.fabric3.api.ChannelEventFactory;
+import org.fabric3.api.ChannelPartitioner;
+import org.fabric3.api.host.Fabric3Exception;
+import org.fabric3.spi.container.channel.Channel;
+import org.fabric3.spi.container.channel.ChannelConnection;
+import org.fabric3.spi.container.channel.EventStreamHandler;
+import org.fabric3.spi.container.channel.TopicPattern;
+import org.fabric3.spi.model.physical.ChannelSide;
+
+/**
+ * A channel that partitions events across multiple ring buffers, each with its own event processors.
+ *
+ * Events are assigned to a partition using a key returned by a {@link ChannelPartitioner} or, if no partitioner is configured, the topic the event is
+ * published to. Events with the same key are always dispatched through the same ring buffer so per-key ordering is preserved. Events without a key
+ * are dispatched through a partition assigned to the producer, which preserves per-producer ordering. Direct connections without a topic are assigned a
+ * partition in the same way.
+ *
+ * Producers that publish to a fixed partition, i.e. those partitioned by topic or without a key, are registered only with that partition so that
+ * partitions with a single producer use the single-producer ring buffer sequencer. Producers using a {@link ChannelPartitioner} may publish to any
+ * partition and are registered with all of them.
+ *
+ * Consumers are subscribed to every partition. By default, dispatch to a consumer is serialized per partition: the event processors of different
+ * partitions may invoke a consumer concurrently, so consumers must be thread-safe, but each partition is dispatched in parallel. Alternatively,
+ * dispatch may be serialized across partitions with a per-consumer lock so a consumer instance is never invoked concurrently. This limits the
+ * throughput of each consumer to that of a single partition, while different consumers are still dispatched to in parallel. Sequence numbers
+ * provided to consumers that take a channel event are relative to the partition the event was dispatched through.
+ *
+ * If a {@link ChannelEventFactory} is configured, the slots of each partition hold pre-allocated payloads as described by {@link RingBufferChannel}.
+ */
+public class PartitionedRingBufferChannel implements Channel {
+    private URI uri;
+    private ChannelSide channelSide;
+    private URI contributionUri;
+    private ChannelPartitioner partitioner;
+    private boolean preallocated;
+    private boolean serializeConsumers;
+
+    private RingBufferChannel[] partitions;
+    private AtomicInteger nextPartition = new AtomicInteger();
+
+    public PartitionedRingBufferChannel(URI uri,
+                                        int partitions,
+                                        int size,
+                                        WaitStrategy waitStrategy,
+                                        ChannelSide channelSide,
+                                        ExecutorService executorService,
+                                        URI contributionUri,
+                                        ChannelPartitioner partitioner,
+                                        boolean serializeConsumers,
+                                        ChannelEventFactory<?> payloadFactory) {
+        this.uri = uri;
+        this.channelSide = channelSide;
+        this.contributionUri = contributionUri;
+        this.partitioner = partitioner;
+        this.preallocated = payloadFactory != null;
+        this.serializeConsumers = serializeConsumers;
+        this.partitions = new RingBufferChannel[partitions];
+        for (int i = 0; i < partitions; i++) {
+            this.partitions[i] = new RingBufferChannel(uri, size, waitStrategy, channelSide, executorService, contributionUri, payloadFactory);
+        }
+    }
+
+    public void start() {
+        for (RingBufferChannel partition : partitions) {
+            partition.start();
+        }
+    }
+
+    public void stop() {
+        for (RingBufferChannel partition : partitions) {
+            partition.stop();
+        }
+    }
+
+    public URI getUri() {
+        return uri;
+    }
+
+    public URI getContributionUri() {
+        return contributionUri;
+    }
+
+    public ChannelSide getChannelSide() {
+        return channelSide;
+    }
+
+    public void addHandler(EventStreamHandler handler) {
+        throw new UnsupportedOperationException();
+    }
+
+    public void removeHandler(EventStreamHandler handler) {
+        throw new UnsupportedOperationException();
+    }
+
+    public void attach(EventStreamHandler handler) {
+        handler.setNext(createPublisher(null));
+    }
+
+    public void attach(ChannelConnection connection) {
+        String topic = connection.getTopic();
+        if (topic != null && preallocated) {
+            throw new Fabric3Exception("Topics are not supported on channels with pre-allocated events: " + uri);
+        } else if (topic != null && TopicPattern.isWildcard(topic)) {
+            throw new Fabric3Exception("Events cannot be sent to a wildcard topic: " + topic);
+        }
+        connection.getEventStream().getTailHandler().setNext(createPublisher(topic));
+    }
+
+    public void subscribe(URI uri, ChannelConnection connection) {
+        // if enabled, share a lock across partitions so the consumer is not invoked concurrently
+        Object lock = serializeConsumers ? new Object() : null;
+        for (RingBufferChannel partition : partitions) {
+            partition.subscribe(uri, connection, lock);
+        }
+    }
+
+    public ChannelConnection unsubscribe(URI uri, String topic) {
+        ChannelConnection connection = null;
+        for (RingBufferChannel partition : partitions) {
+            ChannelConnection removed = partition.unsubscribe(uri, topic);
+            if (connection == null) {
+                connection = removed;
+            }
+        }
+        return connection;
+    }
+
+    /**
+     * Returns the ring buffer of the partition the topic is assigned to or, if the topic is null, the next partition in turn. The direct producer is
+     * registered with the partition. Events published directly to the ring buffer bypass the partitioner.
+     *
+     * @param topic the topic or null
+     * @return the ring buffer
+     */
+    public Object getDirectConnection(String topic) {
+        RingBufferChannel partition = topic == null ? nextPartition() : partitions[getPartition(topic)];
+        return partition.getDirectConnection(topic);
+    }
+
+    /**
+     * Returns the number of partitions.
+     *
+     * @return the number of partitions
+     */
+    public int getPartitionCount() {
+        return partitions.length;
+    }
+
+    /**
+     * Creates a publisher for a producer. A producer that publishes to a fixed partition is registered only with that partition. A keyed producer may
+     * publish to any partition and is registered with all of them.
+     *
+     * @param topic the producer topic or null
+     * @return the publisher
+     */
+    private EventStreamHandler createPublisher(String topic) {
+        RingBufferChannel home = nextPartition();
+        if (partitioner == null) {
+            // events are partitioned by topic, which is fixed for the producer
+            RingBufferChannel partition = topic == null ? home : partitions[getPartition(topic)];
+            partition.registerProducer();
+            return new FixedPublisher(partition, topic);
+        }
+        for (RingBufferChannel partition : partitions) {
+            partition.registerProducer();
+        }
+        return new KeyedPublisher(home, topic);
+    }
+
+    /**
+     * Returns the number of producers registered with each partition.
+     *
+     * @return the number of producers by partition index
+     */
+    int[] getProducerCounts() {
+        int[] counts = new int[partitions.length];
+        for (int i = 0; i < partitions.length; i++) {
+            counts[i] = partitions[i].getProducerCount();
+        }
+        return counts;
+    }
+
+    private RingBufferChannel nextPartition() {
+        return partitions[Math.floorMod(nextPartition.getAndIncrement(), partitions.length)];
+    }
+
+    private int getPartition(Object key) {
+        return Math.floorMod(key.hashCode(), partitions.length);
+    }
+
+    /**
+     * Publishes events from a producer to a single partition.
+     */
+    private class FixedPublisher implements EventStreamHandler {
+        private RingBufferChannel partition;
+        private String topic;
+
+        public FixedPublisher(RingBufferChannel partition, String topic) {
+            this.partition = partition;
+            this.topic = topic;
+        }
+
+        public void handle(Object event, boolean endOfBatch) {
+            partition.publish(event, topic);
+        }
+
+        public void setNext(EventStreamHandler next) {
+            throw new IllegalStateException();
+        }
+
+        public EventStreamHandler getNext() {
+            return null;
+        }
+    }
+
+    /**
+     * Publishes events from a producer to the partition selected by the event key.
+     */
+    private class KeyedPublisher implements EventStreamHandler {
+        private RingBufferChannel home;
+        private String topic;
+
+        public KeyedPublisher(RingBufferChannel home, String topic) {
+            this.home = home;
+            this.topic = topic;
+        }
+
+        public void handle(Object event, boolean endOfBatch) {
+            Object key = partitioner.getKey(event);
+            RingBufferChannel partition = key == null ? home : partitions[getPartition(key)];
+            partition.publish(event, topic);
+        }
+
+        public void setNext(EventStreamHandler next) {
+            throw new IllegalStateException();
+        }
+
+        public EventStreamHandler getNext() {
+            return null;
+        }
+    }
+}
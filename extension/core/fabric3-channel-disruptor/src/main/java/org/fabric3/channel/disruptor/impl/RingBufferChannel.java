@@ -17,10 +17,14 @@
 package org.fabric3.channel.disruptor.impl;
 
 import java.net.URI;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.lmax.disruptor.BatchEventProcessor;
 import com.lmax.disruptor.EventHandler;
@@ -31,15 +35,32 @@ import com.lmax.disruptor.SequenceGroup;
 import com.lmax.disruptor.WaitStrategy;
 import com.lmax.disruptor.dsl.Disruptor;
 import com.lmax.disruptor.dsl.EventHandlerGroup;
+import com.lmax.disruptor.EventTranslatorTwoArg;
 import com.lmax.disruptor.dsl.ProducerType;
+import org.fabric3.api.ChannelEventFactory;
+import org.fabric3.api.host.Fabric3Exception;
 import org.fabric3.spi.container.channel.Channel;
 import org.fabric3.spi.container.channel.ChannelConnection;
 import org.fabric3.spi.container.channel.EventStream;
 import org.fabric3.spi.container.channel.EventStreamHandler;
+import org.fabric3.spi.container.channel.TopicPattern;
 import org.fabric3.spi.model.physical.ChannelSide;
+import org.fabric3.spi.util.Cast;
 
 /**
  * A channel implementation that uses a Disruptor ring buffer to dispatch to consumers.
+ *
+ * Producers and consumers may specify a topic. Events are tagged with the producer topic and consumers that specify a topic, which may contain
+ * wildcards, only receive events published to matching topics.
+ *
+ * Subscribers may be added and removed while the channel is running. Subscriber state is held in concurrent maps and does not require locking; dynamic
+ * subscribers are given their own event processor which is halted when the subscriber is removed.
+ *
+ * If a {@link ChannelEventFactory} is configured, ring buffer slots hold pre-allocated payloads. Producers using the ring buffer as a direct
+ * connection write into the payload of a claimed slot and consumers receive it in place, avoiding per-event allocation. Events sent through producer
+ * proxies are copied into the slot payload. Since direct producers are typically obtained after the channel is started, when the number of producers can
+ * no longer be taken into account, the ring buffer always uses a multi-producer sequencer in this mode. Topics are not supported in this mode since direct producers cannot set them, so producer and consumer
+ * connections that specify a topic are rejected when they are attached.
  */
 public class RingBufferChannel implements Channel, EventStreamHandler {
     private static final RingBufferEventTranslator TRANSLATOR = new RingBufferEventTranslator();
@@ -51,33 +72,69 @@ public class RingBufferChannel implements Channel, EventStreamHandler {
     private ChannelSide channelSide;
     private ExecutorService executorService;
     private URI contributionUri;
+    private RingBufferEventFactory eventFactory;
+    private EventTranslatorTwoArg<RingBufferEvent, Object, String> translator;
+    private boolean preallocated;
 
-    private RingBuffer<RingBufferEvent> ringBuffer;
+    private volatile RingBuffer<RingBufferEvent> ringBuffer;
     private Disruptor<RingBufferEvent> disruptor;
 
-    private Map<URI, ChannelConnection> subscribers;
-    private Map<URI, Sequence> sequences;
+    // subscriptions are keyed by consumer URI and topic as a consumer may subscribe with multiple topics
+    private Map<Subscription, ChannelConnection> subscribers;
+    private Map<Subscription, ProcessorTask> processors;
+    private Map<Subscription, Object> locks;
 
     private int numberProducers;
     private SequenceGroup sequenceGroup;
 
     public RingBufferChannel(URI uri, int size, WaitStrategy waitStrategy, ChannelSide channelSide, ExecutorService executorService, URI contributionUri) {
+        this(uri, size, waitStrategy, channelSide, executorService, contributionUri, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param uri             the channel URI
+     * @param size            the ring buffer size
+     * @param waitStrategy    the consumer wait strategy
+     * @param channelSide     the channel side
+     * @param executorService the executor used to run event processors
+     * @param contributionUri the contribution the channel is deployed in
+     * @param payloadFactory  the factory used to pre-allocate event payloads or null if events are published by reference
+     */
+    public RingBufferChannel(URI uri,
+                             int size,
+                             WaitStrategy waitStrategy,
+                             ChannelSide channelSide,
+                             ExecutorService executorService,
+                             URI contributionUri,
+                             ChannelEventFactory<?> payloadFactory) {
         this.uri = uri;
         this.size = size;
         this.waitStrategy = waitStrategy;
         this.channelSide = channelSide;
         this.executorService = executorService;
         this.contributionUri = contributionUri;
-        subscribers = new HashMap<>();
-        sequences = new HashMap<>();
+        subscribers = new ConcurrentHashMap<>();
+        processors = new ConcurrentHashMap<>();
+        locks = new ConcurrentHashMap<>();
+        if (payloadFactory == null) {
+            eventFactory = EVENT_FACTORY;
+            translator = TRANSLATOR;
+        } else {
+            eventFactory = new RingBufferEventFactory(payloadFactory);
+            translator = new CopyingEventTranslator(Cast.cast(payloadFactory));
+            preallocated = true;
+        }
     }
 
     @SuppressWarnings("unchecked")
     public void start() {
-        ProducerType producerType = numberProducers > 1 ? ProducerType.MULTI : ProducerType.SINGLE;
-        disruptor = new Disruptor<>(EVENT_FACTORY, size, executorService, producerType, waitStrategy);
+        // direct producers of pre-allocated events may publish concurrently with producers attached after the channel started
+        ProducerType producerType = numberProducers > 1 || preallocated ? ProducerType.MULTI : ProducerType.SINGLE;
+        disruptor = new Disruptor<>(eventFactory, size, executorService, producerType, waitStrategy);
 
-        Map<Integer, List<EventHandler<RingBufferEvent>>> sorted = EventHandlerHelper.createAndSort(subscribers.values());
+        Map<Integer, List<EventHandler<RingBufferEvent>>> sorted = EventHandlerHelper.createAndSort(subscribers, locks);
 
         EventHandlerGroup group = null;
         for (List<EventHandler<RingBufferEvent>> handlers : sorted.values()) {
@@ -125,39 +182,69 @@ public class RingBufferChannel implements Channel, EventStreamHandler {
     public void attach(ChannelConnection connection) {
         numberProducers++;
         EventStream stream = connection.getEventStream();
-        stream.getTailHandler().setNext(this);
+        String topic = connection.getTopic();
+        if (topic == null) {
+            stream.getTailHandler().setNext(this);
+        } else if (preallocated) {
+            throw new Fabric3Exception("Topics are not supported on channels with pre-allocated events: " + uri);
+        } else if (TopicPattern.isWildcard(topic)) {
+            throw new Fabric3Exception("Events cannot be sent to a wildcard topic: " + topic);
+        } else {
+            stream.getTailHandler().setNext(new TopicPublisher(topic));
+        }
     }
 
     public void subscribe(URI uri, ChannelConnection connection) {
+        subscribe(uri, connection, null);
+    }
+
+    /**
+     * Subscribes a consumer, dispatching events to it while holding the given lock.
+     *
+     * @param uri        the consumer URI
+     * @param connection the consumer connection
+     * @param lock       the lock held while dispatching to the consumer or null if dispatch is not serialized
+     */
+    void subscribe(URI uri, ChannelConnection connection, Object lock) {
+        if (preallocated && connection.getTopic() != null) {
+            throw new Fabric3Exception("Topics are not supported on channels with pre-allocated events: " + this.uri);
+        }
+        Subscription subscription = new Subscription(uri, connection.getTopic());
+        if (lock != null) {
+            locks.put(subscription, lock);
+        }
         if (ringBuffer == null) {
-            subscribers.put(uri, connection);
+            subscribers.put(subscription, connection);
         } else {
             // ring buffer already started, add dynamically
             boolean channelEvent = EventHandlerHelper.isChannelEvent(connection);
-            ChannelEventHandler handler = new ChannelEventHandler(connection, channelEvent);
+            ChannelEventHandler handler = new ChannelEventHandler(connection, channelEvent, lock);
             SequenceBarrier barrier = ringBuffer.newBarrier();
             BatchEventProcessor<RingBufferEvent> processor = new BatchEventProcessor<>(ringBuffer, barrier, handler);
             Sequence sequence = processor.getSequence();
             sequenceGroup.addWhileRunning(ringBuffer, sequence);
-            executorService.execute(processor);
-
-            sequences.put(uri, sequence);
-            subscribers.put(uri, connection);
+            ProcessorTask task = new ProcessorTask(processor);
+            processors.put(subscription, task);
+            subscribers.put(subscription, connection);
+            executorService.execute(task);
         }
     }
 
     public ChannelConnection unsubscribe(URI uri, String topic) {
-        ChannelConnection connection = subscribers.remove(uri);
-        Sequence sequence = sequences.get(uri);
-        if (sequence != null) {
+        Subscription subscription = new Subscription(uri, topic);
+        ChannelConnection connection = subscribers.remove(subscription);
+        locks.remove(subscription);
+        ProcessorTask task = processors.remove(subscription);
+        if (task != null) {
             // may be null if registered prior to channel start
-            sequenceGroup.remove(sequence);
+            task.halt();
+            sequenceGroup.remove(task.processor.getSequence());
         }
         return connection;
     }
 
     public void handle(Object event, boolean endOfBatch) {
-        ringBuffer.publishEvent(TRANSLATOR, event);
+        ringBuffer.publishEvent(translator, event, null);
     }
 
     public void setNext(EventStreamHandler next) {
@@ -168,7 +255,142 @@ public class RingBufferChannel implements Channel, EventStreamHandler {
         return null;
     }
 
+    /**
+     * Returns the ring buffer and registers the caller as a producer.
+     *
+     * @param topic the topic; ignored
+     * @return the ring buffer
+     */
     public Object getDirectConnection(String topic) {
+        registerProducer();
         return ringBuffer;
     }
+
+    /**
+     * Registers a producer that publishes directly using {@link #publish(Object, String)} or the ring buffer. The producer type is selected from the
+     * number of producers registered when the channel is started.
+     */
+    void registerProducer() {
+        numberProducers++;
+    }
+
+    /**
+     * Returns the number of producers attached to or registered with the channel.
+     *
+     * @return the number of producers
+     */
+    int getProducerCount() {
+        return numberProducers;
+    }
+
+    /**
+     * Publishes an event to the ring buffer.
+     *
+     * @param event the event
+     * @param topic the topic the event is sent to or null
+     */
+    void publish(Object event, String topic) {
+        ringBuffer.publishEvent(translator, event, topic);
+    }
+
+    /**
+     * Publishes events sent by a producer to a topic.
+     */
+    private class TopicPublisher implements EventStreamHandler {
+        private String topic;
+
+        public TopicPublisher(String topic) {
+            this.topic = topic;
+        }
+
+        public void handle(Object event, boolean endOfBatch) {
+            publish(event, topic);
+        }
+
+        public void setNext(EventStreamHandler next) {
+            throw new IllegalStateException();
+        }
+
+        public EventStreamHandler getNext() {
+            return null;
+        }
+    }
+
+    /**
+     * Runs an event processor added while the channel is running. A processor clears pending halts when it starts, so the task tracks whether the
+     * processor was started and repeats the halt until the processor exits.
+     */
+    private static class ProcessorTask implements Runnable {
+        private static final int PENDING = 0;
+        private static final int STARTED = 1;
+        private static final int HALTED = 2;
+
+        private final BatchEventProcessor<RingBufferEvent> processor;
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+        private final CountDownLatch exited = new CountDownLatch(1);
+        private volatile Thread thread;
+
+        public ProcessorTask(BatchEventProcessor<RingBufferEvent> processor) {
+            this.processor = processor;
+        }
+
+        public void run() {
+            if (!state.compareAndSet(PENDING, STARTED)) {
+                return;
+            }
+            thread = Thread.currentThread();
+            try {
+                processor.run();
+            } finally {
+                exited.countDown();
+            }
+        }
+
+        public void halt() {
+            if (state.compareAndSet(PENDING, HALTED)) {
+                // the processor never started
+                return;
+            }
+            if (Thread.currentThread() == thread) {
+                // unsubscribed while dispatching, the processor exits when the dispatch returns
+                processor.halt();
+                return;
+            }
+            try {
+                do {
+                    processor.halt();
+                } while (!exited.await(1, TimeUnit.MILLISECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Identifies a subscription by consumer URI and topic.
+     */
+    private static class Subscription {
+        private final URI uri;
+        private final String topic;
+
+        public Subscription(URI uri, String topic) {
+            this.uri = uri;
+            this.topic = topic;
+        }
+
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Subscription)) {
+                return false;
+            }
+            Subscription other = (Subscription) o;
+            return uri.equals(other.uri) && Objects.equals(topic, other.topic);
+        }
+
+        public int hashCode() {
+            return 31 * uri.hashCode() + Objects.hashCode(topic);
+        }
+    }
 }
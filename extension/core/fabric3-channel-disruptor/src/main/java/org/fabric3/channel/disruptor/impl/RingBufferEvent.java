@@ -24,6 +24,7 @@ import org.fabric3.api.ChannelEvent;
 public class RingBufferEvent implements ChannelEvent {
     private Object event;
     private Object parsed;
+    private String topic;
     private boolean endOfBatch;
     private long sequence =-1;
 
@@ -43,6 +44,19 @@ public class RingBufferEvent implements ChannelEvent {
         this.parsed = parsed;
     }
 
+    /**
+     * Returns the topic the event was published to or null if it was not published to a topic.
+     *
+     * @return the topic or null
+     */
+    public String getTopic() {
+        return topic;
+    }
+
+    public void setTopic(String topic) {
+        this.topic = topic;
+    }
+
     public boolean isEndOfBatch() {
         return endOfBatch;
     }
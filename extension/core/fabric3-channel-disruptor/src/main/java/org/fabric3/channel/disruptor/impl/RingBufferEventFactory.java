@@ -17,13 +17,27 @@
 package org.fabric3.channel.disruptor.impl;
 
 import com.lmax.disruptor.EventFactory;
+import org.fabric3.api.ChannelEventFactory;
 
 /**
- * Factory for {@link RingBufferEvent}s
+ * Factory for {@link RingBufferEvent}s. If an application {@link ChannelEventFactory} is configured, each event is created with a pre-allocated
+ * payload.
  */
 public class RingBufferEventFactory implements EventFactory<RingBufferEvent> {
+    private ChannelEventFactory<?> payloadFactory;
+
+    public RingBufferEventFactory() {
+    }
+
+    public RingBufferEventFactory(ChannelEventFactory<?> payloadFactory) {
+        this.payloadFactory = payloadFactory;
+    }
 
     public RingBufferEvent newInstance() {
-        return new RingBufferEvent();
+        RingBufferEvent event = new RingBufferEvent();
+        if (payloadFactory != null) {
+            event.setEvent(payloadFactory.newInstance());
+        }
+        return event;
     }
 }
@@ -16,14 +16,17 @@
  */
 package org.fabric3.channel.disruptor.impl;
 
-import com.lmax.disruptor.EventTranslatorOneArg;
+import com.lmax.disruptor.EventTranslatorTwoArg;
 
 /**
- * Populates {@link RingBufferEvent}s with an event.
+ * Populates {@link RingBufferEvent}s with an event and the topic it was published to.
  */
-public class RingBufferEventTranslator implements EventTranslatorOneArg<RingBufferEvent, Object> {
+public class RingBufferEventTranslator implements EventTranslatorTwoArg<RingBufferEvent, Object, String> {
 
-    public void translateTo(RingBufferEvent bufferEvent, long sequence, Object event) {
+    public void translateTo(RingBufferEvent bufferEvent, long sequence, Object event, String topic) {
         bufferEvent.setEvent(event);
+        bufferEvent.setTopic(topic);
+        // clear the value parsed by a consumer from the event previously held in the slot
+        bufferEvent.setParsed(null);
     }
 }
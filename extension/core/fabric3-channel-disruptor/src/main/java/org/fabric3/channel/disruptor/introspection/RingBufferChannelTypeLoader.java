@@ -38,8 +38,21 @@ public class RingBufferChannelTypeLoader implements ChannelTypeLoader {
     private static final String SPIN_TIMEOUT = "spin.timeout";
     private static final String YIELD_TIMEOUT = "yield.timeout";
     private static final String PHASED_BLOCKING_TYPE = "phased.blocking.type";
-
-    private static final String[] ATTRIBUTES = new String[]{RING_SIZE, WAIT_STRATEGY, BLOCKING_TIMEOUT, SPIN_TIMEOUT, YIELD_TIMEOUT, PHASED_BLOCKING_TYPE};
+    private static final String PARTITIONS = "partitions";
+    private static final String PARTITIONER = "partitioner";
+    private static final String SERIALIZE_CONSUMERS = "serialize.consumers";
+    private static final String EVENT_FACTORY = "event.factory";
+
+    private static final String[] ATTRIBUTES = new String[]{RING_SIZE,
+                                                            WAIT_STRATEGY,
+                                                            BLOCKING_TIMEOUT,
+                                                            SPIN_TIMEOUT,
+                                                            YIELD_TIMEOUT,
+                                                            PHASED_BLOCKING_TYPE,
+                                                            PARTITIONS,
+                                                            PARTITIONER,
+                                                            SERIALIZE_CONSUMERS,
+                                                            EVENT_FACTORY};
 
     private static final int DEFAULT_RING_SIZE = 65536;
     private static final long DEFAULT_BLOCKING_TIMEOUT = 1000;
@@ -87,6 +100,36 @@ public class RingBufferChannelTypeLoader implements ChannelTypeLoader {
             }
 
         }
+
+        String partitionsStr = reader.getAttributeValue(null, PARTITIONS);
+        if (partitionsStr != null) {
+            try {
+                int partitions = Integer.parseInt(partitionsStr);
+                if (partitions < 1) {
+                    context.addError(new InvalidValue("Number of partitions must be greater than zero: " + partitionsStr, startLocation, definition));
+                } else {
+                    data.setPartitions(partitions);
+                }
+            } catch (NumberFormatException e) {
+                context.addError(new InvalidValue("Invalid number of partitions: " + partitionsStr, startLocation, definition));
+            }
+        }
+
+        String partitioner = reader.getAttributeValue(null, PARTITIONER);
+        if (partitioner != null) {
+            data.setPartitioner(partitioner.trim());
+        }
+
+        String serializeConsumers = reader.getAttributeValue(null, SERIALIZE_CONSUMERS);
+        if (serializeConsumers != null) {
+            data.setSerializeConsumers(Boolean.parseBoolean(serializeConsumers.trim()));
+        }
+
+        String eventFactory = reader.getAttributeValue(null, EVENT_FACTORY);
+        if (eventFactory != null) {
+            data.setEventFactory(eventFactory.trim());
+        }
+
         definition.setConnectionTypes(RingBuffer.class);
         definition.setMetadata(data);
     }
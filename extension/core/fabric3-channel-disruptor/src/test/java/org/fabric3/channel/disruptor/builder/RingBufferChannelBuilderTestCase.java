@@ -21,10 +21,14 @@ import java.util.concurrent.ExecutorService;
 
 import junit.framework.TestCase;
 import org.easymock.EasyMock;
+import org.fabric3.api.ChannelPartitioner;
 import org.fabric3.api.model.type.component.RingBufferData;
+import org.fabric3.channel.disruptor.impl.PartitionedRingBufferChannel;
+import org.fabric3.spi.classloader.ClassLoaderRegistry;
 import org.fabric3.spi.container.channel.Channel;
 import org.fabric3.spi.model.physical.DeliveryType;
 import org.fabric3.spi.model.physical.PhysicalChannel;
+import org.fabric3.spi.threadpool.ExecutorRegistry;
 
 /**
  *
@@ -43,6 +47,18 @@ public class RingBufferChannelBuilderTestCase extends TestCase {
         assertEquals(CONTRIBUTION_URI, channel.getContributionUri());
     }
 
+    public void testBuildPartitioned() throws Exception {
+        RingBufferData data = new RingBufferData();
+        data.setPartitions(4);
+        data.setPartitioner(MockPartitioner.class.getName());
+        physicalChannel.setMetadata(data);
+
+        Channel channel = builder.build(physicalChannel);
+
+        assertTrue(channel instanceof PartitionedRingBufferChannel);
+        assertEquals(4, ((PartitionedRingBufferChannel) channel).getPartitionCount());
+    }
+
     public void testDispose() throws Exception {
         Channel channel = EasyMock.createMock(Channel.class);
 
@@ -52,11 +68,24 @@ public class RingBufferChannelBuilderTestCase extends TestCase {
     public void setUp() throws Exception {
         super.setUp();
         ExecutorService executorService = EasyMock.createMock(ExecutorService.class);
-        EasyMock.replay(executorService);
+        ExecutorRegistry executorRegistry = EasyMock.createMock(ExecutorRegistry.class);
+        EasyMock.expect(executorRegistry.getLongRunningExecutor(TEST)).andReturn(executorService).anyTimes();
+        EasyMock.replay(executorService, executorRegistry);
 
-        builder = new RingBufferChannelBuilder(executorService);
+        ClassLoaderRegistry classLoaderRegistry = EasyMock.createMock(ClassLoaderRegistry.class);
+        EasyMock.expect(classLoaderRegistry.getClassLoader(CONTRIBUTION_URI)).andReturn(getClass().getClassLoader()).anyTimes();
+        EasyMock.replay(classLoaderRegistry);
+
+        builder = new RingBufferChannelBuilder(executorRegistry, classLoaderRegistry);
 
         physicalChannel = new PhysicalChannel(TEST, "ring.buffer", DeliveryType.ASYNCHRONOUS_WORKER, CONTRIBUTION_URI);
         physicalChannel.setMetadata(new RingBufferData());
     }
+
+    public static class MockPartitioner implements ChannelPartitioner {
+
+        public Object getKey(Object event) {
+            return event;
+        }
+    }
 }
@@ -0,0 +1,260 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.channel.disruptor.impl;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.lmax.disruptor.BlockingWaitStrategy;
+import junit.framework.TestCase;
+import org.easymock.EasyMock;
+import org.fabric3.api.ChannelPartitioner;
+import org.fabric3.api.host.Fabric3Exception;
+import org.fabric3.spi.container.channel.ChannelConnection;
+import org.fabric3.spi.container.channel.EventStream;
+import org.fabric3.spi.container.channel.EventStreamHandler;
+import org.fabric3.spi.container.channel.PassThroughHandler;
+import org.fabric3.spi.model.physical.ChannelSide;
+import org.fabric3.spi.util.Cast;
+
+/**
+ *
+ */
+public class PartitionedRingBufferChannelTestCase extends TestCase {
+    private static final int EVENTS = 10000;
+    private static final int KEYS = 16;
+
+    private ExecutorService executorService;
+
+    public void testPerKeyOrdering() throws Exception {
+        ChannelPartitioner partitioner = event -> ((Integer) event) % KEYS;
+        PartitionedRingBufferChannel channel = createChannel(partitioner);
+
+        RecordingConsumer consumer = new RecordingConsumer(EVENTS);
+        channel.subscribe(URI.create("consumer"), createConnection(null, consumer));
+
+        PassThroughHandler producer = new PassThroughHandler();
+        channel.attach(producer);
+        channel.start();
+
+        for (int i = 0; i < EVENTS; i++) {
+            producer.handle(i, true);
+        }
+
+        assertTrue(consumer.latch.await(10, TimeUnit.SECONDS));
+        channel.stop();
+
+        for (List<Integer> received : consumer.getReceived().values()) {
+            for (int i = 1; i < received.size(); i++) {
+                assertTrue(received.get(i - 1) < received.get(i));
+            }
+        }
+    }
+
+    public void testTopicPartitioning() throws Exception {
+        PartitionedRingBufferChannel channel = createChannel(null);
+
+        RecordingConsumer ordersConsumer = new RecordingConsumer(EVENTS);
+        RecordingConsumer allConsumer = new RecordingConsumer(EVENTS * 2);
+        channel.subscribe(URI.create("orders"), createConnection("orders", ordersConsumer));
+        channel.subscribe(URI.create("all"), createConnection(null, allConsumer));
+
+        PassThroughHandler ordersProducer = new PassThroughHandler();
+        PassThroughHandler invoicesProducer = new PassThroughHandler();
+        channel.attach(createConnection("orders", ordersProducer));
+        channel.attach(createConnection("invoices", invoicesProducer));
+        channel.start();
+
+        for (int i = 0; i < EVENTS; i++) {
+            ordersProducer.handle(i, true);
+            invoicesProducer.handle(i, true);
+        }
+
+        assertTrue(ordersConsumer.latch.await(10, TimeUnit.SECONDS));
+        assertTrue(allConsumer.latch.await(10, TimeUnit.SECONDS));
+        channel.stop();
+
+        List<Integer> orders = ordersConsumer.getArrivals();
+        assertEquals(EVENTS, orders.size());
+        for (int i = 0; i < EVENTS; i++) {
+            assertEquals(i, orders.get(i).intValue());
+        }
+    }
+
+    public void testSerializedConsumerNotInvokedConcurrently() throws Exception {
+        ChannelPartitioner partitioner = event -> ((Integer) event) % KEYS;
+        PartitionedRingBufferChannel channel = createChannel(partitioner, true);
+
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(EVENTS);
+        EventStreamHandler consumer = new PassThroughHandler() {
+            public void handle(Object event, boolean endOfBatch) {
+                if (active.incrementAndGet() > 1) {
+                    overlaps.incrementAndGet();
+                }
+                Thread.yield();
+                active.decrementAndGet();
+                latch.countDown();
+            }
+        };
+        channel.subscribe(URI.create("consumer"), createConnection(null, consumer));
+
+        PassThroughHandler producer = new PassThroughHandler();
+        channel.attach(producer);
+        channel.start();
+
+        for (int i = 0; i < EVENTS; i++) {
+            producer.handle(i, true);
+        }
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        channel.stop();
+        assertEquals(0, overlaps.get());
+    }
+
+    public void testProducerRegistration() throws Exception {
+        PartitionedRingBufferChannel channel = createChannel(null);
+        channel.attach(new PassThroughHandler());
+        channel.attach(new PassThroughHandler());
+
+        // producers without a key are each assigned a single partition
+        int total = 0;
+        for (int count : channel.getProducerCounts()) {
+            assertTrue(count <= 1);
+            total += count;
+        }
+        assertEquals(2, total);
+
+        PartitionedRingBufferChannel keyed = createChannel(event -> event);
+        keyed.attach(new PassThroughHandler());
+        for (int count : keyed.getProducerCounts()) {
+            assertEquals(1, count);
+        }
+    }
+
+    public void testDirectConnectionRegistration() throws Exception {
+        PartitionedRingBufferChannel channel = createChannel(null);
+        channel.start();
+        Object first = channel.getDirectConnection(null);
+        Object second = channel.getDirectConnection(null);
+        channel.stop();
+
+        // direct producers without a topic are assigned partitions in turn and registered with them
+        assertNotSame(first, second);
+        int total = 0;
+        for (int count : channel.getProducerCounts()) {
+            assertTrue(count <= 1);
+            total += count;
+        }
+        assertEquals(2, total);
+    }
+
+    public void testAttachWildcardTopic() throws Exception {
+        PartitionedRingBufferChannel channel = createChannel(null);
+        try {
+            channel.attach(createConnection("orders.*", new PassThroughHandler()));
+            fail();
+        } catch (Fabric3Exception e) {
+            // expected
+        }
+    }
+
+    public void setUp() throws Exception {
+        super.setUp();
+        executorService = Executors.newCachedThreadPool();
+    }
+
+    public void tearDown() throws Exception {
+        super.tearDown();
+        executorService.shutdownNow();
+    }
+
+    private PartitionedRingBufferChannel createChannel(ChannelPartitioner partitioner) {
+        return createChannel(partitioner, false);
+    }
+
+    private PartitionedRingBufferChannel createChannel(ChannelPartitioner partitioner, boolean serializeConsumers) {
+        return new PartitionedRingBufferChannel(URI.create("channel"),
+                                                4,
+                                                1024,
+                                                new BlockingWaitStrategy(),
+                                                ChannelSide.CONSUMER,
+                                                executorService,
+                                                URI.create("test"),
+                                                partitioner,
+                                                serializeConsumers,
+                                                null);
+    }
+
+    private ChannelConnection createConnection(String topic, EventStreamHandler handler) {
+        EventStream stream = EasyMock.createMock(EventStream.class);
+        EasyMock.expect(stream.getEventType()).andReturn(Cast.cast(Object.class)).anyTimes();
+        EasyMock.expect(stream.getHeadHandler()).andReturn(handler).anyTimes();
+        EasyMock.expect(stream.getTailHandler()).andReturn(handler).anyTimes();
+
+        ChannelConnection connection = EasyMock.createMock(ChannelConnection.class);
+        EasyMock.expect(connection.getSequence()).andReturn(0).anyTimes();
+        EasyMock.expect(connection.getTopic()).andReturn(topic).anyTimes();
+        EasyMock.expect(connection.getEventStream()).andReturn(stream).anyTimes();
+        EasyMock.replay(connection, stream);
+        return connection;
+    }
+
+    /**
+     * Records received events by key.
+     */
+    private class RecordingConsumer implements EventStreamHandler {
+        private CountDownLatch latch;
+        private Map<Integer, List<Integer>> received = new HashMap<>();
+        private List<Integer> arrivals = new ArrayList<>();
+
+        public RecordingConsumer(int expected) {
+            latch = new CountDownLatch(expected);
+        }
+
+        public synchronized void handle(Object event, boolean endOfBatch) {
+            int value = (Integer) event;
+            received.computeIfAbsent(value % KEYS, k -> new ArrayList<>()).add(value);
+            arrivals.add(value);
+            latch.countDown();
+        }
+
+        public synchronized Map<Integer, List<Integer>> getReceived() {
+            return received;
+        }
+
+        public synchronized List<Integer> getArrivals() {
+            return arrivals;
+        }
+
+        public void setNext(EventStreamHandler next) {
+        }
+
+        public EventStreamHandler getNext() {
+            return null;
+        }
+    }
+}
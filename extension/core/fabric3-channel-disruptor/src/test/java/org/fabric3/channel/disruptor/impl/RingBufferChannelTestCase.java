@@ -17,12 +17,19 @@
 package org.fabric3.channel.disruptor.impl;
 
 import java.net.URI;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.RingBuffer;
 import junit.framework.TestCase;
 import org.easymock.EasyMock;
+import org.fabric3.api.ChannelEventFactory;
+import org.fabric3.api.host.Fabric3Exception;
 import org.fabric3.spi.container.channel.ChannelConnection;
 import org.fabric3.spi.container.channel.EventStream;
 import org.fabric3.spi.container.channel.EventStreamHandler;
@@ -51,6 +58,7 @@ public class RingBufferChannelTestCase extends TestCase {
 
         ChannelConnection connection = EasyMock.createMock(ChannelConnection.class);
         EasyMock.expect(connection.getSequence()).andReturn(0);
+        EasyMock.expect(connection.getTopic()).andReturn(null).anyTimes();
         EasyMock.expect(connection.getEventStream()).andReturn(stream).atLeastOnce();
 
         EasyMock.replay(connection, stream);
@@ -70,6 +78,187 @@ public class RingBufferChannelTestCase extends TestCase {
         EasyMock.verify(connection, stream);
     }
 
+    public void testTopicDispatch() throws Exception {
+        RingBufferChannel channel = new RingBufferChannel(URI.create("channel"),
+                                                          1024,
+                                                          new BlockingWaitStrategy(),
+                                                          ChannelSide.CONSUMER,
+                                                          Executors.newScheduledThreadPool(4),
+                                                          URI.create("test"));
+
+        MockConsumer ordersConsumer = new MockConsumer();
+        MockConsumer invoicesConsumer = new MockConsumer();
+
+        channel.subscribe(URI.create("orders"), createConnection("orders.*", ordersConsumer));
+        channel.subscribe(URI.create("invoices"), createConnection("invoices.#", invoicesConsumer));
+
+        PassThroughHandler producer = new PassThroughHandler();
+        channel.attach(createConnection("orders.eu", producer));
+        channel.start();
+
+        producer.handle(new Object(), true);
+        producer.handle(new Object(), true);
+
+        ordersConsumer.latch.await();
+        channel.stop();
+
+        assertEquals(2, invoicesConsumer.latch.getCount());
+    }
+
+    public void testUnsubscribeTopic() throws Exception {
+        RingBufferChannel channel = new RingBufferChannel(URI.create("channel"),
+                                                          1024,
+                                                          new BlockingWaitStrategy(),
+                                                          ChannelSide.CONSUMER,
+                                                          Executors.newCachedThreadPool(),
+                                                          URI.create("test"));
+
+        PassThroughHandler producer = new PassThroughHandler();
+        channel.attach(createConnection("orders.eu", producer));
+        channel.start();
+
+        // the same consumer subscribes with two topics matching the published topic
+        MockConsumer ordersConsumer = new MockConsumer();
+        MockConsumer euConsumer = new MockConsumer();
+        URI uri = URI.create("consumer");
+        ChannelConnection ordersConnection = createConnection("orders.*", ordersConsumer);
+        channel.subscribe(uri, ordersConnection);
+        channel.subscribe(uri, createConnection("*.eu", euConsumer));
+
+        assertSame(ordersConnection, channel.unsubscribe(uri, "orders.*"));
+
+        producer.handle(new Object(), true);
+        producer.handle(new Object(), true);
+
+        euConsumer.latch.await();
+        channel.stop();
+
+        assertEquals(2, ordersConsumer.latch.getCount());
+    }
+
+    public void testPreallocatedDirectPublish() throws Exception {
+        RingBufferChannel channel = createPreallocatedChannel();
+
+        QuoteConsumer consumer = new QuoteConsumer(1000);
+        channel.subscribe(URI.create("consumer"), createConnection(null, consumer));
+        channel.start();
+
+        RingBuffer<RingBufferEvent> ringBuffer = Cast.cast(channel.getDirectConnection(null));
+        for (int i = 0; i < 1000; i++) {
+            long sequence = ringBuffer.next();
+            ringBuffer.get(sequence).getEvent(Quote.class).price = i;
+            ringBuffer.publish(sequence);
+        }
+
+        assertTrue(consumer.latch.await(10, TimeUnit.SECONDS));
+        channel.stop();
+
+        assertEquals(999L * 1000 / 2, consumer.total);
+        // payloads are pre-allocated per slot and reused
+        assertEquals(16, consumer.instances.size());
+    }
+
+    public void testPreallocatedProxyPublish() throws Exception {
+        RingBufferChannel channel = createPreallocatedChannel();
+
+        QuoteConsumer consumer = new QuoteConsumer(100);
+        channel.subscribe(URI.create("consumer"), createConnection(null, consumer));
+
+        PassThroughHandler producer = new PassThroughHandler();
+        channel.attach(producer);
+        channel.start();
+
+        Quote quote = new Quote();
+        for (int i = 0; i < 100; i++) {
+            quote.price = i;
+            producer.handle(quote, true);
+        }
+
+        assertTrue(consumer.latch.await(10, TimeUnit.SECONDS));
+        channel.stop();
+
+        assertEquals(99L * 100 / 2, consumer.total);
+        assertFalse(consumer.instances.contains(quote));
+    }
+
+    public void testPreallocatedDirectAndProxyProducers() throws Exception {
+        RingBufferChannel channel = createPreallocatedChannel();
+
+        QuoteConsumer consumer = new QuoteConsumer(2000);
+        channel.subscribe(URI.create("consumer"), createConnection(null, consumer));
+
+        PassThroughHandler producer = new PassThroughHandler();
+        channel.attach(producer);
+        channel.start();
+
+        // the direct producer is obtained after the channel started and publishes concurrently with the proxy producer
+        RingBuffer<RingBufferEvent> ringBuffer = Cast.cast(channel.getDirectConnection(null));
+        assertEquals(2, channel.getProducerCount());
+        Thread direct = new Thread(() -> {
+            for (int i = 0; i < 1000; i++) {
+                long sequence = ringBuffer.next();
+                ringBuffer.get(sequence).getEvent(Quote.class).price = i;
+                ringBuffer.publish(sequence);
+            }
+        });
+        direct.start();
+        Quote quote = new Quote();
+        for (int i = 0; i < 1000; i++) {
+            quote.price = i;
+            producer.handle(quote, true);
+        }
+        direct.join();
+
+        assertTrue(consumer.latch.await(10, TimeUnit.SECONDS));
+        channel.stop();
+
+        assertEquals(999L * 1000, consumer.total);
+    }
+
+    public void testPreallocatedNoProducerTopic() throws Exception {
+        RingBufferChannel channel = createPreallocatedChannel();
+        try {
+            channel.attach(createConnection("quotes", new PassThroughHandler()));
+            fail();
+        } catch (Fabric3Exception e) {
+            // expected
+        }
+    }
+
+    public void testPreallocatedNoConsumerTopic() throws Exception {
+        RingBufferChannel channel = createPreallocatedChannel();
+        try {
+            channel.subscribe(URI.create("consumer"), createConnection("quotes", new QuoteConsumer(1)));
+            fail();
+        } catch (Fabric3Exception e) {
+            // expected
+        }
+    }
+
+    private RingBufferChannel createPreallocatedChannel() {
+        return new RingBufferChannel(URI.create("channel"),
+                                     16,
+                                     new BlockingWaitStrategy(),
+                                     ChannelSide.CONSUMER,
+                                     Executors.newCachedThreadPool(),
+                                     URI.create("test"),
+                                     new QuoteFactory());
+    }
+
+    private ChannelConnection createConnection(String topic, EventStreamHandler handler) {
+        EventStream stream = EasyMock.createMock(EventStream.class);
+        EasyMock.expect(stream.getEventType()).andReturn(Cast.cast(Object.class)).anyTimes();
+        EasyMock.expect(stream.getHeadHandler()).andReturn(handler).anyTimes();
+        EasyMock.expect(stream.getTailHandler()).andReturn(handler).anyTimes();
+
+        ChannelConnection connection = EasyMock.createMock(ChannelConnection.class);
+        EasyMock.expect(connection.getSequence()).andReturn(0).anyTimes();
+        EasyMock.expect(connection.getTopic()).andReturn(topic).anyTimes();
+        EasyMock.expect(connection.getEventStream()).andReturn(stream).anyTimes();
+        EasyMock.replay(connection, stream);
+        return connection;
+    }
+
     private class MockConsumer implements EventStreamHandler {
         private CountDownLatch latch = new CountDownLatch(2);
 
@@ -84,4 +273,42 @@ public class RingBufferChannelTestCase extends TestCase {
             return null;
         }
     }
+
+    private static class Quote {
+        private long price;
+    }
+
+    private static class QuoteFactory implements ChannelEventFactory<Quote> {
+
+        public Quote newInstance() {
+            return new Quote();
+        }
+
+        public void copy(Quote source, Quote target) {
+            target.price = source.price;
+        }
+    }
+
+    private class QuoteConsumer implements EventStreamHandler {
+        private CountDownLatch latch;
+        private long total;
+        private Set<Object> instances = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        public QuoteConsumer(int expected) {
+            latch = new CountDownLatch(expected);
+        }
+
+        public void handle(Object event, boolean endOfBatch) {
+            total += ((Quote) event).price;
+            instances.add(event);
+            latch.countDown();
+        }
+
+        public void setNext(EventStreamHandler next) {
+        }
+
+        public EventStreamHandler getNext() {
+            return null;
+        }
+    }
 }
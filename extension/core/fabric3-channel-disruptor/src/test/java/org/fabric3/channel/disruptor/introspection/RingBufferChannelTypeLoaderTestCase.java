@@ -43,6 +43,9 @@ public class RingBufferChannelTypeLoaderTestCase extends TestCase {
     private static final byte[] BLOCKING_TIMEOUT = "<channel name = 'channel' blocking.timeout = '10'/>".getBytes();
     private static final byte[] SPIN_TIMEOUT = "<channel name = 'channel' spin.timeout = '10'/>".getBytes();
     private static final byte[] YIELD_TIMEOUT = "<channel name = 'channel' yield.timeout = '10'/>".getBytes();
+    private static final byte[] PARTITIONS = "<channel name = 'channel' partitions = '4' partitioner = 'foo.Partitioner' serialize.consumers = 'true'/>".getBytes();
+    private static final byte[] EVENT_FACTORY = "<channel name = 'channel' event.factory = 'foo.EventFactory'/>".getBytes();
+    private static final byte[] INVALID_PARTITIONS = "<channel name = 'channel' partitions = '0'/>".getBytes();
 
     private RingBufferChannelTypeLoader loader;
     private IntrospectionContext context;
@@ -168,6 +171,36 @@ public class RingBufferChannelTypeLoaderTestCase extends TestCase {
         assertEquals(10, data.getYieldTimeoutNanos());
     }
 
+    public void testPartitions() throws Exception {
+        XMLStreamReader reader = getReader(PARTITIONS);
+
+        loader.load(definition, reader, context);
+
+        assertFalse(context.hasErrors());
+        RingBufferData data = definition.getMetadata(RingBufferData.class);
+        assertEquals(4, data.getPartitions());
+        assertEquals("foo.Partitioner", data.getPartitioner());
+        assertTrue(data.isSerializeConsumers());
+    }
+
+    public void testInvalidPartitions() throws Exception {
+        XMLStreamReader reader = getReader(INVALID_PARTITIONS);
+
+        loader.load(definition, reader, context);
+
+        assertTrue(context.hasErrors());
+    }
+
+    public void testEventFactory() throws Exception {
+        XMLStreamReader reader = getReader(EVENT_FACTORY);
+
+        loader.load(definition, reader, context);
+
+        assertFalse(context.hasErrors());
+        RingBufferData data = definition.getMetadata(RingBufferData.class);
+        assertEquals("foo.EventFactory", data.getEventFactory());
+    }
+
     private XMLStreamReader getReader(byte[] xml) throws XMLStreamException {
         XMLStreamReader reader = XMLInputFactory.newFactory().createXMLStreamReader(new ByteArrayInputStream(xml));
         reader.nextTag();
@@ -20,21 +20,34 @@ import java.net.URI;
 import java.util.concurrent.ExecutorService;
 
 import org.fabric3.api.host.Fabric3Exception;
+import org.fabric3.api.model.type.component.DefaultChannelData;
 import org.fabric3.channel.impl.DefaultChannelImpl;
+import org.fabric3.channel.management.DeliveryLaneStatistics;
 import org.fabric3.spi.container.builder.ChannelBuilder;
 import org.fabric3.spi.container.channel.Channel;
+import org.fabric3.spi.management.ManagementService;
 import org.fabric3.spi.model.physical.PhysicalChannel;
+import org.fabric3.spi.threadpool.ExecutorRegistry;
 import org.oasisopen.sca.annotation.Reference;
 
 /**
  * Creates and disposes default channel implementations.
  */
 public class DefaultChannelBuilder implements ChannelBuilder {
+    private static final String LANES_PATH = "channels/lanes/";
 
     private ExecutorService executorService;
+    private ManagementService managementService;
+    private ExecutorRegistry executorRegistry;
 
-    public DefaultChannelBuilder(@Reference(name = "executorService") ExecutorService executorService) {
+    public DefaultChannelBuilder(@Reference(name = "executorService") ExecutorService executorService, @Reference ManagementService managementService) {
         this.executorService = executorService;
+        this.managementService = managementService;
+    }
+
+    @Reference(required = false)
+    public void setExecutorRegistry(ExecutorRegistry executorRegistry) {
+        this.executorRegistry = executorRegistry;
     }
 
     public Channel build(PhysicalChannel physicalChannel) throws Fabric3Exception {
@@ -46,12 +59,43 @@ public class DefaultChannelBuilder implements ChannelBuilder {
             return new DefaultChannelImpl(uri, physicalChannel.getChannelSide(), contributionUri);
         } else {
             // the channel is local, have it implement asynchrony
-            return new DefaultChannelImpl(uri, physicalChannel.getChannelSide(), contributionUri, executorService);
+            DefaultChannelData data = getData(physicalChannel);
+            DefaultChannelImpl channel = new DefaultChannelImpl(uri, physicalChannel.getChannelSide(), contributionUri, getExecutor(uri), data);
+            if (data != null && data.getLaneCapacity() > 0) {
+                managementService.export(encodeName(uri), "channels", "Channel delivery lanes", new DeliveryLaneStatistics(channel));
+            }
+            return channel;
         }
     }
 
     public void dispose(PhysicalChannel physicalChannel, Channel channel) throws Fabric3Exception {
-        // no-op
+        DefaultChannelData data = getData(physicalChannel);
+        if (!physicalChannel.isBound() && data != null && data.getLaneCapacity() > 0) {
+            managementService.remove(encodeName(physicalChannel.getUri()), "channels");
+        }
+    }
+
+    private DefaultChannelData getData(PhysicalChannel physicalChannel) {
+        Object metadata = physicalChannel.getMetadata(Object.class);
+        return metadata instanceof DefaultChannelData ? (DefaultChannelData) metadata : null;
+    }
+
+    /**
+     * Returns the pool bound to the channel or the runtime executor if no executor registry is deployed.
+     *
+     * @param uri the channel URI
+     * @return the executor
+     */
+    private ExecutorService getExecutor(URI uri) {
+        return executorRegistry == null ? executorService : executorRegistry.getExecutor(uri);
+    }
+
+    private String encodeName(URI uri) {
+        String path = uri.getPath();
+        if (path != null && path.length() != 0) {
+            return LANES_PATH + uri.getAuthority() + path;
+        }
+        return LANES_PATH + uri.getSchemeSpecificPart();
     }
 
 }
@@ -17,9 +17,11 @@
 package org.fabric3.channel.impl;
 
 import java.net.URI;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.fabric3.spi.container.channel.ChannelConnection;
 import org.fabric3.spi.container.channel.EventStreamHandler;
@@ -27,36 +29,35 @@ import org.fabric3.spi.container.channel.EventStreamHandler;
 /**
  * Base FanOutHandler functionality.
  *
- * Supports registering a connection multiple times. This is required for producer-side channels where a connection from the channel to a binding may be
+ * Connections are keyed by URI and topic. Supports registering a connection multiple times. This is required for producer-side channels where a connection from the channel to a binding may be
  * provisioned multiple times if there is more than one producer connected to the same channel provisioned in a zone.
+ *
+ * Connections are maintained in an immutable snapshot that is replaced atomically using copy-on-write when a connection is added or removed. Publishers
+ * therefore never block on subscription changes and always observe a consistent set of connections.
  */
 public abstract class AbstractFanOutHandler implements FanOutHandler {
-    protected Map<URI, ChannelConnection> connectionMap = new HashMap<>();
-    protected Map<URI, AtomicInteger> counterMap = new HashMap<>();
-
-    protected ChannelConnection[] connections = new ChannelConnection[0];
-
-    public synchronized void addConnection(URI uri, ChannelConnection connection) {
-        AtomicInteger count = counterMap.get(uri);
-        if (count == null) {
-            count = new AtomicInteger(1);
-            counterMap.put(uri, count);
-            connectionMap.put(uri, connection);
-            connections = connectionMap.values().toArray(new ChannelConnection[connectionMap.size()]);
-        } else {
-            count.incrementAndGet();
+    private final AtomicReference<Subscriptions> subscriptions = new AtomicReference<>(Subscriptions.EMPTY);
+
+    public void addConnection(URI uri, ChannelConnection connection) {
+        while (true) {
+            Subscriptions current = subscriptions.get();
+            if (subscriptions.compareAndSet(current, current.add(uri, connection))) {
+                return;
+            }
         }
     }
 
-    public synchronized ChannelConnection removeConnection(URI uri) {
-        int count = counterMap.get(uri).decrementAndGet();
-        if (count == 0) {
-            counterMap.remove(uri);
-            ChannelConnection connection = connectionMap.remove(uri);
-            connections = connectionMap.values().toArray(new ChannelConnection[connectionMap.size()]);
-            return connection;
-        } else {
-            return connectionMap.get(uri);
+    public ChannelConnection removeConnection(URI uri, String topic) {
+        Key key = new Key(uri, topic);
+        while (true) {
+            Subscriptions current = subscriptions.get();
+            Registration registration = current.registrations.get(key);
+            if (registration == null) {
+                return null;
+            }
+            if (subscriptions.compareAndSet(current, current.remove(key))) {
+                return registration.connection;
+            }
         }
     }
 
@@ -68,4 +69,115 @@ public abstract class AbstractFanOutHandler implements FanOutHandler {
         return null;
     }
 
-}
\ No newline at end of file
+    /**
+     * Returns the current connections. The returned array must not be modified.
+     *
+     * @return the current connections
+     */
+    protected ChannelConnection[] getConnections() {
+        return subscriptions.get().connections;
+    }
+
+    /**
+     * Returns true if a connection is registered for the URI and topic.
+     *
+     * @param uri   the connection URI
+     * @param topic the topic the connection subscribed with or null
+     * @return true if a connection is registered for the URI and topic
+     */
+    protected boolean isRegistered(URI uri, String topic) {
+        return subscriptions.get().registrations.containsKey(new Key(uri, topic));
+    }
+
+    /**
+     * Identifies a subscription by connection URI and topic.
+     */
+    private static class Key {
+        private final URI uri;
+        private final String topic;
+
+        private Key(URI uri, String topic) {
+            this.uri = uri;
+            this.topic = topic;
+        }
+
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return uri.equals(other.uri) && Objects.equals(topic, other.topic);
+        }
+
+        public int hashCode() {
+            return 31 * uri.hashCode() + Objects.hashCode(topic);
+        }
+    }
+
+    /**
+     * A connection and the number of times it has been registered.
+     */
+    private static class Registration {
+        private final ChannelConnection connection;
+        private final int count;
+
+        private Registration(ChannelConnection connection, int count) {
+            this.connection = connection;
+            this.count = count;
+        }
+    }
+
+    /**
+     * An immutable snapshot of registered connections.
+     */
+    private static class Subscriptions {
+        private static final Subscriptions EMPTY = new Subscriptions(Collections.<Key, Registration>emptyMap(), new ChannelConnection[0]);
+
+        private final Map<Key, Registration> registrations;
+        private final ChannelConnection[] connections;
+
+        private Subscriptions(Map<Key, Registration> registrations, ChannelConnection[] connections) {
+            this.registrations = registrations;
+            this.connections = connections;
+        }
+
+        private Subscriptions add(URI uri, ChannelConnection connection) {
+            Key key = new Key(uri, connection.getTopic());
+            Map<Key, Registration> copy = new HashMap<>(registrations);
+            Registration registration = registrations.get(key);
+            if (registration == null) {
+                copy.put(key, new Registration(connection, 1));
+                return new Subscriptions(copy, toArray(copy));
+            } else {
+                // the connection set is unchanged, reuse the array
+                copy.put(key, new Registration(registration.connection, registration.count + 1));
+                return new Subscriptions(copy, connections);
+            }
+        }
+
+        private Subscriptions remove(Key key) {
+            Map<Key, Registration> copy = new HashMap<>(registrations);
+            Registration registration = registrations.get(key);
+            if (registration.count == 1) {
+                copy.remove(key);
+                return new Subscriptions(copy, toArray(copy));
+            } else {
+                copy.put(key, new Registration(registration.connection, registration.count - 1));
+                return new Subscriptions(copy, connections);
+            }
+        }
+
+        private static ChannelConnection[] toArray(Map<Key, Registration> registrations) {
+            ChannelConnection[] array = new ChannelConnection[registrations.size()];
+            int i = 0;
+            for (Registration registration : registrations.values()) {
+                array[i++] = registration.connection;
+            }
+            return array;
+        }
+    }
+
+}
@@ -32,7 +32,7 @@ public class AsyncFanOutHandler extends AbstractFanOutHandler {
     }
 
     public void handle(Object event, boolean endOfBatch) {
-        if (connections.length == 0) {
+        if (getConnections().length == 0) {
             // no connections, skip scheduling work
             return;
         }
@@ -48,7 +48,7 @@ public class AsyncFanOutHandler extends AbstractFanOutHandler {
         }
 
         public void run() {
-            for (ChannelConnection connection : connections) {
+            for (ChannelConnection connection : getConnections()) {
                 EventStream stream = connection.getEventStream();
                 // force end of batch
                 stream.getHeadHandler().handle(event, true);
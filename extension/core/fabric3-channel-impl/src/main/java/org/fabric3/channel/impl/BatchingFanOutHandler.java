@@ -0,0 +1,325 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.channel.impl;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.fabric3.api.model.type.component.DefaultChannelData.OverflowPolicy;
+import org.fabric3.spi.container.channel.ChannelConnection;
+import org.fabric3.spi.container.channel.EventStream;
+
+/**
+ * Asynchronously broadcasts received events to a collection of handlers in batches.
+ *
+ * Events are appended to a bounded pending buffer and a single dispatch task is scheduled when the buffer transitions from empty to non-empty. When
+ * the task runs, it drains up to the maximum batch size of pending events and delivers them to each connection. If events remain, the task is
+ * rescheduled. Consequently, one unit of work is submitted to the executor per batch instead of per event and batches form naturally when the publish
+ * rate exceeds the dispatch rate.
+ *
+ * The last event of a dispatched batch is flagged as the end of the batch if the publisher flagged it as such. Otherwise the publisher's batch is still
+ * in progress and the flag is withheld. Events delivered before the last event of a dispatched batch are never flagged.
+ *
+ * When the pending buffer is full, the channel overflow policy is applied: publishers either block until the dispatch task frees space, or the oldest
+ * or newest event is dropped. Event ordering is preserved as at most one dispatch task is active at any time.
+ *
+ * A consumer may publish to the channel while the dispatch task delivers to it. If the buffer is full, the dispatch task cannot block since it is the
+ * task that frees space. Such events are therefore appended to an overflow list that is moved to the buffer after the current batch is delivered,
+ * holding back other blocked publishers until then.
+ */
+public class BatchingFanOutHandler extends AbstractFanOutHandler {
+    private static final int MIN_CAPACITY = 1024;
+    private static final int CAPACITY_FACTOR = 16;
+
+    private ExecutorService executorService;
+    private int batchSize;
+    private OverflowPolicy overflowPolicy;
+
+    private final Object lock = new Object();
+    private DispatchWork work;
+
+    // circular buffer of pending events and their end of batch flags guarded by the lock
+    private Object[] pending;
+    private boolean[] endOfBatch;
+    private int head;
+    private int count;
+    private boolean scheduled;
+    // events published from the dispatch task when the buffer was full, guarded by the lock
+    private ArrayDeque<PendingEvent> overflow = new ArrayDeque<>();
+    private volatile Thread dispatchThread;
+
+    private AtomicLong dropped = new AtomicLong();
+
+    /**
+     * Constructor which sizes the pending buffer relative to the batch size.
+     *
+     * @param executorService the executor used to dispatch batches
+     * @param batchSize       the maximum number of events in a batch
+     * @param overflowPolicy  the policy applied when the pending buffer is full
+     */
+    public BatchingFanOutHandler(ExecutorService executorService, int batchSize, OverflowPolicy overflowPolicy) {
+        this(executorService, batchSize, Math.max(MIN_CAPACITY, batchSize * CAPACITY_FACTOR), overflowPolicy);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param executorService the executor used to dispatch batches
+     * @param batchSize       the maximum number of events in a batch
+     * @param capacity        the maximum number of pending events
+     * @param overflowPolicy  the policy applied when the pending buffer is full
+     */
+    public BatchingFanOutHandler(ExecutorService executorService, int batchSize, int capacity, OverflowPolicy overflowPolicy) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be greater than 0: " + batchSize);
+        }
+        if (capacity < batchSize) {
+            throw new IllegalArgumentException("Capacity must not be less than the batch size: " + capacity);
+        }
+        this.executorService = executorService;
+        this.batchSize = batchSize;
+        this.overflowPolicy = overflowPolicy == null ? OverflowPolicy.BLOCK : overflowPolicy;
+        this.pending = new Object[capacity];
+        this.endOfBatch = new boolean[capacity];
+        this.work = new DispatchWork();
+    }
+
+    public void handle(Object event, boolean endOfBatch) {
+        if (getConnections().length == 0) {
+            // no connections, skip scheduling work
+            return;
+        }
+        int index;
+        synchronized (lock) {
+            if (count == pending.length || !overflow.isEmpty()) {
+                if (overflowPolicy == OverflowPolicy.BLOCK && Thread.currentThread() == dispatchThread) {
+                    // published from the dispatch task; waiting for space would never complete so append after the pending events
+                    overflow.add(new PendingEvent(event, endOfBatch));
+                    return;
+                }
+                if (!makeRoom()) {
+                    return;
+                }
+            }
+            index = (head + count) % pending.length;
+            pending[index] = event;
+            this.endOfBatch[index] = endOfBatch;
+            count++;
+            if (scheduled) {
+                // the dispatch task will pick up the event
+                return;
+            }
+            scheduled = true;
+        }
+        try {
+            executorService.execute(work);
+        } catch (RejectedExecutionException e) {
+            boolean stranded;
+            synchronized (lock) {
+                // the event was not accepted: remove it so it is not delivered by a later dispatch
+                remove(index, event);
+                // events appended by other publishers after this one was added rely on this publisher to schedule dispatch
+                stranded = count > 0;
+                scheduled = stranded;
+                lock.notifyAll();
+            }
+            if (stranded) {
+                try {
+                    work.reschedule();
+                } catch (RejectedExecutionException ex) {
+                    // the stranded events were discarded
+                }
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the number of events dropped by the overflow policy or discarded because the publishing thread was interrupted while blocked.
+     *
+     * @return the number of dropped events
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Removes an event from the pending buffer, shifting the events appended after it. The event is not present if it was discarded by the {@link
+     * OverflowPolicy#DROP_OLDEST} policy, in which case the buffer is unchanged. Must be called while holding the lock.
+     *
+     * @param index the buffer slot the event was added to
+     * @param event the event
+     */
+    private void remove(int index, Object event) {
+        int offset = (index - head + pending.length) % pending.length;
+        if (offset >= count || pending[index] != event) {
+            return;
+        }
+        for (int i = offset; i < count - 1; i++) {
+            int to = (head + i) % pending.length;
+            int from = (head + i + 1) % pending.length;
+            pending[to] = pending[from];
+            endOfBatch[to] = endOfBatch[from];
+        }
+        count--;
+        pending[(head + count) % pending.length] = null;
+    }
+
+    /**
+     * Applies the overflow policy to a full pending buffer. Must be called while holding the lock.
+     *
+     * @return true if the event being published should be added to the buffer
+     */
+    private boolean makeRoom() {
+        switch (overflowPolicy) {
+            case DROP_NEWEST:
+                dropped.incrementAndGet();
+                return false;
+            case DROP_OLDEST:
+                pending[head] = null;
+                head = (head + 1) % pending.length;
+                count--;
+                dropped.incrementAndGet();
+                return true;
+            default:
+                try {
+                    // events published from the dispatch task precede this one
+                    while (count == pending.length || !overflow.isEmpty()) {
+                        lock.wait();
+                    }
+                    return true;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    dropped.incrementAndGet();
+                    return false;
+                }
+        }
+    }
+
+    /**
+     * Moves events published from the dispatch task to the pending buffer as space permits, waking blocked publishers once all are moved. Must be
+     * called while holding the lock.
+     */
+    private void promoteOverflow() {
+        if (overflow.isEmpty()) {
+            return;
+        }
+        while (count < pending.length && !overflow.isEmpty()) {
+            PendingEvent overflowed = overflow.poll();
+            int index = (head + count) % pending.length;
+            pending[index] = overflowed.event;
+            endOfBatch[index] = overflowed.endOfBatch;
+            count++;
+        }
+        if (overflow.isEmpty()) {
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * An event published from the dispatch task that did not fit in the pending buffer.
+     */
+    private static class PendingEvent {
+        private final Object event;
+        private final boolean endOfBatch;
+
+        private PendingEvent(Object event, boolean endOfBatch) {
+            this.event = event;
+            this.endOfBatch = endOfBatch;
+        }
+    }
+
+    /**
+     * Drains and delivers pending events. A single instance is reused for every batch.
+     */
+    private class DispatchWork implements Runnable {
+        private final Object[] batch;
+        private boolean end;
+
+        private DispatchWork() {
+            batch = new Object[batchSize];
+        }
+
+        public void run() {
+            dispatchThread = Thread.currentThread();
+            int size;
+            synchronized (lock) {
+                size = Math.min(count, batchSize);
+                for (int i = 0; i < size; i++) {
+                    int index = (head + i) % pending.length;
+                    batch[i] = pending[index];
+                    pending[index] = null;
+                    end = endOfBatch[index];
+                }
+                head = (head + size) % pending.length;
+                count -= size;
+                // wake publishers blocked on a full buffer
+                lock.notifyAll();
+            }
+            try {
+                ChannelConnection[] current = getConnections();
+                for (int i = 0; i < size; i++) {
+                    boolean last = i == size - 1 && end;
+                    Object event = batch[i];
+                    for (ChannelConnection connection : current) {
+                        EventStream stream = connection.getEventStream();
+                        stream.getHeadHandler().handle(event, last);
+                    }
+                }
+            } finally {
+                for (int i = 0; i < size; i++) {
+                    batch[i] = null;
+                }
+                dispatchThread = null;
+                boolean reschedule;
+                synchronized (lock) {
+                    promoteOverflow();
+                    reschedule = count > 0;
+                    scheduled = reschedule;
+                }
+                if (reschedule) {
+                    reschedule();
+                }
+            }
+        }
+
+        /**
+         * Resubmits the task to dispatch remaining events. If the executor rejects the task, the remaining events are discarded so that publishers
+         * blocked on a full buffer are released and a subsequent event schedules dispatch again.
+         */
+        private void reschedule() {
+            try {
+                executorService.execute(this);
+            } catch (RejectedExecutionException e) {
+                synchronized (lock) {
+                    for (int i = 0; i < count; i++) {
+                        pending[(head + i) % pending.length] = null;
+                    }
+                    dropped.addAndGet(count + overflow.size());
+                    overflow.clear();
+                    head = 0;
+                    count = 0;
+                    scheduled = false;
+                    lock.notifyAll();
+                }
+                throw e;
+            }
+        }
+    }
+}
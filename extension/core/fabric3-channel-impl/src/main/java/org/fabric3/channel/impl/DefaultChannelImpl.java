@@ -17,31 +17,48 @@
 package org.fabric3.channel.impl;
 
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 
 import org.fabric3.api.host.Fabric3Exception;
+import org.fabric3.api.model.type.component.DefaultChannelData;
 import org.fabric3.spi.container.channel.Channel;
 import org.fabric3.spi.container.channel.ChannelConnection;
 import org.fabric3.spi.container.channel.EventStream;
 import org.fabric3.spi.container.channel.EventStreamHandler;
 import org.fabric3.spi.container.channel.PassThroughHandler;
+import org.fabric3.spi.container.channel.TopicIndex;
+import org.fabric3.spi.container.channel.TopicPattern;
 import org.fabric3.spi.model.physical.ChannelSide;
 
 /**
  * The default Channel implementation.
  *
  * This implementation supports topics. Handlers are organized by topic name to ensure events are received and sent on the appropriate topic.
+ *
+ * Consumers may subscribe using topic patterns containing wildcards as described by {@link TopicPattern}. Wildcard subscriptions are kept in a {@link
+ * TopicIndex} and are resolved against concrete topics when the subscription is made or a topic is first used. Each concrete topic therefore
+ * maintains the complete set of matching connections in its fan-out handler and no pattern matching is performed when an event is published.
  */
 public class DefaultChannelImpl implements Channel {
     private URI uri;
     private URI contributionUri;
     private ExecutorService executorService;
+    private DefaultChannelData data;
     private final ChannelSide channelSide;
 
     private TopicHandlers defaultTopicHandlers;
-    private Map<String, TopicHandlers> handlerMap = new HashMap<>();   // map of topics to handlers
+    private Map<String, TopicHandlers> handlerMap = new ConcurrentHashMap<>();   // map of topics to handlers
+    private TopicIndex<WildcardSubscription> wildcardIndex = new TopicIndex<>();
+    private Map<URI, List<WildcardSubscription>> wildcardSubscriptions = new HashMap<>();
 
     public DefaultChannelImpl(URI uri, ChannelSide channelSide, URI contributionUri) {
         this.uri = uri;
@@ -52,12 +69,25 @@ public class DefaultChannelImpl implements Channel {
     }
 
     public DefaultChannelImpl(URI uri, ChannelSide channelSide, URI contributionUri, ExecutorService executorService) {
+        this(uri, channelSide, contributionUri, executorService, null);
+    }
+
+    /**
+     * Constructor for an asynchronous channel.
+     *
+     * @param uri             the channel URI
+     * @param channelSide     the channel side
+     * @param contributionUri the contribution URI
+     * @param executorService the executor used to dispatch events
+     * @param data            the channel configuration or null to dispatch events individually
+     */
+    public DefaultChannelImpl(URI uri, ChannelSide channelSide, URI contributionUri, ExecutorService executorService, DefaultChannelData data) {
         this.uri = uri;
         this.channelSide = channelSide;
         this.contributionUri = contributionUri;
         this.executorService = executorService;
-        AsyncFanOutHandler fanOutHandler = new AsyncFanOutHandler(executorService);
-        defaultTopicHandlers = new TopicHandlers(fanOutHandler, null);
+        this.data = data;
+        defaultTopicHandlers = new TopicHandlers(createFanOutHandler(), null);
     }
 
     public URI getUri() {
@@ -121,14 +151,49 @@ public class DefaultChannelImpl implements Channel {
         stream.getTailHandler().setNext(topicHandlers.inHandler);
     }
 
-    public void subscribe(URI uri, ChannelConnection connection) {
+    public synchronized void subscribe(URI uri, ChannelConnection connection) {
         String topic = connection.getTopic();
-        TopicHandlers topicHandlers = getTopicHandlers(topic, true);
-        topicHandlers.fanOutHandler.addConnection(uri, connection);
+        if (TopicPattern.isWildcard(topic)) {
+            WildcardSubscription subscription = new WildcardSubscription(uri, connection, TopicPattern.compile(topic));
+            wildcardIndex.add(topic, subscription);
+            wildcardSubscriptions.computeIfAbsent(uri, k -> new ArrayList<>()).add(subscription);
+            for (TopicHandlers topicHandlers : handlerMap.values()) {
+                if (subscription.pattern.matches(topicHandlers.topic)) {
+                    topicHandlers.fanOutHandler.addConnection(uri, connection);
+                }
+            }
+        } else {
+            TopicHandlers topicHandlers = getTopicHandlers(topic, true);
+            topicHandlers.fanOutHandler.addConnection(uri, connection);
+        }
     }
 
-    public ChannelConnection unsubscribe(URI uri, String topic) {
-        return getTopicHandlers(topic, false).fanOutHandler.removeConnection(uri);
+    public synchronized ChannelConnection unsubscribe(URI uri, String topic) {
+        if (TopicPattern.isWildcard(topic)) {
+            WildcardSubscription subscription = null;
+            List<WildcardSubscription> subscriptions = wildcardSubscriptions.getOrDefault(uri, Collections.emptyList());
+            for (WildcardSubscription current : subscriptions) {
+                if (current.pattern.getExpression().equals(topic)) {
+                    subscription = current;
+                    break;
+                }
+            }
+            if (subscription == null) {
+                throw new Fabric3Exception("Subscription not registered for topic: " + topic);
+            }
+            subscriptions.remove(subscription);
+            if (subscriptions.isEmpty()) {
+                wildcardSubscriptions.remove(uri);
+            }
+            wildcardIndex.remove(topic, subscription);
+            for (TopicHandlers topicHandlers : handlerMap.values()) {
+                if (subscription.pattern.matches(topicHandlers.topic)) {
+                    topicHandlers.fanOutHandler.removeConnection(uri, topic);
+                }
+            }
+            return subscription.connection;
+        }
+        return getTopicHandlers(topic, false).fanOutHandler.removeConnection(uri, topic);
     }
 
     public ChannelSide getChannelSide() {
@@ -146,9 +211,7 @@ public class DefaultChannelImpl implements Channel {
         TopicHandlers topicHandlers = handlerMap.get(topic);
         if (topicHandlers == null) {
             if (create) {
-                FanOutHandler fanOutHandler = executorService != null ? new AsyncFanOutHandler(executorService) : new SyncFanOutHandler();
-                topicHandlers = new TopicHandlers(fanOutHandler, topic);
-                handlerMap.put(topic, topicHandlers);
+                topicHandlers = createTopicHandlers(topic);
             } else {
                 throw new Fabric3Exception("Handlers not registered for topic: " + topic);
             }
@@ -156,6 +219,73 @@ public class DefaultChannelImpl implements Channel {
         return topicHandlers;
     }
 
+    private synchronized TopicHandlers createTopicHandlers(String topic) {
+        TopicHandlers topicHandlers = handlerMap.get(topic);
+        if (topicHandlers != null) {
+            return topicHandlers;
+        }
+        if (TopicPattern.isWildcard(topic)) {
+            throw new Fabric3Exception("Events cannot be sent to a wildcard topic: " + topic);
+        }
+        topicHandlers = new TopicHandlers(createFanOutHandler(), topic);
+        // add existing wildcard subscriptions that match the topic
+        Set<WildcardSubscription> matches = Collections.newSetFromMap(new IdentityHashMap<>());
+        wildcardIndex.match(topic, matches::add);
+        for (WildcardSubscription subscription : matches) {
+            topicHandlers.fanOutHandler.addConnection(subscription.uri, subscription.connection);
+        }
+        handlerMap.put(topic, topicHandlers);
+        return topicHandlers;
+    }
+
+    /**
+     * Returns the delivery lanes for channel consumers keyed by connection URI. Connections subscribed to a topic are prefixed with the topic name.
+     *
+     * @return the delivery lanes or an empty map if the channel is not configured to use lanes
+     */
+    public Map<String, DeliveryLane> getDeliveryLanes() {
+        Map<String, DeliveryLane> lanes = new TreeMap<>();
+        addDeliveryLanes(defaultTopicHandlers, lanes);
+        for (TopicHandlers topicHandlers : handlerMap.values()) {
+            addDeliveryLanes(topicHandlers, lanes);
+        }
+        return lanes;
+    }
+
+    private void addDeliveryLanes(TopicHandlers topicHandlers, Map<String, DeliveryLane> lanes) {
+        if (!(topicHandlers.fanOutHandler instanceof OrderedFanOutHandler)) {
+            return;
+        }
+        String prefix = topicHandlers.topic == null ? "" : topicHandlers.topic + "/";
+        for (Map.Entry<String, DeliveryLane> entry : ((OrderedFanOutHandler) topicHandlers.fanOutHandler).getLanes().entrySet()) {
+            lanes.put(prefix + entry.getKey(), entry.getValue());
+        }
+    }
+
+    private FanOutHandler createFanOutHandler() {
+        if (executorService == null) {
+            return new SyncFanOutHandler();
+        } else if (data != null && data.getLaneCapacity() > 0) {
+            return new OrderedFanOutHandler(executorService, data.getLaneCapacity(), data.getOverflowPolicy());
+        } else if (data != null && data.getBatchSize() > 0) {
+            return new BatchingFanOutHandler(executorService, data.getBatchSize(), data.getOverflowPolicy());
+        } else {
+            return new AsyncFanOutHandler(executorService);
+        }
+    }
+
+    private static class WildcardSubscription {
+        URI uri;
+        ChannelConnection connection;
+        TopicPattern pattern;
+
+        public WildcardSubscription(URI uri, ChannelConnection connection, TopicPattern pattern) {
+            this.uri = uri;
+            this.connection = connection;
+            this.pattern = pattern;
+        }
+    }
+
     private class TopicHandlers {
         String topic;
         EventStreamHandler inHandler;
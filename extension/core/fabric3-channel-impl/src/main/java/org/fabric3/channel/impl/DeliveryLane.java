@@ -0,0 +1,204 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.channel.impl;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.fabric3.api.model.type.component.DefaultChannelData.OverflowPolicy;
+import org.fabric3.spi.container.channel.ChannelConnection;
+
+/**
+ * A bounded, single-consumer queue that delivers events to a channel connection in the order they were published.
+ *
+ * At most one drain task is active for a lane at a time, which preserves ordering. A drain task is scheduled when an event is added to an idle lane
+ * and releases the executor thread after delivering a bounded number of events so that other lanes are not starved. A slow consumer therefore only
+ * occupies the thread draining its own lane.
+ *
+ * A consumer may publish to its own lane while the lane is drained. If the lane is full, the drain task cannot wait for space since it is the task that
+ * frees it. Such events are therefore appended to an overflow list and delivered after the queued events, holding back other blocked publishers until
+ * the overflow is delivered.
+ */
+public class DeliveryLane implements Runnable {
+    private static final int MAX_DRAIN = 256;
+
+    private ChannelConnection connection;
+    private ExecutorService executorService;
+    private OverflowPolicy overflowPolicy;
+    private int capacity;
+
+    private BlockingQueue<Object> queue;
+    // events published from the drain task when the lane was full; guarded by its monitor
+    private final ArrayDeque<Object> overflow = new ArrayDeque<>();
+    private AtomicBoolean scheduled = new AtomicBoolean();
+    private volatile Thread drainThread;
+    private volatile boolean closed;
+
+    private AtomicLong delivered = new AtomicLong();
+    private AtomicLong dropped = new AtomicLong();
+
+    public DeliveryLane(ChannelConnection connection, int capacity, OverflowPolicy overflowPolicy, ExecutorService executorService) {
+        this.connection = connection;
+        this.capacity = capacity;
+        this.overflowPolicy = overflowPolicy;
+        this.executorService = executorService;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * Adds an event to the lane, applying the overflow policy if the lane is full.
+     *
+     * @param event the event
+     */
+    public void offer(Object event) {
+        if (closed) {
+            return;
+        }
+        switch (overflowPolicy) {
+            case DROP_NEWEST:
+                if (!queue.offer(event)) {
+                    dropped.incrementAndGet();
+                    return;
+                }
+                break;
+            case DROP_OLDEST:
+                while (!queue.offer(event)) {
+                    if (queue.poll() != null) {
+                        dropped.incrementAndGet();
+                    }
+                }
+                break;
+            default:
+                if (!put(event)) {
+                    dropped.incrementAndGet();
+                    return;
+                }
+        }
+        schedule();
+    }
+
+    /**
+     * Closes the lane. Events remaining in the lane are discarded.
+     */
+    public void close() {
+        closed = true;
+        queue.clear();
+        synchronized (overflow) {
+            overflow.clear();
+            overflow.notifyAll();
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getQueueDepth() {
+        synchronized (overflow) {
+            return queue.size() + overflow.size();
+        }
+    }
+
+    public long getDelivered() {
+        return delivered.get();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public void run() {
+        drainThread = Thread.currentThread();
+        try {
+            int count = 0;
+            Object event;
+            while (!closed && count < MAX_DRAIN && (event = poll()) != null) {
+                connection.getEventStream().getHeadHandler().handle(event, getQueueDepth() == 0);
+                delivered.incrementAndGet();
+                count++;
+            }
+        } finally {
+            drainThread = null;
+            scheduled.set(false);
+            if (getQueueDepth() > 0) {
+                // events were added after the lane was drained or the drain limit was reached
+                schedule();
+            }
+        }
+    }
+
+    /**
+     * Adds an event to the lane, waiting for space if the lane is full.
+     *
+     * @param event the event
+     * @return true if the event was added, false if the publishing thread was interrupted
+     */
+    private boolean put(Object event) {
+        if (Thread.currentThread() == drainThread) {
+            synchronized (overflow) {
+                if (!overflow.isEmpty() || !queue.offer(event)) {
+                    // published from the drain task; waiting for space would never complete so append after the queued events
+                    overflow.add(event);
+                }
+            }
+            return true;
+        }
+        try {
+            synchronized (overflow) {
+                // hold back publishers until events published from the drain task are delivered
+                while (!overflow.isEmpty()) {
+                    overflow.wait();
+                }
+            }
+            queue.put(event);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Returns the next event to deliver. Overflow events follow the queued events.
+     *
+     * @return the event or null if the lane is empty
+     */
+    private Object poll() {
+        Object event = queue.poll();
+        if (event != null) {
+            return event;
+        }
+        synchronized (overflow) {
+            event = overflow.poll();
+            if (event != null && overflow.isEmpty()) {
+                overflow.notifyAll();
+            }
+            return event;
+        }
+    }
+
+    private void schedule() {
+        if (!closed && scheduled.compareAndSet(false, true)) {
+            executorService.execute(this);
+        }
+    }
+
+}
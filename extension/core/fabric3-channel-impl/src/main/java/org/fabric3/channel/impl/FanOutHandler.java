@@ -27,7 +27,8 @@ import org.fabric3.spi.container.channel.EventStreamHandler;
 public interface FanOutHandler extends EventStreamHandler {
 
     /**
-     * Adds a connection containing the event streams.
+     * Adds a connection containing the event streams. Connections are keyed by the connection URI and topic so a consumer may subscribe with more than one
+     * topic, for example using wildcard topics that match the same published topic.
      *
      * @param uri        the connection uri
      * @param connection the connection
@@ -37,9 +38,10 @@ public interface FanOutHandler extends EventStreamHandler {
     /**
      * Removes a connection
      *
-     * @param uri the connection uri
+     * @param uri   the connection uri
+     * @param topic the topic the connection subscribed with or null
      * @return the removed connection
      */
-    ChannelConnection removeConnection(URI uri);
+    ChannelConnection removeConnection(URI uri, String topic);
 
 }
\ No newline at end of file
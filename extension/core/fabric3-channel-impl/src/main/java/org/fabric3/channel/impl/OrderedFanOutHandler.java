@@ -0,0 +1,89 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.channel.impl;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+import org.fabric3.api.model.type.component.DefaultChannelData.OverflowPolicy;
+import org.fabric3.spi.container.channel.ChannelConnection;
+
+/**
+ * Asynchronously broadcasts received events using a dedicated {@link DeliveryLane} for each connection.
+ *
+ * Events are delivered to each connection in the order they were received and a slow consumer does not delay delivery to other consumers.
+ */
+public class OrderedFanOutHandler extends AbstractFanOutHandler {
+    private ExecutorService executorService;
+    private int capacity;
+    private OverflowPolicy overflowPolicy;
+
+    private Map<String, DeliveryLane> laneMap = new HashMap<>();
+    private volatile DeliveryLane[] lanes = new DeliveryLane[0];
+
+    public OrderedFanOutHandler(ExecutorService executorService, int capacity, OverflowPolicy overflowPolicy) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Lane capacity must be greater than 0: " + capacity);
+        }
+        this.executorService = executorService;
+        this.capacity = capacity;
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    public synchronized void addConnection(URI uri, ChannelConnection connection) {
+        super.addConnection(uri, connection);
+        String name = getLaneName(uri, connection.getTopic());
+        if (!laneMap.containsKey(name)) {
+            laneMap.put(name, new DeliveryLane(connection, capacity, overflowPolicy, executorService));
+            lanes = laneMap.values().toArray(new DeliveryLane[laneMap.size()]);
+        }
+    }
+
+    public synchronized ChannelConnection removeConnection(URI uri, String topic) {
+        ChannelConnection connection = super.removeConnection(uri, topic);
+        if (!isRegistered(uri, topic)) {
+            DeliveryLane lane = laneMap.remove(getLaneName(uri, topic));
+            if (lane != null) {
+                lane.close();
+                lanes = laneMap.values().toArray(new DeliveryLane[laneMap.size()]);
+            }
+        }
+        return connection;
+    }
+
+    /**
+     * Returns the delivery lanes keyed by connection URI, followed by the subscription topic in parentheses if the connection subscribed with a topic.
+     *
+     * @return the delivery lanes
+     */
+    public synchronized Map<String, DeliveryLane> getLanes() {
+        return new HashMap<>(laneMap);
+    }
+
+    public void handle(Object event, boolean endOfBatch) {
+        for (DeliveryLane lane : lanes) {
+            lane.offer(event);
+        }
+    }
+
+    private String getLaneName(URI uri, String topic) {
+        return topic == null ? uri.toString() : uri + "(" + topic + ")";
+    }
+
+}
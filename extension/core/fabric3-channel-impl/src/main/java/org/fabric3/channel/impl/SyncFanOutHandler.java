@@ -23,7 +23,7 @@ import org.fabric3.spi.container.channel.ChannelConnection;
  */
 public class SyncFanOutHandler extends AbstractFanOutHandler {
     public void handle(Object event, boolean endOfBatch) {
-        for (ChannelConnection connection : connections) {
+        for (ChannelConnection connection : getConnections()) {
             connection.getEventStream().getHeadHandler().handle(event, endOfBatch);
         }
     }
@@ -16,23 +16,75 @@
  */
 package org.fabric3.channel.introspection;
 
+import javax.xml.stream.Location;
 import javax.xml.stream.XMLStreamReader;
 
 import org.fabric3.api.model.type.component.Channel;
+import org.fabric3.api.model.type.component.DefaultChannelData;
 import org.fabric3.spi.introspection.IntrospectionContext;
 import org.fabric3.spi.introspection.xml.ChannelTypeLoader;
+import org.fabric3.spi.introspection.xml.InvalidValue;
 
 /**
- *
+ * Loads configuration for default channels.
  */
 public class DefaultChannelTypeLoader implements ChannelTypeLoader {
-    private static final String[] EMPTY = new String[0];
+    private static final String BATCH_SIZE = "batch.size";
+    private static final String LANE_CAPACITY = "lane.capacity";
+    private static final String OVERFLOW_POLICY = "overflow.policy";
+
+    private static final String[] ATTRIBUTES = new String[]{BATCH_SIZE, LANE_CAPACITY, OVERFLOW_POLICY};
 
     public String[] getAttributes() {
-        return EMPTY;
+        return ATTRIBUTES;
     }
 
     public void load(Channel channel, XMLStreamReader reader, IntrospectionContext context) {
-        // no-op
+        Location startLocation = reader.getLocation();
+
+        int batchSize = parseInt(channel, reader, startLocation, BATCH_SIZE, "Invalid batch size: ", context);
+        int laneCapacity = parseInt(channel, reader, startLocation, LANE_CAPACITY, "Invalid lane capacity: ", context);
+        String overflowPolicy = reader.getAttributeValue(null, OVERFLOW_POLICY);
+
+        if (batchSize == 0 && laneCapacity == 0 && overflowPolicy == null) {
+            // no configuration specified
+            return;
+        }
+        if (batchSize > 0 && laneCapacity > 0) {
+            context.addError(new InvalidValue("Batching and delivery lanes cannot both be enabled on a channel", startLocation, channel));
+            return;
+        }
+
+        DefaultChannelData data = new DefaultChannelData();
+        data.setBatchSize(batchSize);
+        data.setLaneCapacity(laneCapacity);
+
+        if (overflowPolicy != null) {
+            try {
+                DefaultChannelData.OverflowPolicy policy = DefaultChannelData.OverflowPolicy.valueOf(overflowPolicy.toUpperCase().replace('.', '_').replace('-', '_'));
+                data.setOverflowPolicy(policy);
+            } catch (IllegalArgumentException e) {
+                context.addError(new InvalidValue("Invalid overflow policy: " + overflowPolicy, startLocation, channel));
+            }
+        }
+        channel.setMetadata(data);
+    }
+
+    private int parseInt(Channel channel, XMLStreamReader reader, Location startLocation, String attributeName, String errorText, IntrospectionContext context) {
+        String valueStr = reader.getAttributeValue(null, attributeName);
+        if (valueStr == null) {
+            return 0;
+        }
+        try {
+            int value = Integer.parseInt(valueStr);
+            if (value < 0) {
+                context.addError(new InvalidValue(errorText + valueStr, startLocation, channel));
+                return 0;
+            }
+            return value;
+        } catch (NumberFormatException e) {
+            context.addError(new InvalidValue(errorText + valueStr, startLocation, channel));
+            return 0;
+        }
     }
 }
@@ -0,0 +1,79 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.channel.management;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.fabric3.api.annotation.management.Management;
+import org.fabric3.api.annotation.management.ManagementOperation;
+import org.fabric3.channel.impl.DefaultChannelImpl;
+import org.fabric3.channel.impl.DeliveryLane;
+
+/**
+ * Exposes delivery lane statistics for a channel configured to use ordered delivery lanes.
+ */
+@Management
+public class DeliveryLaneStatistics {
+    private DefaultChannelImpl channel;
+
+    public DeliveryLaneStatistics(DefaultChannelImpl channel) {
+        this.channel = channel;
+    }
+
+    @ManagementOperation(description = "The number of consumer delivery lanes")
+    public int getLaneCount() {
+        return channel.getDeliveryLanes().size();
+    }
+
+    @ManagementOperation(description = "The number of events waiting for delivery in each lane")
+    public Map<String, Integer> getQueueDepths() {
+        Map<String, Integer> depths = new TreeMap<>();
+        for (Map.Entry<String, DeliveryLane> entry : channel.getDeliveryLanes().entrySet()) {
+            depths.put(entry.getKey(), entry.getValue().getQueueDepth());
+        }
+        return depths;
+    }
+
+    @ManagementOperation(description = "The number of events dropped by each lane because it was full")
+    public Map<String, Long> getDropCounts() {
+        Map<String, Long> drops = new TreeMap<>();
+        for (Map.Entry<String, DeliveryLane> entry : channel.getDeliveryLanes().entrySet()) {
+            drops.put(entry.getKey(), entry.getValue().getDropped());
+        }
+        return drops;
+    }
+
+    @ManagementOperation(description = "The number of events delivered by each lane")
+    public Map<String, Long> getDeliveryCounts() {
+        Map<String, Long> delivered = new TreeMap<>();
+        for (Map.Entry<String, DeliveryLane> entry : channel.getDeliveryLanes().entrySet()) {
+            delivered.put(entry.getKey(), entry.getValue().getDelivered());
+        }
+        return delivered;
+    }
+
+    @ManagementOperation(description = "The total number of events dropped across all lanes")
+    public long getTotalDropped() {
+        long total = 0;
+        for (DeliveryLane lane : channel.getDeliveryLanes().values()) {
+            total += lane.getDropped();
+        }
+        return total;
+    }
+
+}
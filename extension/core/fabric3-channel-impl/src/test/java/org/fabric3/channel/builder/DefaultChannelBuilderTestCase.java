@@ -21,8 +21,12 @@ import java.util.concurrent.ExecutorService;
 
 import junit.framework.TestCase;
 import org.easymock.EasyMock;
+import org.fabric3.api.model.type.component.DefaultChannelData;
+import org.fabric3.channel.management.DeliveryLaneStatistics;
 import org.fabric3.spi.container.channel.Channel;
+import org.fabric3.spi.management.ManagementService;
 import org.fabric3.spi.model.physical.PhysicalChannel;
+import org.fabric3.spi.threadpool.ExecutorRegistry;
 
 /**
  *
@@ -36,14 +40,40 @@ public class DefaultChannelBuilderTestCase extends TestCase {
         Channel channel = EasyMock.createMock(Channel.class);
 
         ExecutorService executorService = EasyMock.createMock(ExecutorService.class);
+        ExecutorRegistry executorRegistry = EasyMock.createMock(ExecutorRegistry.class);
+        EasyMock.expect(executorRegistry.getExecutor(URI.create("test"))).andReturn(executorService);
 
-        EasyMock.replay(channel);
+        EasyMock.replay(channel, executorRegistry);
 
-        DefaultChannelBuilder builder = new DefaultChannelBuilder(executorService);
+        DefaultChannelBuilder builder = new DefaultChannelBuilder(EasyMock.createMock(ExecutorService.class), EasyMock.createMock(ManagementService.class));
+        builder.setExecutorRegistry(executorRegistry);
 
         assertNotNull(builder.build(physicalChannel));
 
-        EasyMock.verify(channel);
+        EasyMock.verify(channel, executorRegistry);
+    }
+
+    public void testExportLanesUnderChannelPath() throws Exception {
+        URI uri = URI.create("fabric3://domain/orders/Quotes");
+        PhysicalChannel physicalChannel = new PhysicalChannel(uri, URI.create("bar"));
+        DefaultChannelData data = new DefaultChannelData();
+        data.setLaneCapacity(16);
+        physicalChannel.setMetadata(data);
+
+        // no executor registry is deployed, the runtime executor is used
+        ManagementService managementService = EasyMock.createMock(ManagementService.class);
+        managementService.export(EasyMock.eq("channels/lanes/domain/orders/Quotes"),
+                                 EasyMock.eq("channels"),
+                                 EasyMock.isA(String.class),
+                                 EasyMock.isA(DeliveryLaneStatistics.class));
+        managementService.remove("channels/lanes/domain/orders/Quotes", "channels");
+        EasyMock.replay(managementService);
+
+        DefaultChannelBuilder builder = new DefaultChannelBuilder(EasyMock.createMock(ExecutorService.class), managementService);
+        Channel channel = builder.build(physicalChannel);
+        builder.dispose(physicalChannel, channel);
+
+        EasyMock.verify(managementService);
     }
 
 }
@@ -17,6 +17,13 @@
 package org.fabric3.channel.handler;
 
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import junit.framework.TestCase;
 import org.easymock.EasyMock;
@@ -41,9 +48,146 @@ public class AbstractFanOutHandlerTestCase extends TestCase {
 
         URI uri = URI.create("connection");
         handler.addConnection(uri, connection);
-        assertEquals(connection, handler.removeConnection(uri));
+        assertEquals(connection, handler.removeConnection(uri, null));
 
         EasyMock.verify(connection);
     }
 
+    public void testMultipleRegistrations() throws Exception {
+        AbstractFanOutHandler handler = new AbstractFanOutHandler() {
+            public void handle(Object event, boolean endOfBatch) {
+                assertEquals(1, getConnections().length);
+            }
+        };
+
+        ChannelConnection connection = EasyMock.createNiceMock(ChannelConnection.class);
+        EasyMock.replay(connection);
+
+        URI uri = URI.create("connection");
+        handler.addConnection(uri, connection);
+        handler.addConnection(uri, connection);
+        handler.handle(new Object(), true);
+
+        assertEquals(connection, handler.removeConnection(uri, null));
+        handler.handle(new Object(), true);
+
+        assertEquals(connection, handler.removeConnection(uri, null));
+        assertNull(handler.removeConnection(uri, null));
+    }
+
+    public void testSameUriDifferentTopics() throws Exception {
+        List<ChannelConnection> delivered = new ArrayList<>();
+        AbstractFanOutHandler handler = new AbstractFanOutHandler() {
+            public void handle(Object event, boolean endOfBatch) {
+                delivered.clear();
+                Collections.addAll(delivered, getConnections());
+            }
+        };
+
+        ChannelConnection connection1 = EasyMock.createNiceMock(ChannelConnection.class);
+        EasyMock.expect(connection1.getTopic()).andReturn("orders.#").anyTimes();
+        ChannelConnection connection2 = EasyMock.createNiceMock(ChannelConnection.class);
+        EasyMock.expect(connection2.getTopic()).andReturn("*.eu").anyTimes();
+        EasyMock.replay(connection1, connection2);
+
+        URI uri = URI.create("connection");
+        handler.addConnection(uri, connection1);
+        handler.addConnection(uri, connection2);
+        handler.handle(new Object(), true);
+        assertEquals(2, delivered.size());
+
+        assertNull(handler.removeConnection(uri, null));
+        assertEquals(connection1, handler.removeConnection(uri, "orders.#"));
+        handler.handle(new Object(), true);
+        assertEquals(Collections.singletonList(connection2), delivered);
+
+        assertEquals(connection2, handler.removeConnection(uri, "*.eu"));
+        handler.handle(new Object(), true);
+        assertTrue(delivered.isEmpty());
+    }
+
+    /**
+     * Verifies publishers observe a consistent connection set while subscribers are concurrently added and removed.
+     */
+    public void testConcurrentSubscriptionChurn() throws Exception {
+        final int subscriberThreads = 4;
+        final int iterations = 2000;
+
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        final AtomicInteger observed = new AtomicInteger();
+        final AbstractFanOutHandler handler = new AbstractFanOutHandler() {
+            public void handle(Object event, boolean endOfBatch) {
+                ChannelConnection[] connections = getConnections();
+                observed.set(connections.length);
+                for (ChannelConnection connection : connections) {
+                    if (connection == null) {
+                        error.compareAndSet(null, new AssertionError("Null connection published"));
+                    }
+                }
+            }
+        };
+
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final CountDownLatch doneLatch = new CountDownLatch(subscriberThreads);
+        final AtomicBoolean publishing = new AtomicBoolean(true);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < subscriberThreads; i++) {
+            final int id = i;
+            threads.add(new Thread() {
+                public void run() {
+                    try {
+                        startLatch.await();
+                        ChannelConnection connection = EasyMock.createNiceMock(ChannelConnection.class);
+                        EasyMock.replay(connection);
+                        for (int n = 0; n < iterations; n++) {
+                            URI uri = URI.create("connection" + id + "-" + (n % 10));
+                            handler.addConnection(uri, connection);
+                            // shared URI registered by every thread exercises registration counting
+                            handler.addConnection(URI.create("shared"), connection);
+                            handler.removeConnection(URI.create("shared"), null);
+                            if (handler.removeConnection(uri, null) != connection) {
+                                error.compareAndSet(null, new AssertionError("Unexpected connection removed"));
+                            }
+                        }
+                    } catch (Throwable e) {
+                        error.compareAndSet(null, e);
+                    } finally {
+                        doneLatch.countDown();
+                    }
+                }
+            });
+        }
+        Thread publisher = new Thread() {
+            public void run() {
+                try {
+                    startLatch.await();
+                    while (publishing.get()) {
+                        handler.handle(new Object(), true);
+                    }
+                } catch (Throwable e) {
+                    error.compareAndSet(null, e);
+                }
+            }
+        };
+        threads.add(publisher);
+
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        startLatch.countDown();
+        doneLatch.await();
+        publishing.set(false);
+        publisher.join();
+
+        if (error.get() != null) {
+            throw new AssertionError(error.get());
+        }
+
+        // all connections were removed
+        handler.handle(new Object(), true);
+        assertEquals(0, observed.get());
+        assertNull(handler.removeConnection(URI.create("shared"), null));
+    }
+
 }
\ No newline at end of file
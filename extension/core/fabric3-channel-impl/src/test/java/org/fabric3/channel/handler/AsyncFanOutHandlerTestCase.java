@@ -77,6 +77,7 @@ public class AsyncFanOutHandlerTestCase extends TestCase {
         EasyMock.expect(stream.getHeadHandler()).andReturn(handler);
 
         ChannelConnection connection = EasyMock.createMock(ChannelConnection.class);
+        EasyMock.expect(connection.getTopic()).andReturn(null).anyTimes();
         EasyMock.expect(connection.getEventStream()).andReturn(stream);
         EasyMock.replay(stream, connection);
         return connection;
@@ -0,0 +1,381 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.channel.handler;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+import org.easymock.EasyMock;
+import org.easymock.IAnswer;
+import org.fabric3.api.model.type.component.DefaultChannelData.OverflowPolicy;
+import org.fabric3.channel.impl.BatchingFanOutHandler;
+import org.fabric3.spi.container.channel.ChannelConnection;
+import org.fabric3.spi.container.channel.EventStream;
+import org.fabric3.spi.container.channel.EventStreamHandler;
+
+/**
+ *
+ */
+public class BatchingFanOutHandlerTestCase extends TestCase {
+    private List<Runnable> scheduled = new ArrayList<>();
+    private ExecutorService executorService;
+
+    public void testSingleDispatchPerBatch() throws Exception {
+        BatchingFanOutHandler handler = new BatchingFanOutHandler(executorService, 10, OverflowPolicy.BLOCK);
+
+        Object event1 = new Object();
+        Object event2 = new Object();
+        Object event3 = new Object();
+
+        EventStreamHandler handler1 = EasyMock.createStrictMock(EventStreamHandler.class);
+        handler1.handle(event1, false);
+        handler1.handle(event2, false);
+        handler1.handle(event3, true);
+        EventStreamHandler handler2 = EasyMock.createStrictMock(EventStreamHandler.class);
+        handler2.handle(event1, false);
+        handler2.handle(event2, false);
+        handler2.handle(event3, true);
+
+        handler.addConnection(URI.create("connection1"), createConnection(handler1));
+        handler.addConnection(URI.create("connection2"), createConnection(handler2));
+
+        EasyMock.replay(executorService, handler1, handler2);
+
+        handler.handle(event1, true);
+        handler.handle(event2, true);
+        handler.handle(event3, true);
+
+        assertEquals(1, scheduled.size());
+        scheduled.remove(0).run();
+        assertTrue(scheduled.isEmpty());
+
+        EasyMock.verify(executorService, handler1, handler2);
+    }
+
+    public void testBatchSizeBound() throws Exception {
+        BatchingFanOutHandler handler = new BatchingFanOutHandler(executorService, 2, OverflowPolicy.BLOCK);
+
+        Object event1 = new Object();
+        Object event2 = new Object();
+        Object event3 = new Object();
+
+        EventStreamHandler handler1 = EasyMock.createStrictMock(EventStreamHandler.class);
+        handler1.handle(event1, false);
+        handler1.handle(event2, true);
+        handler1.handle(event3, true);
+
+        handler.addConnection(URI.create("connection1"), createConnection(handler1));
+
+        EasyMock.replay(executorService, handler1);
+
+        handler.handle(event1, true);
+        handler.handle(event2, true);
+        handler.handle(event3, true);
+
+        assertEquals(1, scheduled.size());
+        scheduled.remove(0).run();
+
+        // the remaining event is dispatched in a second batch
+        assertEquals(1, scheduled.size());
+        scheduled.remove(0).run();
+        assertTrue(scheduled.isEmpty());
+
+        EasyMock.verify(executorService, handler1);
+    }
+
+    public void testPublisherEndOfBatchPreserved() throws Exception {
+        BatchingFanOutHandler handler = new BatchingFanOutHandler(executorService, 10, OverflowPolicy.BLOCK);
+
+        Object event1 = new Object();
+        Object event2 = new Object();
+
+        EventStreamHandler handler1 = EasyMock.createStrictMock(EventStreamHandler.class);
+        handler1.handle(event1, false);
+        handler1.handle(event2, false);
+
+        handler.addConnection(URI.create("connection1"), createConnection(handler1));
+
+        EasyMock.replay(executorService, handler1);
+
+        // the publisher batch is still in progress when dispatch runs
+        handler.handle(event1, true);
+        handler.handle(event2, false);
+        scheduled.remove(0).run();
+
+        EasyMock.verify(executorService, handler1);
+    }
+
+    public void testDropNewest() throws Exception {
+        BatchingFanOutHandler handler = new BatchingFanOutHandler(executorService, 2, 2, OverflowPolicy.DROP_NEWEST);
+
+        EventStreamHandler handler1 = EasyMock.createStrictMock(EventStreamHandler.class);
+        handler1.handle(1, false);
+        handler1.handle(2, true);
+
+        handler.addConnection(URI.create("connection1"), createConnection(handler1));
+
+        EasyMock.replay(executorService, handler1);
+
+        handler.handle(1, true);
+        handler.handle(2, true);
+        handler.handle(3, true);
+        scheduled.remove(0).run();
+
+        assertEquals(1, handler.getDropped());
+        EasyMock.verify(executorService, handler1);
+    }
+
+    public void testDropOldest() throws Exception {
+        BatchingFanOutHandler handler = new BatchingFanOutHandler(executorService, 2, 2, OverflowPolicy.DROP_OLDEST);
+
+        EventStreamHandler handler1 = EasyMock.createStrictMock(EventStreamHandler.class);
+        handler1.handle(2, false);
+        handler1.handle(3, true);
+
+        handler.addConnection(URI.create("connection1"), createConnection(handler1));
+
+        EasyMock.replay(executorService, handler1);
+
+        handler.handle(1, true);
+        handler.handle(2, true);
+        handler.handle(3, true);
+        scheduled.remove(0).run();
+
+        assertEquals(1, handler.getDropped());
+        EasyMock.verify(executorService, handler1);
+    }
+
+    public void testBlockUntilDispatched() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            BatchingFanOutHandler handler = new BatchingFanOutHandler(executor, 1, 1, OverflowPolicy.BLOCK);
+            CountDownLatch latch = new CountDownLatch(3);
+            EventStreamHandler handler1 = EasyMock.createMock(EventStreamHandler.class);
+            handler1.handle(EasyMock.anyObject(), EasyMock.anyBoolean());
+            EasyMock.expectLastCall().andAnswer(() -> {
+                latch.countDown();
+                return null;
+            }).times(3);
+            EasyMock.replay(handler1);
+            handler.addConnection(URI.create("connection1"), createConnection(handler1));
+
+            for (int i = 0; i < 3; i++) {
+                handler.handle(i, true);
+            }
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+            assertEquals(0, handler.getDropped());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public void testBlockReentrantPublish() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            BatchingFanOutHandler handler = new BatchingFanOutHandler(executor, 1, 1, OverflowPolicy.BLOCK);
+            List<Object> received = Collections.synchronizedList(new ArrayList<>());
+            CountDownLatch latch = new CountDownLatch(4);
+            EventStreamHandler handler1 = EasyMock.createMock(EventStreamHandler.class);
+            handler1.handle(EasyMock.anyObject(), EasyMock.anyBoolean());
+            EasyMock.expectLastCall().andAnswer(() -> {
+                Object event = EasyMock.getCurrentArguments()[0];
+                received.add(event);
+                if (event.equals(0)) {
+                    // the consumer publishes from the dispatch thread more events than the buffer holds
+                    for (int i = 1; i < 4; i++) {
+                        handler.handle(i, true);
+                    }
+                }
+                latch.countDown();
+                return null;
+            }).times(4);
+            EasyMock.replay(handler1);
+            handler.addConnection(URI.create("connection1"), createConnection(handler1));
+
+            handler.handle(0, true);
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+            assertEquals(Arrays.asList(0, 1, 2, 3), received);
+            assertEquals(0, handler.getDropped());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public void testRejectedExecution() throws Exception {
+        ExecutorService executor = EasyMock.createMock(ExecutorService.class);
+        executor.execute(EasyMock.isA(Runnable.class));
+        EasyMock.expectLastCall().andThrow(new RejectedExecutionException());
+        executor.execute(EasyMock.isA(Runnable.class));
+        EasyMock.expectLastCall().andAnswer(() -> {
+            scheduled.add((Runnable) EasyMock.getCurrentArguments()[0]);
+            return null;
+        });
+        BatchingFanOutHandler handler = new BatchingFanOutHandler(executor, 10, OverflowPolicy.BLOCK);
+
+        EventStreamHandler handler1 = EasyMock.createStrictMock(EventStreamHandler.class);
+        handler1.handle(2, true);
+
+        handler.addConnection(URI.create("connection1"), createConnection(handler1));
+        EasyMock.replay(executor, handler1);
+
+        try {
+            handler.handle(1, true);
+            fail();
+        } catch (RejectedExecutionException e) {
+            // expected
+        }
+        // dispatch is scheduled again and the rejected event is not delivered
+        handler.handle(2, true);
+        scheduled.remove(0).run();
+
+        EasyMock.verify(executor, handler1);
+    }
+
+    public void testRejectedExecutionWithConcurrentPublisher() throws Exception {
+        BatchingFanOutHandler[] holder = new BatchingFanOutHandler[1];
+        ExecutorService executor = EasyMock.createMock(ExecutorService.class);
+        executor.execute(EasyMock.isA(Runnable.class));
+        EasyMock.expectLastCall().andAnswer(() -> {
+            // a second publisher appends an event while the first publisher is scheduling dispatch
+            Thread publisher = new Thread(() -> holder[0].handle(2, true));
+            publisher.start();
+            publisher.join();
+            throw new RejectedExecutionException();
+        });
+        executor.execute(EasyMock.isA(Runnable.class));
+        EasyMock.expectLastCall().andAnswer(() -> {
+            scheduled.add((Runnable) EasyMock.getCurrentArguments()[0]);
+            return null;
+        });
+        BatchingFanOutHandler handler = new BatchingFanOutHandler(executor, 10, OverflowPolicy.BLOCK);
+        holder[0] = handler;
+
+        EventStreamHandler handler1 = EasyMock.createStrictMock(EventStreamHandler.class);
+        handler1.handle(2, true);
+
+        handler.addConnection(URI.create("connection1"), createConnection(handler1));
+        EasyMock.replay(executor, handler1);
+
+        try {
+            handler.handle(1, true);
+            fail();
+        } catch (RejectedExecutionException e) {
+            // expected
+        }
+        // only the rejected event is removed and dispatch is rescheduled for the event of the second publisher
+        assertEquals(1, scheduled.size());
+        scheduled.remove(0).run();
+        assertEquals(0, handler.getDropped());
+
+        EasyMock.verify(executor, handler1);
+    }
+
+    public void testRejectedExecutionDiscardsStrandedEvents() throws Exception {
+        BatchingFanOutHandler[] holder = new BatchingFanOutHandler[1];
+        ExecutorService executor = EasyMock.createMock(ExecutorService.class);
+        executor.execute(EasyMock.isA(Runnable.class));
+        EasyMock.expectLastCall().andAnswer(() -> {
+            Thread publisher = new Thread(() -> holder[0].handle(2, true));
+            publisher.start();
+            publisher.join();
+            throw new RejectedExecutionException();
+        });
+        executor.execute(EasyMock.isA(Runnable.class));
+        EasyMock.expectLastCall().andThrow(new RejectedExecutionException());
+        executor.execute(EasyMock.isA(Runnable.class));
+        EasyMock.expectLastCall().andAnswer(() -> {
+            scheduled.add((Runnable) EasyMock.getCurrentArguments()[0]);
+            return null;
+        });
+        BatchingFanOutHandler handler = new BatchingFanOutHandler(executor, 10, OverflowPolicy.BLOCK);
+        holder[0] = handler;
+
+        EventStreamHandler handler1 = EasyMock.createStrictMock(EventStreamHandler.class);
+        handler1.handle(3, true);
+
+        handler.addConnection(URI.create("connection1"), createConnection(handler1));
+        EasyMock.replay(executor, handler1);
+
+        try {
+            handler.handle(1, true);
+            fail();
+        } catch (RejectedExecutionException e) {
+            // expected
+        }
+        // the event of the second publisher could not be scheduled and was discarded
+        assertEquals(1, handler.getDropped());
+        handler.handle(3, true);
+        scheduled.remove(0).run();
+
+        EasyMock.verify(executor, handler1);
+    }
+
+    public void testPendingBufferBounded() throws Exception {
+        BatchingFanOutHandler handler = new BatchingFanOutHandler(executorService, 1, OverflowPolicy.BLOCK);
+
+        EventStreamHandler handler1 = EasyMock.createMock(EventStreamHandler.class);
+        handler1.handle(EasyMock.anyObject(), EasyMock.eq(true));
+        EasyMock.expectLastCall().times(100);
+
+        handler.addConnection(URI.create("connection1"), createConnection(handler1));
+
+        EasyMock.replay(executorService, handler1);
+
+        for (int i = 0; i < 100; i++) {
+            handler.handle(i, true);
+        }
+
+        while (!scheduled.isEmpty()) {
+            scheduled.remove(0).run();
+        }
+
+        EasyMock.verify(executorService, handler1);
+    }
+
+    public void setUp() throws Exception {
+        super.setUp();
+        executorService = EasyMock.createMock(ExecutorService.class);
+        executorService.execute(EasyMock.isA(Runnable.class));
+        EasyMock.expectLastCall().andStubAnswer(new IAnswer<Object>() {
+            public Object answer() throws Throwable {
+                scheduled.add((Runnable) EasyMock.getCurrentArguments()[0]);
+                return null;
+            }
+        });
+    }
+
+    private ChannelConnection createConnection(EventStreamHandler handler) {
+        EventStream stream = EasyMock.createMock(EventStream.class);
+        EasyMock.expect(stream.getHeadHandler()).andReturn(handler).anyTimes();
+
+        ChannelConnection connection = EasyMock.createMock(ChannelConnection.class);
+        EasyMock.expect(connection.getTopic()).andReturn(null).anyTimes();
+        EasyMock.expect(connection.getEventStream()).andReturn(stream).anyTimes();
+        EasyMock.replay(stream, connection);
+        return connection;
+    }
+
+}
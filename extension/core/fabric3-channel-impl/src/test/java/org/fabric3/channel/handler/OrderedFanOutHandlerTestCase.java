@@ -0,0 +1,196 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.channel.handler;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+import org.easymock.EasyMock;
+import org.easymock.IAnswer;
+import org.fabric3.api.model.type.component.DefaultChannelData.OverflowPolicy;
+import org.fabric3.channel.impl.DeliveryLane;
+import org.fabric3.channel.impl.OrderedFanOutHandler;
+import org.fabric3.spi.container.channel.ChannelConnection;
+import org.fabric3.spi.container.channel.EventStream;
+import org.fabric3.spi.container.channel.EventStreamHandler;
+
+/**
+ *
+ */
+public class OrderedFanOutHandlerTestCase extends TestCase {
+    private List<Runnable> scheduled = new ArrayList<>();
+    private ExecutorService executorService;
+
+    public void testLanePerConnection() throws Exception {
+        OrderedFanOutHandler handler = new OrderedFanOutHandler(executorService, 10, OverflowPolicy.BLOCK);
+
+        EventStreamHandler handler1 = EasyMock.createStrictMock(EventStreamHandler.class);
+        handler1.handle("event1", false);
+        handler1.handle("event2", true);
+        EventStreamHandler handler2 = EasyMock.createStrictMock(EventStreamHandler.class);
+        handler2.handle("event1", false);
+        handler2.handle("event2", true);
+
+        handler.addConnection(URI.create("connection1"), createConnection(handler1));
+        handler.addConnection(URI.create("connection2"), createConnection(handler2));
+
+        EasyMock.replay(executorService, handler1, handler2);
+
+        handler.handle("event1", true);
+        handler.handle("event2", true);
+
+        // one drain task per lane
+        assertEquals(2, scheduled.size());
+        runScheduled();
+
+        assertEquals(2, handler.getLanes().size());
+        for (DeliveryLane lane : handler.getLanes().values()) {
+            assertEquals(2, lane.getDelivered());
+            assertEquals(0, lane.getQueueDepth());
+        }
+
+        EasyMock.verify(executorService, handler1, handler2);
+    }
+
+    public void testDropNewest() throws Exception {
+        OrderedFanOutHandler handler = new OrderedFanOutHandler(executorService, 2, OverflowPolicy.DROP_NEWEST);
+
+        EventStreamHandler handler1 = EasyMock.createStrictMock(EventStreamHandler.class);
+        handler1.handle("event1", false);
+        handler1.handle("event2", true);
+
+        handler.addConnection(URI.create("connection1"), createConnection(handler1));
+
+        EasyMock.replay(executorService, handler1);
+
+        handler.handle("event1", true);
+        handler.handle("event2", true);
+        handler.handle("event3", true);
+        runScheduled();
+
+        assertEquals(1, handler.getLanes().get("connection1").getDropped());
+        EasyMock.verify(executorService, handler1);
+    }
+
+    public void testDropOldest() throws Exception {
+        OrderedFanOutHandler handler = new OrderedFanOutHandler(executorService, 2, OverflowPolicy.DROP_OLDEST);
+
+        EventStreamHandler handler1 = EasyMock.createStrictMock(EventStreamHandler.class);
+        handler1.handle("event2", false);
+        handler1.handle("event3", true);
+
+        handler.addConnection(URI.create("connection1"), createConnection(handler1));
+
+        EasyMock.replay(executorService, handler1);
+
+        handler.handle("event1", true);
+        handler.handle("event2", true);
+        handler.handle("event3", true);
+        runScheduled();
+
+        assertEquals(1, handler.getLanes().get("connection1").getDropped());
+        EasyMock.verify(executorService, handler1);
+    }
+
+    public void testBlockReentrantPublish() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            OrderedFanOutHandler handler = new OrderedFanOutHandler(executor, 1, OverflowPolicy.BLOCK);
+            List<Object> received = Collections.synchronizedList(new ArrayList<>());
+            CountDownLatch latch = new CountDownLatch(4);
+            EventStreamHandler handler1 = EasyMock.createMock(EventStreamHandler.class);
+            handler1.handle(EasyMock.anyObject(), EasyMock.anyBoolean());
+            EasyMock.expectLastCall().andAnswer(() -> {
+                Object event = EasyMock.getCurrentArguments()[0];
+                received.add(event);
+                if ("event1".equals(event)) {
+                    // the consumer publishes from the lane thread more events than the lane holds
+                    handler.handle("event2", true);
+                    handler.handle("event3", true);
+                    handler.handle("event4", true);
+                }
+                latch.countDown();
+                return null;
+            }).times(4);
+            EasyMock.replay(handler1);
+            handler.addConnection(URI.create("connection1"), createConnection(handler1));
+
+            handler.handle("event1", true);
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+            assertEquals(Arrays.asList("event1", "event2", "event3", "event4"), received);
+            assertEquals(0, handler.getLanes().get("connection1").getDropped());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public void testRemoveConnectionClosesLane() throws Exception {
+        OrderedFanOutHandler handler = new OrderedFanOutHandler(executorService, 2, OverflowPolicy.BLOCK);
+
+        EventStreamHandler handler1 = EasyMock.createStrictMock(EventStreamHandler.class);
+
+        URI uri = URI.create("connection1");
+        handler.addConnection(uri, createConnection(handler1));
+
+        EasyMock.replay(executorService, handler1);
+
+        handler.handle("event1", true);
+        handler.removeConnection(uri, null);
+        runScheduled();
+
+        assertTrue(handler.getLanes().isEmpty());
+        EasyMock.verify(executorService, handler1);
+    }
+
+    public void setUp() throws Exception {
+        super.setUp();
+        executorService = EasyMock.createMock(ExecutorService.class);
+        executorService.execute(EasyMock.isA(Runnable.class));
+        EasyMock.expectLastCall().andStubAnswer(new IAnswer<Object>() {
+            public Object answer() throws Throwable {
+                scheduled.add((Runnable) EasyMock.getCurrentArguments()[0]);
+                return null;
+            }
+        });
+    }
+
+    private void runScheduled() {
+        while (!scheduled.isEmpty()) {
+            scheduled.remove(0).run();
+        }
+    }
+
+    private ChannelConnection createConnection(EventStreamHandler handler) {
+        EventStream stream = EasyMock.createMock(EventStream.class);
+        EasyMock.expect(stream.getHeadHandler()).andReturn(handler).anyTimes();
+
+        ChannelConnection connection = EasyMock.createMock(ChannelConnection.class);
+        EasyMock.expect(connection.getTopic()).andReturn(null).anyTimes();
+        EasyMock.expect(connection.getEventStream()).andReturn(stream).anyTimes();
+        EasyMock.replay(stream, connection);
+        return connection;
+    }
+
+}
@@ -20,6 +20,7 @@ import java.net.URI;
 
 import junit.framework.TestCase;
 import org.easymock.EasyMock;
+import org.fabric3.api.host.Fabric3Exception;
 import org.fabric3.spi.container.channel.ChannelConnection;
 import org.fabric3.spi.container.channel.EventStream;
 import org.fabric3.spi.container.channel.EventStreamHandler;
@@ -80,12 +81,60 @@ public class DefaultChannelImplTestCase extends TestCase {
         EasyMock.verify(handler, stream, connection);
     }
 
+    public void testWildcardSubscriptions() throws Exception {
+        EventStreamHandler consumer1 = EasyMock.createMock(EventStreamHandler.class);
+        consumer1.handle("event1", true);
+        EventStreamHandler consumer2 = EasyMock.createMock(EventStreamHandler.class);
+        consumer2.handle("event1", true);
+        consumer2.handle("event2", true);
+        EventStreamHandler consumer3 = EasyMock.createMock(EventStreamHandler.class);
+        EasyMock.replay(consumer1, consumer2, consumer3);
+
+        // subscribe before the topic is used
+        channel.subscribe(URI.create("consumer1"), createConnection("orders.eu.*", consumer1));
+
+        PassThroughHandler producer = new PassThroughHandler();
+        channel.attach(createConnection("orders.eu.fr", producer));
+
+        // subscribe after the topic is used
+        channel.subscribe(URI.create("consumer2"), createConnection("orders.#", consumer2));
+        channel.subscribe(URI.create("consumer3"), createConnection("invoices.#", consumer3));
+
+        producer.handle("event1", true);
+
+        channel.unsubscribe(URI.create("consumer1"), "orders.eu.*");
+
+        producer.handle("event2", true);
+
+        EasyMock.verify(consumer1, consumer2, consumer3);
+    }
+
+    public void testPublishToWildcardTopic() throws Exception {
+        try {
+            channel.attach(createConnection("orders.#", new PassThroughHandler()));
+            fail();
+        } catch (Fabric3Exception e) {
+            // expected
+        }
+    }
+
     @Override
     protected void setUp() throws Exception {
         super.setUp();
         channel = new DefaultChannelImpl(URI.create("channel"), ChannelSide.CONSUMER, URI.create("test"));
     }
 
+    private ChannelConnection createConnection(String topic, EventStreamHandler handler) {
+        EventStream stream = EasyMock.createMock(EventStream.class);
+        EasyMock.expect(stream.getHeadHandler()).andReturn(handler).anyTimes();
+        EasyMock.expect(stream.getTailHandler()).andReturn(handler).anyTimes();
+        ChannelConnection connection = EasyMock.createMock(ChannelConnection.class);
+        EasyMock.expect(connection.getTopic()).andReturn(topic).anyTimes();
+        EasyMock.expect(connection.getEventStream()).andReturn(stream).anyTimes();
+        EasyMock.replay(stream, connection);
+        return connection;
+    }
+
     private class BlockingHandler extends PassThroughHandler {
         private boolean closed;
 
@@ -73,6 +73,7 @@ public class JavaGenerationHelperImpl implements JavaGenerationHelper {
         managerDefinition.setConstructor(type.getConstructor());
         managerDefinition.setInitMethod(type.getInitMethod());
         managerDefinition.setDestroyMethod(type.getDestroyMethod());
+        managerDefinition.setResetMethod(type.getResetMethod());
         managerDefinition.setImplementationClass(implementation.getImplementationClass());
         managerDefinition.setClassLoaderUri(component.getDefinition().getContributionUri());
         helper.processInjectionSites(type, managerDefinition);
@@ -84,6 +85,7 @@ public class JavaGenerationHelperImpl implements JavaGenerationHelper {
 
         physicalComponent.setManaged(type.isManaged());
         physicalComponent.setManagementInfo(type.getManagementInfo());
+        physicalComponent.setPoolInfo(type.getPoolInfo());
 
         helper.processPropertyValues(component, physicalComponent);
     }
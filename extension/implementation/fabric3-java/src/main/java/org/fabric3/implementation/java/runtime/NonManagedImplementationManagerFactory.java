@@ -81,6 +81,9 @@ public class NonManagedImplementationManagerFactory implements ImplementationMan
     public void stop(Object instance) {
     }
 
+    public void reset(Object instance) {
+    }
+
     public void reinject(Object instance) {
     }
 
@@ -21,6 +21,7 @@ import java.net.URL;
 
 import org.fabric3.api.Namespaces;
 import org.fabric3.api.host.stream.UrlSource;
+import org.fabric3.spi.contribution.ClassFileInfo;
 import org.fabric3.spi.contribution.Constants;
 import org.fabric3.spi.contribution.Contribution;
 import org.fabric3.spi.contribution.JavaArtifactIntrospector;
@@ -52,4 +53,8 @@ public class JUnitArtifactIntrospector implements JavaArtifactIntrospector {
         resource.addResourceElement(resourceElement);
         return resource;
     }
+
+    public boolean isCandidate(ClassFileInfo info, Contribution contribution) {
+        return !contribution.getManifest().isExtension() && info.isAnnotated(RunWith.class.getName());
+    }
 }
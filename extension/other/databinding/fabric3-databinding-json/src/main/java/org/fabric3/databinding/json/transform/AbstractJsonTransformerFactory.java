@@ -0,0 +1,86 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.databinding.json.transform;
+
+import java.lang.reflect.Modifier;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.jaxrs.cfg.Annotations;
+import com.fasterxml.jackson.jaxrs.json.JsonMapperConfigurator;
+import org.fabric3.api.model.type.contract.DataType;
+import org.fabric3.spi.transform.TransformerFactory;
+
+/**
+ * Base class for factories that create JSON transformers. Readers and writers are resolved once per Java type.
+ *
+ * The per-type caches are {@link ClassValue}s, which store entries with the type itself and therefore do not retain it. The mapper, however, caches the
+ * serializers and deserializers it creates for a type, so types passed through a factory are retained for the lifetime of the factory.
+ */
+public abstract class AbstractJsonTransformerFactory implements TransformerFactory {
+    private final static Annotations[] DEFAULT_ANNOTATIONS = {Annotations.JACKSON, Annotations.JAXB};
+
+    private ObjectWriter writer;
+    private ClassValue<ObjectReader> readers;
+    private ClassValue<ObjectWriter> writers;
+
+    protected AbstractJsonTransformerFactory() {
+        JsonMapperConfigurator configurator = new JsonMapperConfigurator(null, DEFAULT_ANNOTATIONS);
+        ObjectMapper mapper = configurator.getDefaultMapper();
+        writer = mapper.writer();
+        readers = new ClassValue<ObjectReader>() {
+            protected ObjectReader computeValue(Class<?> type) {
+                return mapper.reader(type);
+            }
+        };
+        writers = new ClassValue<ObjectWriter>() {
+            protected ObjectWriter computeValue(Class<?> type) {
+                return mapper.writerWithType(type);
+            }
+        };
+    }
+
+    public int getOrder() {
+        return 0;
+    }
+
+    /**
+     * Returns a reader for the target type.
+     *
+     * @param target the target type
+     * @return the reader
+     */
+    protected ObjectReader getReader(DataType target) {
+        return readers.get(target.getType());
+    }
+
+    /**
+     * Returns a writer for the source type. Writers bound to a type are only used for final classes since bound writers serialize values using the
+     * declared rather than the runtime type.
+     *
+     * @param source the source type or null if it is not known
+     * @return the writer
+     */
+    protected ObjectWriter getWriter(DataType source) {
+        if (source == null || !Modifier.isFinal(source.getType().getModifiers()) || source.getType().isArray()) {
+            return writer;
+        }
+        return writers.get(source.getType());
+    }
+
+}
@@ -18,23 +18,38 @@ package org.fabric3.databinding.json.transform;
 
 import java.io.IOException;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.fabric3.api.host.Fabric3Exception;
 import org.fabric3.spi.transform.Transformer;
 
 /**
- * Transforms a Java object to a byte array.
+ * Transforms a Java object to a byte array. Output is streamed into a per-thread buffer that is retained between transformations so that only the resulting
+ * array is allocated for typical payload sizes. Buffers are owned by the creating factory rather than held in a static so they do not outlive the
+ * extension.
  */
 public class Object2BytesJsonTransformer implements Transformer<Object, byte[]> {
-    private ObjectMapper mapper;
+    // buffers which grow beyond this size are released rather than retained by the thread
+    private static final int MAX_RETAINED_SIZE = 64 * 1024;
 
-    public Object2BytesJsonTransformer(ObjectMapper mapper) {
-        this.mapper = mapper;
+    private ObjectWriter writer;
+    private ThreadLocal<ByteArrayBuilder> buffers;
+
+    public Object2BytesJsonTransformer(ObjectWriter writer, ThreadLocal<ByteArrayBuilder> buffers) {
+        this.writer = writer;
+        this.buffers = buffers;
     }
 
     public byte[] transform(Object source, ClassLoader loader) throws Fabric3Exception {
         try {
-            return mapper.writeValueAsBytes(source);
+            ByteArrayBuilder buffer = buffers.get();
+            buffer.reset();
+            writer.writeValue(buffer, source);
+            byte[] bytes = buffer.toByteArray();
+            if (bytes.length > MAX_RETAINED_SIZE) {
+                buffers.remove();
+            }
+            return bytes;
         } catch (IOException e) {
             throw new Fabric3Exception(e);
         }
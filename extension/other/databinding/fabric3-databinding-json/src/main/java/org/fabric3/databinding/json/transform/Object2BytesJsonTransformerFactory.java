@@ -16,37 +16,33 @@
  */
 package org.fabric3.databinding.json.transform;
 
+import java.util.Collections;
 import java.util.List;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.jaxrs.cfg.Annotations;
-import com.fasterxml.jackson.jaxrs.json.JsonMapperConfigurator;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
 import org.fabric3.api.model.type.contract.DataType;
 import org.fabric3.spi.model.type.java.JavaType;
-import org.fabric3.spi.transform.TransformerFactory;
 
 /**
  * Creates Transformers capable of serializing Java types to a byte array using JSON.
  */
-public class Object2BytesJsonTransformerFactory implements TransformerFactory {
-    private final static Annotations[] DEFAULT_ANNOTATIONS = {Annotations.JACKSON, Annotations.JAXB};
-    private JsonMapperConfigurator configurator;
+public class Object2BytesJsonTransformerFactory extends AbstractJsonTransformerFactory {
+    private static final List<DataType> INTERMEDIATE_TYPES = Collections.singletonList(new JavaType(byte[].class, "JSON"));
 
-    public Object2BytesJsonTransformerFactory() {
-        configurator = new JsonMapperConfigurator(null, DEFAULT_ANNOTATIONS);
-    }
-
-    public int getOrder() {
-        return 0;
-    }
+    // output buffers shared by the transformers created by this factory
+    private ThreadLocal<ByteArrayBuilder> buffers = ThreadLocal.withInitial(ByteArrayBuilder::new);
 
     public boolean canTransform(DataType source, DataType target) {
         return "JSON".equals(target.getDatabinding()) && byte[].class.equals(target.getType()) && source instanceof JavaType;
     }
 
+    public List<DataType> getIntermediateTypes() {
+        // allows serialized JSON to be chained to transformers that consume bytes
+        return INTERMEDIATE_TYPES;
+    }
+
     public Object2BytesJsonTransformer create(DataType source, DataType target, List<Class<?>> sourceTypes, List<Class<?>> targetTypes) {
-        ObjectMapper mapper = configurator.getDefaultMapper();
-        return new Object2BytesJsonTransformer(mapper);
+        return new Object2BytesJsonTransformer(getWriter(source), buffers);
     }
 
-}
\ No newline at end of file
+}
@@ -18,7 +18,7 @@ package org.fabric3.databinding.json.transform;
 
 import java.io.IOException;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.fabric3.api.host.Fabric3Exception;
 import org.fabric3.spi.transform.Transformer;
 
@@ -26,15 +26,15 @@ import org.fabric3.spi.transform.Transformer;
  * Transforms a Java object to a serialized JSON String.
  */
 public class Object2StringJsonTransformer implements Transformer<Object, String> {
-    private ObjectMapper mapper;
+    private ObjectWriter writer;
 
-    public Object2StringJsonTransformer(ObjectMapper mapper) {
-        this.mapper = mapper;
+    public Object2StringJsonTransformer(ObjectWriter writer) {
+        this.writer = writer;
     }
 
     public String transform(Object source, ClassLoader loader) throws Fabric3Exception {
         try {
-            return mapper.writeValueAsString(source);
+            return writer.writeValueAsString(source);
         } catch (IOException e) {
             throw new Fabric3Exception(e);
         }
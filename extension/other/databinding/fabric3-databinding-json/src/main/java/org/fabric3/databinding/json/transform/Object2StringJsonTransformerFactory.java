@@ -18,36 +18,20 @@ package org.fabric3.databinding.json.transform;
 
 import java.util.List;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.jaxrs.cfg.Annotations;
-import com.fasterxml.jackson.jaxrs.json.JsonMapperConfigurator;
 import org.fabric3.api.model.type.contract.DataType;
 import org.fabric3.spi.model.type.java.JavaType;
-import org.fabric3.spi.transform.TransformerFactory;
 
 /**
  * Creates Transformers capable of marshalling serialized Strings to Java types using JSON.
  */
-public class Object2StringJsonTransformerFactory implements TransformerFactory {
-    private final static Annotations[] DEFAULT_ANNOTATIONS = {Annotations.JACKSON, Annotations.JAXB};
-    private JsonMapperConfigurator configurator;
-
-    public Object2StringJsonTransformerFactory() {
-        configurator = new JsonMapperConfigurator(null, DEFAULT_ANNOTATIONS);
-    }
-
-    public int getOrder() {
-        return 0;
-    }
+public class Object2StringJsonTransformerFactory extends AbstractJsonTransformerFactory {
 
     public boolean canTransform(DataType source, DataType target) {
         return "JSON".equals(target.getDatabinding()) && String.class.equals(target.getType()) && source instanceof JavaType;
     }
 
     public Object2StringJsonTransformer create(DataType source, DataType target, List<Class<?>> sourceTypes, List<Class<?>> targetTypes) {
-        ObjectMapper mapper = configurator.getDefaultMapper();
-        return new Object2StringJsonTransformer(mapper);
+        return new Object2StringJsonTransformer(getWriter(source));
     }
 
-
-}
\ No newline at end of file
+}
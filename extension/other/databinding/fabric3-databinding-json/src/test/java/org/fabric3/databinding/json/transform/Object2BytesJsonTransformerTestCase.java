@@ -0,0 +1,65 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.databinding.json.transform;
+
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+import org.fabric3.spi.model.type.java.JavaType;
+
+/**
+ *
+ */
+public class Object2BytesJsonTransformerTestCase extends TestCase {
+
+    public void testTransform() throws Exception {
+        Object2BytesJsonTransformerFactory factory = new Object2BytesJsonTransformerFactory();
+        Object2BytesJsonTransformer transformer = factory.create(new JavaType(Foo.class), null, null, null);
+        Foo foo = new Foo();
+        foo.setBar("bar");
+        byte[] first = transformer.transform(foo, getClass().getClassLoader());
+        foo.setBar("baz");
+        byte[] second = transformer.transform(foo, getClass().getClassLoader());
+
+        assertEquals("{\"bar\":\"bar\"}", new String(first, "UTF-8"));
+        assertEquals("{\"bar\":\"baz\"}", new String(second, "UTF-8"));
+    }
+
+    public void testTransformLargePayload() throws Exception {
+        Object2BytesJsonTransformerFactory factory = new Object2BytesJsonTransformerFactory();
+        Object2BytesJsonTransformer transformer = factory.create(new JavaType(String.class), null, null, null);
+        char[] chars = new char[100000];
+        Arrays.fill(chars, 'a');
+        String value = new String(chars);
+
+        assertEquals(value.length() + 2, transformer.transform(value, getClass().getClassLoader()).length);
+        assertEquals("\"a\"", new String(transformer.transform("a", getClass().getClassLoader()), "UTF-8"));
+    }
+
+    public static final class Foo {
+        private String bar;
+
+        public String getBar() {
+            return bar;
+        }
+
+        public void setBar(String bar) {
+            this.bar = bar;
+        }
+    }
+
+}
@@ -0,0 +1,45 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.api;
+
+/**
+ * Creates mutable event payloads that are pre-allocated in the slots of a ring buffer channel.
+ *
+ * When a channel is configured with an event factory, each ring buffer slot holds a payload created by {@link #newInstance()} for the lifetime of
+ * the channel. Producers that obtain the ring buffer as a direct connection claim a slot, write into its payload, obtained from {@link
+ * ChannelEvent#getEvent(Class)}, and publish the slot. Consumers receive the payload in place. Neither side allocates per event.
+ *
+ * Implementations must provide a public no-argument constructor.
+ */
+public interface ChannelEventFactory<T> {
+
+    /**
+     * Creates a payload instance.
+     *
+     * @return the payload
+     */
+    T newInstance();
+
+    /**
+     * Copies an event sent through a producer proxy into a pre-allocated payload.
+     *
+     * @param source the event sent by the producer
+     * @param target the pre-allocated payload
+     */
+    void copy(T source, T target);
+
+}
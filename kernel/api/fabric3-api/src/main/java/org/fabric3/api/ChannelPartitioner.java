@@ -0,0 +1,35 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.api;
+
+/**
+ * Determines the partition key for events sent through a partitioned channel.
+ *
+ * Events with equal keys are dispatched through the same partition and are therefore received by consumers in the order they were published.
+ * Implementations must be thread-safe and provide a public no-argument constructor.
+ */
+public interface ChannelPartitioner {
+
+    /**
+     * Returns the partition key for the event.
+     *
+     * @param event the event
+     * @return the partition key or null if the event has no key, in which case it is dispatched in order with other events sent by the same producer
+     */
+    Object getKey(Object event);
+
+}
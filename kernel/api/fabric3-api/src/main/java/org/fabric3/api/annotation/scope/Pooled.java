@@ -0,0 +1,65 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * Portions originally based on Apache Tuscany 2007
+ * licensed under the Apache 2.0 license.
+ */
+package org.fabric3.api.annotation.scope;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import org.oasisopen.sca.annotation.Scope;
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Annotation used to indicate that decorated component implementations have stateless scope and that instances are pooled. Pooled instances are reused
+ * across invocations instead of being created and initialized for each one.
+ */
+@Target(TYPE)
+@Retention(RUNTIME)
+@Scope(Scopes.STATELESS)
+public @interface Pooled {
+
+    /**
+     * Returns the minimum number of idle instances retained by the pool.
+     *
+     * @return the minimum number of idle instances
+     */
+    int minSize() default 0;
+
+    /**
+     * Returns the maximum number of instances. Callers wait for an instance to be released when the maximum is reached, up to the acquire timeout.
+     *
+     * @return the maximum number of instances
+     */
+    int maxSize() default 16;
+
+    /**
+     * Returns the time in milliseconds an instance may remain idle before it is evicted.
+     *
+     * @return the idle timeout
+     */
+    long idleTimeout() default 60000;
+
+    /**
+     * Returns the time in milliseconds a caller waits for an instance to be released when the maximum number of instances is in use.
+     *
+     * @return the acquire timeout
+     */
+    long acquireTimeout() default 30000;
+
+}
@@ -18,6 +18,8 @@ package org.fabric3.api.model.type.builder;
 
 import org.fabric3.api.model.type.component.Binding;
 import org.fabric3.api.model.type.component.Channel;
+import org.fabric3.api.model.type.component.DefaultChannelData;
+import static org.fabric3.api.model.type.component.DefaultChannelData.OverflowPolicy;
 
 /**
  *
@@ -54,6 +56,44 @@ public class ChannelBuilder extends AbstractBuilder {
         return this;
     }
 
+    /**
+     * Enables batched dispatch for the channel. Events are collected and handed to consumers in batches of up to the given size instead of being
+     * dispatched individually.
+     *
+     * @param size the maximum number of events in a batch
+     * @return the builder
+     */
+    public ChannelBuilder batchSize(int size) {
+        checkState();
+        getData().setBatchSize(size);
+        return this;
+    }
+
+    /**
+     * Enables ordered delivery lanes for the channel. Each consumer is assigned a bounded lane of the given capacity which delivers events in order
+     * and isolates the consumer from other slow consumers.
+     *
+     * @param capacity the lane capacity
+     * @return the builder
+     */
+    public ChannelBuilder laneCapacity(int capacity) {
+        checkState();
+        getData().setLaneCapacity(capacity);
+        return this;
+    }
+
+    /**
+     * Sets the policy applied when a delivery lane or the batching buffer is full.
+     *
+     * @param policy the overflow policy
+     * @return the builder
+     */
+    public ChannelBuilder overflowPolicy(OverflowPolicy policy) {
+        checkState();
+        getData().setOverflowPolicy(policy);
+        return this;
+    }
+
     /**
      * Adds a binding to the channel.
      *
@@ -81,4 +121,18 @@ public class ChannelBuilder extends AbstractBuilder {
         channel = new Channel(name);
     }
 
+    private DefaultChannelData getData() {
+        Object metadata = channel.getMetadata(Object.class);
+        if (metadata != null && !(metadata instanceof DefaultChannelData)) {
+            String type = metadata.getClass().getName();
+            throw new IllegalStateException("Default channel settings cannot be applied to channel " + channel.getName() + " configured with " + type);
+        }
+        DefaultChannelData data = (DefaultChannelData) metadata;
+        if (data == null) {
+            data = new DefaultChannelData();
+            channel.setMetadata(data);
+        }
+        return data;
+    }
+
 }
@@ -18,6 +18,8 @@ package org.fabric3.api.model.type.builder;
 
 import javax.xml.namespace.QName;
 
+import org.fabric3.api.ChannelEventFactory;
+import org.fabric3.api.ChannelPartitioner;
 import org.fabric3.api.model.type.component.Channel;
 import org.fabric3.api.model.type.component.RingBufferData;
 import static org.fabric3.api.model.type.component.RingBufferData.PhasedBlockingType;
@@ -90,6 +92,54 @@ public class RingBufferChannelBuilder extends AbstractBuilder {
         return this;
     }
 
+    /**
+     * Partitions events across the given number of ring buffers.
+     *
+     * @param partitions the number of partitions
+     * @return the builder
+     */
+    public RingBufferChannelBuilder partitions(int partitions) {
+        checkState();
+        data.setPartitions(partitions);
+        return this;
+    }
+
+    /**
+     * Sets the partitioner used to determine event partition keys. If not set, events are partitioned by topic.
+     *
+     * @param partitioner the partitioner class
+     * @return the builder
+     */
+    public RingBufferChannelBuilder partitioner(Class<? extends ChannelPartitioner> partitioner) {
+        checkState();
+        data.setPartitioner(partitioner.getName());
+        return this;
+    }
+
+    /**
+     * Serializes dispatch to each consumer across partitions so that consumers are never invoked concurrently, at the cost of limiting the throughput of a
+     * consumer to that of a single partition.
+     *
+     * @return the builder
+     */
+    public RingBufferChannelBuilder serializeConsumers() {
+        checkState();
+        data.setSerializeConsumers(true);
+        return this;
+    }
+
+    /**
+     * Sets the factory used to pre-allocate event payloads in ring buffer slots.
+     *
+     * @param eventFactory the event factory class
+     * @return the builder
+     */
+    public RingBufferChannelBuilder eventFactory(Class<? extends ChannelEventFactory<?>> eventFactory) {
+        checkState();
+        data.setEventFactory(eventFactory.getName());
+        return this;
+    }
+
     /**
      * Builds the channel definition.
      *
@@ -0,0 +1,93 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.api.model.type.component;
+
+import java.io.Serializable;
+
+/**
+ * Configuration for default channels.
+ */
+public class DefaultChannelData implements Serializable {
+    private static final long serialVersionUID = -2869340416390744291L;
+
+    /**
+     * The policy applied when a consumer delivery lane or the batching buffer is full.
+     */
+    public enum OverflowPolicy {
+        BLOCK, DROP_OLDEST, DROP_NEWEST
+    }
+
+    private int batchSize;
+    private int laneCapacity;
+    private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+
+    /**
+     * Returns the maximum number of events dispatched to consumers as a single batch. A value of 0 disables batching and dispatches each event
+     * individually.
+     *
+     * @return the maximum batch size
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Sets the maximum number of events dispatched to consumers as a single batch.
+     *
+     * @param batchSize the maximum batch size or 0 to disable batching
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Returns the capacity of the delivery lane created for each consumer. A value of 0 disables delivery lanes.
+     *
+     * @return the lane capacity
+     */
+    public int getLaneCapacity() {
+        return laneCapacity;
+    }
+
+    /**
+     * Sets the capacity of the delivery lane created for each consumer. When set, each consumer receives events in order on its own lane.
+     *
+     * @param laneCapacity the lane capacity or 0 to disable delivery lanes
+     */
+    public void setLaneCapacity(int laneCapacity) {
+        this.laneCapacity = laneCapacity;
+    }
+
+    /**
+     * Returns the policy applied when a delivery lane or the batching buffer is full.
+     *
+     * @return the overflow policy
+     */
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * Sets the policy applied when a delivery lane or the batching buffer is full.
+     *
+     * @param overflowPolicy the overflow policy
+     */
+    public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+    }
+
+}
@@ -40,6 +40,11 @@ public class RingBufferData implements Serializable {
 
     private WaitStrategyType waitStrategy = WaitStrategyType.BLOCKING;
 
+    private int partitions = 1;
+    private String partitioner;
+    private boolean serializeConsumers;
+    private String eventFactory;
+
     public void setRingSize(int ringSize) {
         this.ringSize = ringSize;
     }
@@ -87,4 +92,60 @@ public class RingBufferData implements Serializable {
     public void setWaitStrategy(WaitStrategyType waitStrategy) {
         this.waitStrategy = waitStrategy;
     }
+
+    /**
+     * Returns the number of ring buffers events are partitioned across.
+     *
+     * @return the number of partitions
+     */
+    public int getPartitions() {
+        return partitions;
+    }
+
+    public void setPartitions(int partitions) {
+        this.partitions = partitions;
+    }
+
+    /**
+     * Returns the name of the {@link org.fabric3.api.ChannelPartitioner} class used to determine event partition keys or null if events are partitioned
+     * by topic.
+     *
+     * @return the partitioner class name or null
+     */
+    public String getPartitioner() {
+        return partitioner;
+    }
+
+    public void setPartitioner(String partitioner) {
+        this.partitioner = partitioner;
+    }
+
+    /**
+     * Returns true if dispatch to a consumer is serialized across partitions so that a consumer instance is never invoked concurrently. Otherwise, dispatch
+     * is serialized per partition and a consumer may be invoked concurrently by the event processors of different partitions. Serializing across
+     * partitions limits the throughput of each consumer to that of a single partition.
+     *
+     * @return true if dispatch to a consumer is serialized across partitions
+     */
+    public boolean isSerializeConsumers() {
+        return serializeConsumers;
+    }
+
+    public void setSerializeConsumers(boolean serializeConsumers) {
+        this.serializeConsumers = serializeConsumers;
+    }
+
+    /**
+     * Returns the name of the {@link org.fabric3.api.ChannelEventFactory} class used to pre-allocate event payloads in ring buffer slots or null if
+     * events are published by reference.
+     *
+     * @return the event factory class name or null
+     */
+    public String getEventFactory() {
+        return eventFactory;
+    }
+
+    public void setEventFactory(String eventFactory) {
+        this.eventFactory = eventFactory;
+    }
 }
@@ -44,10 +44,12 @@ public class InjectingComponentType extends ComponentType {
     private int initLevel;
     private boolean managed;
     private ManagementInfo managementInfo;
+    private PoolInfo poolInfo;
 
     private Constructor<?> constructor;
     private Method initMethod;
     private Method destroyMethod;
+    private Method resetMethod;
     private Map<InjectionSite, Injectable> injectionSites = new HashMap<>();
     private Map<ModelObject, InjectionSite> injectionSiteMapping = new HashMap<>();
     private Map<String, Callback> callbacks = new HashMap<>();
@@ -150,6 +152,25 @@ public class InjectingComponentType extends ComponentType {
         this.managementInfo = managementInfo;
     }
 
+    /**
+     * Returns the PoolInfo if instances of this implementation are pooled or null.
+     *
+     * @return the PoolInfo or null
+     */
+    public PoolInfo getPoolInfo() {
+        return poolInfo;
+    }
+
+    /**
+     * Sets the PoolInfo for this implementation.
+     *
+     * @param poolInfo the PoolInfo
+     */
+    public void setPoolInfo(PoolInfo poolInfo) {
+        poolInfo.setParent(this);
+        this.poolInfo = poolInfo;
+    }
+
     /**
      * Add a reference and its associated with an injection site.
      *
@@ -344,4 +365,22 @@ public class InjectingComponentType extends ComponentType {
         this.destroyMethod = destroyMethod;
     }
 
+    /**
+     * Returns the method called to reset a pooled instance before it is returned to the pool.
+     *
+     * @return the reset method or null
+     */
+    public Method getResetMethod() {
+        return resetMethod;
+    }
+
+    /**
+     * Sets the method called to reset a pooled instance before it is returned to the pool.
+     *
+     * @param resetMethod the reset method
+     */
+    public void setResetMethod(Method resetMethod) {
+        this.resetMethod = resetMethod;
+    }
+
 }
@@ -0,0 +1,96 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * Portions originally based on Apache Tuscany 2007
+ * licensed under the Apache 2.0 license.
+ */
+package org.fabric3.api.model.type.java;
+
+import org.fabric3.api.model.type.ModelObject;
+
+/**
+ * Instance pooling configuration for a stateless component implementation.
+ */
+public class PoolInfo extends ModelObject<InjectingComponentType> {
+    private static final long DEFAULT_ACQUIRE_TIMEOUT = 30000;
+
+    private int minSize;
+    private int maxSize;
+    private long idleTimeout;
+    private long acquireTimeout;
+
+    /**
+     * Constructor using the default acquire timeout.
+     *
+     * @param minSize     the minimum number of idle instances retained by the pool
+     * @param maxSize     the maximum number of instances
+     * @param idleTimeout the time in milliseconds an instance may remain idle before it is evicted
+     */
+    public PoolInfo(int minSize, int maxSize, long idleTimeout) {
+        this(minSize, maxSize, idleTimeout, DEFAULT_ACQUIRE_TIMEOUT);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param minSize        the minimum number of idle instances retained by the pool
+     * @param maxSize        the maximum number of instances
+     * @param idleTimeout    the time in milliseconds an instance may remain idle before it is evicted
+     * @param acquireTimeout the time in milliseconds a caller waits for an instance when the maximum number of instances is in use
+     */
+    public PoolInfo(int minSize, int maxSize, long idleTimeout, long acquireTimeout) {
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.idleTimeout = idleTimeout;
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    /**
+     * Returns the minimum number of idle instances retained by the pool.
+     *
+     * @return the minimum number of idle instances
+     */
+    public int getMinSize() {
+        return minSize;
+    }
+
+    /**
+     * Returns the maximum number of instances.
+     *
+     * @return the maximum number of instances
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Returns the time in milliseconds an instance may remain idle before it is evicted.
+     *
+     * @return the idle timeout
+     */
+    public long getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    /**
+     * Returns the time in milliseconds a caller waits for an instance when the maximum number of instances is in use.
+     *
+     * @return the acquire timeout
+     */
+    public long getAcquireTimeout() {
+        return acquireTimeout;
+    }
+
+}
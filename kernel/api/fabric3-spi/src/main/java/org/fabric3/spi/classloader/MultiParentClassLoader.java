@@ -27,8 +27,13 @@ import java.util.Collections;
 import java.util.Enumeration;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.fabric3.api.host.classloader.DelegatingResourceClassLoader;
 import sun.security.util.SecurityConstants;
@@ -46,16 +51,40 @@ import sun.security.util.SecurityConstants;
  * that rely on Java reflection to add additional capabilities provided by another contribution. Since resolution is performed dynamically, cycles between
  * classloaders are supported where one classloader is a parent of the other and the former is an extension of the latter.
  *
+ * Parents are searched in the order they were added. Parents added for a specific package are indexed by that package and are skipped for classes
+ * outside the package and its subpackages.
+ *
+ * The classloader is parallel capable: classes are loaded under a per-name lock rather than a lock on the classloader. Classes that cannot be found are
+ * recorded in a bounded negative cache so that repeated probing for optional dependencies does not repeat the full search. Lookups in the negative
+ * cache do not lock and the oldest entries are evicted first. The negative cache is invalidated when the parents, classpath or extensions of any multi-parent classloader change.
+ *
  * Each classloader has a name that can be used to reference it in the runtime.
  */
 public class MultiParentClassLoader extends DelegatingResourceClassLoader {
     private static final URL[] NOURLS = {};
+    private static final int NEGATIVE_CACHE_SIZE = 1024;
+
+    // incremented when any classloader hierarchy changes, invalidating negative cache entries recorded for a previous generation
+    private static final AtomicLong GENERATION = new AtomicLong();
+
+    static {
+        registerAsParallelCapable();
+    }
 
     private final URI name;
 
     private final List<ClassLoader> parents = new CopyOnWriteArrayList<>();
+    private final Set<ClassLoader> unrestrictedParents = ConcurrentHashMap.newKeySet();
+    private final Map<ClassLoader, Set<String>> parentPackages = new ConcurrentHashMap<>();
     private final List<MultiParentClassLoader> extensions = new CopyOnWriteArrayList<>();
 
+    private final Map<String, Long> negativeCache = new ConcurrentHashMap<>();
+    // the negative cache entries in insertion order
+    private final ConcurrentLinkedQueue<String> negativeOrder = new ConcurrentLinkedQueue<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+
     /**
      * Constructs a classloader with a name and a single parent.
      *
@@ -93,6 +122,7 @@ public class MultiParentClassLoader extends DelegatingResourceClassLoader {
             sm.checkCreateClassLoader();
         }
         super.addURL(url);
+        GENERATION.incrementAndGet();
     }
 
     /**
@@ -101,14 +131,34 @@ public class MultiParentClassLoader extends DelegatingResourceClassLoader {
      * @param parent an additional parent classloader
      */
     public void addParent(ClassLoader parent) {
+        addParent(parent, null);
+    }
+
+    /**
+     * Add a parent to this classloader that provides classes for a package and its subpackages. The parent is only searched for classes in the package,
+     * which is typically the package of a contribution import. A package ending in the '*' wildcard, e.g. 'org.foo.*', is treated as its base package. The
+     * "createClassLoader" RuntimePermission is required.
+     *
+     * @param parent      an additional parent classloader
+     * @param packageName the package provided by the parent or null if the parent may provide classes from any package
+     */
+    public void addParent(ClassLoader parent, String packageName) {
         // Require RuntimePermission("createClassLoader")
         SecurityManager sm = System.getSecurityManager();
         if (sm != null) {
             sm.checkCreateClassLoader();
         }
-        if (parent != null) {
-            parents.add(parent);
+        if (parent == null) {
+            return;
+        }
+        parents.add(parent);
+        String key = packageName == null ? null : getPackageKey(packageName);
+        if (key == null) {
+            unrestrictedParents.add(parent);
+        } else {
+            parentPackages.computeIfAbsent(parent, k -> ConcurrentHashMap.newKeySet()).add(key);
         }
+        GENERATION.incrementAndGet();
     }
 
     /**
@@ -145,6 +195,7 @@ public class MultiParentClassLoader extends DelegatingResourceClassLoader {
      */
     public void addExtensionClassLoader(MultiParentClassLoader classloader) {
         extensions.add(classloader);
+        GENERATION.incrementAndGet();
     }
 
     /**
@@ -154,6 +205,7 @@ public class MultiParentClassLoader extends DelegatingResourceClassLoader {
      */
     public void removeExtensionClassLoader(MultiParentClassLoader classloader) {
         extensions.remove(classloader);
+        GENERATION.incrementAndGet();
     }
 
     /**
@@ -172,67 +224,183 @@ public class MultiParentClassLoader extends DelegatingResourceClassLoader {
         return super.findResources(name);
     }
 
-    protected synchronized Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+    /**
+     * Returns the number of class lookups that resolved a class.
+     *
+     * @return the number of class lookups that resolved a class
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of class lookups that searched the hierarchy and did not resolve a class.
+     *
+     * @return the number of class lookups that did not resolve a class
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of class lookups that were rejected by the negative cache without searching the hierarchy.
+     *
+     * @return the number of class lookups rejected by the negative cache
+     */
+    public long getNegativeCacheHits() {
+        return negativeHits.sum();
+    }
+
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
         // look for already loaded classes
         Class<?> clazz = findLoadedClass(name);
         if (clazz == null) {
-            try {
-                // look in the primary parent
-                try {
-                    clazz = Class.forName(name, resolve, getParent());
-                } catch (ClassNotFoundException e) {
-                    // continue
-                }
-                if (clazz == null) {
-                    // look in our parents
-                    for (ClassLoader parent : parents) {
-                        try {
-                            clazz = parent.loadClass(name);
-                            break;
-                        } catch (ClassNotFoundException e) {
-                            continue;
-                        }
-                    }
-                }
-                // look in our classpath
+            Long generation = negativeCache.get(name);
+            if (generation != null && generation == GENERATION.get()) {
+                negativeHits.increment();
+                throw new ClassNotFoundException(name);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                clazz = findLoadedClass(name);
                 if (clazz == null) {
+                    // read the generation before searching so a hierarchy change during the search invalidates the entry
+                    long current = GENERATION.get();
                     try {
-                        clazz = findClass(name);
+                        clazz = searchClass(name, resolve);
                     } catch (ClassNotFoundException e) {
-                        // look in extensions
-                        for (MultiParentClassLoader extension : extensions) {
-                            // check first to see if class is already loaded
-                            clazz = extension.findLoadedClass(name);
-                            if (clazz == null) {
-                                try {
-                                    clazz = extension.findClass(name);
-                                } catch (ClassNotFoundException ex) {
-                                    // ignore
-                                }
-                            }
-                            if (clazz != null) {
-                                break;
-                            }
-                        }
-                        if (clazz == null) {
-                            throw e;
-                        }
+                        misses.increment();
+                        cacheNotFound(name, current);
+                        throw e;
                     }
                 }
-            } catch (NoClassDefFoundError | ClassNotFoundException e) {
-                throw e;
             }
         }
+        hits.increment();
         if (resolve) {
             resolveClass(clazz);
         }
         return clazz;
     }
 
+    /**
+     * Records a class that was not found in the negative cache, evicting the oldest entries if the cache is full.
+     *
+     * @param name       the class name
+     * @param generation the hierarchy generation the class was searched in
+     */
+    private void cacheNotFound(String name, long generation) {
+        if (negativeCache.put(name, generation) != null) {
+            // the entry was replaced and keeps its position
+            return;
+        }
+        negativeOrder.add(name);
+        while (negativeCache.size() > NEGATIVE_CACHE_SIZE) {
+            String eldest = negativeOrder.poll();
+            if (eldest == null) {
+                return;
+            }
+            negativeCache.remove(eldest);
+        }
+    }
+
     protected Class<?> findClass(String string) throws ClassNotFoundException {
         return super.findClass(string);
     }
 
+    /**
+     * Searches the primary parent, parents, this classloader's classpath and extensions for a class.
+     *
+     * @param name    the class name
+     * @param resolve true if the class should be resolved
+     * @return the class
+     * @throws ClassNotFoundException if the class is not found
+     */
+    private Class<?> searchClass(String name, boolean resolve) throws ClassNotFoundException {
+        Class<?> clazz = null;
+        // look in the primary parent
+        try {
+            clazz = Class.forName(name, resolve, getParent());
+        } catch (ClassNotFoundException e) {
+            // continue
+        }
+        if (clazz == null) {
+            // look in our parents
+            clazz = loadFromParents(name);
+        }
+        if (clazz != null) {
+            return clazz;
+        }
+        // look in our classpath
+        try {
+            return findClass(name);
+        } catch (ClassNotFoundException e) {
+            // look in extensions
+            for (MultiParentClassLoader extension : extensions) {
+                // check first to see if class is already loaded
+                clazz = extension.findLoadedClass(name);
+                if (clazz == null) {
+                    try {
+                        clazz = extension.findClass(name);
+                    } catch (ClassNotFoundException ex) {
+                        // ignore
+                    }
+                }
+                if (clazz != null) {
+                    return clazz;
+                }
+            }
+            throw e;
+        }
+    }
+
+    private Class<?> loadFromParents(String name) {
+        for (ClassLoader parent : parents) {
+            if (!isVisible(parent, name)) {
+                continue;
+            }
+            try {
+                return parent.loadClass(name);
+            } catch (ClassNotFoundException e) {
+                // continue
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns true if the parent may provide the class, i.e. it is not restricted to packages or the class is in one of its packages or their subpackages.
+     *
+     * @param parent the parent
+     * @param name   the class name
+     * @return true if the parent may provide the class
+     */
+    private boolean isVisible(ClassLoader parent, String name) {
+        Set<String> packages = parentPackages.get(parent);
+        if (packages == null || unrestrictedParents.contains(parent)) {
+            return true;
+        }
+        String packageName = name;
+        int pos;
+        while ((pos = packageName.lastIndexOf('.')) > 0) {
+            packageName = packageName.substring(0, pos);
+            if (packages.contains(packageName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the package index key for a package name or null if the package cannot be indexed and must be searched for all classes.
+     *
+     * @param packageName the package name
+     * @return the key or null
+     */
+    private String getPackageKey(String packageName) {
+        String key = packageName.endsWith(".*") ? packageName.substring(0, packageName.length() - 2) : packageName;
+        return key.isEmpty() || key.contains("*") ? null : key;
+    }
+
     public URL findResource(String name) {
         // look in our parents
         for (ClassLoader parent : parents) {
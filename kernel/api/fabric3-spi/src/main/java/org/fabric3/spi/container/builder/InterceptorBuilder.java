@@ -37,4 +37,13 @@ public interface InterceptorBuilder<PID extends PhysicalInterceptor> {
      */
     Interceptor build(PID definition) throws Fabric3Exception;
 
+    /**
+     * Releases resources held for an interceptor built from the given definition when the wire it was attached to is disconnected.
+     *
+     * @param definition the interceptor definition
+     * @throws Fabric3Exception if an error occurs releasing resources
+     */
+    default void dispose(PID definition) throws Fabric3Exception {
+    }
+
 }
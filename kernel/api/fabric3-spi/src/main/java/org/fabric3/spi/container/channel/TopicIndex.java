@@ -0,0 +1,211 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.spi.container.channel;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Indexes values by topic pattern in a trie keyed by topic level so that the values whose patterns match a topic can be found without evaluating every
+ * pattern. Pattern syntax is described by {@link TopicPattern}.
+ *
+ * This implementation is not thread-safe; callers must synchronize updates and lookups.
+ *
+ * @param <T> the indexed value type
+ */
+public class TopicIndex<T> {
+    private Node<T> root = new Node<>();
+    private int size;
+
+    /**
+     * Adds a value for the topic pattern. A value may be added multiple times for the same pattern.
+     *
+     * @param pattern the topic pattern
+     * @param value   the value
+     */
+    public void add(String pattern, T value) {
+        Node<T> node = root;
+        for (String level : TopicPattern.split(pattern)) {
+            node = node.getOrCreate(level);
+        }
+        node.values.add(value);
+        size++;
+    }
+
+    /**
+     * Removes a value for the topic pattern.
+     *
+     * @param pattern the topic pattern
+     * @param value   the value
+     * @return true if the value was removed
+     */
+    public boolean remove(String pattern, T value) {
+        String[] levels = TopicPattern.split(pattern);
+        List<Node<T>> path = new ArrayList<>(levels.length + 1);
+        Node<T> node = root;
+        path.add(node);
+        for (String level : levels) {
+            node = node.get(level);
+            if (node == null) {
+                return false;
+            }
+            path.add(node);
+        }
+        if (!node.values.remove(value)) {
+            return false;
+        }
+        size--;
+        // prune empty nodes
+        for (int i = levels.length; i > 0; i--) {
+            Node<T> current = path.get(i);
+            if (!current.isEmpty()) {
+                break;
+            }
+            path.get(i - 1).removeChild(levels[i - 1]);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of indexed values.
+     *
+     * @return the number of indexed values
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the values whose patterns match the topic.
+     *
+     * @param topic the topic
+     * @return the matching values
+     */
+    public List<T> match(String topic) {
+        List<T> matches = new ArrayList<>();
+        match(topic, matches::add);
+        return matches;
+    }
+
+    /**
+     * Passes the values whose patterns match the topic to the consumer. A value added for more than one matching pattern is passed once per
+     * pattern.
+     *
+     * @param topic    the topic
+     * @param consumer the consumer
+     */
+    public void match(String topic, Consumer<T> consumer) {
+        match(root, TopicPattern.split(topic), 0, consumer);
+    }
+
+    private void match(Node<T> node, String[] levels, int index, Consumer<T> consumer) {
+        if (node.multiLevel != null) {
+            matchMultiLevel(node.multiLevel, levels, index, consumer);
+        }
+        if (index == levels.length) {
+            node.values.forEach(consumer);
+            return;
+        }
+        Node<T> child = node.children.get(levels[index]);
+        if (child != null) {
+            match(child, levels, index + 1, consumer);
+        }
+        if (node.singleLevel != null) {
+            match(node.singleLevel, levels, index + 1, consumer);
+        }
+    }
+
+    private void matchMultiLevel(Node<T> node, String[] levels, int index, Consumer<T> consumer) {
+        if (node.isLeaf()) {
+            // trailing multi-level wildcard: matches any remaining levels
+            node.values.forEach(consumer);
+            return;
+        }
+        if (node.multiLevel != null) {
+            // consecutive multi-level wildcards are equivalent to one
+            matchMultiLevel(node.multiLevel, levels, index, consumer);
+        }
+        // the wildcard consumes zero or more levels; each candidate position is visited once
+        for (int i = index; i <= levels.length; i++) {
+            if (i == levels.length) {
+                node.values.forEach(consumer);
+            } else {
+                Node<T> child = node.children.get(levels[i]);
+                if (child != null) {
+                    match(child, levels, i + 1, consumer);
+                }
+                if (node.singleLevel != null) {
+                    match(node.singleLevel, levels, i + 1, consumer);
+                }
+            }
+        }
+    }
+
+    private static class Node<T> {
+        private Map<String, Node<T>> children = new HashMap<>();
+        private Node<T> singleLevel;
+        private Node<T> multiLevel;
+        private List<T> values = new ArrayList<>();
+
+        private Node<T> get(String level) {
+            if (TopicPattern.SINGLE_LEVEL.equals(level)) {
+                return singleLevel;
+            } else if (TopicPattern.MULTI_LEVEL.equals(level)) {
+                return multiLevel;
+            }
+            return children.get(level);
+        }
+
+        private Node<T> getOrCreate(String level) {
+            Node<T> node = get(level);
+            if (node != null) {
+                return node;
+            }
+            node = new Node<>();
+            if (TopicPattern.SINGLE_LEVEL.equals(level)) {
+                singleLevel = node;
+            } else if (TopicPattern.MULTI_LEVEL.equals(level)) {
+                multiLevel = node;
+            } else {
+                children.put(level, node);
+            }
+            return node;
+        }
+
+        private void removeChild(String level) {
+            if (TopicPattern.SINGLE_LEVEL.equals(level)) {
+                singleLevel = null;
+            } else if (TopicPattern.MULTI_LEVEL.equals(level)) {
+                multiLevel = null;
+            } else {
+                children.remove(level);
+            }
+        }
+
+        private boolean isLeaf() {
+            return children.isEmpty() && singleLevel == null && multiLevel == null;
+        }
+
+        private boolean isEmpty() {
+            return values.isEmpty() && isLeaf();
+        }
+    }
+
+}
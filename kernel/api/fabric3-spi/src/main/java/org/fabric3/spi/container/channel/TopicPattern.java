@@ -0,0 +1,174 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.spi.container.channel;
+
+/**
+ * A compiled topic expression.
+ *
+ * Topics are hierarchical names whose levels are separated by a period, for example <code>orders.eu.fr</code>. A pattern may contain wildcard levels:
+ * <code>*</code> matches exactly one level and <code>#</code> matches zero or more levels. For example, <code>orders.eu.*</code> matches
+ * <code>orders.eu.fr</code> but not <code>orders.eu</code> or <code>orders.eu.fr.paris</code>, while <code>orders.#</code> matches all of them.
+ */
+public final class TopicPattern {
+    public static final String SEPARATOR = ".";
+    public static final String SINGLE_LEVEL = "*";
+    public static final String MULTI_LEVEL = "#";
+
+    private final String expression;
+    private final String[] levels;
+    private final boolean wildcard;
+
+    /**
+     * Compiles the topic expression.
+     *
+     * @param expression the expression
+     * @return the compiled pattern
+     */
+    public static TopicPattern compile(String expression) {
+        return new TopicPattern(expression);
+    }
+
+    /**
+     * Returns true if the topic expression contains a wildcard level.
+     *
+     * @param expression the expression
+     * @return true if the expression contains a wildcard level
+     */
+    public static boolean isWildcard(String expression) {
+        if (expression == null) {
+            return false;
+        }
+        for (String level : split(expression)) {
+            if (SINGLE_LEVEL.equals(level) || MULTI_LEVEL.equals(level)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Splits a topic into its levels.
+     *
+     * @param topic the topic
+     * @return the levels
+     */
+    public static String[] split(String topic) {
+        int count = 1;
+        for (int i = 0; i < topic.length(); i++) {
+            if (topic.charAt(i) == '.') {
+                count++;
+            }
+        }
+        String[] levels = new String[count];
+        int start = 0;
+        int index = 0;
+        for (int i = 0; i < topic.length(); i++) {
+            if (topic.charAt(i) == '.') {
+                levels[index++] = topic.substring(start, i);
+                start = i + 1;
+            }
+        }
+        levels[index] = topic.substring(start);
+        return levels;
+    }
+
+    private TopicPattern(String expression) {
+        this.expression = expression;
+        this.levels = split(expression);
+        boolean wildcard = false;
+        for (String level : levels) {
+            if (SINGLE_LEVEL.equals(level) || MULTI_LEVEL.equals(level)) {
+                wildcard = true;
+                break;
+            }
+        }
+        this.wildcard = wildcard;
+    }
+
+    /**
+     * Returns the topic expression.
+     *
+     * @return the expression
+     */
+    public String getExpression() {
+        return expression;
+    }
+
+    /**
+     * Returns true if the pattern contains a wildcard level.
+     *
+     * @return true if the pattern contains a wildcard level
+     */
+    public boolean isWildcard() {
+        return wildcard;
+    }
+
+    /**
+     * Returns true if the topic matches this pattern.
+     *
+     * @param topic the topic. May be null, in which case false is returned.
+     * @return true if the topic matches
+     */
+    public boolean matches(String topic) {
+        if (topic == null) {
+            return false;
+        }
+        if (!wildcard) {
+            return expression.equals(topic);
+        }
+        return matches(levels, 0, split(topic), 0);
+    }
+
+    private static boolean matches(String[] pattern, int patternIndex, String[] topic, int topicIndex) {
+        while (patternIndex < pattern.length) {
+            String level = pattern[patternIndex];
+            if (MULTI_LEVEL.equals(level)) {
+                if (patternIndex == pattern.length - 1) {
+                    // trailing multi-level wildcard matches the remaining levels
+                    return true;
+                }
+                for (int i = topicIndex; i <= topic.length; i++) {
+                    if (matches(pattern, patternIndex + 1, topic, i)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            if (topicIndex == topic.length) {
+                return false;
+            }
+            if (!SINGLE_LEVEL.equals(level) && !level.equals(topic[topicIndex])) {
+                return false;
+            }
+            patternIndex++;
+            topicIndex++;
+        }
+        return topicIndex == topic.length;
+    }
+
+    public boolean equals(Object o) {
+        return this == o || (o instanceof TopicPattern && expression.equals(((TopicPattern) o).expression));
+    }
+
+    public int hashCode() {
+        return expression.hashCode();
+    }
+
+    public String toString() {
+        return expression;
+    }
+}
@@ -100,4 +100,13 @@ public interface ScopeContainer {
      */
     void reinject() throws Fabric3Exception;
 
+    /**
+     * Notifies the container that the suppliers injected into instances of the component have changed. Containers that retain instances across invocations
+     * must not reuse existing instances after this is called.
+     *
+     * @param component the component
+     */
+    default void updated(ScopedComponent component) {
+    }
+
 }
@@ -19,6 +19,7 @@
 package org.fabric3.spi.container.component;
 
 import org.fabric3.api.host.Fabric3Exception;
+import org.fabric3.api.model.type.java.PoolInfo;
 
 /**
  * A component whose implementation instances are managed by a {@link ScopeContainer}. This interface defines callbacks used by the scope container to change
@@ -66,4 +67,22 @@ public interface ScopedComponent extends AtomicComponent {
      */
     void reinject(Object instance) throws Fabric3Exception;
 
+    /**
+     * Returns the instance pool configuration if the scope container should pool instances of this component.
+     *
+     * @return the pool configuration or null if instances are not pooled
+     */
+    default PoolInfo getPoolInfo() {
+        return null;
+    }
+
+    /**
+     * Resets a pooled instance before it is returned to the pool. If configured on the implementation, a reset callback will be performed.
+     *
+     * @param instance the instance to reset
+     * @throws Fabric3Exception if there is an error resetting the instance
+     */
+    default void resetInstance(Object instance) throws Fabric3Exception {
+    }
+
 }
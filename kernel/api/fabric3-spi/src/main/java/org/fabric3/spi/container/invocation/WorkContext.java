@@ -32,6 +32,9 @@ import org.fabric3.api.SecuritySubject;
  * transport).
  *
  * WorkContext instances are cached per runtime thread and reused. This implementation is <em>not</em> thread safe.
+ *
+ * State may be propagated to another thread by capturing a {@link WorkContextSnapshot} and restoring it with {@link #restore(WorkContextSnapshot)}.
+ * Restored callback references and headers are shared with the snapshot and copied on first modification.
  */
 public class WorkContext implements Serializable {
     private static final long serialVersionUID = 9108092492339191639L;
@@ -39,6 +42,10 @@ public class WorkContext implements Serializable {
     private List<String> callStack;
     private transient Map<String, Object> headers;
 
+    // true if the call stack or headers are shared with a snapshot and must be copied before they are modified
+    private transient boolean sharedCallStack;
+    private transient boolean sharedHeaders;
+
     public void setSubject(SecuritySubject subject) {
         this.subject = subject;
     }
@@ -60,6 +67,8 @@ public class WorkContext implements Serializable {
     public void addCallbackReference(String callbackReference) {
         if (callStack == null) {
             callStack = new ArrayList<>();
+        } else if (sharedCallStack) {
+            copyCallStack();
         }
         callStack.add(callbackReference);
     }
@@ -73,6 +82,8 @@ public class WorkContext implements Serializable {
         if (callStack == null) {
             callStack = callbackReferences;
             return;
+        } else if (sharedCallStack) {
+            copyCallStack();
         }
         callStack.addAll(callbackReferences);
     }
@@ -86,6 +97,9 @@ public class WorkContext implements Serializable {
         if (callStack == null || callStack.isEmpty()) {
             return null;
         }
+        if (sharedCallStack) {
+            copyCallStack();
+        }
         return callStack.remove(callStack.size() - 1);
     }
 
@@ -133,6 +147,8 @@ public class WorkContext implements Serializable {
     public void setHeader(String name, Object value) {
         if (headers == null) {
             headers = new HashMap<>();
+        } else if (sharedHeaders) {
+            copyHeaders();
         }
         headers.put(name, value);
     }
@@ -146,6 +162,9 @@ public class WorkContext implements Serializable {
         if (headers == null) {
             return;
         }
+        if (sharedHeaders) {
+            copyHeaders();
+        }
         headers.remove(name);
     }
 
@@ -167,10 +186,26 @@ public class WorkContext implements Serializable {
         if (headers == null) {
             headers = newHeaders;
             return;
+        } else if (sharedHeaders) {
+            copyHeaders();
         }
         headers.putAll(newHeaders);
     }
 
+    /**
+     * Replaces the current state with the state held in the snapshot. The snapshot callback references and headers are shared and copied on first
+     * modification.
+     *
+     * @param snapshot the snapshot
+     */
+    public void restore(WorkContextSnapshot snapshot) {
+        subject = snapshot.getSubject();
+        callStack = snapshot.getCallbackReferences();
+        headers = snapshot.getHeaders();
+        sharedCallStack = callStack != null;
+        sharedHeaders = headers != null;
+    }
+
     /**
      * Resets the work context so that it may be reused for another request.
      */
@@ -178,5 +213,17 @@ public class WorkContext implements Serializable {
         subject = null;
         headers = null;
         callStack = null;
+        sharedCallStack = false;
+        sharedHeaders = false;
+    }
+
+    private void copyCallStack() {
+        callStack = new ArrayList<>(callStack);
+        sharedCallStack = false;
+    }
+
+    private void copyHeaders() {
+        headers = new HashMap<>(headers);
+        sharedHeaders = false;
     }
 }
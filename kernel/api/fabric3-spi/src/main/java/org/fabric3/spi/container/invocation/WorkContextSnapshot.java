@@ -0,0 +1,112 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.spi.container.invocation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.fabric3.api.SecuritySubject;
+
+/**
+ * An immutable copy of the state of a {@link WorkContext} that is propagated across threads: the security subject, callback reference stack and
+ * headers.
+ *
+ * Snapshots may be shared between threads. Callers that propagate the same state repeatedly, for example a component making a stream of one-way
+ * invocations, can pass the previously captured snapshot to {@link #capture(WorkContext, WorkContextSnapshot)} to avoid copying unchanged state.
+ */
+public final class WorkContextSnapshot {
+    public static final WorkContextSnapshot EMPTY = new WorkContextSnapshot(null, null, null);
+
+    private final SecuritySubject subject;
+    private final List<String> callbackReferences;
+    private final Map<String, Object> headers;
+
+    private WorkContextSnapshot(SecuritySubject subject, List<String> callbackReferences, Map<String, Object> headers) {
+        this.subject = subject;
+        this.callbackReferences = callbackReferences;
+        this.headers = headers;
+    }
+
+    /**
+     * Captures the state of the work context.
+     *
+     * @param workContext the work context
+     * @return the snapshot
+     */
+    public static WorkContextSnapshot capture(WorkContext workContext) {
+        return capture(workContext, null);
+    }
+
+    /**
+     * Captures the state of the work context, returning the previous snapshot if it holds the same state.
+     *
+     * @param workContext the work context
+     * @param previous    the previously captured snapshot or null
+     * @return the snapshot
+     */
+    public static WorkContextSnapshot capture(WorkContext workContext, WorkContextSnapshot previous) {
+        SecuritySubject subject = workContext.getSubject();
+        List<String> stack = workContext.getCallbackReferences();
+        Map<String, Object> headers = workContext.getHeaders();
+        boolean noStack = stack == null || stack.isEmpty();
+        boolean noHeaders = headers == null || headers.isEmpty();
+        if (subject == null && noStack && noHeaders) {
+            return EMPTY;
+        }
+        if (previous != null && previous.matches(subject, noStack ? null : stack, noHeaders ? null : headers)) {
+            return previous;
+        }
+        List<String> stackCopy = noStack ? null : Collections.unmodifiableList(new ArrayList<>(stack));
+        Map<String, Object> headersCopy = noHeaders ? null : Collections.unmodifiableMap(new HashMap<>(headers));
+        return new WorkContextSnapshot(subject, stackCopy, headersCopy);
+    }
+
+    public SecuritySubject getSubject() {
+        return subject;
+    }
+
+    /**
+     * Returns the unmodifiable callback reference stack or null if the stack was empty.
+     *
+     * @return the stack or null
+     */
+    public List<String> getCallbackReferences() {
+        return callbackReferences;
+    }
+
+    /**
+     * Returns the unmodifiable headers or null if there were no headers.
+     *
+     * @return the headers or null
+     */
+    public Map<String, Object> getHeaders() {
+        return headers;
+    }
+
+    private boolean matches(SecuritySubject subject, List<String> stack, Map<String, Object> headers) {
+        if (this.subject != subject) {
+            return false;
+        }
+        if (stack != callbackReferences && (stack == null || !stack.equals(callbackReferences))) {
+            return false;
+        }
+        return headers == this.headers || (headers != null && headers.equals(this.headers));
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.spi.contribution;
+
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Metadata for a class read from its class file without loading the class.
+ * <p/>
+ * Annotations declared on superclasses contained in the same archive are recorded as inherited annotations. If the superclass hierarchy could not be
+ * fully read, for example because a superclass is contained in an imported contribution, the class is treated as possibly having any annotation.
+ */
+public class ClassFileInfo {
+    private String name;
+    private int access;
+    private String superName;
+    private List<String> interfaces;
+    private Set<String> annotations;
+    private Set<String> inheritedAnnotations = Collections.emptySet();
+    private boolean hierarchyResolved = true;
+
+    /**
+     * Constructor.
+     *
+     * @param name        the fully qualified class name
+     * @param access      the class access flags
+     * @param superName   the fully qualified superclass name or null if the class has no superclass
+     * @param interfaces  the fully qualified names of implemented interfaces
+     * @param annotations the fully qualified names of runtime-visible class annotations
+     */
+    public ClassFileInfo(String name, int access, String superName, List<String> interfaces, Set<String> annotations) {
+        this.name = name;
+        this.access = access;
+        this.superName = superName;
+        this.interfaces = interfaces;
+        this.annotations = annotations;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getSuperName() {
+        return superName;
+    }
+
+    public List<String> getInterfaces() {
+        return interfaces;
+    }
+
+    /**
+     * Returns the names of runtime-visible annotations declared on the class.
+     *
+     * @return the annotation names
+     */
+    public Set<String> getAnnotations() {
+        return annotations;
+    }
+
+    /**
+     * Returns the names of runtime-visible annotations declared on superclasses read from the same archive.
+     *
+     * @return the annotation names
+     */
+    public Set<String> getInheritedAnnotations() {
+        return inheritedAnnotations;
+    }
+
+    /**
+     * Adds annotations declared on a superclass.
+     *
+     * @param annotations the annotation names
+     */
+    public void addInheritedAnnotations(Set<String> annotations) {
+        if (annotations.isEmpty()) {
+            return;
+        }
+        if (inheritedAnnotations.isEmpty()) {
+            inheritedAnnotations = new HashSet<>();
+        }
+        inheritedAnnotations.addAll(annotations);
+    }
+
+    /**
+     * Returns true if all superclasses were read, or are platform classes.
+     *
+     * @return true if all superclasses were read
+     */
+    public boolean isHierarchyResolved() {
+        return hierarchyResolved;
+    }
+
+    public void setHierarchyResolved(boolean hierarchyResolved) {
+        this.hierarchyResolved = hierarchyResolved;
+    }
+
+    /**
+     * Returns true if the class is abstract or an interface.
+     *
+     * @return true if the class is abstract or an interface
+     */
+    public boolean isAbstract() {
+        return Modifier.isAbstract(access) || Modifier.isInterface(access);
+    }
+
+    /**
+     * Returns true if the class may be annotated with at least one runtime-visible annotation, either directly or through a superclass.
+     *
+     * @return true if the class may be annotated
+     */
+    public boolean isAnnotated() {
+        return !annotations.isEmpty() || !inheritedAnnotations.isEmpty() || !hierarchyResolved;
+    }
+
+    /**
+     * Returns true if the class may be annotated with the given annotation, either directly or through a superclass.
+     *
+     * @param annotation the annotation name
+     * @return true if the class may be annotated
+     */
+    public boolean isAnnotated(String annotation) {
+        return annotations.contains(annotation) || inheritedAnnotations.contains(annotation) || !hierarchyResolved;
+    }
+
+    public String toString() {
+        return name;
+    }
+}
@@ -23,8 +23,11 @@ import java.net.URI;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.fabric3.api.host.stream.Source;
 
@@ -42,6 +45,7 @@ public class Contribution implements Serializable {
     private String contentType;
     private ContributionManifest manifest = new ContributionManifest();
     private transient List<Resource> resources = new ArrayList<>();
+    private transient Map<Symbol, CopyOnWriteArrayList<ResourceElement<?, ?>>> symbols = new ConcurrentHashMap<>();
     private transient Map<Object, Object> metadata = new HashMap<>();
     private List<ContributionWire<?, ?>> wires = new ArrayList<>();
     private List<URI> resolvedExtensionProviders = new ArrayList<>();
@@ -221,6 +225,55 @@ public class Contribution implements Serializable {
      */
     public void addResource(Resource resource) {
         resources.add(resource);
+        resource.getResourceElements().forEach(this::addSymbol);
+    }
+
+    /**
+     * Removes a resource from the contribution.
+     *
+     * @param resource the resource
+     */
+    public void removeResource(Resource resource) {
+        if (!resources.remove(resource)) {
+            return;
+        }
+        for (ResourceElement<?, ?> element : resource.getResourceElements()) {
+            Symbol symbol = element.getSymbol();
+            if (symbol != null) {
+                symbols.computeIfPresent(symbol, (key, elements) -> elements.remove(element) && elements.isEmpty() ? null : elements);
+            }
+        }
+    }
+
+    /**
+     * Returns the resource element for the symbol contained in this contribution. Resources and resource elements are indexed as they are added so this
+     * operation does not iterate the contribution resources. Resources must be added and removed using {@link #addResource(Resource)} and {@link
+     * #removeResource(Resource)} rather than modifying the list returned by {@link #getResources()}.
+     *
+     * @param symbol the symbol
+     * @return the resource element or null if the contribution does not contain the symbol
+     */
+    public ResourceElement<?, ?> findResourceElement(Symbol symbol) {
+        List<ResourceElement<?, ?>> elements = symbols.get(symbol);
+        if (elements == null) {
+            return null;
+        }
+        // iterate a snapshot as the element may be concurrently removed
+        Iterator<ResourceElement<?, ?>> iterator = elements.iterator();
+        return iterator.hasNext() ? iterator.next() : null;
+    }
+
+    /**
+     * Indexes a resource element added to a contribution resource. If more than one element has the same symbol, the first element added is returned by
+     * {@link #findResourceElement(Symbol)}. The remaining elements are retained so they can be returned if the first is removed.
+     *
+     * @param element the element
+     */
+    void addSymbol(ResourceElement<?, ?> element) {
+        Symbol symbol = element.getSymbol();
+        if (symbol != null) {
+            symbols.computeIfAbsent(symbol, key -> new CopyOnWriteArrayList<>()).addIfAbsent(element);
+        }
     }
 
     /**
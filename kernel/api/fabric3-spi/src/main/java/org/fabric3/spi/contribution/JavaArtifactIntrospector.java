@@ -39,6 +39,19 @@ public interface JavaArtifactIntrospector {
      */
     Resource inspect(Class<?> clazz, URL url, Contribution contribution, IntrospectionContext context);
 
+    /**
+     * Returns true if the class may be a contribution resource based on metadata read from its class file. Classes which are not a candidate for any
+     * introspector are not loaded during contribution indexing. Implementations must not return false for a class {@link #inspect(Class, URL, Contribution,
+     * IntrospectionContext)} would accept. The default implementation returns true.
+     *
+     * @param info         the class file metadata
+     * @param contribution the containing contribution
+     * @return true if the class may be a contribution resource
+     */
+    default boolean isCandidate(ClassFileInfo info, Contribution contribution) {
+        return true;
+    }
+
     /**
      * Returns true if the type is a concrete component by introspecting if it is annotated with {@link Component} either directly or via a meta-annotation.
      *
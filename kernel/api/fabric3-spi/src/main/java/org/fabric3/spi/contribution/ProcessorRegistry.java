@@ -18,6 +18,8 @@
  */
 package org.fabric3.spi.contribution;
 
+import java.util.Set;
+
 import org.fabric3.api.host.Fabric3Exception;
 import org.fabric3.spi.introspection.IntrospectionContext;
 
@@ -98,4 +100,11 @@ public interface ProcessorRegistry {
      */
     void processResource(Resource resource, IntrospectionContext context) throws Fabric3Exception;
 
+    /**
+     * Returns the class names of the registered contribution and resource processors.
+     *
+     * @return the processor class names in sorted order
+     */
+    Set<String> getProcessorNames();
+
 }
@@ -84,6 +84,9 @@ public class Resource {
     public void addResourceElement(ResourceElement<?, ?> element) {
         elements.add(element);
         element.setResource(this);
+        if (contribution != null) {
+            contribution.addSymbol(element);
+        }
     }
 
     /**
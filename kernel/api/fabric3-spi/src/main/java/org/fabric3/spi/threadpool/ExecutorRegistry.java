@@ -0,0 +1,56 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.spi.threadpool;
+
+import java.net.URI;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Manages named executor pools configured in the runtime system configuration.
+ *
+ * Pools isolate work for the components, channels and bindings they are bound to from work dispatched on the shared runtime executor, so a burst of
+ * activity on one artifact does not starve unrelated ones.
+ */
+public interface ExecutorRegistry {
+
+    /**
+     * Returns the executor for an artifact. Bindings are matched against the artifact URI, the URI without a fragment and the base name of the URI, in
+     * that order.
+     *
+     * @param uri the component, channel or binding URI. May be null.
+     * @return the pool bound to the artifact or the runtime executor if the artifact is not bound to a pool
+     */
+    ExecutorService getExecutor(URI uri);
+
+    /**
+     * Returns the executor for an artifact whose tasks occupy a thread for as long as the artifact is active, such as ring buffer event processors and
+     * message receivers. A bound pool is enlarged by one thread while each task runs so these tasks cannot exhaust it and starve other work.
+     *
+     * @param uri the component, channel or binding URI
+     * @return the executor
+     */
+    ExecutorService getLongRunningExecutor(URI uri);
+
+    /**
+     * Returns the pool with the given name.
+     *
+     * @param name the pool name
+     * @return the pool or null if no pool with that name is configured
+     */
+    ExecutorService getPool(String name);
+
+}
@@ -0,0 +1,55 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.spi.transform;
+
+import org.fabric3.api.host.Fabric3Exception;
+
+/**
+ * Encodes Java objects to and decodes them from a binary representation. Codecs are used by transformers that pass Java types as bytes, for example to
+ * bindings that do not have a databinding configured.
+ *
+ * Implementations must be thread-safe.
+ */
+public interface Codec {
+
+    /**
+     * Returns the name the codec is configured by.
+     *
+     * @return the codec name
+     */
+    String getName();
+
+    /**
+     * Encodes the object.
+     *
+     * @param object the object to encode
+     * @return the encoded bytes
+     * @throws Fabric3Exception if the object cannot be encoded
+     */
+    byte[] encode(Object object) throws Fabric3Exception;
+
+    /**
+     * Decodes an object.
+     *
+     * @param bytes  the encoded bytes
+     * @param loader the classloader to resolve types against
+     * @return the decoded object
+     * @throws Fabric3Exception if the bytes cannot be decoded
+     */
+    Object decode(byte[] bytes, ClassLoader loader) throws Fabric3Exception;
+
+}
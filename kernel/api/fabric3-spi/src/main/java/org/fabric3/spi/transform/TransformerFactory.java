@@ -18,6 +18,7 @@
  */
 package org.fabric3.spi.transform;
 
+import java.util.Collections;
 import java.util.List;
 
 import org.fabric3.api.host.Fabric3Exception;
@@ -44,6 +45,16 @@ public interface TransformerFactory {
      */
     boolean canTransform(DataType source, DataType target);
 
+    /**
+     * Returns the data types this factory converts to or from that may be used as intermediate types when chaining transformers, for example a serialized
+     * form such as JSON bytes.
+     *
+     * @return the intermediate data types
+     */
+    default List<DataType> getIntermediateTypes() {
+        return Collections.emptyList();
+    }
+
     /**
      * Creates a transformer capable of converting from the source to target data types.
      *
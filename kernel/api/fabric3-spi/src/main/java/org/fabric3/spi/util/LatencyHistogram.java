@@ -0,0 +1,106 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.spi.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram of latencies in microseconds using power-of-two buckets.
+ *
+ * Recording is constant time and does not allocate. Percentiles are approximate: the reported value is the upper bound of the bucket containing the
+ * requested rank, so it is at most twice the actual latency.
+ */
+public class LatencyHistogram {
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final AtomicLongArray buckets = new AtomicLongArray(64);
+
+    /**
+     * Records a latency.
+     *
+     * @param micros the latency in microseconds
+     */
+    public void record(long micros) {
+        int bucket = micros <= 0 ? 0 : 64 - Long.numberOfLeadingZeros(micros);
+        buckets.incrementAndGet(Math.min(bucket, 63));
+    }
+
+    /**
+     * Returns the number of recorded latencies.
+     *
+     * @return the count
+     */
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            count += buckets.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the approximate latency in microseconds below which the given percentage of recorded latencies fall.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the latency or 0 if no latencies have been recorded
+     */
+    public long getPercentile(double percentile) {
+        long[] counts = new long[buckets.length()];
+        long total = 0;
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return i == 0 ? 0 : i == 63 ? Long.MAX_VALUE : (1L << i) - 1;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Returns the 50th, 90th, 99th and 99.9th percentile latencies keyed by percentile.
+     *
+     * @return the percentiles
+     */
+    public Map<String, Long> getPercentiles() {
+        Map<String, Long> percentiles = new LinkedHashMap<>();
+        for (double percentile : PERCENTILES) {
+            String key = "p" + (percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile));
+            percentiles.put(key, getPercentile(percentile));
+        }
+        return percentiles;
+    }
+
+    /**
+     * Clears recorded latencies.
+     */
+    public void reset() {
+        for (int i = 0; i < buckets.length(); i++) {
+            buckets.set(i, 0);
+        }
+    }
+}
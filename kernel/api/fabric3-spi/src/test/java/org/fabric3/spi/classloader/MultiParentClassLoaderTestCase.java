@@ -0,0 +1,140 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.spi.classloader;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ *
+ */
+public class MultiParentClassLoaderTestCase extends TestCase {
+    private MultiParentClassLoader loader;
+
+    public void testHit() throws Exception {
+        assertEquals(String.class, loader.loadClass("java.lang.String"));
+        assertEquals(1, loader.getHits());
+        assertEquals(0, loader.getMisses());
+    }
+
+    public void testNegativeCache() throws Exception {
+        assertNotFound("org.fabric3.test.Missing");
+        assertNotFound("org.fabric3.test.Missing");
+        assertEquals(1, loader.getMisses());
+        assertEquals(1, loader.getNegativeCacheHits());
+    }
+
+    public void testNegativeCacheInvalidatedByParent() throws Exception {
+        assertNotFound("org.fabric3.test.Missing");
+        RecordingClassLoader parent = new RecordingClassLoader();
+        loader.addParent(parent);
+
+        assertNotFound("org.fabric3.test.Missing");
+        assertEquals(2, loader.getMisses());
+        assertEquals(0, loader.getNegativeCacheHits());
+        assertTrue(parent.requested.contains("org.fabric3.test.Missing"));
+    }
+
+    public void testPackageParent() throws Exception {
+        RecordingClassLoader parent = new RecordingClassLoader();
+        loader.addParent(parent, "org.fabric3.test");
+
+        assertNotFound("org.fabric3.other.Missing");
+        assertTrue(parent.requested.isEmpty());
+
+        assertNotFound("org.fabric3.test.Missing");
+        assertNotFound("org.fabric3.test.sub.Missing");
+        assertTrue(parent.requested.contains("org.fabric3.test.Missing"));
+        assertTrue(parent.requested.contains("org.fabric3.test.sub.Missing"));
+    }
+
+    public void testWildcardPackageParent() throws Exception {
+        RecordingClassLoader parent = new RecordingClassLoader();
+        loader.addParent(parent, "org.fabric3.test.*");
+
+        assertNotFound("org.fabric3.other.Missing");
+        assertNotFound("org.fabric3.test.sub.Missing");
+        assertEquals(1, parent.requested.size());
+        assertTrue(parent.requested.contains("org.fabric3.test.sub.Missing"));
+    }
+
+    public void testParentDeclarationOrder() throws Exception {
+        RecordingClassLoader first = new RecordingClassLoader();
+        RecordingClassLoader second = new RecordingClassLoader();
+        loader.addParent(first);
+        loader.addParent(second, "org.fabric3.test");
+
+        List<ClassLoader> requested = new ArrayList<>();
+        first.order = requested;
+        second.order = requested;
+        assertNotFound("org.fabric3.test.Missing");
+        assertEquals(2, requested.size());
+        assertSame(first, requested.get(0));
+        assertSame(second, requested.get(1));
+    }
+
+    public void testNegativeCacheEvictsOldest() throws Exception {
+        for (int i = 0; i <= 1024; i++) {
+            assertNotFound("org.fabric3.test.Missing" + i);
+        }
+        assertEquals(0, loader.getNegativeCacheHits());
+
+        // the second entry was retained
+        assertNotFound("org.fabric3.test.Missing1");
+        assertEquals(1, loader.getNegativeCacheHits());
+
+        // the oldest entry was evicted
+        assertNotFound("org.fabric3.test.Missing0");
+        assertEquals(1, loader.getNegativeCacheHits());
+    }
+
+    public void testPackageParentIncludedInParents() throws Exception {
+        RecordingClassLoader parent = new RecordingClassLoader();
+        loader.addParent(parent, "org.fabric3.test");
+        assertTrue(loader.getParents().contains(parent));
+    }
+
+    public void setUp() throws Exception {
+        super.setUp();
+        loader = new MultiParentClassLoader(URI.create("test"), getClass().getClassLoader());
+    }
+
+    private void assertNotFound(String name) {
+        try {
+            loader.loadClass(name);
+            fail();
+        } catch (ClassNotFoundException e) {
+            // expected
+        }
+    }
+
+    private class RecordingClassLoader extends ClassLoader {
+        private List<String> requested = new ArrayList<>();
+        private List<ClassLoader> order;
+
+        public Class<?> loadClass(String name) throws ClassNotFoundException {
+            requested.add(name);
+            if (order != null) {
+                order.add(this);
+            }
+            throw new ClassNotFoundException(name);
+        }
+    }
+}
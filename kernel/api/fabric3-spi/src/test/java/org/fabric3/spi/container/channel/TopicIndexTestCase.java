@@ -0,0 +1,104 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.spi.container.channel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ *
+ */
+public class TopicIndexTestCase extends TestCase {
+
+    public void testMatch() throws Exception {
+        TopicIndex<String> index = new TopicIndex<>();
+        index.add("orders.eu.fr", "exact");
+        index.add("orders.eu.*", "single");
+        index.add("orders.#", "multi");
+        index.add("invoices.#", "invoices");
+        index.add("#", "all");
+
+        List<String> matches = index.match("orders.eu.fr");
+        assertEquals(4, matches.size());
+        assertTrue(matches.containsAll(Arrays.asList("exact", "single", "multi", "all")));
+
+        matches = index.match("orders.eu");
+        assertEquals(2, matches.size());
+        assertTrue(matches.contains("multi"));
+        assertTrue(matches.contains("all"));
+    }
+
+    public void testRemove() throws Exception {
+        TopicIndex<String> index = new TopicIndex<>();
+        index.add("orders.eu.*", "value");
+        index.add("orders.eu.*", "value");
+        assertEquals(2, index.match("orders.eu.fr").size());
+
+        assertTrue(index.remove("orders.eu.*", "value"));
+        assertEquals(1, index.match("orders.eu.fr").size());
+        assertTrue(index.remove("orders.eu.*", "value"));
+        assertTrue(index.match("orders.eu.fr").isEmpty());
+        assertFalse(index.remove("orders.eu.*", "value"));
+        assertEquals(0, index.size());
+    }
+
+    /**
+     * Verifies the index agrees with evaluating each pattern individually for a large number of subscriptions.
+     */
+    public void testLargeSubscriptionSet() throws Exception {
+        String[] regions = {"eu", "us", "apac", "latam"};
+        String[] countries = {"fr", "de", "uk", "ny", "ca", "jp", "sg", "br"};
+        Random random = new Random(11);
+
+        TopicIndex<TopicPattern> index = new TopicIndex<>();
+        List<TopicPattern> patterns = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            String region = random.nextInt(5) == 0 ? "*" : regions[random.nextInt(regions.length)];
+            String tail;
+            int kind = random.nextInt(4);
+            if (kind == 0) {
+                tail = "#";
+            } else if (kind == 1) {
+                tail = "*";
+            } else {
+                tail = countries[random.nextInt(countries.length)] + ".s" + random.nextInt(100);
+            }
+            TopicPattern pattern = TopicPattern.compile("orders." + region + "." + tail);
+            patterns.add(pattern);
+            index.add(pattern.getExpression(), pattern);
+        }
+        assertEquals(10000, index.size());
+
+        for (int i = 0; i < 200; i++) {
+            String topic = "orders." + regions[random.nextInt(regions.length)] + "." + countries[random.nextInt(countries.length)];
+            if (random.nextBoolean()) {
+                topic = topic + ".s" + random.nextInt(100);
+            }
+            int expected = 0;
+            for (TopicPattern pattern : patterns) {
+                if (pattern.matches(topic)) {
+                    expected++;
+                }
+            }
+            assertEquals(topic, expected, index.match(topic).size());
+        }
+    }
+}
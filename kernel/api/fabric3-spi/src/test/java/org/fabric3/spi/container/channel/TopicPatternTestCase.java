@@ -0,0 +1,64 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.spi.container.channel;
+
+import junit.framework.TestCase;
+
+/**
+ *
+ */
+public class TopicPatternTestCase extends TestCase {
+
+    public void testExactMatch() throws Exception {
+        TopicPattern pattern = TopicPattern.compile("orders.eu");
+        assertFalse(pattern.isWildcard());
+        assertTrue(pattern.matches("orders.eu"));
+        assertFalse(pattern.matches("orders.eu.fr"));
+        assertFalse(pattern.matches(null));
+    }
+
+    public void testSingleLevelWildcard() throws Exception {
+        TopicPattern pattern = TopicPattern.compile("orders.eu.*");
+        assertTrue(pattern.isWildcard());
+        assertTrue(pattern.matches("orders.eu.fr"));
+        assertFalse(pattern.matches("orders.eu"));
+        assertFalse(pattern.matches("orders.eu.fr.paris"));
+        assertFalse(pattern.matches("orders.us.ny"));
+    }
+
+    public void testMultiLevelWildcard() throws Exception {
+        TopicPattern pattern = TopicPattern.compile("orders.#");
+        assertTrue(pattern.matches("orders"));
+        assertTrue(pattern.matches("orders.eu"));
+        assertTrue(pattern.matches("orders.eu.fr.paris"));
+        assertFalse(pattern.matches("invoices.eu"));
+    }
+
+    public void testInnerMultiLevelWildcard() throws Exception {
+        TopicPattern pattern = TopicPattern.compile("orders.#.paris");
+        assertTrue(pattern.matches("orders.paris"));
+        assertTrue(pattern.matches("orders.eu.fr.paris"));
+        assertFalse(pattern.matches("orders.eu.fr"));
+    }
+
+    public void testIsWildcard() throws Exception {
+        assertTrue(TopicPattern.isWildcard("#"));
+        assertTrue(TopicPattern.isWildcard("a.*.b"));
+        assertFalse(TopicPattern.isWildcard("a.b*"));
+        assertFalse(TopicPattern.isWildcard(null));
+    }
+}
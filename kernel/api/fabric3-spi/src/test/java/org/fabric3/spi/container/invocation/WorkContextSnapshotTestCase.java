@@ -0,0 +1,68 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.spi.container.invocation;
+
+import junit.framework.TestCase;
+
+/**
+ *
+ */
+public class WorkContextSnapshotTestCase extends TestCase {
+    private WorkContext workContext;
+
+    public void testEmpty() throws Exception {
+        assertSame(WorkContextSnapshot.EMPTY, WorkContextSnapshot.capture(workContext));
+    }
+
+    public void testReusePrevious() throws Exception {
+        workContext.addCallbackReference("callback");
+        workContext.setHeader("key", "value");
+
+        WorkContextSnapshot snapshot = WorkContextSnapshot.capture(workContext);
+        assertSame(snapshot, WorkContextSnapshot.capture(workContext, snapshot));
+
+        workContext.setHeader("key", "changed");
+        WorkContextSnapshot changed = WorkContextSnapshot.capture(workContext, snapshot);
+        assertNotSame(snapshot, changed);
+        assertEquals("changed", changed.getHeaders().get("key"));
+        assertEquals("value", snapshot.getHeaders().get("key"));
+    }
+
+    public void testCopyOnWrite() throws Exception {
+        workContext.addCallbackReference("callback");
+        workContext.setHeader("key", "value");
+        WorkContextSnapshot snapshot = WorkContextSnapshot.capture(workContext);
+
+        WorkContext restored = new WorkContext();
+        restored.restore(snapshot);
+        assertSame(snapshot.getHeaders(), restored.getHeaders());
+        assertSame(snapshot, WorkContextSnapshot.capture(restored, snapshot));
+
+        restored.setHeader("key", "changed");
+        assertEquals("callback", restored.popCallbackReference());
+
+        assertEquals("value", snapshot.getHeaders().get("key"));
+        assertEquals(1, snapshot.getCallbackReferences().size());
+        assertEquals("changed", restored.getHeader(String.class, "key"));
+        assertTrue(restored.getCallbackReferences().isEmpty());
+    }
+
+    protected void setUp() throws Exception {
+        super.setUp();
+        workContext = new WorkContext();
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.spi.util;
+
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+/**
+ *
+ */
+public class LatencyHistogramTestCase extends TestCase {
+
+    public void testPercentiles() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentile(50));
+        for (int i = 0; i < 99; i++) {
+            histogram.record(100);
+        }
+        histogram.record(5000);
+        assertEquals(100, histogram.getCount());
+
+        long p50 = histogram.getPercentile(50);
+        assertTrue(p50 >= 100 && p50 < 200);
+        long p999 = histogram.getPercentile(99.9);
+        assertTrue(p999 >= 5000 && p999 < 10000);
+
+        Map<String, Long> percentiles = histogram.getPercentiles();
+        assertEquals(p50, percentiles.get("p50").longValue());
+        assertEquals(p999, percentiles.get("p99.9").longValue());
+    }
+
+    public void testReset() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(0);
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(2, histogram.getCount());
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+    }
+}
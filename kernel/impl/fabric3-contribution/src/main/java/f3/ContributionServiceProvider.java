@@ -23,6 +23,7 @@ import org.fabric3.api.annotation.model.Provides;
 import org.fabric3.api.model.type.builder.CompositeBuilder;
 import org.fabric3.api.model.type.builder.WireBuilder;
 import org.fabric3.api.model.type.component.Composite;
+import org.fabric3.contribution.ClassLoaderStatisticsService;
 import org.fabric3.contribution.ClasspathProcessorRegistryImpl;
 import org.fabric3.contribution.ContributionLoaderImpl;
 import org.fabric3.contribution.ContributionServiceImpl;
@@ -32,6 +33,7 @@ import org.fabric3.contribution.ExtensionMapContentTypeResolver;
 import org.fabric3.contribution.ProcessorRegistryImpl;
 import org.fabric3.contribution.archive.ArchiveContributionProcessor;
 import org.fabric3.contribution.archive.ComponentJavaArtifactIntrospector;
+import org.fabric3.contribution.archive.ContributionIndexCache;
 import org.fabric3.contribution.archive.ExplodedArchiveContributionHandler;
 import org.fabric3.contribution.archive.JarClasspathProcessor;
 import org.fabric3.contribution.archive.ZipContributionHandler;
@@ -88,6 +90,7 @@ public class ContributionServiceProvider {
         compositeBuilder.component(newBuilder(ContributionServiceImpl.class).build());
 
         compositeBuilder.component(newBuilder(ContributionLoaderImpl.class).build());
+        compositeBuilder.component(newBuilder(ClassLoaderStatisticsService.class).build());
 
         compositeBuilder.component(newBuilder(DependencyResolverImpl.class).build());
 
@@ -103,6 +106,7 @@ public class ContributionServiceProvider {
 
         compositeBuilder.component(newBuilder(ArchiveContributionProcessor.class).build());
 
+        compositeBuilder.component(newBuilder(ContributionIndexCache.class).build());
         compositeBuilder.component(newBuilder(ZipContributionHandler.class).build());
 
         compositeBuilder.component(newBuilder(ExplodedArchiveContributionHandler.class).build());
@@ -0,0 +1,96 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.contribution;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.fabric3.api.annotation.management.Management;
+import org.fabric3.api.annotation.management.ManagementOperation;
+import org.fabric3.spi.classloader.ClassLoaderRegistry;
+import org.fabric3.spi.classloader.MultiParentClassLoader;
+import org.fabric3.spi.contribution.Contribution;
+import org.fabric3.spi.contribution.MetaDataStore;
+import org.oasisopen.sca.annotation.Reference;
+
+/**
+ * Reports class lookup statistics for contribution classloaders.
+ */
+@Management(path = "/runtime/classloaders", description = "Reports contribution classloader statistics")
+public class ClassLoaderStatisticsService {
+    private MetaDataStore store;
+    private ClassLoaderRegistry registry;
+
+    public ClassLoaderStatisticsService(@Reference MetaDataStore store, @Reference ClassLoaderRegistry registry) {
+        this.store = store;
+        this.registry = registry;
+    }
+
+    @ManagementOperation(description = "The number of class lookups that resolved a class")
+    public long getHits() {
+        long hits = 0;
+        for (MultiParentClassLoader loader : getClassLoaders().values()) {
+            hits += loader.getHits();
+        }
+        return hits;
+    }
+
+    @ManagementOperation(description = "The number of class lookups that did not resolve a class")
+    public long getMisses() {
+        long misses = 0;
+        for (MultiParentClassLoader loader : getClassLoaders().values()) {
+            misses += loader.getMisses();
+        }
+        return misses;
+    }
+
+    @ManagementOperation(description = "The number of class lookups rejected by negative caches")
+    public long getNegativeCacheHits() {
+        long negativeHits = 0;
+        for (MultiParentClassLoader loader : getClassLoaders().values()) {
+            negativeHits += loader.getNegativeCacheHits();
+        }
+        return negativeHits;
+    }
+
+    @ManagementOperation(description = "Class lookup hits, misses and negative cache hits for each contribution classloader")
+    public Map<String, Map<String, Long>> getStatistics() {
+        Map<String, Map<String, Long>> statistics = new LinkedHashMap<>();
+        for (Map.Entry<URI, MultiParentClassLoader> entry : getClassLoaders().entrySet()) {
+            MultiParentClassLoader loader = entry.getValue();
+            Map<String, Long> values = new LinkedHashMap<>();
+            values.put("hits", loader.getHits());
+            values.put("misses", loader.getMisses());
+            values.put("negativeCacheHits", loader.getNegativeCacheHits());
+            statistics.put(entry.getKey().toString(), values);
+        }
+        return statistics;
+    }
+
+    private Map<URI, MultiParentClassLoader> getClassLoaders() {
+        Map<URI, MultiParentClassLoader> loaders = new LinkedHashMap<>();
+        for (Contribution contribution : store.getContributions()) {
+            URI uri = contribution.getUri();
+            ClassLoader loader = registry.getClassLoader(uri);
+            if (loader instanceof MultiParentClassLoader) {
+                loaders.put(uri, (MultiParentClassLoader) loader);
+            }
+        }
+        return loaders;
+    }
+}
@@ -52,7 +52,6 @@ import org.fabric3.spi.contribution.ContributionState;
 import org.fabric3.spi.contribution.MetaDataStore;
 import org.fabric3.spi.contribution.ProcessorRegistry;
 import org.fabric3.spi.contribution.Resource;
-import org.fabric3.spi.contribution.ResourceElement;
 import org.fabric3.spi.contribution.manifest.QNameSymbol;
 import org.fabric3.spi.introspection.DefaultIntrospectionContext;
 import org.fabric3.spi.introspection.IntrospectionContext;
@@ -451,15 +450,7 @@ public class ContributionServiceImpl implements ContributionService {
         for (Deployable deployable : contribution.getManifest().getDeployables()) {
             QName name = deployable.getName();
             QNameSymbol symbol = new QNameSymbol(name);
-            boolean found = false;
-            for (Resource resource : contribution.getResources()) {
-                for (ResourceElement<?, ?> element : resource.getResourceElements()) {
-                    if (element.getSymbol().equals(symbol)) {
-                        found = true;
-                    }
-                }
-            }
-            if (!found) {
+            if (contribution.findResourceElement(symbol) == null) {
                 URI uri = contribution.getUri();
                 InvalidDeployable failure = new InvalidDeployable("Deployable composite " + name + " not found in " + uri, name);
                 context.addError(failure);
@@ -20,7 +20,10 @@ package org.fabric3.contribution;
 
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -28,6 +31,8 @@ import java.util.concurrent.ConcurrentHashMap;
 
 import org.fabric3.api.host.Fabric3Exception;
 import org.fabric3.api.host.Names;
+import org.fabric3.contribution.manifest.ContributionExport;
+import org.fabric3.contribution.manifest.ContributionImport;
 import org.fabric3.contribution.wire.ContributionWireInstantiatorRegistry;
 import org.fabric3.spi.contribution.Capability;
 import org.fabric3.spi.contribution.Contribution;
@@ -40,6 +45,10 @@ import org.fabric3.spi.contribution.Resource;
 import org.fabric3.spi.contribution.ResourceElement;
 import org.fabric3.spi.contribution.ResourceState;
 import org.fabric3.spi.contribution.Symbol;
+import org.fabric3.spi.contribution.manifest.JavaExport;
+import org.fabric3.spi.contribution.manifest.JavaImport;
+import org.fabric3.spi.contribution.manifest.QNameExport;
+import org.fabric3.spi.contribution.manifest.QNameImport;
 import org.fabric3.spi.introspection.IntrospectionContext;
 import org.oasisopen.sca.annotation.Reference;
 
@@ -47,11 +56,16 @@ import org.oasisopen.sca.annotation.Reference;
  * Default MetaDataStore implementation.
  */
 public class MetaDataStoreImpl implements MetaDataStore {
+    private static final Object ANY_EXPORT = new Object();
+
     private ProcessorRegistry processorRegistry;
     private ContributionWireInstantiatorRegistry instantiatorRegistry;
 
     private Map<URI, Contribution> cache = new ConcurrentHashMap<>();
 
+    // contribution URIs keyed by the namespace, root package or symbolic URI they export
+    private Map<Object, Set<URI>> exportIndex = new ConcurrentHashMap<>();
+
     public MetaDataStoreImpl(ProcessorRegistry processorRegistry) {
         this.processorRegistry = processorRegistry;
     }
@@ -72,7 +86,13 @@ public class MetaDataStoreImpl implements MetaDataStore {
     }
 
     public void store(Contribution contribution) {
-        cache.put(contribution.getUri(), contribution);
+        URI uri = contribution.getUri();
+        // the contribution is stored again after its manifest is processed so remove existing index entries
+        unindexExports(uri);
+        cache.put(uri, contribution);
+        for (Export export : contribution.getManifest().getExports()) {
+            exportIndex.computeIfAbsent(getKey(export), key -> ConcurrentHashMap.newKeySet()).add(uri);
+        }
     }
 
     public Contribution find(URI contributionUri) {
@@ -85,21 +105,19 @@ public class MetaDataStoreImpl implements MetaDataStore {
 
     public void remove(URI contributionUri) {
         cache.remove(contributionUri);
+        unindexExports(contributionUri);
     }
 
     @SuppressWarnings({"unchecked"})
     public <S extends Symbol, V> ResourceElement<S, V> find(Class<V> type, S symbol) {
         for (Contribution contribution : cache.values()) {
-            for (Resource resource : contribution.getResources()) {
-                for (ResourceElement<?, ?> element : resource.getResourceElements()) {
-                    if (element.getSymbol().equals(symbol)) {
-                        if (ResourceState.UNPROCESSED == resource.getState()) {
-                            // this is a programming error as resolve(Symbol) should only be called after contribution resources have been processed
-                            throw new AssertionError("Attempt to resolve a resource before it is processed or is in error");
-                        }
-                        return (ResourceElement<S, V>) element;
-                    }
+            ResourceElement<?, ?> element = contribution.findResourceElement(symbol);
+            if (element != null) {
+                if (ResourceState.UNPROCESSED == element.getResource().getState()) {
+                    // this is a programming error as resolve(Symbol) should only be called after contribution resources have been processed
+                    throw new AssertionError("Attempt to resolve a resource before it is processed or is in error");
                 }
+                return (ResourceElement<S, V>) element;
             }
         }
         return null;
@@ -177,7 +195,7 @@ public class MetaDataStoreImpl implements MetaDataStore {
 
         URI location = imprt.getLocation();
 
-        for (Contribution contribution : cache.values()) {
+        for (Contribution contribution : getExporters(imprt)) {
             for (Export export : contribution.getManifest().getExports()) {
                 if (export.match(imprt)) {
                     if (location != null) {
@@ -298,6 +316,87 @@ public class MetaDataStoreImpl implements MetaDataStore {
         return null;
     }
 
+    /**
+     * Returns the contributions with exports that may match the import. Candidates are selected using the export index and must still be matched.
+     *
+     * @param imprt the import
+     * @return the candidate contributions
+     */
+    private Collection<Contribution> getExporters(Import imprt) {
+        Object key = getKey(imprt);
+        if (key == null) {
+            return cache.values();
+        }
+        Set<URI> uris = new LinkedHashSet<>();
+        uris.addAll(exportIndex.getOrDefault(key, Collections.emptySet()));
+        uris.addAll(exportIndex.getOrDefault(ANY_EXPORT, Collections.emptySet()));
+        List<Contribution> exporters = new ArrayList<>(uris.size());
+        for (URI uri : uris) {
+            Contribution contribution = cache.get(uri);
+            if (contribution != null) {
+                exporters.add(contribution);
+            }
+        }
+        return exporters;
+    }
+
+    private void unindexExports(URI uri) {
+        for (Set<URI> uris : exportIndex.values()) {
+            uris.remove(uri);
+        }
+    }
+
+    /**
+     * Returns the index key for an export. Exports that cannot be keyed, including Java exports of all packages, are indexed under a key matched by
+     * every import.
+     *
+     * @param export the export
+     * @return the key
+     */
+    private Object getKey(Export export) {
+        Object key = null;
+        if (export instanceof QNameExport) {
+            key = ((QNameExport) export).getNamespace();
+        } else if (export instanceof JavaExport) {
+            key = getPackageKey(((JavaExport) export).getPackageInfo().getName());
+        } else if (export instanceof ContributionExport) {
+            key = ((ContributionExport) export).getSymbolicUri();
+        }
+        return key != null ? key : ANY_EXPORT;
+    }
+
+    /**
+     * Returns the index key for an import or null if the import may match exports under any key.
+     *
+     * @param imprt the import
+     * @return the key or null
+     */
+    private Object getKey(Import imprt) {
+        if (imprt instanceof QNameImport) {
+            return ((QNameImport) imprt).getNamespace();
+        } else if (imprt instanceof JavaImport) {
+            return getPackageKey(((JavaImport) imprt).getPackageInfo().getName());
+        } else if (imprt instanceof ContributionImport) {
+            return ((ContributionImport) imprt).getSymbolicUri();
+        }
+        return null;
+    }
+
+    /**
+     * Returns the root package of a package name, since packages can only match if their root packages are the same, or null for a wildcard.
+     *
+     * @param name the package name
+     * @return the key or null
+     */
+    private Object getPackageKey(String name) {
+        if (name == null) {
+            return null;
+        }
+        int pos = name.indexOf('.');
+        String root = pos < 0 ? name : name.substring(0, pos);
+        return "*".equals(root) ? null : new PackageKey(root);
+    }
+
     private Set<Contribution> resolveCapabilities(Contribution contribution, Set<Contribution> extensions) {
         Set<Capability> required = contribution.getManifest().getRequiredCapabilities();
         for (Capability capability : required) {
@@ -331,24 +430,41 @@ public class MetaDataStoreImpl implements MetaDataStore {
 
     @SuppressWarnings({"unchecked"})
     private <S extends Symbol, V> ResourceElement<S, V> resolveInternal(Contribution contribution, Class<V> type, S symbol, IntrospectionContext context) {
-        for (Resource resource : contribution.getResources()) {
-            for (ResourceElement<?, ?> element : resource.getResourceElements()) {
-                if (element.getSymbol().equals(symbol)) {
-                    if (ResourceState.UNPROCESSED == resource.getState() && context == null) {
-                        String identifier = resource.getSource().getSystemId();
-                        throw new AssertionError("Resource not resolved: " + identifier);
-                    } else if (ResourceState.UNPROCESSED == resource.getState() && context != null) {
-                        processorRegistry.processResource(resource, context);
-                    }
-                    Object val = element.getValue();
-                    if (!type.isInstance(val)) {
-                        throw new IllegalArgumentException("Invalid type for symbol. Expected: " + type + " was: " + val);
-                    }
-                    return (ResourceElement<S, V>) element;
-                }
-            }
+        ResourceElement<?, ?> element = contribution.findResourceElement(symbol);
+        if (element == null) {
+            return null;
+        }
+        Resource resource = element.getResource();
+        if (ResourceState.UNPROCESSED == resource.getState() && context == null) {
+            String identifier = resource.getSource().getSystemId();
+            throw new AssertionError("Resource not resolved: " + identifier);
+        } else if (ResourceState.UNPROCESSED == resource.getState() && context != null) {
+            processorRegistry.processResource(resource, context);
+        }
+        Object val = element.getValue();
+        if (!type.isInstance(val)) {
+            throw new IllegalArgumentException("Invalid type for symbol. Expected: " + type + " was: " + val);
+        }
+        return (ResourceElement<S, V>) element;
+    }
+
+    /**
+     * Keys Java exports by root package so they do not collide with namespace keys.
+     */
+    private static class PackageKey {
+        private String root;
+
+        public PackageKey(String root) {
+            this.root = root;
+        }
+
+        public boolean equals(Object o) {
+            return this == o || (o instanceof PackageKey && root.equals(((PackageKey) o).root));
+        }
+
+        public int hashCode() {
+            return root.hashCode();
         }
-        return null;
     }
 
 }
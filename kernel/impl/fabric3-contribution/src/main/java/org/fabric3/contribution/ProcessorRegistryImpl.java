@@ -21,6 +21,8 @@ package org.fabric3.contribution;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.fabric3.api.host.Fabric3Exception;
@@ -97,6 +99,17 @@ public class ProcessorRegistryImpl implements ProcessorRegistry {
         processor.process(resource, context);
     }
 
+    public Set<String> getProcessorNames() {
+        Set<String> names = new TreeSet<>();
+        for (ContributionProcessor processor : contributionProcessorCache) {
+            names.add(processor.getClass().getName());
+        }
+        for (ResourceProcessor processor : resourceProcessorCache.values()) {
+            names.add(processor.getClass().getName());
+        }
+        return names;
+    }
+
     public ContributionProcessor getContributionProcessor(Contribution contribution) {
         for (ContributionProcessor processor : contributionProcessorCache) {
             if (processor.canProcess(contribution)) {
@@ -0,0 +1,205 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.contribution.archive;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.fabric3.spi.contribution.ClassFileInfo;
+
+/**
+ * Reads {@link ClassFileInfo} from class file bytes. Only the constant pool, class header and class-level runtime-visible annotations are decoded; fields
+ * and methods are skipped.
+ */
+public final class ClassFileParser {
+    private static final int MAGIC = 0xCAFEBABE;
+
+    private static final int UTF8 = 1;
+    private static final int INTEGER = 3;
+    private static final int FLOAT = 4;
+    private static final int LONG = 5;
+    private static final int DOUBLE = 6;
+    private static final int CLASS = 7;
+    private static final int STRING = 8;
+    private static final int FIELD_REF = 9;
+    private static final int METHOD_REF = 10;
+    private static final int INTERFACE_METHOD_REF = 11;
+    private static final int NAME_AND_TYPE = 12;
+    private static final int METHOD_HANDLE = 15;
+    private static final int METHOD_TYPE = 16;
+    private static final int DYNAMIC = 17;
+    private static final int INVOKE_DYNAMIC = 18;
+    private static final int MODULE = 19;
+    private static final int PACKAGE = 20;
+
+    private static final String RUNTIME_VISIBLE_ANNOTATIONS = "RuntimeVisibleAnnotations";
+
+    private ClassFileParser() {
+    }
+
+    /**
+     * Parses the class file.
+     *
+     * @param bytes the class file bytes
+     * @return the class metadata
+     * @throws IOException if the bytes are not a valid class file
+     */
+    public static ClassFileInfo parse(byte[] bytes) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Invalid class file");
+        }
+        in.readUnsignedShort(); // minor version
+        in.readUnsignedShort(); // major version
+
+        int count = in.readUnsignedShort();
+        String[] strings = new String[count];
+        int[] classes = new int[count];
+        for (int i = 1; i < count; i++) {
+            int tag = in.readUnsignedByte();
+            switch (tag) {
+                case UTF8:
+                    strings[i] = in.readUTF();
+                    break;
+                case CLASS:
+                    classes[i] = in.readUnsignedShort();
+                    break;
+                case STRING:
+                case METHOD_TYPE:
+                case MODULE:
+                case PACKAGE:
+                    in.skipBytes(2);
+                    break;
+                case METHOD_HANDLE:
+                    in.skipBytes(3);
+                    break;
+                case INTEGER:
+                case FLOAT:
+                case FIELD_REF:
+                case METHOD_REF:
+                case INTERFACE_METHOD_REF:
+                case NAME_AND_TYPE:
+                case DYNAMIC:
+                case INVOKE_DYNAMIC:
+                    in.skipBytes(4);
+                    break;
+                case LONG:
+                case DOUBLE:
+                    in.skipBytes(8);
+                    i++;    // eight byte constants occupy two entries
+                    break;
+                default:
+                    throw new IOException("Invalid constant pool tag: " + tag);
+            }
+        }
+
+        int access = in.readUnsignedShort();
+        String name = getClassName(in.readUnsignedShort(), strings, classes);
+        String superName = getClassName(in.readUnsignedShort(), strings, classes);
+        int interfaceCount = in.readUnsignedShort();
+        List<String> interfaces = interfaceCount == 0 ? Collections.emptyList() : new ArrayList<>(interfaceCount);
+        for (int i = 0; i < interfaceCount; i++) {
+            interfaces.add(getClassName(in.readUnsignedShort(), strings, classes));
+        }
+
+        skipMembers(in);   // fields
+        skipMembers(in);   // methods
+
+        Set<String> annotations = Collections.emptySet();
+        int attributeCount = in.readUnsignedShort();
+        for (int i = 0; i < attributeCount; i++) {
+            String attributeName = strings[in.readUnsignedShort()];
+            int length = in.readInt();
+            if (RUNTIME_VISIBLE_ANNOTATIONS.equals(attributeName)) {
+                int annotationCount = in.readUnsignedShort();
+                annotations = new HashSet<>(annotationCount);
+                for (int j = 0; j < annotationCount; j++) {
+                    annotations.add(readAnnotation(in, strings));
+                }
+            } else {
+                in.skipBytes(length);
+            }
+        }
+        return new ClassFileInfo(name, access, superName, interfaces, annotations);
+    }
+
+    private static void skipMembers(DataInputStream in) throws IOException {
+        int count = in.readUnsignedShort();
+        for (int i = 0; i < count; i++) {
+            in.skipBytes(6);    // access flags, name and descriptor
+            int attributeCount = in.readUnsignedShort();
+            for (int j = 0; j < attributeCount; j++) {
+                in.skipBytes(2);
+                in.skipBytes(in.readInt());
+            }
+        }
+    }
+
+    /**
+     * Reads an annotation structure and returns the annotation type name.
+     *
+     * @param in      the stream positioned at the annotation
+     * @param strings the constant pool strings
+     * @return the annotation type name
+     * @throws IOException if there is an error reading the annotation
+     */
+    private static String readAnnotation(DataInputStream in, String[] strings) throws IOException {
+        String descriptor = strings[in.readUnsignedShort()];
+        int pairs = in.readUnsignedShort();
+        for (int i = 0; i < pairs; i++) {
+            in.skipBytes(2);
+            skipElementValue(in, strings);
+        }
+        // descriptors are in the form Lpackage/Type;
+        return descriptor.substring(1, descriptor.length() - 1).replace('/', '.');
+    }
+
+    private static void skipElementValue(DataInputStream in, String[] strings) throws IOException {
+        int tag = in.readUnsignedByte();
+        switch (tag) {
+            case 'e':
+                in.skipBytes(4);
+                break;
+            case '@':
+                readAnnotation(in, strings);
+                break;
+            case '[':
+                int count = in.readUnsignedShort();
+                for (int i = 0; i < count; i++) {
+                    skipElementValue(in, strings);
+                }
+                break;
+            default:
+                // primitive, string and class values reference a single constant
+                in.skipBytes(2);
+        }
+    }
+
+    private static String getClassName(int index, String[] strings, int[] classes) {
+        if (index == 0) {
+            return null;
+        }
+        return strings[classes[index]].replace('/', '.');
+    }
+
+}
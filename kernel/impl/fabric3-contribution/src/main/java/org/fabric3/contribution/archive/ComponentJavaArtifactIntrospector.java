@@ -19,6 +19,7 @@ package org.fabric3.contribution.archive;
 import java.net.URL;
 
 import org.fabric3.api.host.stream.UrlSource;
+import org.fabric3.spi.contribution.ClassFileInfo;
 import org.fabric3.spi.contribution.Constants;
 import org.fabric3.spi.contribution.Contribution;
 import org.fabric3.spi.contribution.JavaArtifactIntrospector;
@@ -54,6 +55,11 @@ public class ComponentJavaArtifactIntrospector implements JavaArtifactIntrospect
         return null;
     }
 
+    public boolean isCandidate(ClassFileInfo info, Contribution contribution) {
+        // components must be annotated directly or via a meta-annotation
+        return isProvider(info.getName()) || (!contribution.getManifest().isExtension() && info.isAnnotated() && !info.isAbstract());
+    }
+
     private Resource createResource(String name, Class<?> clazz, URL url, Contribution contribution) {
         // class is a component
         UrlSource source = new UrlSource(url);
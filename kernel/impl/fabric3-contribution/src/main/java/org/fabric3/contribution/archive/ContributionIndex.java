@@ -0,0 +1,77 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.contribution.archive;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The result of scanning an archive: the candidate classes and contribution resources, in archive order.
+ */
+public class ContributionIndex {
+    private List<Entry> entries = new ArrayList<>();
+
+    /**
+     * Adds an entry for a non-class resource.
+     *
+     * @param name        the archive entry name
+     * @param contentType the resource content type
+     */
+    public void addResource(String name, String contentType) {
+        entries.add(new Entry(name, contentType));
+    }
+
+    /**
+     * Adds an entry for a candidate class, regardless of whether it could be loaded or was accepted by a Java artifact introspector.
+     *
+     * @param name the archive entry name
+     */
+    public void addClass(String name) {
+        entries.add(new Entry(name, null));
+    }
+
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    public static class Entry {
+        private String name;
+        private String contentType;
+
+        public Entry(String name, String contentType) {
+            this.name = name;
+            this.contentType = contentType;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Returns the resource content type or null if the entry is a class.
+         *
+         * @return the content type or null
+         */
+        public String getContentType() {
+            return contentType;
+        }
+
+        public boolean isClass() {
+            return contentType == null;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.contribution.archive;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.fabric3.api.annotation.Source;
+import org.fabric3.api.host.runtime.HostInfo;
+import org.fabric3.spi.contribution.Contribution;
+import org.oasisopen.sca.annotation.Property;
+import org.oasisopen.sca.annotation.Reference;
+
+/**
+ * Persists archive indexes in the runtime data directory so that unchanged archives do not need to be scanned on restart.
+ * <p/>
+ * An index is keyed by contribution URI and is only used if the archive location, size and checksum match the values recorded when the index was written,
+ * and if the index signature supplied by the caller is unchanged. The checksum is calculated from the entry names and CRCs recorded in the archive central
+ * directory, which avoids reading the archive contents. Only archives located on the file system are cached. Errors reading or writing
+ * an index are not fatal: the index is discarded and the archive is scanned.
+ */
+public class ContributionIndexCache {
+    private static final int VERSION = 1;
+
+    private File directory;
+    private boolean enabled = true;
+
+    public ContributionIndexCache(@Reference HostInfo info) {
+        File dataDir = info.getDataDir();
+        directory = dataDir == null ? null : new File(dataDir, "index");
+    }
+
+    @Property(required = false)
+    @Source("$systemConfig//f3:runtime/f3:index.cache")
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns the cached index for the contribution or null if there is no valid index.
+     *
+     * @param contribution the contribution
+     * @param signature    a value identifying the configuration used to produce the index
+     * @return the index or null
+     */
+    public ContributionIndex get(Contribution contribution, String signature) {
+        File archive = getArchive(contribution);
+        if (archive == null) {
+            return null;
+        }
+        File file = getIndexFile(contribution);
+        if (!file.exists()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != VERSION
+                || !contribution.getUri().toString().equals(in.readUTF())
+                || !contribution.getLocation().toString().equals(in.readUTF())
+                || archive.length() != in.readLong()
+                || checksum(archive) != in.readLong()
+                || !signature.equals(in.readUTF())) {
+                return null;
+            }
+            ContributionIndex index = new ContributionIndex();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String name = in.readUTF();
+                if (in.readBoolean()) {
+                    index.addClass(name);
+                } else {
+                    index.addResource(name, in.readUTF());
+                }
+            }
+            return index;
+        } catch (IOException e) {
+            file.delete();
+            return null;
+        }
+    }
+
+    /**
+     * Persists the index for the contribution.
+     *
+     * @param contribution the contribution
+     * @param signature    a value identifying the configuration used to produce the index
+     * @param index        the index
+     */
+    public void put(Contribution contribution, String signature, ContributionIndex index) {
+        File archive = getArchive(contribution);
+        if (archive == null) {
+            return;
+        }
+        File file = getIndexFile(contribution);
+        File temp = new File(directory, file.getName() + ".tmp");
+        directory.mkdirs();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(VERSION);
+            out.writeUTF(contribution.getUri().toString());
+            out.writeUTF(contribution.getLocation().toString());
+            out.writeLong(archive.length());
+            out.writeLong(checksum(archive));
+            out.writeUTF(signature);
+            out.writeInt(index.getEntries().size());
+            for (ContributionIndex.Entry entry : index.getEntries()) {
+                out.writeUTF(entry.getName());
+                out.writeBoolean(entry.isClass());
+                if (!entry.isClass()) {
+                    out.writeUTF(entry.getContentType());
+                }
+            }
+        } catch (IOException e) {
+            temp.delete();
+            return;
+        }
+        // replace the index atomically so that a partially written index is never read
+        if (!temp.renameTo(file) && !(file.delete() && temp.renameTo(file))) {
+            temp.delete();
+        }
+    }
+
+    private File getArchive(Contribution contribution) {
+        if (!enabled || directory == null) {
+            return null;
+        }
+        URL location = contribution.getLocation();
+        if (location == null || !"file".equals(location.getProtocol())) {
+            return null;
+        }
+        try {
+            File file = new File(location.toURI());
+            return file.isFile() ? file : null;
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private long checksum(File archive) throws IOException {
+        CRC32 crc = new CRC32();
+        try (ZipFile zipFile = new ZipFile(archive)) {
+            Enumeration<? extends ZipEntry> entries = zipFile.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                crc.update(entry.getName().getBytes(StandardCharsets.UTF_8));
+                long value = entry.getCrc() ^ (entry.getSize() << 32);
+                for (int i = 0; i < 8; i++) {
+                    crc.update((int) (value >>> (i * 8)));
+                }
+            }
+        }
+        return crc.getValue();
+    }
+
+    private File getIndexFile(Contribution contribution) {
+        String uri = contribution.getUri().toString();
+        // the URI is verified when the index is read, so collisions result in a cache miss
+        return new File(directory, Integer.toHexString(uri.hashCode()) + ".idx");
+    }
+
+}
@@ -18,14 +18,21 @@
  */
 package org.fabric3.contribution.archive;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URI;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.security.CodeSource;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Consumer;
 import java.util.jar.Manifest;
 import java.util.regex.Pattern;
@@ -35,28 +42,44 @@ import java.util.zip.ZipInputStream;
 import org.fabric3.api.host.Fabric3Exception;
 import org.fabric3.api.host.stream.Source;
 import org.fabric3.api.host.stream.UrlSource;
+import org.fabric3.spi.contribution.ClassFileInfo;
 import org.fabric3.spi.contribution.ContentTypeResolver;
 import org.fabric3.spi.contribution.Contribution;
 import org.fabric3.spi.contribution.ContributionManifest;
+import org.fabric3.spi.contribution.ContributionWire;
 import org.fabric3.spi.contribution.JavaArtifactIntrospector;
+import org.fabric3.spi.contribution.ProcessorRegistry;
 import org.fabric3.spi.contribution.Resource;
 import org.fabric3.spi.contribution.archive.ArchiveContributionHandler;
 import org.fabric3.spi.contribution.manifest.JarManifestHandler;
 import org.fabric3.spi.introspection.DefaultIntrospectionContext;
 import org.fabric3.spi.introspection.IntrospectionContext;
 import org.fabric3.spi.introspection.xml.Loader;
+import org.fabric3.spi.model.os.Library;
 import org.oasisopen.sca.annotation.EagerInit;
+import org.oasisopen.sca.annotation.Property;
 import org.oasisopen.sca.annotation.Reference;
 
 /**
  * Introspects a Zip-based contribution, delegating to ResourceProcessors for handling leaf-level children.
+ * <p/>
+ * Class files are pre-filtered by reading their metadata directly from the archive so that only classes an {@link JavaArtifactIntrospector} may accept are
+ * loaded.
  */
 @EagerInit
 public class ZipContributionHandler implements ArchiveContributionHandler {
+    // the minimum number of candidate classes for which classes are loaded in parallel
+    private static final int PARALLEL_THRESHOLD = 64;
+    private static final String RUNTIME_VERSION = getRuntimeVersion();
+
     private List<JarManifestHandler> manifestHandlers = Collections.emptyList();
     private Loader loader;
     private List<JavaArtifactIntrospector> artifactIntrospectors = Collections.emptyList();
     private ContentTypeResolver contentTypeResolver;
+    private ContributionIndexCache indexCache;
+    private ProcessorRegistry processorRegistry;
+    private boolean filterClasses = true;
+    private boolean parallelScan = true;
 
     public ZipContributionHandler(@Reference Loader loader, @Reference ContentTypeResolver contentTypeResolver) {
         this.loader = loader;
@@ -68,6 +91,28 @@ public class ZipContributionHandler implements ArchiveContributionHandler {
         this.artifactIntrospectors = introspectors;
     }
 
+    @Property(required = false)
+    @org.fabric3.api.annotation.Source("$systemConfig//f3:runtime/f3:scan.filter")
+    public void setFilterClasses(boolean filterClasses) {
+        this.filterClasses = filterClasses;
+    }
+
+    @Property(required = false)
+    @org.fabric3.api.annotation.Source("$systemConfig//f3:runtime/f3:scan.parallel")
+    public void setParallelScan(boolean parallelScan) {
+        this.parallelScan = parallelScan;
+    }
+
+    @Reference(required = false)
+    public void setIndexCache(ContributionIndexCache indexCache) {
+        this.indexCache = indexCache;
+    }
+
+    @Reference(required = false)
+    public void setProcessorRegistry(ProcessorRegistry processorRegistry) {
+        this.processorRegistry = processorRegistry;
+    }
+
     @Reference(required = false)
     public void setManifestHandlers(List<JarManifestHandler> manifestHandlers) {
         this.manifestHandlers = manifestHandlers;
@@ -131,8 +176,77 @@ public class ZipContributionHandler implements ArchiveContributionHandler {
     }
 
     public void iterateArtifacts(Contribution contribution, Consumer<Resource> callback, IntrospectionContext context) {
+        String signature = null;
+        List<ScanEntry> entries = null;
+        if (indexCache != null) {
+            signature = getSignature(contribution);
+            ContributionIndex index = indexCache.get(contribution, signature);
+            if (index != null) {
+                entries = getEntries(index, contribution);
+            }
+        }
+        boolean cached = entries != null;
+        if (!cached) {
+            entries = scan(contribution);
+        }
+
+        int classCount = 0;
+        for (ScanEntry entry : entries) {
+            if (entry.className != null) {
+                classCount++;
+            }
+        }
+
+        // load candidate classes, in parallel for larger contributions; introspection is performed afterward on the current thread in archive order
+        ClassLoader classLoader = context.getClassLoader();
+        if (parallelScan && classCount >= PARALLEL_THRESHOLD) {
+            entries.parallelStream().forEach(entry -> entry.load(classLoader));
+        } else {
+            entries.forEach(entry -> entry.load(classLoader));
+        }
+
+        // record candidate classes and resources so the archive does not need to be scanned again if it is unchanged. All candidates are recorded, not just
+        // those that produce resources, since a class that fails to load or is rejected may be accepted once a missing dependency is installed
+        ContributionIndex index = cached || indexCache == null ? null : new ContributionIndex();
+        for (ScanEntry entry : entries) {
+            Resource resource = entry.resource;
+            if (entry.className != null) {
+                if (index != null) {
+                    index.addClass(entry.name);
+                }
+                if (entry.clazz == null) {
+                    continue;
+                }
+                for (JavaArtifactIntrospector introspector : artifactIntrospectors) {
+                    resource = introspector.inspect(entry.clazz, entry.url, contribution, context);
+                    if (resource != null) {
+                        break;
+                    }
+                }
+                if (resource == null) {
+                    continue;
+                }
+            } else if (index != null) {
+                index.addResource(entry.name, resource.getContentType());
+            }
+            contribution.addResource(resource);
+            callback.accept(resource);
+        }
+        if (index != null && !context.hasErrors()) {
+            indexCache.put(contribution, signature, index);
+        }
+    }
+
+    /**
+     * Reads the archive and returns the entries to index.
+     *
+     * @param contribution the contribution
+     * @return the entries
+     */
+    private List<ScanEntry> scan(Contribution contribution) {
         URL location = contribution.getLocation();
         ContributionManifest manifest = contribution.getManifest();
+        List<ScanEntry> entries = new ArrayList<>();
         ZipInputStream zipStream = null;
         try {
             zipStream = new ZipInputStream(location.openStream());
@@ -159,27 +273,8 @@ public class ZipContributionHandler implements ArchiveContributionHandler {
 
                 if (name.endsWith(".class")) {
                     URL entryUrl = new URL("jar:" + location.toExternalForm() + "!/" + name);
-                    name = name.replace("/", ".").substring(0, name.length() - 6);     // note '/' must be used as archives always use '/' for a separator
-                    Class<?> clazz;
-                    try {
-                        clazz = context.getClassLoader().loadClass(name);
-                    } catch (ClassNotFoundException | NoClassDefFoundError e) {
-                        // ignore since the class may reference another class not present in the contribution
-                        continue;
-                    }
-                    Resource resource = null;
-                    for (JavaArtifactIntrospector introspector : artifactIntrospectors) {
-                        resource = introspector.inspect(clazz, entryUrl, contribution, context);
-                        if (resource != null) {
-                            break;
-                        }
-                    }
-
-                    if (resource == null) {
-                        continue;
-                    }
-                    contribution.addResource(resource);
-                    callback.accept(resource);
+                    ClassFileInfo info = filterClasses ? readInfo(zipStream) : null;
+                    entries.add(new ScanEntry(name, entryUrl, info));
                 } else {
                     String contentType = contentTypeResolver.getContentType(name);
                     if (contentType == null) {
@@ -189,8 +284,7 @@ public class ZipContributionHandler implements ArchiveContributionHandler {
                     URL entryUrl = new URL("jar:" + location.toExternalForm() + "!/" + name);
                     UrlSource source = new UrlSource(entryUrl);
                     Resource resource = new Resource(contribution, source, contentType);
-                    contribution.addResource(resource);
-                    callback.accept(resource);
+                    entries.add(new ScanEntry(name, resource));
                 }
             }
         } catch (IOException e) {
@@ -205,6 +299,159 @@ public class ZipContributionHandler implements ArchiveContributionHandler {
             }
         }
 
+        if (filterClasses) {
+            // skip classes no introspector is interested in without loading them
+            filter(entries, contribution);
+        }
+        return entries;
+    }
+
+    /**
+     * Returns the entries recorded in a cached index.
+     *
+     * @param index        the index
+     * @param contribution the contribution
+     * @return the entries
+     * @throws Fabric3Exception if an entry URL is invalid
+     */
+    private List<ScanEntry> getEntries(ContributionIndex index, Contribution contribution) throws Fabric3Exception {
+        String location = contribution.getLocation().toExternalForm();
+        List<ScanEntry> entries = new ArrayList<>(index.getEntries().size());
+        try {
+            for (ContributionIndex.Entry entry : index.getEntries()) {
+                String name = entry.getName();
+                URL entryUrl = new URL("jar:" + location + "!/" + name);
+                if (entry.isClass()) {
+                    entries.add(new ScanEntry(name, entryUrl, null));
+                } else {
+                    Resource resource = new Resource(contribution, new UrlSource(entryUrl), entry.getContentType());
+                    entries.add(new ScanEntry(name, resource));
+                }
+            }
+        } catch (MalformedURLException e) {
+            throw new Fabric3Exception(e);
+        }
+        return entries;
+    }
+
+    /**
+     * Returns a value identifying the configuration that determines which entries are candidates. This includes the runtime version and installed
+     * processors, since upgrading the runtime or installing an extension may change how entries are recognized, as well as the resolved imports and
+     * additional classpath locations, since these determine which classes can be loaded.
+     *
+     * @param contribution the contribution
+     * @return the signature
+     */
+    private String getSignature(Contribution contribution) {
+        StringBuilder builder = new StringBuilder();
+        builder.append(RUNTIME_VERSION).append(',');
+        if (processorRegistry != null) {
+            for (String name : processorRegistry.getProcessorNames()) {
+                builder.append(name).append(',');
+            }
+        }
+        for (JavaArtifactIntrospector introspector : artifactIntrospectors) {
+            builder.append(introspector.getClass().getName()).append(',');
+        }
+        ContributionManifest manifest = contribution.getManifest();
+        builder.append(manifest.isExtension()).append(',');
+        for (Pattern pattern : manifest.getScanExcludes()) {
+            builder.append(pattern.pattern()).append(',');
+        }
+        for (ContributionWire<?, ?> wire : contribution.getWires()) {
+            builder.append(wire.getImport().getType()).append('=').append(wire.getExportContributionUri()).append(',');
+        }
+        for (Library library : manifest.getLibraries()) {
+            builder.append(library.getPath()).append(',');
+        }
+        for (URL location : contribution.getAdditionalLocations()) {
+            builder.append(location).append(',');
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Returns the version of the runtime. If the runtime is not packaged with a version, for example in a development build, the location and
+     * modification time of the runtime classes are used.
+     *
+     * @return the runtime version
+     */
+    private static String getRuntimeVersion() {
+        String version = ZipContributionHandler.class.getPackage().getImplementationVersion();
+        if (version != null) {
+            return version;
+        }
+        CodeSource codeSource = ZipContributionHandler.class.getProtectionDomain().getCodeSource();
+        if (codeSource == null || codeSource.getLocation() == null) {
+            return "unknown";
+        }
+        URL location = codeSource.getLocation();
+        try {
+            return location + "@" + new File(location.toURI()).lastModified();
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return location.toString();
+        }
+    }
+
+    /**
+     * Reads class metadata from the current zip entry.
+     *
+     * @param stream the stream positioned at the class entry
+     * @return the metadata or null if the class file cannot be parsed
+     * @throws IOException if there is an error reading the entry
+     */
+    private ClassFileInfo readInfo(InputStream stream) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = stream.read(buffer)) != -1) {
+            bytes.write(buffer, 0, read);
+        }
+        try {
+            return ClassFileParser.parse(bytes.toByteArray());
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Removes classes no introspector may accept. Annotations declared on superclasses in the archive are first propagated to subclasses, since annotations
+     * such as {@link org.fabric3.api.annotation.model.Component} are inherited. Classes that cannot be parsed are retained.
+     *
+     * @param entries      the archive entries
+     * @param contribution the contribution
+     */
+    private void filter(List<ScanEntry> entries, Contribution contribution) {
+        Map<String, ClassFileInfo> infos = new HashMap<>();
+        for (ScanEntry entry : entries) {
+            if (entry.info != null) {
+                infos.put(entry.info.getName(), entry.info);
+            }
+        }
+        for (ClassFileInfo info : infos.values()) {
+            String superName = info.getSuperName();
+            for (int depth = 0; superName != null && depth < infos.size(); depth++) {
+                ClassFileInfo superInfo = infos.get(superName);
+                if (superInfo == null) {
+                    if (!superName.startsWith("java.")) {
+                        info.setHierarchyResolved(false);
+                    }
+                    break;
+                }
+                info.addInheritedAnnotations(superInfo.getAnnotations());
+                superName = superInfo.getSuperName();
+            }
+        }
+        entries.removeIf(entry -> entry.info != null && !isCandidate(entry.info, contribution));
+    }
+
+    private boolean isCandidate(ClassFileInfo info, Contribution contribution) {
+        for (JavaArtifactIntrospector introspector : artifactIntrospectors) {
+            if (introspector.isCandidate(info, contribution)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     private boolean exclude(ContributionManifest manifest, ZipEntry entry) {
@@ -216,4 +463,40 @@ public class ZipContributionHandler implements ArchiveContributionHandler {
         return false;
     }
 
+    /**
+     * An archive entry to index, either a class that must be loaded and introspected or a resource.
+     */
+    private static class ScanEntry {
+        private String name;
+        private String className;
+        private URL url;
+        private ClassFileInfo info;
+        private Resource resource;
+        private Class<?> clazz;
+
+        public ScanEntry(String name, URL url, ClassFileInfo info) {
+            this.name = name;
+            // note '/' must be used as archives always use '/' for a separator
+            this.className = name.replace("/", ".").substring(0, name.length() - 6);
+            this.url = url;
+            this.info = info;
+        }
+
+        public ScanEntry(String name, Resource resource) {
+            this.name = name;
+            this.resource = resource;
+        }
+
+        public void load(ClassLoader classLoader) {
+            if (className == null) {
+                return;
+            }
+            try {
+                clazz = classLoader.loadClass(className);
+            } catch (ClassNotFoundException | NoClassDefFoundError e) {
+                // ignore since the class may reference another class not present in the contribution
+            }
+        }
+    }
+
 }
@@ -44,7 +44,7 @@ public class ClassLoaderWireBuilderImpl implements ClassLoaderWireBuilder {
         String packageName = classLoaderWire.getPackageName();
         if (packageName != null) {
             ClassLoader filter = new ClassLoaderWireFilter(target, packageName);
-            source.addParent(filter);
+            source.addParent(filter, packageName);
         } else {
             source.addParent(target);
         }
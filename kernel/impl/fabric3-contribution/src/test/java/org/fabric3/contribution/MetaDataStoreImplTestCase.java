@@ -42,6 +42,9 @@ import org.fabric3.spi.contribution.ProcessorRegistry;
 import org.fabric3.spi.contribution.Resource;
 import org.fabric3.spi.contribution.ResourceElement;
 import org.fabric3.spi.contribution.ResourceState;
+import org.fabric3.spi.contribution.manifest.JavaExport;
+import org.fabric3.spi.contribution.manifest.JavaImport;
+import org.fabric3.spi.contribution.manifest.PackageInfo;
 import org.fabric3.spi.contribution.manifest.QNameExport;
 import org.fabric3.spi.contribution.manifest.QNameImport;
 import org.fabric3.spi.contribution.manifest.QNameSymbol;
@@ -109,6 +112,33 @@ public class MetaDataStoreImplTestCase extends TestCase {
         assertEquals(otherDeployableName, element.getValue().getName());
     }
 
+    public void testFindBySymbolAddedAfterResource() throws Exception {
+        store.store(contribution);
+        store.store(otherContribution);
+        QName name = new QName("test", "lateComposite");
+        Resource resource = new Resource(contribution, null, "application/xml");
+        resource.setState(ResourceState.PROCESSED);
+        contribution.addResource(resource);
+        resource.addResourceElement(new ResourceElement<>(new QNameSymbol(name), new Composite(name)));
+
+        ResourceElement<QNameSymbol, Composite> element = store.find(contributionUri, Composite.class, new QNameSymbol(name));
+        assertEquals(name, element.getValue().getName());
+    }
+
+    public void testFindBySymbolAfterResourceRemoved() throws Exception {
+        store.store(contribution);
+        QNameSymbol symbol = new QNameSymbol(deployableName);
+        Resource first = store.find(Composite.class, symbol).getResource();
+
+        // the duplicate composite in the second resource is returned once the first is removed
+        contribution.removeResource(first);
+        ResourceElement<QNameSymbol, Composite> element = store.find(Composite.class, symbol);
+        assertNotSame(first, element.getResource());
+
+        contribution.removeResource(element.getResource());
+        assertNull(store.find(Composite.class, symbol));
+    }
+
     public void testFindByImport() throws Exception {
         store.store(contribution);
         store.store(otherContribution);
@@ -117,6 +147,38 @@ public class MetaDataStoreImplTestCase extends TestCase {
         assertTrue(store.resolve(uri, imprt).contains(otherContribution));
     }
 
+    public void testFindByImportUsesCurrentExports() throws Exception {
+        store.store(contribution);
+        store.store(otherContribution);
+        URI uri = URI.create("SomeContribution");
+        assertTrue(store.resolve(uri, new QNameImport("other", null)).isEmpty());
+
+        // exports added before the contribution is stored again are indexed
+        otherContribution.getManifest().addExport(new QNameExport("other"));
+        store.store(otherContribution);
+        assertTrue(store.resolve(uri, new QNameImport("other", null)).contains(otherContribution));
+
+        store.remove(otherContributionUri);
+        assertTrue(store.resolve(uri, new QNameImport("other", null)).isEmpty());
+    }
+
+    public void testFindByJavaImport() throws Exception {
+        otherContribution.getManifest().addExport(new JavaExport(new PackageInfo("org.fabric3.test")));
+        contribution.getManifest().addExport(new JavaExport(new PackageInfo("com.foo")));
+        store.store(contribution);
+        store.store(otherContribution);
+        URI uri = URI.create("SomeContribution");
+
+        List<Contribution> resolved = store.resolve(uri, new JavaImport(new PackageInfo("org.fabric3.test")));
+        assertEquals(1, resolved.size());
+        assertTrue(resolved.contains(otherContribution));
+
+        // wildcard exports are matched by imports with any root package
+        contribution.getManifest().addExport(new JavaExport(new PackageInfo("*")));
+        store.store(contribution);
+        assertTrue(store.resolve(uri, new JavaImport(new PackageInfo("net.bar"))).contains(contribution));
+    }
+
     public void testResolveExtensionPoints() throws Exception {
         store.store(contribution);
         store.store(otherContribution);
@@ -195,7 +257,7 @@ public class MetaDataStoreImplTestCase extends TestCase {
     }
 
     private void createResourceWithComposite(QName name, Contribution contribution) {
-        Resource resource = new Resource(this.contribution, null, "application/xml");
+        Resource resource = new Resource(contribution, null, "application/xml");
         QNameSymbol symbol = new QNameSymbol(name);
         Composite composite = new Composite(name);
         ResourceElement<QNameSymbol, Composite> element = new ResourceElement<>(symbol, composite);
@@ -0,0 +1,93 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * Portions originally based on Apache Tuscany 2007
+ * licensed under the Apache 2.0 license.
+ */
+package org.fabric3.contribution.archive;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.Serializable;
+
+import junit.framework.TestCase;
+import org.fabric3.api.annotation.model.Component;
+import org.fabric3.spi.contribution.ClassFileInfo;
+
+/**
+ *
+ */
+public class ClassFileParserTestCase extends TestCase {
+
+    public void testParseAnnotatedClass() throws Exception {
+        ClassFileInfo info = ClassFileParser.parse(getBytes(AnnotatedClass.class));
+
+        assertEquals(AnnotatedClass.class.getName(), info.getName());
+        assertEquals(Object.class.getName(), info.getSuperName());
+        assertEquals(Serializable.class.getName(), info.getInterfaces().get(0));
+        assertTrue(info.getAnnotations().contains(Component.class.getName()));
+        assertTrue(info.getAnnotations().contains(Deprecated.class.getName()));
+        assertEquals(2, info.getAnnotations().size());
+        assertFalse(info.isAbstract());
+    }
+
+    public void testParseAbstractClass() throws Exception {
+        ClassFileInfo info = ClassFileParser.parse(getBytes(AbstractClass.class));
+
+        assertTrue(info.isAbstract());
+        assertFalse(info.isAnnotated());
+    }
+
+    public void testParseInvalidClass() throws Exception {
+        try {
+            ClassFileParser.parse(new byte[]{1, 2, 3, 4});
+            fail();
+        } catch (java.io.IOException e) {
+            // expected
+        }
+    }
+
+    private byte[] getBytes(Class<?> clazz) throws Exception {
+        String name = clazz.getName().replace('.', '/') + ".class";
+        try (InputStream stream = clazz.getClassLoader().getResourceAsStream(name)) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1024];
+            int read;
+            while ((read = stream.read(buffer)) != -1) {
+                bytes.write(buffer, 0, read);
+            }
+            return bytes.toByteArray();
+        }
+    }
+
+    @Deprecated
+    @Component(name = "test", environments = {"production", "test"})
+    public static class AnnotatedClass implements Serializable {
+        private static final long serialVersionUID = -1L;
+        private static final double RATIO = 1.5d;
+
+        @Deprecated
+        private String field = "value";
+
+        public double calculate(long value) {
+            return value * RATIO + field.length();
+        }
+    }
+
+    public abstract static class AbstractClass {
+
+        public abstract void execute();
+    }
+}
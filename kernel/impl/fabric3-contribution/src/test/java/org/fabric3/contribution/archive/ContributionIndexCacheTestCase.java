@@ -0,0 +1,94 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * Portions originally based on Apache Tuscany 2007
+ * licensed under the Apache 2.0 license.
+ */
+package org.fabric3.contribution.archive;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.net.URI;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import junit.framework.TestCase;
+import org.easymock.EasyMock;
+import org.fabric3.api.host.runtime.HostInfo;
+import org.fabric3.api.host.stream.UrlSource;
+import org.fabric3.spi.contribution.Contribution;
+
+/**
+ *
+ */
+public class ContributionIndexCacheTestCase extends TestCase {
+    private ContributionIndexCache cache;
+    private File archive;
+    private Contribution contribution;
+
+    public void testReadIndex() throws Exception {
+        cache.put(contribution, "signature", createIndex());
+
+        ContributionIndex index = cache.get(contribution, "signature");
+        assertEquals(2, index.getEntries().size());
+        assertEquals("test.composite", index.getEntries().get(0).getName());
+        assertEquals("application/xml", index.getEntries().get(0).getContentType());
+        assertTrue(index.getEntries().get(1).isClass());
+    }
+
+    public void testInvalidateOnSignatureChange() throws Exception {
+        cache.put(contribution, "signature", createIndex());
+
+        assertNull(cache.get(contribution, "changed"));
+    }
+
+    public void testInvalidateOnArchiveChange() throws Exception {
+        cache.put(contribution, "signature", createIndex());
+        writeArchive("changed.composite");
+
+        assertNull(cache.get(contribution, "signature"));
+    }
+
+    protected void setUp() throws Exception {
+        super.setUp();
+        HostInfo info = EasyMock.createMock(HostInfo.class);
+        EasyMock.expect(info.getDataDir()).andReturn(Files.createTempDirectory("fabric3").toFile());
+        EasyMock.replay(info);
+        cache = new ContributionIndexCache(info);
+
+        archive = File.createTempFile("fabric3", ".jar");
+        archive.deleteOnExit();
+        writeArchive("test.composite");
+        URL location = archive.toURI().toURL();
+        contribution = new Contribution(URI.create("test"), new UrlSource(location), location, -1, null);
+    }
+
+    private ContributionIndex createIndex() {
+        ContributionIndex index = new ContributionIndex();
+        index.addResource("test.composite", "application/xml");
+        index.addClass("org/fabric3/Test.class");
+        return index;
+    }
+
+    private void writeArchive(String name) throws Exception {
+        try (JarOutputStream stream = new JarOutputStream(new FileOutputStream(archive))) {
+            stream.putNextEntry(new ZipEntry(name));
+            stream.write("<composite/>".getBytes());
+            stream.closeEntry();
+        }
+    }
+}
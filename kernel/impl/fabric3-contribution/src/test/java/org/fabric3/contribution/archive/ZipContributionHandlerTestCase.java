@@ -18,20 +18,35 @@
  */
 package org.fabric3.contribution.archive;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URL;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.function.Consumer;
+import java.util.jar.JarOutputStream;
 import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
 
 import junit.framework.TestCase;
 import org.easymock.EasyMock;
+import org.fabric3.api.annotation.model.Component;
+import org.fabric3.api.host.runtime.HostInfo;
 import org.fabric3.api.host.stream.Source;
 import org.fabric3.api.host.stream.UrlSource;
+import org.fabric3.contribution.ProcessorRegistryImpl;
+import org.fabric3.spi.contribution.ClassFileInfo;
 import org.fabric3.spi.contribution.ContentTypeResolver;
 import org.fabric3.spi.contribution.Contribution;
 import org.fabric3.spi.contribution.ContributionManifest;
+import org.fabric3.spi.contribution.JavaArtifactIntrospector;
 import org.fabric3.spi.contribution.Resource;
+import org.fabric3.spi.contribution.ResourceProcessor;
 import org.fabric3.spi.introspection.DefaultIntrospectionContext;
 import org.fabric3.spi.introspection.IntrospectionContext;
 import org.fabric3.spi.introspection.xml.Loader;
@@ -105,6 +120,102 @@ public class ZipContributionHandlerTestCase extends TestCase {
         EasyMock.verify(callback);
     }
 
+    public void testFilterClasses() throws Exception {
+        Contribution contribution = createClassContribution();
+        RecordingIntrospector introspector = new RecordingIntrospector();
+        handler.setArtifactIntrospectors(Collections.singletonList(introspector));
+
+        handler.iterateArtifacts(contribution, resource -> fail(), context);
+
+        assertEquals(Arrays.asList(AnnotatedClass.class, AnnotatedSubclass.class), introspector.inspected);
+    }
+
+    public void testIndexCache() throws Exception {
+        File dataDir = Files.createTempDirectory("fabric3").toFile();
+        HostInfo info = EasyMock.createMock(HostInfo.class);
+        EasyMock.expect(info.getDataDir()).andReturn(dataDir);
+        EasyMock.replay(info);
+        handler.setIndexCache(new ContributionIndexCache(info));
+
+        RecordingIntrospector introspector = new RecordingIntrospector();
+        introspector.accept = true;
+        handler.setArtifactIntrospectors(Collections.singletonList(introspector));
+
+        Contribution contribution = createClassContribution();
+        List<Resource> resources = new ArrayList<>();
+        handler.iterateArtifacts(contribution, resources::add, context);
+        assertEquals(2, resources.size());
+        assertEquals(3, introspector.candidates);
+
+        // the second scan is served from the index: only candidate classes are loaded and candidates are not evaluated again
+        resources.clear();
+        introspector.inspected.clear();
+        URL location = contribution.getLocation();
+        Contribution restarted = new Contribution(URI.create("test"), new UrlSource(location), location, -1, null);
+        restarted.setManifest(new ContributionManifest());
+        handler.iterateArtifacts(restarted, resources::add, context);
+        assertEquals(2, resources.size());
+        assertEquals(3, introspector.candidates);
+        assertEquals(Arrays.asList(AnnotatedClass.class, AnnotatedSubclass.class), introspector.inspected);
+    }
+
+    public void testIndexCacheRecordsRejectedCandidates() throws Exception {
+        File dataDir = Files.createTempDirectory("fabric3").toFile();
+        HostInfo info = EasyMock.createMock(HostInfo.class);
+        EasyMock.expect(info.getDataDir()).andReturn(dataDir);
+        EasyMock.replay(info);
+        handler.setIndexCache(new ContributionIndexCache(info));
+
+        RecordingIntrospector introspector = new RecordingIntrospector();
+        handler.setArtifactIntrospectors(Collections.singletonList(introspector));
+
+        Contribution contribution = createClassContribution();
+        List<Resource> resources = new ArrayList<>();
+        handler.iterateArtifacts(contribution, resources::add, context);
+        assertTrue(resources.isEmpty());
+
+        // simulate candidates being accepted on a later scan, e.g. after a missing dependency is installed
+        introspector.accept = true;
+        URL location = contribution.getLocation();
+        Contribution restarted = new Contribution(URI.create("test"), new UrlSource(location), location, -1, null);
+        restarted.setManifest(new ContributionManifest());
+        handler.iterateArtifacts(restarted, resources::add, context);
+        assertEquals(2, resources.size());
+    }
+
+    public void testIndexInvalidatedByInstalledProcessor() throws Exception {
+        File dataDir = Files.createTempDirectory("fabric3").toFile();
+        HostInfo info = EasyMock.createMock(HostInfo.class);
+        EasyMock.expect(info.getDataDir()).andReturn(dataDir);
+        EasyMock.replay(info);
+        handler.setIndexCache(new ContributionIndexCache(info));
+        ProcessorRegistryImpl processorRegistry = new ProcessorRegistryImpl();
+        handler.setProcessorRegistry(processorRegistry);
+
+        RecordingIntrospector introspector = new RecordingIntrospector();
+        introspector.accept = true;
+        handler.setArtifactIntrospectors(Collections.singletonList(introspector));
+
+        Contribution contribution = createClassContribution();
+        handler.iterateArtifacts(contribution, resource -> {
+        }, context);
+        assertEquals(3, introspector.candidates);
+
+        // an extension installs a processor, the archive is scanned again
+        ResourceProcessor processor = EasyMock.createMock(ResourceProcessor.class);
+        EasyMock.expect(processor.getContentType()).andReturn("application/vnd.test");
+        EasyMock.replay(processor);
+        processorRegistry.register(processor);
+
+        URL location = contribution.getLocation();
+        Contribution restarted = new Contribution(URI.create("test"), new UrlSource(location), location, -1, null);
+        restarted.setManifest(new ContributionManifest());
+        List<Resource> resources = new ArrayList<>();
+        handler.iterateArtifacts(restarted, resources::add, context);
+        assertEquals(2, resources.size());
+        assertEquals(6, introspector.candidates);
+    }
+
     protected void setUp() throws Exception {
         super.setUp();
         ContentTypeResolver resolver = EasyMock.createMock(ContentTypeResolver.class);
@@ -129,4 +240,53 @@ public class ZipContributionHandlerTestCase extends TestCase {
         return contribution;
     }
 
+    private Contribution createClassContribution() throws Exception {
+        File file = File.createTempFile("fabric3", ".jar");
+        file.deleteOnExit();
+        try (JarOutputStream stream = new JarOutputStream(new FileOutputStream(file))) {
+            for (Class<?> clazz : new Class<?>[]{AnnotatedClass.class, AnnotatedSubclass.class, PlainClass.class}) {
+                String name = clazz.getName().replace('.', '/') + ".class";
+                stream.putNextEntry(new ZipEntry(name));
+                try (InputStream in = getClass().getClassLoader().getResourceAsStream(name)) {
+                    byte[] buffer = new byte[1024];
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        stream.write(buffer, 0, read);
+                    }
+                }
+                stream.closeEntry();
+            }
+        }
+        URL location = file.toURI().toURL();
+        Contribution contribution = new Contribution(URI.create("test"), new UrlSource(location), location, -1, null);
+        contribution.setManifest(new ContributionManifest());
+        return contribution;
+    }
+
+    private static class RecordingIntrospector implements JavaArtifactIntrospector {
+        private List<Class<?>> inspected = new ArrayList<>();
+        private boolean accept;
+        private int candidates;
+
+        public Resource inspect(Class<?> clazz, URL url, Contribution contribution, IntrospectionContext context) {
+            inspected.add(clazz);
+            return accept ? new Resource(contribution, new UrlSource(url), "test") : null;
+        }
+
+        public boolean isCandidate(ClassFileInfo info, Contribution contribution) {
+            candidates++;
+            return info.isAnnotated(Component.class.getName());
+        }
+    }
+
+    @Component
+    public static class AnnotatedClass {
+    }
+
+    public static class AnnotatedSubclass extends AnnotatedClass {
+    }
+
+    public static class PlainClass {
+    }
+
 }
@@ -19,8 +19,11 @@
  */
 package org.fabric3.fabric.container.builder;
 
+import java.net.URI;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 
 import org.fabric3.api.host.Fabric3Exception;
@@ -43,6 +46,10 @@ import org.oasisopen.sca.annotation.Reference;
 
 /**
  * The default connector implementation.
+ *
+ * Optimized wires inject a supplier of the target instance directly into the source. If a wire between the same source and target is later connected
+ * with the full invocation chain, for example because an interceptor was added, the direct supplier is detached first so the source is reinjected
+ * with a proxy.
  */
 public class ConnectorImpl implements Connector {
     @Reference(required = false)
@@ -54,6 +61,8 @@ public class ConnectorImpl implements Connector {
     @Reference(required = false)
     protected Map<Class<?>, TargetWireAttacher<?>> targetAttachers = new HashMap<>();
 
+    private Map<URI, Set<URI>> optimizedWires = new ConcurrentHashMap<>();
+
     @Constructor
     public ConnectorImpl() {
     }
@@ -78,7 +87,12 @@ public class ConnectorImpl implements Connector {
         if (physicalWire.isOptimizable()) {
             Supplier<?> supplier = targetAttacher.createSupplier(target);
             sourceAttacher.attachSupplier(source, supplier, target);
+            trackOptimized(source, target);
         } else {
+            if (untrackOptimized(source, target)) {
+                // the wire was previously optimized: remove the direct supplier before attaching the invocation chain
+                sourceAttacher.detachSupplier(source, target);
+            }
             Wire wire = createWire(physicalWire);
             sourceAttacher.attach(source, target, wire);
             targetAttacher.attach(source, target, wire);
@@ -95,6 +109,7 @@ public class ConnectorImpl implements Connector {
         PhysicalWireTarget target = physicalWire.getTarget();
         if (physicalWire.isOptimizable()) {
             sourceAttacher.detachSupplier(source, target);
+            untrackOptimized(source, target);
         } else {
             TargetWireAttacher<PhysicalWireTarget> targetAttacher = Cast.cast(targetAttachers.get(target.getClass()));
             if (targetAttacher == null) {
@@ -102,6 +117,39 @@ public class ConnectorImpl implements Connector {
             }
             targetAttacher.detach(source, target);
             sourceAttacher.detach(source, target);
+            disposeInterceptors(physicalWire);
+        }
+    }
+
+    private void trackOptimized(PhysicalWireSource source, PhysicalWireTarget target) {
+        if (source.getUri() == null || target.getUri() == null) {
+            return;
+        }
+        optimizedWires.computeIfAbsent(source.getUri(), k -> ConcurrentHashMap.newKeySet()).add(target.getUri());
+    }
+
+    private boolean untrackOptimized(PhysicalWireSource source, PhysicalWireTarget target) {
+        if (source.getUri() == null || target.getUri() == null) {
+            return false;
+        }
+        Set<URI> targets = optimizedWires.get(source.getUri());
+        if (targets == null || !targets.remove(target.getUri())) {
+            return false;
+        }
+        if (targets.isEmpty()) {
+            optimizedWires.remove(source.getUri());
+        }
+        return true;
+    }
+
+    private void disposeInterceptors(PhysicalWire physicalWire) throws Fabric3Exception {
+        for (PhysicalOperation operation : physicalWire.getOperations()) {
+            for (PhysicalInterceptor physicalInterceptor : operation.getInterceptors()) {
+                InterceptorBuilder<? super PhysicalInterceptor> builder = Cast.cast(interceptorBuilders.get(physicalInterceptor.getClass()));
+                if (builder != null) {
+                    builder.dispose(physicalInterceptor);
+                }
+            }
         }
     }
 
@@ -0,0 +1,411 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * Portions originally based on Apache Tuscany 2007
+ * licensed under the Apache 2.0 license.
+ */
+package org.fabric3.fabric.container.component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.fabric3.api.annotation.management.Management;
+import org.fabric3.api.annotation.management.ManagementOperation;
+import org.fabric3.api.host.Fabric3Exception;
+import org.fabric3.api.model.type.java.PoolInfo;
+import org.fabric3.spi.container.component.ScopedComponent;
+
+/**
+ * A bounded pool of started instances for a stateless component.
+ *
+ * The pool is filled to its minimum size when it is started. Idle instances are reused most recently released first. Instances at the tail of the idle
+ * queue are therefore the longest idle and are evicted when instances are acquired or released, as well as by {@link #evictIdle()}, which the scope
+ * container invokes periodically so that idle instances are released when the pool is not in use. Instances are created and started outside the pool
+ * lock. Clearing the pool starts a new generation; instances created for a previous generation are not added to the pool and are stopped when
+ * released. Until then, they count toward the maximum pool size.
+ */
+@Management(description = "Pooled component instances")
+public class InstancePool {
+    private ScopedComponent component;
+    private ScopeContainerMonitor monitor;
+    private int minSize;
+    private int maxSize;
+    private long idleTimeout;
+    private long acquireTimeout;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final Deque<IdleInstance> idle = new ArrayDeque<>();
+    private final Set<Object> instances = Collections.newSetFromMap(new IdentityHashMap<>());
+    // instances of a previous generation that are in use
+    private final Set<Object> retired = Collections.newSetFromMap(new IdentityHashMap<>());
+    private int creating;
+    private long generation;
+    private boolean closed;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder waits = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    public InstancePool(ScopedComponent component, PoolInfo info, ScopeContainerMonitor monitor) {
+        this.component = component;
+        this.monitor = monitor;
+        this.minSize = info.getMinSize();
+        this.maxSize = info.getMaxSize();
+        this.idleTimeout = TimeUnit.MILLISECONDS.toNanos(info.getIdleTimeout());
+        this.acquireTimeout = TimeUnit.MILLISECONDS.toNanos(info.getAcquireTimeout());
+    }
+
+    /**
+     * Returns an idle instance or creates one if the pool is below its maximum size. Otherwise, waits until an instance is released or the acquire
+     * timeout expires.
+     *
+     * @return the instance
+     * @throws Fabric3Exception if there is an error creating the instance, the pool is closed, the acquire timeout expires or the caller is interrupted
+     *                          while waiting
+     */
+    public Object acquire() throws Fabric3Exception {
+        boolean waited = false;
+        long remaining = acquireTimeout;
+        long createdGeneration;
+        List<Object> evicted = Collections.emptyList();
+        lock.lock();
+        try {
+            evicted = evict(System.nanoTime());
+            while (true) {
+                if (closed) {
+                    throw new Fabric3Exception("Component is stopped: " + component.getUri());
+                }
+                IdleInstance entry = idle.pollFirst();
+                if (entry != null) {
+                    hits.increment();
+                    return entry.instance;
+                }
+                if (instances.size() + retired.size() + creating < maxSize) {
+                    creating++;
+                    createdGeneration = generation;
+                    break;
+                }
+                if (!waited) {
+                    waited = true;
+                    waits.increment();
+                }
+                if (remaining <= 0) {
+                    timeouts.increment();
+                    throw new Fabric3Exception("Timed out waiting for an instance of component: " + component.getUri());
+                }
+                try {
+                    remaining = available.awaitNanos(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new Fabric3Exception("Interrupted waiting for an instance of component: " + component.getUri(), e);
+                }
+            }
+        } finally {
+            lock.unlock();
+            // evicted instances are stopped outside the lock
+            stop(evicted);
+        }
+
+        misses.increment();
+        Object instance = null;
+        boolean started = false;
+        try {
+            instance = component.createInstance();
+            component.startInstance(instance);
+            started = true;
+        } finally {
+            lock.lock();
+            try {
+                creating--;
+                if (started && !closed && createdGeneration == generation) {
+                    instances.add(instance);
+                } else if (started) {
+                    // instances created before the pool was cleared hold stale state and are stopped when released
+                    retired.add(instance);
+                }
+                available.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Resets and returns an instance to the pool. Instances created before the pool was cleared or closed, or which fail to reset, are stopped instead.
+     *
+     * @param instance the instance
+     * @throws Fabric3Exception if there is an error resetting or stopping the instance
+     */
+    public void release(Object instance) throws Fabric3Exception {
+        if (!isCurrent(instance)) {
+            retire(instance);
+            component.stopInstance(instance);
+            return;
+        }
+        try {
+            component.resetInstance(instance);
+        } catch (RuntimeException e) {
+            discard(instance);
+            throw e;
+        }
+        List<Object> evicted;
+        lock.lock();
+        try {
+            if (closed || !instances.contains(instance)) {
+                // the pool was cleared while the instance was reset
+                if (retired.remove(instance)) {
+                    available.signal();
+                }
+                evicted = Collections.singletonList(instance);
+            } else {
+                long now = System.nanoTime();
+                idle.addFirst(new IdleInstance(instance, now));
+                evicted = evict(now);
+                available.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+        stop(evicted);
+    }
+
+    /**
+     * Creates and starts instances until the pool contains its minimum number of instances.
+     *
+     * @throws Fabric3Exception if there is an error creating an instance
+     */
+    public void prefill() throws Fabric3Exception {
+        while (true) {
+            long createdGeneration;
+            lock.lock();
+            try {
+                if (closed || instances.size() + creating >= minSize || instances.size() + retired.size() + creating >= maxSize) {
+                    return;
+                }
+                creating++;
+                createdGeneration = generation;
+            } finally {
+                lock.unlock();
+            }
+            Object instance = null;
+            boolean started = false;
+            try {
+                instance = component.createInstance();
+                component.startInstance(instance);
+                started = true;
+            } finally {
+                boolean pooled = false;
+                lock.lock();
+                try {
+                    creating--;
+                    if (started && !closed && createdGeneration == generation) {
+                        instances.add(instance);
+                        idle.addFirst(new IdleInstance(instance, System.nanoTime()));
+                        pooled = true;
+                    }
+                    available.signal();
+                } finally {
+                    lock.unlock();
+                }
+                if (started && !pooled) {
+                    // the pool was cleared or closed while the instance was created
+                    stop(Collections.singletonList(instance));
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops instances that have been idle longer than the idle timeout while retaining the minimum number of instances.
+     */
+    public void evictIdle() {
+        List<Object> evicted;
+        lock.lock();
+        try {
+            evicted = evict(System.nanoTime());
+        } finally {
+            lock.unlock();
+        }
+        stop(evicted);
+    }
+
+    /**
+     * Stops idle instances and ensures instances currently in use are not returned to the pool.
+     */
+    public void clear() {
+        stop(drain());
+    }
+
+    /**
+     * Closes the pool, stopping idle instances. Instances currently in use are stopped when they are released.
+     */
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+        } finally {
+            lock.unlock();
+        }
+        clear();
+    }
+
+    @ManagementOperation(description = "The number of requests served by an idle instance")
+    public long getHits() {
+        return hits.sum();
+    }
+
+    @ManagementOperation(description = "The number of requests that created an instance")
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @ManagementOperation(description = "The number of requests that waited for an instance to be released")
+    public long getWaits() {
+        return waits.sum();
+    }
+
+    @ManagementOperation(description = "The number of requests that timed out waiting for an instance to be released")
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    @ManagementOperation(description = "The number of idle instances")
+    public int getIdleCount() {
+        lock.lock();
+        try {
+            return idle.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @ManagementOperation(description = "The number of instances, including those in use")
+    public int getSize() {
+        lock.lock();
+        try {
+            return instances.size() + retired.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean isCurrent(Object instance) {
+        lock.lock();
+        try {
+            return !closed && instances.contains(instance);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Releases the capacity held by an instance of a previous generation.
+     *
+     * @param instance the instance
+     */
+    private void retire(Object instance) {
+        lock.lock();
+        try {
+            if (retired.remove(instance)) {
+                available.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void discard(Object instance) {
+        lock.lock();
+        try {
+            instances.remove(instance);
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+        stop(Collections.singletonList(instance));
+    }
+
+    private List<Object> drain() {
+        lock.lock();
+        try {
+            List<Object> drained = new ArrayList<>(idle.size());
+            for (IdleInstance entry : idle) {
+                drained.add(entry.instance);
+                instances.remove(entry.instance);
+            }
+            idle.clear();
+            // the remaining instances are in use and count toward the maximum size until they are released
+            retired.addAll(instances);
+            instances.clear();
+            generation++;
+            available.signalAll();
+            return drained;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes instances that have been idle longer than the timeout while retaining the minimum number of idle instances. Must be called holding the lock.
+     *
+     * @param now the current time in nanoseconds
+     * @return the evicted instances
+     */
+    private List<Object> evict(long now) {
+        List<Object> evicted = Collections.emptyList();
+        while (idle.size() > minSize && now - idle.peekLast().released > idleTimeout) {
+            if (evicted.isEmpty()) {
+                evicted = new ArrayList<>();
+            }
+            Object instance = idle.pollLast().instance;
+            instances.remove(instance);
+            evicted.add(instance);
+        }
+        return evicted;
+    }
+
+    private void stop(List<Object> stopped) {
+        for (Object instance : stopped) {
+            try {
+                component.stopInstance(instance);
+            } catch (Fabric3Exception e) {
+                monitor.destructionError(component.getUri(), component.getContributionUri(), e);
+            }
+        }
+    }
+
+    private static class IdleInstance {
+        private Object instance;
+        private long released;
+
+        public IdleInstance(Object instance, long released) {
+            this.instance = instance;
+            this.released = released;
+        }
+    }
+
+}
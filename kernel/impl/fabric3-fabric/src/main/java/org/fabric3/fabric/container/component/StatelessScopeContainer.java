@@ -22,54 +22,154 @@ package org.fabric3.fabric.container.component;
 import java.net.URI;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
+import org.fabric3.api.annotation.Source;
+import org.fabric3.api.annotation.management.Management;
+import org.fabric3.api.annotation.management.ManagementOperation;
 import org.fabric3.api.annotation.monitor.Monitor;
 import org.fabric3.api.host.Fabric3Exception;
 import org.fabric3.api.model.type.component.Scope;
+import org.fabric3.api.model.type.java.PoolInfo;
 import org.fabric3.spi.container.component.ScopeContainer;
 import org.fabric3.spi.container.component.ScopedComponent;
+import org.fabric3.spi.management.ManagementService;
 import org.oasisopen.sca.annotation.Destroy;
 import org.oasisopen.sca.annotation.EagerInit;
 import org.oasisopen.sca.annotation.Init;
+import org.oasisopen.sca.annotation.Property;
+import org.oasisopen.sca.annotation.Reference;
 import org.oasisopen.sca.annotation.Service;
 
 /**
- * A scope context which manages stateless atomic component instances in a non-pooled fashion.
+ * A scope context which manages stateless atomic component instances. Instances are created for each invocation unless the component is configured for
+ * pooling, in which case instances are retained in a bounded {@link InstancePool}. The statistics of each pool are exported under the pooled component
+ * name.
+ *
+ * Pools are filled to their minimum size when the contribution containing the component is started. Idle instances are evicted periodically by a
+ * single background thread, which is started when the first pool is registered.
  */
 @EagerInit
 @Service(ScopeContainer.class)
+@Management(name = "StatelessScopeContainer", path = "/runtime/scopes/stateless", group = "kernel", description = "Manages stateless component instances")
 public class StatelessScopeContainer extends AbstractScopeContainer {
+    private static final String MANAGEMENT_PATH = "scopes/stateless/pools/";
+    private static final String MANAGEMENT_GROUP = "kernel";
+
+    private Map<ScopedComponent, InstancePool> pools = new ConcurrentHashMap<>();
+    private ManagementService managementService;
+    private long evictionInterval = 30000;
+    private ScheduledExecutorService evictor;
 
     public StatelessScopeContainer(@Monitor ScopeContainerMonitor monitor) {
         super(Scope.STATELESS, monitor);
     }
 
+    @Reference(required = false)
+    public void setManagementService(ManagementService managementService) {
+        this.managementService = managementService;
+    }
+
+    /**
+     * Sets the interval in milliseconds at which idle pooled instances are evicted.
+     *
+     * @param evictionInterval the interval
+     */
+    @Property(required = false)
+    @Source("$systemConfig//f3:runtime/f3:pool.eviction.interval")
+    public void setEvictionInterval(long evictionInterval) {
+        this.evictionInterval = evictionInterval;
+    }
+
     @Init
     public void start() {
         super.start();
     }
 
     @Destroy
-    public void stop() {
+    public synchronized void stop() {
         super.stop();
+        if (evictor != null) {
+            evictor.shutdownNow();
+            evictor = null;
+        }
+    }
+
+    public void register(ScopedComponent component) {
+        PoolInfo info = component.getPoolInfo();
+        if (info != null) {
+            InstancePool pool = new InstancePool(component, info, monitor);
+            pools.put(component, pool);
+            startEvictor();
+            if (managementService != null) {
+                managementService.export(getManagementName(component), MANAGEMENT_GROUP, "Instance pool for " + component.getUri(), pool);
+            }
+        }
+    }
+
+    public void unregister(ScopedComponent component) {
+        InstancePool pool = pools.remove(component);
+        if (pool != null) {
+            if (managementService != null) {
+                managementService.remove(getManagementName(component), MANAGEMENT_GROUP);
+            }
+            pool.close();
+        }
     }
 
     public Object getInstance(ScopedComponent component) throws Fabric3Exception {
+        InstancePool pool = pools.get(component);
+        if (pool != null) {
+            return pool.acquire();
+        }
         Object instance = component.createInstance();
         component.startInstance(instance);
         return instance;
     }
 
     public void releaseInstance(ScopedComponent component, Object instance) throws Fabric3Exception {
+        InstancePool pool = pools.get(component);
+        if (pool != null) {
+            pool.release(instance);
+            return;
+        }
         component.stopInstance(instance);
     }
 
+    public void updated(ScopedComponent component) {
+        // pooled instances hold the previous suppliers
+        InstancePool pool = pools.get(component);
+        if (pool != null) {
+            pool.clear();
+        }
+    }
+
+    @ManagementOperation(description = "The number of components with pooled instances")
+    public int getPoolCount() {
+        return pools.size();
+    }
+
     public List<Object> getActiveInstances(ScopedComponent component) {
         return Collections.emptyList();
     }
 
     public void startContext(URI contribution) {
-        // no-op
+        for (Map.Entry<ScopedComponent, InstancePool> entry : pools.entrySet()) {
+            ScopedComponent component = entry.getKey();
+            if (!contribution.equals(component.getContributionUri())) {
+                continue;
+            }
+            try {
+                entry.getValue().prefill();
+            } catch (RuntimeException e) {
+                // instances are created on demand instead
+                monitor.initializationError(component.getUri(), component.getContributionUri(), e);
+            }
+        }
     }
 
     public void stopContext(URI contribution) {
@@ -80,4 +180,41 @@ public class StatelessScopeContainer extends AbstractScopeContainer {
         // no-op
     }
 
+    /**
+     * Returns the pool for a component.
+     *
+     * @param component the component
+     * @return the pool or null if the component is not pooled
+     */
+    InstancePool getPool(ScopedComponent component) {
+        return pools.get(component);
+    }
+
+    private synchronized void startEvictor() {
+        if (evictor != null || evictionInterval <= 0) {
+            return;
+        }
+        evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "Fabric3 instance pool eviction");
+            thread.setDaemon(true);
+            return thread;
+        });
+        evictor.scheduleWithFixedDelay(this::evictIdle, evictionInterval, evictionInterval, TimeUnit.MILLISECONDS);
+    }
+
+    private void evictIdle() {
+        for (InstancePool pool : pools.values()) {
+            try {
+                pool.evictIdle();
+            } catch (RuntimeException e) {
+                monitor.error(e);
+            }
+        }
+    }
+
+    private String getManagementName(ScopedComponent component) {
+        URI uri = component.getUri();
+        return MANAGEMENT_PATH + uri.getAuthority() + uri.getPath();
+    }
+
 }
@@ -18,6 +18,7 @@
  */
 package org.fabric3.fabric.domain.generator.wire;
 
+import java.lang.reflect.Method;
 import java.net.URI;
 import java.util.List;
 import java.util.Set;
@@ -30,6 +31,7 @@ import org.fabric3.api.model.type.component.Implementation;
 import org.fabric3.api.model.type.component.Reference;
 import org.fabric3.api.model.type.component.ResourceReference;
 import org.fabric3.api.model.type.contract.ServiceContract;
+import org.fabric3.api.model.type.java.InjectingComponentType;
 import org.fabric3.fabric.domain.generator.GeneratorRegistry;
 import org.fabric3.spi.classloader.ClassLoaderRegistry;
 import org.fabric3.spi.contract.ContractMatcher;
@@ -49,6 +51,7 @@ import org.fabric3.spi.model.physical.PhysicalWire;
 import org.fabric3.spi.model.physical.PhysicalWireSource;
 import org.fabric3.spi.model.physical.PhysicalWireTarget;
 import org.fabric3.spi.util.Cast;
+import org.oasisopen.sca.annotation.AllowsPassByReference;
 
 /**
  * Default implementation of WireGenerator.
@@ -267,7 +270,7 @@ public class WireGeneratorImpl implements WireGenerator {
         Set<PhysicalOperation> operations = operationGenerator.generateOperations(sourceOperations, targetOperations, false);
 
         PhysicalWire physicalWire = new PhysicalWire(source, target, operations);
-        boolean optimizable = source.isOptimizable() && target.isOptimizable() && checkOptimization(referenceContract, operations);
+        boolean optimizable = source.isOptimizable() && target.isOptimizable() && checkLocalOptimization(referenceContract, service, operations);
         physicalWire.setOptimizable(optimizable);
         return physicalWire;
     }
@@ -331,6 +334,73 @@ public class WireGeneratorImpl implements WireGenerator {
         return true;
     }
 
+    /**
+     * Determines if a wire between two components in the same runtime can be collapsed to a direct call. Remotable contracts use pass-by-value semantics
+     * and are only optimized if the target implementation declares {@link AllowsPassByReference} on the class or on all service operations. The
+     * reference type must also be directly assignable from the service type, since contracts matched structurally (e.g. across classloaders or from
+     * WSDL) require the full invocation chain.
+     *
+     * @param referenceContract    the reference contract
+     * @param service              the target service
+     * @param operationDefinitions the physical operations
+     * @return true if the wire can be optimized
+     */
+    private boolean checkLocalOptimization(ServiceContract referenceContract, LogicalService service, Set<PhysicalOperation> operationDefinitions) {
+        if (!referenceContract.isRemotable()) {
+            return checkOptimization(referenceContract, operationDefinitions);
+        }
+        ServiceContract serviceContract = service.getServiceContract();
+        if (referenceContract.getCallbackContract() != null || serviceContract.getCallbackContract() != null) {
+            return false;
+        }
+        Class<?> referenceInterface = referenceContract.getInterfaceClass();
+        Class<?> serviceInterface = serviceContract.getInterfaceClass();
+        if (referenceInterface == null || serviceInterface == null || !referenceInterface.isAssignableFrom(serviceInterface)) {
+            return false;
+        }
+        if (!allowsPassByReference(service.getParent(), serviceInterface)) {
+            return false;
+        }
+        for (PhysicalOperation operation : operationDefinitions) {
+            if (!operation.getInterceptors().isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if the component implementation allows pass-by-reference for all operations of the given service interface.
+     *
+     * @param component        the target component
+     * @param serviceInterface the service interface
+     * @return true if pass-by-reference is allowed
+     */
+    private boolean allowsPassByReference(LogicalComponent<?> component, Class<?> serviceInterface) {
+        ComponentType componentType = component.getDefinition().getComponentType();
+        if (!(componentType instanceof InjectingComponentType)) {
+            return false;
+        }
+        Class<?> implClass = ((InjectingComponentType) componentType).getImplClass();
+        if (implClass == null) {
+            return false;
+        }
+        if (implClass.isAnnotationPresent(AllowsPassByReference.class)) {
+            return true;
+        }
+        for (Method method : serviceInterface.getMethods()) {
+            try {
+                Method implMethod = implClass.getMethod(method.getName(), method.getParameterTypes());
+                if (!implMethod.isAnnotationPresent(AllowsPassByReference.class)) {
+                    return false;
+                }
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Returns the key specified on the component, component type, or null
      *
@@ -103,6 +103,31 @@ public class ConnectorImplTestCase extends TestCase {
         EasyMock.verify(sourceAttacher, targetAttacher);
     }
 
+    @SuppressWarnings({"unchecked"})
+    public void testReconnectOptimizedWithChain() throws Exception {
+        SourceWireAttacher sourceAttacher = EasyMock.createMock(SourceWireAttacher.class);
+        TargetWireAttacher targetAttacher = EasyMock.createMock(TargetWireAttacher.class);
+        Map sourceAttachers = Collections.singletonMap(MockWireSource.class, sourceAttacher);
+        Map targetAttachers = Collections.singletonMap(MockWireTarget.class, targetAttacher);
+        sourceAttacher.attachSupplier(EasyMock.isA(PhysicalWireSource.class),
+                                      EasyMock.isA(Supplier.class),
+                                      EasyMock.isA(PhysicalWireTarget.class));
+        targetAttacher.createSupplier(EasyMock.isA(PhysicalWireTarget.class));
+        EasyMock.expectLastCall().andReturn((Supplier) Object::new);
+        sourceAttacher.detachSupplier(EasyMock.isA(PhysicalWireSource.class), EasyMock.isA(PhysicalWireTarget.class));
+        sourceAttacher.attach(EasyMock.isA(PhysicalWireSource.class), EasyMock.isA(PhysicalWireTarget.class), EasyMock.isA(Wire.class));
+        targetAttacher.attach(EasyMock.isA(PhysicalWireSource.class), EasyMock.isA(PhysicalWireTarget.class), EasyMock.isA(Wire.class));
+        EasyMock.replay(sourceAttacher, targetAttacher);
+        connector.sourceAttachers = sourceAttachers;
+        connector.targetAttachers = targetAttachers;
+
+        physicalWire.setOptimizable(true);
+        connector.connect(physicalWire);
+        physicalWire.setOptimizable(false);
+        connector.connect(physicalWire);
+        EasyMock.verify(sourceAttacher, targetAttacher);
+    }
+
     public void testCreateWire() throws Exception {
         Wire wire = connector.createWire(physicalWire);
         assertEquals(2, wire.getInvocationChains().size());
@@ -0,0 +1,240 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * Portions originally based on Apache Tuscany 2007
+ * licensed under the Apache 2.0 license.
+ */
+package org.fabric3.fabric.container.component;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import junit.framework.TestCase;
+import org.easymock.EasyMock;
+import org.fabric3.api.host.Fabric3Exception;
+import org.fabric3.api.model.type.java.PoolInfo;
+import org.fabric3.spi.container.component.ScopedComponent;
+
+/**
+ *
+ */
+public class InstancePoolTestCase extends TestCase {
+    private ScopedComponent component;
+
+    public void testWaitForRelease() throws Exception {
+        EasyMock.expect(component.createInstance()).andReturn(new Object());
+        EasyMock.replay(component);
+
+        InstancePool pool = new InstancePool(component, new PoolInfo(0, 1, 60000), EasyMock.createNiceMock(ScopeContainerMonitor.class));
+        Object instance = pool.acquire();
+
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicReference<Object> acquired = new AtomicReference<>();
+        Thread thread = new Thread(() -> {
+            latch.countDown();
+            acquired.set(pool.acquire());
+        });
+        thread.start();
+        latch.await();
+        while (pool.getWaits() == 0) {
+            Thread.sleep(1);
+        }
+        pool.release(instance);
+        thread.join(TimeUnit.SECONDS.toMillis(10));
+
+        assertSame(instance, acquired.get());
+        assertEquals(1, pool.getMisses());
+        assertEquals(1, pool.getHits());
+        EasyMock.verify(component);
+    }
+
+    public void testEvictIdle() throws Exception {
+        Object first = new Object();
+        Object second = new Object();
+        EasyMock.expect(component.createInstance()).andReturn(first);
+        EasyMock.expect(component.createInstance()).andReturn(second);
+        component.stopInstance(first);
+        EasyMock.replay(component);
+
+        InstancePool pool = new InstancePool(component, new PoolInfo(0, 2, 0), EasyMock.createNiceMock(ScopeContainerMonitor.class));
+        Object instance1 = pool.acquire();
+        Object instance2 = pool.acquire();
+        pool.release(instance1);
+        Thread.sleep(1);
+        pool.release(instance2);
+
+        // the first instance expired and was evicted when the second was released
+        assertEquals(1, pool.getIdleCount());
+        assertEquals(1, pool.getSize());
+        EasyMock.verify(component);
+    }
+
+    public void testClearDiscardsInstancesInUse() throws Exception {
+        Object instance = new Object();
+        EasyMock.expect(component.createInstance()).andReturn(instance);
+        component.stopInstance(instance);
+        EasyMock.replay(component);
+
+        InstancePool pool = new InstancePool(component, new PoolInfo(0, 1, 60000), EasyMock.createNiceMock(ScopeContainerMonitor.class));
+        pool.acquire();
+        pool.clear();
+        pool.release(instance);
+
+        assertEquals(0, pool.getSize());
+        EasyMock.verify(component);
+    }
+
+    public void testAcquireTimeout() throws Exception {
+        EasyMock.expect(component.createInstance()).andReturn(new Object());
+        EasyMock.replay(component);
+
+        InstancePool pool = new InstancePool(component, new PoolInfo(0, 1, 60000, 10), EasyMock.createNiceMock(ScopeContainerMonitor.class));
+        pool.acquire();
+        try {
+            pool.acquire();
+            fail();
+        } catch (Fabric3Exception e) {
+            // expected
+        }
+        assertEquals(1, pool.getTimeouts());
+        EasyMock.verify(component);
+    }
+
+    public void testEvictOnAcquire() throws Exception {
+        Object first = new Object();
+        Object second = new Object();
+        EasyMock.expect(component.createInstance()).andReturn(first);
+        EasyMock.expect(component.createInstance()).andReturn(second);
+        component.stopInstance(first);
+        EasyMock.replay(component);
+
+        InstancePool pool = new InstancePool(component, new PoolInfo(0, 1, 0), EasyMock.createNiceMock(ScopeContainerMonitor.class));
+        pool.release(pool.acquire());
+        Thread.sleep(1);
+
+        // the idle instance expired and is evicted before an instance is handed out
+        assertSame(second, pool.acquire());
+        assertEquals(1, pool.getSize());
+        EasyMock.verify(component);
+    }
+
+    public void testInstanceCreatedDuringClearNotPooled() throws Exception {
+        Object instance = new Object();
+        CountDownLatch creating = new CountDownLatch(1);
+        CountDownLatch cleared = new CountDownLatch(1);
+        EasyMock.expect(component.createInstance()).andAnswer(() -> {
+            creating.countDown();
+            cleared.await();
+            return instance;
+        });
+        component.stopInstance(instance);
+        EasyMock.replay(component);
+
+        InstancePool pool = new InstancePool(component, new PoolInfo(0, 1, 60000), EasyMock.createNiceMock(ScopeContainerMonitor.class));
+        AtomicReference<Object> acquired = new AtomicReference<>();
+        Thread thread = new Thread(() -> acquired.set(pool.acquire()));
+        thread.start();
+        creating.await();
+        pool.clear();
+        cleared.countDown();
+        thread.join(TimeUnit.SECONDS.toMillis(10));
+
+        assertSame(instance, acquired.get());
+        // the stale instance counts toward the maximum size until it is released
+        assertEquals(1, pool.getSize());
+        // the stale instance is stopped rather than returned to the pool
+        pool.release(instance);
+        assertEquals(0, pool.getIdleCount());
+        assertEquals(0, pool.getSize());
+        EasyMock.verify(component);
+    }
+
+    public void testPrefill() throws Exception {
+        Object first = new Object();
+        Object second = new Object();
+        EasyMock.expect(component.createInstance()).andReturn(first);
+        EasyMock.expect(component.createInstance()).andReturn(second);
+        EasyMock.replay(component);
+
+        InstancePool pool = new InstancePool(component, new PoolInfo(2, 4, 60000), EasyMock.createNiceMock(ScopeContainerMonitor.class));
+        pool.prefill();
+        assertEquals(2, pool.getIdleCount());
+        assertEquals(2, pool.getSize());
+
+        // the pool is already at its minimum size
+        pool.prefill();
+        assertEquals(2, pool.getSize());
+
+        pool.acquire();
+        assertEquals(1, pool.getHits());
+        assertEquals(0, pool.getMisses());
+        EasyMock.verify(component);
+    }
+
+    public void testEvictIdleWithoutAcquire() throws Exception {
+        Object first = new Object();
+        Object second = new Object();
+        EasyMock.expect(component.createInstance()).andReturn(first);
+        EasyMock.expect(component.createInstance()).andReturn(second);
+        component.stopInstance(second);
+        EasyMock.replay(component);
+
+        InstancePool pool = new InstancePool(component, new PoolInfo(1, 2, 50), EasyMock.createNiceMock(ScopeContainerMonitor.class));
+        Object instance1 = pool.acquire();
+        Object instance2 = pool.acquire();
+        pool.release(instance2);
+        pool.release(instance1);
+        assertEquals(2, pool.getIdleCount());
+        Thread.sleep(100);
+
+        // the longest idle instance is evicted and the minimum number of instances is retained
+        pool.evictIdle();
+        assertEquals(1, pool.getIdleCount());
+        assertEquals(1, pool.getSize());
+        EasyMock.verify(component);
+    }
+
+    public void testClearRetainsInUseCapacity() throws Exception {
+        Object instance = new Object();
+        EasyMock.expect(component.createInstance()).andReturn(instance);
+        EasyMock.expect(component.createInstance()).andReturn(new Object());
+        component.stopInstance(instance);
+        EasyMock.replay(component);
+
+        InstancePool pool = new InstancePool(component, new PoolInfo(0, 1, 60000, 10), EasyMock.createNiceMock(ScopeContainerMonitor.class));
+        pool.acquire();
+        pool.clear();
+        assertEquals(1, pool.getSize());
+
+        // the instance in use still occupies the only slot
+        try {
+            pool.acquire();
+            fail();
+        } catch (Fabric3Exception e) {
+            // expected
+        }
+
+        pool.release(instance);
+        assertEquals(0, pool.getSize());
+        assertNotNull(pool.acquire());
+        EasyMock.verify(component);
+    }
+
+    protected void setUp() throws Exception {
+        super.setUp();
+        component = EasyMock.createNiceMock(ScopedComponent.class);
+    }
+}
@@ -19,10 +19,13 @@
  */
 package org.fabric3.fabric.container.component;
 
+import java.net.URI;
+
 import junit.framework.TestCase;
 import org.easymock.EasyMock;
 import org.easymock.IMocksControl;
 import org.fabric3.api.model.type.component.Scope;
+import org.fabric3.api.model.type.java.PoolInfo;
 import org.fabric3.spi.container.component.ScopedComponent;
 
 /**
@@ -59,6 +62,40 @@ public class StatelessScopeContainerTestCase extends TestCase {
         control.verify();
     }
 
+    public void testPooledInstance() throws Exception {
+        EasyMock.expect(component.getPoolInfo()).andReturn(new PoolInfo(0, 1, 60000));
+        EasyMock.expect(component.createInstance()).andReturn(instance);
+        component.startInstance(instance);
+        component.resetInstance(instance);
+        component.resetInstance(instance);
+        component.stopInstance(instance);
+        control.replay();
+
+        scopeContainer.register(component);
+        assertSame(instance, scopeContainer.getInstance(component));
+        scopeContainer.releaseInstance(component, instance);
+        assertSame(instance, scopeContainer.getInstance(component));
+        scopeContainer.releaseInstance(component, instance);
+        assertEquals(1, scopeContainer.getPool(component).getHits());
+        assertEquals(1, scopeContainer.getPool(component).getMisses());
+        scopeContainer.unregister(component);
+        control.verify();
+    }
+
+    public void testPrefillOnStart() throws Exception {
+        URI contributionUri = URI.create("contribution");
+        EasyMock.expect(component.getPoolInfo()).andReturn(new PoolInfo(1, 2, 60000));
+        EasyMock.expect(component.getContributionUri()).andReturn(contributionUri);
+        EasyMock.expect(component.createInstance()).andReturn(instance);
+        component.startInstance(instance);
+        control.replay();
+
+        scopeContainer.register(component);
+        scopeContainer.startContext(contributionUri);
+        assertEquals(1, scopeContainer.getPool(component).getIdleCount());
+        control.verify();
+    }
+
     @SuppressWarnings("unchecked")
     protected void setUp() throws Exception {
         super.setUp();
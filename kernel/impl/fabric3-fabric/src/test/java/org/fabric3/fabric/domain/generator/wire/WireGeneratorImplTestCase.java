@@ -31,6 +31,7 @@ import org.fabric3.api.model.type.component.Component;
 import org.fabric3.api.model.type.component.ComponentType;
 import org.fabric3.api.model.type.component.Implementation;
 import org.fabric3.api.model.type.contract.ServiceContract;
+import org.fabric3.api.model.type.java.InjectingComponentType;
 import org.fabric3.fabric.domain.generator.GeneratorRegistry;
 import org.fabric3.spi.classloader.ClassLoaderRegistry;
 import org.fabric3.spi.contract.ContractMatcher;
@@ -45,6 +46,7 @@ import org.fabric3.spi.model.physical.PhysicalOperation;
 import org.fabric3.spi.model.physical.PhysicalWire;
 import org.fabric3.spi.model.physical.PhysicalWireSource;
 import org.fabric3.spi.model.physical.PhysicalWireTarget;
+import org.oasisopen.sca.annotation.AllowsPassByReference;
 
 /**
  *
@@ -173,6 +175,70 @@ public class WireGeneratorImplTestCase extends TestCase {
         EasyMock.verify(registry, matcher, operationGenerator, sourceComponentGenerator, targetComponentGenerator);
     }
 
+    public void testOptimizeRemotableLocalWirePassByReference() throws Exception {
+        LogicalReference reference = createReference();
+        reference.setServiceContract(new MockRemotableContract(Runnable.class));
+        LogicalService service = createService(PassByReferenceRunnable.class);
+        service.setServiceContract(new MockRemotableContract(Runnable.class));
+
+        PhysicalWire physicalWire = generateOptimizableLocalWire(reference, service);
+        assertTrue(physicalWire.isOptimizable());
+    }
+
+    public void testOptimizeRemotableLocalWirePassByReferenceOperations() throws Exception {
+        LogicalReference reference = createReference();
+        reference.setServiceContract(new MockRemotableContract(Runnable.class));
+        LogicalService service = createService(PassByReferenceRunOperation.class);
+        service.setServiceContract(new MockRemotableContract(Runnable.class));
+
+        PhysicalWire physicalWire = generateOptimizableLocalWire(reference, service);
+        assertTrue(physicalWire.isOptimizable());
+    }
+
+    public void testNoOptimizeRemotableLocalWire() throws Exception {
+        LogicalReference reference = createReference();
+        reference.setServiceContract(new MockRemotableContract(Runnable.class));
+        LogicalService service = createService(PassByValueRunnable.class);
+        service.setServiceContract(new MockRemotableContract(Runnable.class));
+
+        PhysicalWire physicalWire = generateOptimizableLocalWire(reference, service);
+        assertFalse(physicalWire.isOptimizable());
+    }
+
+    public void testNoOptimizeRemotableLocalWireDifferentTypes() throws Exception {
+        LogicalReference reference = createReference();
+        reference.setServiceContract(new MockRemotableContract(Runnable.class));
+        LogicalService service = createService(PassByReferenceRunnable.class);
+        service.setServiceContract(new MockRemotableContract(Object.class));
+
+        PhysicalWire physicalWire = generateOptimizableLocalWire(reference, service);
+        assertFalse(physicalWire.isOptimizable());
+    }
+
+    @SuppressWarnings({"unchecked"})
+    private PhysicalWire generateOptimizableLocalWire(LogicalReference reference, LogicalService service) throws Exception {
+        GeneratorRegistry registry = EasyMock.createMock(GeneratorRegistry.class);
+        ComponentGenerator componentGenerator = EasyMock.createMock(ComponentGenerator.class);
+        MockWireSource source = new MockWireSource();
+        source.setOptimizable(true);
+        MockWireTarget target = new MockWireTarget();
+        target.setOptimizable(true);
+        EasyMock.expect(componentGenerator.generateSource(EasyMock.isA(LogicalReference.class))).andReturn(source);
+        EasyMock.expect(componentGenerator.generateTarget(EasyMock.isA(LogicalService.class))).andReturn(target);
+        EasyMock.expect(registry.getComponentGenerator(EasyMock.isA(Class.class))).andReturn(componentGenerator).times(2);
+        ContractMatcher matcher = EasyMock.createMock(ContractMatcher.class);
+        PhysicalOperationGenerator operationGenerator = setupLocalOperationGenerator();
+
+        EasyMock.replay(registry, matcher, operationGenerator, componentGenerator);
+
+        WireGeneratorImpl generator = new WireGeneratorImpl(registry, matcher, operationGenerator, classLoaderRegistry);
+        LogicalWire wire = new LogicalWire(reference.getParent(), reference, service, CONTRIBUTION_URI);
+        PhysicalWire physicalWire = generator.generateWire(wire);
+
+        EasyMock.verify(registry, matcher, operationGenerator, componentGenerator);
+        return physicalWire;
+    }
+
     @SuppressWarnings({"unchecked"})
     private PhysicalOperationGenerator setupOperationGenerator() throws Fabric3Exception {
         PhysicalOperationGenerator operationGenerator = EasyMock.createMock(PhysicalOperationGenerator.class);
@@ -261,9 +327,17 @@ public class WireGeneratorImplTestCase extends TestCase {
         return service;
     }
 
-    @SuppressWarnings({"unchecked"})
     private LogicalService createService() {
-        Component definition = new Component("component", new MockImplementation());
+        return createService(null);
+    }
+
+    @SuppressWarnings({"unchecked"})
+    private LogicalService createService(Class<?> implClass) {
+        MockImplementation implementation = new MockImplementation();
+        if (implClass != null) {
+            implementation.setComponentType(new InjectingComponentType(implClass));
+        }
+        Component definition = new Component("component", implementation);
         definition.setContributionUri(CONTRIBUTION_URI);
         LogicalComponent component = new LogicalComponent(URI.create("component"), definition, null);
         LogicalService service = new LogicalService(URI.create("component#service"), null, component);
@@ -337,6 +411,37 @@ public class WireGeneratorImplTestCase extends TestCase {
         }
     }
 
+    private class MockRemotableContract extends MockContract {
+        private Class<?> interfaceClass;
+
+        public MockRemotableContract(Class<?> interfaceClass) {
+            this.interfaceClass = interfaceClass;
+            setRemotable(true);
+        }
+
+        @Override
+        public Class<?> getInterfaceClass() {
+            return interfaceClass;
+        }
+    }
+
+    @AllowsPassByReference
+    private static class PassByReferenceRunnable implements Runnable {
+        public void run() {
+        }
+    }
+
+    private static class PassByReferenceRunOperation implements Runnable {
+        @AllowsPassByReference
+        public void run() {
+        }
+    }
+
+    private static class PassByValueRunnable implements Runnable {
+        public void run() {
+        }
+    }
+
     private class MockImplementation extends Implementation<ComponentType> {
         @Override
         public String getType() {
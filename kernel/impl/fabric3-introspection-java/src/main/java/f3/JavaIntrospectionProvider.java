@@ -26,6 +26,8 @@ import org.fabric3.api.annotation.management.ManagementOperation;
 import org.fabric3.api.annotation.model.Binding;
 import org.fabric3.api.annotation.model.Provides;
 import org.fabric3.api.annotation.scope.Domain;
+import org.fabric3.api.annotation.scope.Pooled;
+import org.fabric3.api.annotation.scope.Reset;
 import org.fabric3.api.annotation.scope.Stateless;
 import org.fabric3.api.annotation.wire.Key;
 import org.fabric3.api.annotation.wire.Order;
@@ -54,7 +56,9 @@ import org.fabric3.introspection.java.annotation.OASISScopeProcessor;
 import org.fabric3.introspection.java.annotation.OASISServiceProcessor;
 import org.fabric3.introspection.java.annotation.OrderProcessor;
 import org.fabric3.introspection.java.annotation.PolicyAnnotationProcessorImpl;
+import org.fabric3.introspection.java.annotation.PooledProcessor;
 import org.fabric3.introspection.java.annotation.ProducerProcessor;
+import org.fabric3.introspection.java.annotation.ResetProcessor;
 import org.fabric3.introspection.java.annotation.StatelessProcessor;
 import org.fabric3.introspection.java.contract.JavaContractProcessorImpl;
 import org.fabric3.introspection.java.policy.DefaultOperationPolicyIntrospector;
@@ -106,6 +110,10 @@ public class JavaIntrospectionProvider {
 
         compositeBuilder.component(newBuilder(StatelessProcessor.class).key(Stateless.class.getName()).build());
 
+        compositeBuilder.component(newBuilder(PooledProcessor.class).key(Pooled.class.getName()).build());
+
+        compositeBuilder.component(newBuilder(ResetProcessor.class).key(Reset.class.getName()).build());
+
         compositeBuilder.component(newBuilder(ProducerProcessor.class).key(Producer.class.getName()).build());
 
         compositeBuilder.component(newBuilder(ConsumerProcessor.class).key(Consumer.class.getName()).build());
@@ -0,0 +1,57 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * Portions originally based on Apache Tuscany 2007
+ * licensed under the Apache 2.0 license.
+ */
+package org.fabric3.introspection.java.annotation;
+
+import org.fabric3.api.annotation.scope.Pooled;
+import org.fabric3.api.model.type.component.Scope;
+import org.fabric3.api.model.type.java.InjectingComponentType;
+import org.fabric3.api.model.type.java.PoolInfo;
+import org.fabric3.spi.introspection.IntrospectionContext;
+import org.fabric3.spi.introspection.java.InvalidAnnotation;
+import org.fabric3.spi.introspection.java.annotation.AbstractAnnotationProcessor;
+
+/**
+ * Processes the {@link Pooled} annotation on a component implementation class.
+ */
+public class PooledProcessor extends AbstractAnnotationProcessor<Pooled> {
+
+    public PooledProcessor() {
+        super(Pooled.class);
+    }
+
+    public void visitType(Pooled annotation, Class<?> type, InjectingComponentType componentType, IntrospectionContext context) {
+        componentType.setScope(Scope.STATELESS);
+        int minSize = annotation.minSize();
+        int maxSize = annotation.maxSize();
+        if (maxSize < 1 || minSize < 0 || minSize > maxSize) {
+            String message = "Invalid pool size on " + type.getName() + ": minimum " + minSize + ", maximum " + maxSize;
+            context.addError(new InvalidAnnotation(message, type, annotation, type));
+            return;
+        }
+        if (annotation.idleTimeout() < 0) {
+            context.addError(new InvalidAnnotation("Invalid pool idle timeout on " + type.getName(), type, annotation, type));
+            return;
+        }
+        if (annotation.acquireTimeout() < 0) {
+            context.addError(new InvalidAnnotation("Invalid pool acquire timeout on " + type.getName(), type, annotation, type));
+            return;
+        }
+        componentType.setPoolInfo(new PoolInfo(minSize, maxSize, annotation.idleTimeout(), annotation.acquireTimeout()));
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * Portions originally based on Apache Tuscany 2007
+ * licensed under the Apache 2.0 license.
+ */
+package org.fabric3.introspection.java.annotation;
+
+import java.lang.reflect.Method;
+
+import org.fabric3.api.annotation.scope.Reset;
+import org.fabric3.api.model.type.java.InjectingComponentType;
+import org.fabric3.spi.introspection.IntrospectionContext;
+import org.fabric3.spi.introspection.java.annotation.AbstractAnnotationProcessor;
+
+/**
+ * Processes the {@link Reset} annotation on a pooled component implementation method.
+ */
+public class ResetProcessor extends AbstractAnnotationProcessor<Reset> {
+
+    public ResetProcessor() {
+        super(Reset.class);
+    }
+
+    public void visitMethod(Reset annotation, Method method, Class<?> implClass, InjectingComponentType componentType, IntrospectionContext context) {
+        if (!Void.TYPE.equals(method.getReturnType()) || method.getParameterTypes().length != 0) {
+            InvalidMethod error = new InvalidMethod("Method marked with @Reset must return void and have no parameters: " + method, method, componentType);
+            context.addError(error);
+            return;
+        }
+        componentType.setResetMethod(method);
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Portions originally based on Apache Tuscany 2007
+ * licensed under the Apache 2.0 license.
+ */
+package org.fabric3.introspection.java.annotation;
+
+import junit.framework.TestCase;
+import org.fabric3.api.annotation.scope.Pooled;
+import org.fabric3.api.model.type.component.Scope;
+import org.fabric3.api.model.type.java.InjectingComponentType;
+import org.fabric3.api.model.type.java.PoolInfo;
+import org.fabric3.spi.introspection.DefaultIntrospectionContext;
+
+/**
+ *
+ */
+public class PooledProcessorTestCase extends TestCase {
+    private PooledProcessor processor = new PooledProcessor();
+
+    public void testPoolConfiguration() throws Exception {
+        Pooled annotation = PooledAnnotated.class.getAnnotation(Pooled.class);
+        InjectingComponentType type = new InjectingComponentType();
+        DefaultIntrospectionContext context = new DefaultIntrospectionContext();
+
+        processor.visitType(annotation, PooledAnnotated.class, type, context);
+
+        assertFalse(context.hasErrors());
+        assertEquals(Scope.STATELESS, type.getScope());
+        PoolInfo info = type.getPoolInfo();
+        assertEquals(2, info.getMinSize());
+        assertEquals(8, info.getMaxSize());
+        assertEquals(1000, info.getIdleTimeout());
+        assertEquals(500, info.getAcquireTimeout());
+    }
+
+    public void testInvalidPoolSize() throws Exception {
+        Pooled annotation = InvalidPooledAnnotated.class.getAnnotation(Pooled.class);
+        InjectingComponentType type = new InjectingComponentType();
+        DefaultIntrospectionContext context = new DefaultIntrospectionContext();
+
+        processor.visitType(annotation, InvalidPooledAnnotated.class, type, context);
+
+        assertTrue(context.hasErrors());
+        assertNull(type.getPoolInfo());
+    }
+
+    @Pooled(minSize = 2, maxSize = 8, idleTimeout = 1000, acquireTimeout = 500)
+    public static class PooledAnnotated {
+
+    }
+
+    @Pooled(minSize = 4, maxSize = 2)
+    public static class InvalidPooledAnnotated {
+
+    }
+
+}
@@ -68,6 +68,24 @@ public class InvokerInterceptor implements Interceptor {
         return null;
     }
 
+    /**
+     * Returns the target component.
+     *
+     * @return the target component
+     */
+    public AtomicComponent getComponent() {
+        return component;
+    }
+
+    /**
+     * Returns true if the target instance may be invoked directly, bypassing this interceptor. This is not the case if the TCCL must be set.
+     *
+     * @return true if the target instance may be invoked directly
+     */
+    public boolean isDirect() {
+        return targetTCCLClassLoader == null;
+    }
+
     public Message invoke(Message msg) {
         Object instance;
         try {
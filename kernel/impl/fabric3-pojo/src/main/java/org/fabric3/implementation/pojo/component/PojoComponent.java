@@ -28,6 +28,7 @@ import org.fabric3.api.annotation.monitor.MonitorLevel;
 import org.fabric3.api.host.Fabric3Exception;
 import org.fabric3.api.model.type.component.Scope;
 import org.fabric3.api.model.type.java.Injectable;
+import org.fabric3.api.model.type.java.PoolInfo;
 import org.fabric3.implementation.pojo.manager.ImplementationManager;
 import org.fabric3.implementation.pojo.manager.ImplementationManagerFactory;
 import org.fabric3.spi.container.component.ScopeContainer;
@@ -47,6 +48,7 @@ public abstract class PojoComponent implements ScopedComponent {
     private MonitorLevel level = MonitorLevel.INFO;
     private AtomicBoolean recreate = new AtomicBoolean(true);
     private Object cachedInstance;
+    private PoolInfo poolInfo;
 
     public PojoComponent(URI componentId, ImplementationManagerFactory factory, ScopeContainer scopeContainer, boolean eager, URI contributionUri) {
         this.uri = componentId;
@@ -98,6 +100,19 @@ public abstract class PojoComponent implements ScopedComponent {
         return eager;
     }
 
+    public PoolInfo getPoolInfo() {
+        return poolInfo;
+    }
+
+    /**
+     * Sets the instance pool configuration if instances of this component are pooled by the scope container.
+     *
+     * @param poolInfo the pool configuration
+     */
+    public void setPoolInfo(PoolInfo poolInfo) {
+        this.poolInfo = poolInfo;
+    }
+
     public Object getInstance() throws Fabric3Exception {
         if (cachedInstance != null) {
             return cachedInstance;
@@ -133,6 +148,10 @@ public abstract class PojoComponent implements ScopedComponent {
         getImplementationManager().stop(instance);
     }
 
+    public void resetInstance(Object instance) throws Fabric3Exception {
+        getImplementationManager().reset(instance);
+    }
+
     public void reinject(Object instance) throws Fabric3Exception {
         getImplementationManager().reinject(instance);
     }
@@ -172,6 +191,7 @@ public abstract class PojoComponent implements ScopedComponent {
         // Clear the instance factory as it has changed and will need to be re-created. This can happen if reinjection occurs after the first
         // instance has been created.
         recreate.set(true);
+        scopeContainer.updated(this);
     }
 
     public void removeSupplier(Injectable injectable) {
@@ -184,6 +204,7 @@ public abstract class PojoComponent implements ScopedComponent {
         // Clear the instance factory as it has changed and will need to be re-created. This can happen if reinjection occurs after the first
         // instance has been created.
         recreate.set(true);
+        scopeContainer.updated(this);
     }
 
     public Supplier<?> getSupplier(Injectable injectable) {
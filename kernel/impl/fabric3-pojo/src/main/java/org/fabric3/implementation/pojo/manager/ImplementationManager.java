@@ -50,6 +50,14 @@ public interface ImplementationManager {
      */
     void stop(Object instance) throws Fabric3Exception;
 
+    /**
+     * Resets a pooled instance before it is reused, calling a @Reset method if one is configured.
+     *
+     * @param instance the instance
+     * @throws Fabric3Exception if there is an error when calling the reset method
+     */
+    void reset(Object instance) throws Fabric3Exception;
+
     /**
      * Reinjects the instance with any updated references.
      *
@@ -69,6 +69,7 @@ public class ImplementationManagerFactoryBuilderImpl implements ImplementationMa
 
         LifecycleInvoker initInvoker = getInitInvoker(definition);
         LifecycleInvoker destroyInvoker = getDestroyInvoker(definition);
+        LifecycleInvoker resetInvoker = getResetInvoker(definition);
 
         Map<InjectionSite, Injectable> postConstruction = definition.getPostConstruction();
         List<Injectable> construction = Arrays.asList(cdiSources);
@@ -79,6 +80,7 @@ public class ImplementationManagerFactoryBuilderImpl implements ImplementationMa
                                                     postConstruction,
                                                     initInvoker,
                                                     destroyInvoker,
+                                                    resetInvoker,
                                                     reinjectable,
                                                     cl,
                                                     reflectionFactory);
@@ -102,4 +104,13 @@ public class ImplementationManagerFactoryBuilderImpl implements ImplementationMa
         return destroyInvoker;
     }
 
+    private LifecycleInvoker getResetInvoker(ImplementationManagerDefinition definition) {
+        LifecycleInvoker resetInvoker = null;
+        Method resetMethod = definition.getResetMethod();
+        if (resetMethod != null) {
+            resetInvoker = reflectionFactory.createLifecycleInvoker(resetMethod);
+        }
+        return resetInvoker;
+    }
+
 }
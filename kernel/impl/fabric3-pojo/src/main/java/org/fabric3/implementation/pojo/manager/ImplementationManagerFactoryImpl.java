@@ -60,6 +60,7 @@ public class ImplementationManagerFactoryImpl implements ImplementationManagerFa
     private final Map<InjectionSite, Injectable> postConstruction;
     private final LifecycleInvoker initInvoker;
     private final LifecycleInvoker destroyInvoker;
+    private final LifecycleInvoker resetInvoker;
     private final boolean reinjectable;
     private final ClassLoader cl;
     private ReflectionFactory reflectionFactory;
@@ -71,6 +72,7 @@ public class ImplementationManagerFactoryImpl implements ImplementationManagerFa
                                             Map<InjectionSite, Injectable> postConstruction,
                                             LifecycleInvoker initInvoker,
                                             LifecycleInvoker destroyInvoker,
+                                            LifecycleInvoker resetInvoker,
                                             boolean reinjectable,
                                             ClassLoader cl,
                                             ReflectionFactory reflectionFactory) {
@@ -81,6 +83,7 @@ public class ImplementationManagerFactoryImpl implements ImplementationManagerFa
         this.postConstruction = postConstruction;
         this.initInvoker = initInvoker;
         this.destroyInvoker = destroyInvoker;
+        this.resetInvoker = resetInvoker;
         this.reinjectable = reinjectable;
         this.cl = cl;
         factories = new HashMap<>();
@@ -95,7 +98,7 @@ public class ImplementationManagerFactoryImpl implements ImplementationManagerFa
         Injectable[] attributes = mappings.keySet().toArray(new Injectable[mappings.size()]);
         Injector<Object>[] injectors = mappings.values().toArray(new Injector[mappings.size()]);
 
-        return new ImplementationManagerImpl(factory, attributes, injectors, initInvoker, destroyInvoker, reinjectable, cl);
+        return new ImplementationManagerImpl(factory, attributes, injectors, initInvoker, destroyInvoker, resetInvoker, reinjectable, cl);
     }
 
     public Class<?> getImplementationClass() {
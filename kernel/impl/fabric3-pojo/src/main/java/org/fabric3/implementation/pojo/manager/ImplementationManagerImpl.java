@@ -39,6 +39,7 @@ public class ImplementationManagerImpl implements ImplementationManager {
     private final Injector<Object>[] injectors;
     private final LifecycleInvoker initInvoker;
     private final LifecycleInvoker destroyInvoker;
+    private final LifecycleInvoker resetInvoker;
     private final ClassLoader cl;
     private final boolean reinjectable;
     private Set<Injector<Object>> updatedInjectors;
@@ -48,6 +49,7 @@ public class ImplementationManagerImpl implements ImplementationManager {
                                      Injector<Object>[] injectors,
                                      LifecycleInvoker initInvoker,
                                      LifecycleInvoker destroyInvoker,
+                                     LifecycleInvoker resetInvoker,
                                      boolean reinjectable,
                                      ClassLoader cl) {
         this.constructor = constructor;
@@ -55,6 +57,7 @@ public class ImplementationManagerImpl implements ImplementationManager {
         this.injectors = injectors;
         this.initInvoker = initInvoker;
         this.destroyInvoker = destroyInvoker;
+        this.resetInvoker = resetInvoker;
         this.reinjectable = reinjectable;
         this.cl = cl;
         if (reinjectable) {
@@ -110,6 +113,18 @@ public class ImplementationManagerImpl implements ImplementationManager {
         }
     }
 
+    public void reset(Object instance) throws Fabric3Exception {
+        if (resetInvoker != null) {
+            ClassLoader oldCl = Thread.currentThread().getContextClassLoader();
+            try {
+                Thread.currentThread().setContextClassLoader(cl);
+                resetInvoker.invoke(instance);
+            } finally {
+                Thread.currentThread().setContextClassLoader(oldCl);
+            }
+        }
+    }
+
     public void reinject(Object instance) throws Fabric3Exception {
         if (!reinjectable) {
             throw new IllegalStateException("Implementation is not reinjectable:" + instance.getClass().getName());
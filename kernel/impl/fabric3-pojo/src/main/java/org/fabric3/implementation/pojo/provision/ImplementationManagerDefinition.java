@@ -36,6 +36,7 @@ public class ImplementationManagerDefinition {
     private Constructor<?> constructor;
     private Method initMethod;
     private Method destroyMethod;
+    private Method resetMethod;
     private boolean reinjectable;
     private Map<InjectionSite, Injectable> construction = new HashMap<>();
     private Map<InjectionSite, Injectable> postConstruction = new HashMap<>();
@@ -96,6 +97,24 @@ public class ImplementationManagerDefinition {
         this.destroyMethod = destroyMethod;
     }
 
+    /**
+     * Gets the method called to reset a pooled instance.
+     *
+     * @return the signature of the reset method or null
+     */
+    public Method getResetMethod() {
+        return resetMethod;
+    }
+
+    /**
+     * Sets the method called to reset a pooled instance.
+     *
+     * @param resetMethod the signature of the reset method
+     */
+    public void setResetMethod(Method resetMethod) {
+        this.resetMethod = resetMethod;
+    }
+
     /**
      * Gets the implementation class.
      *
@@ -21,6 +21,7 @@ package org.fabric3.implementation.pojo.provision;
 
 import org.fabric3.api.model.type.component.Scope;
 import org.fabric3.api.model.type.java.ManagementInfo;
+import org.fabric3.api.model.type.java.PoolInfo;
 import org.fabric3.spi.model.physical.PhysicalComponent;
 
 /**
@@ -32,6 +33,7 @@ public abstract class PhysicalPojoComponent extends PhysicalComponent {
     private boolean eager;
     private boolean managed;
     private ManagementInfo managementInfo;
+    private PoolInfo poolInfo;
 
     /**
      * Gets the instance factory provider definition.
@@ -102,4 +104,22 @@ public abstract class PhysicalPojoComponent extends PhysicalComponent {
     public void setManagementInfo(ManagementInfo managementInfo) {
         this.managementInfo = managementInfo;
     }
+
+    /**
+     * Returns the instance pool configuration or null if instances are not pooled.
+     *
+     * @return the pool configuration or null
+     */
+    public PoolInfo getPoolInfo() {
+        return poolInfo;
+    }
+
+    /**
+     * Sets the instance pool configuration.
+     *
+     * @param poolInfo the pool configuration
+     */
+    public void setPoolInfo(PoolInfo poolInfo) {
+        this.poolInfo = poolInfo;
+    }
 }
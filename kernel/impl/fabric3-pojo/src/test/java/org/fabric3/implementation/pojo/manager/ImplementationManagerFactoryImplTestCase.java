@@ -70,7 +70,7 @@ public class ImplementationManagerFactoryImplTestCase extends TestCase {
         ctrNames.add(stringProperty);
         ClassLoader classLoader = Foo.class.getClassLoader();
         EasyMock.replay(reflectionFactory);
-        provider = new ImplementationManagerFactoryImpl(argConstructor, ctrNames, sites, null, null, false, classLoader, reflectionFactory);
+        provider = new ImplementationManagerFactoryImpl(argConstructor, ctrNames, sites, null, null, null, false, classLoader, reflectionFactory);
         provider.setSupplier(intProperty, intFactory);
         provider.setSupplier(stringProperty, stringFactory);
         Supplier<?>[] args = provider.getConstructorParameterSuppliers(ctrNames);
@@ -140,7 +140,7 @@ public class ImplementationManagerFactoryImplTestCase extends TestCase {
         stringFactory = EasyMock.createMock(Supplier.class);
         reflectionFactory = EasyMock.createMock(ReflectionFactory.class);
 
-        provider = new ImplementationManagerFactoryImpl(noArgConstructor, ctrNames, sites, null, null, false, classLoader, reflectionFactory);
+        provider = new ImplementationManagerFactoryImpl(noArgConstructor, ctrNames, sites, null, null, null, false, classLoader, reflectionFactory);
 
         EasyMock.replay(intFactory, stringFactory);
 
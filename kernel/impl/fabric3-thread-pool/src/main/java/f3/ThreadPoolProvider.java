@@ -25,6 +25,7 @@ import org.fabric3.api.model.type.component.Component;
 import org.fabric3.api.model.type.component.Composite;
 import org.fabric3.spi.model.type.system.SystemComponentBuilder;
 import org.fabric3.spi.model.type.system.SystemImplementation;
+import org.fabric3.threadpool.ExecutorRegistryImpl;
 import org.fabric3.threadpool.RuntimeThreadPoolExecutor;
 
 /**
@@ -37,6 +38,9 @@ public class ThreadPoolProvider {
     public static Composite getComposite() {
         SystemComponentBuilder componentBuilder = SystemComponentBuilder.newBuilder(RuntimeThreadPoolExecutor.class);
         Component<SystemImplementation> executor = componentBuilder.build();
-        return CompositeBuilder.newBuilder(QNAME).component(executor).build();
+        SystemComponentBuilder registryBuilder = SystemComponentBuilder.newBuilder(ExecutorRegistryImpl.class);
+        registryBuilder.reference("executorService", "RuntimeThreadPoolExecutor");
+        Component<SystemImplementation> registry = registryBuilder.build();
+        return CompositeBuilder.newBuilder(QNAME).component(executor).component(registry).build();
     }
 }
@@ -35,4 +35,7 @@ public interface ExecutorMonitor {
     @Warning("Thread {0} has exceeded the stall threshold. Elapsed time is {1} milliseconds. The thread stack is: \n {2}")
     void stalledThread(String threadName, long elapsedTime, String trace);
 
+    @Warning("Virtual threads are not supported by this JVM. Using the thread.pool executor engine.")
+    void virtualThreadsUnavailable();
+
 }
\ No newline at end of file
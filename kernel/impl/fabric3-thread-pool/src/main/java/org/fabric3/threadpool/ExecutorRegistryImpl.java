@@ -0,0 +1,209 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.threadpool;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.fabric3.api.annotation.Source;
+import org.fabric3.api.annotation.monitor.Monitor;
+import org.fabric3.api.host.Fabric3Exception;
+import org.fabric3.spi.management.ManagementService;
+import org.fabric3.spi.threadpool.ExecutorRegistry;
+import org.fabric3.spi.util.UriHelper;
+import org.oasisopen.sca.annotation.Destroy;
+import org.oasisopen.sca.annotation.EagerInit;
+import org.oasisopen.sca.annotation.Init;
+import org.oasisopen.sca.annotation.Property;
+import org.oasisopen.sca.annotation.Reference;
+
+/**
+ * Creates the named pools configured in the runtime system configuration and binds them to components, channels and bindings. For example:
+ *
+ * <pre>
+ * &lt;thread.pools&gt;
+ *     &lt;pool name="orders" coreSize="4" size="8" queueSize="1000" rejected.execution.handler="abort"
+ *           targets="fabric3://domain/OrderService fabric3://domain/OrderChannel"/&gt;
+ * &lt;/thread.pools&gt;
+ * </pre>
+ *
+ * Targets are the full URIs of the bound artifacts. A service or reference URI is bound to the pool of its component.
+ *
+ * Artifacts that are not bound to a pool use the runtime executor. Each pool is exported for management under {@code threadpools/<name>}.
+ */
+@EagerInit
+public class ExecutorRegistryImpl implements ExecutorRegistry {
+    private static final String MANAGEMENT_PATH = "threadpools/";
+    private static final String MANAGEMENT_GROUP = "kernel";
+
+    private ExecutorService executorService;
+    private ManagementService managementService;
+    private ExecutorMonitor monitor;
+
+    private Map<String, NamedThreadPool> pools = new LinkedHashMap<>();
+    private Map<String, NamedThreadPool> bindings = new HashMap<>();
+
+    public ExecutorRegistryImpl(@Reference(name = "executorService") ExecutorService executorService,
+                                @Reference ManagementService managementService,
+                                @Monitor ExecutorMonitor monitor) {
+        this.executorService = executorService;
+        this.managementService = managementService;
+        this.monitor = monitor;
+    }
+
+    @Property(required = false)
+    @Source("$systemConfig//f3:thread.pools")
+    public void setPools(XMLStreamReader reader) throws XMLStreamException {
+        try {
+            while (true) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        if ("pool".equals(reader.getName().getLocalPart())) {
+                            parsePool(reader);
+                        }
+                        break;
+                    case XMLStreamConstants.END_DOCUMENT:
+                        return;
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Init
+    public void init() {
+        for (NamedThreadPool pool : pools.values()) {
+            managementService.export(MANAGEMENT_PATH + pool.getName(), MANAGEMENT_GROUP, "Thread pool " + pool.getName(), pool);
+        }
+    }
+
+    @Destroy
+    public void destroy() {
+        for (NamedThreadPool pool : pools.values()) {
+            managementService.remove(MANAGEMENT_PATH + pool.getName(), MANAGEMENT_GROUP);
+            pool.shutdown();
+        }
+    }
+
+    public ExecutorService getExecutor(URI uri) {
+        NamedThreadPool pool = getBoundPool(uri);
+        return pool != null ? pool : executorService;
+    }
+
+    public ExecutorService getLongRunningExecutor(URI uri) {
+        NamedThreadPool pool = getBoundPool(uri);
+        if (pool != null) {
+            return pool.getLongRunningView();
+        }
+        if (executorService instanceof RuntimeThreadPoolExecutor) {
+            // the runtime executor may not be suited to tasks that occupy a thread, e.g. when using the fork-join engine
+            return ((RuntimeThreadPoolExecutor) executorService).getLongRunningExecutor();
+        }
+        return executorService;
+    }
+
+    public ExecutorService getPool(String name) {
+        return pools.get(name);
+    }
+
+    private NamedThreadPool getBoundPool(URI uri) {
+        if (uri == null || bindings.isEmpty()) {
+            return null;
+        }
+        NamedThreadPool pool = bindings.get(uri.toString());
+        if (pool == null && uri.getFragment() != null) {
+            pool = bindings.get(UriHelper.getDefragmentedName(uri).toString());
+        }
+        return pool;
+    }
+
+    private void parsePool(XMLStreamReader reader) {
+        String name = reader.getAttributeValue(null, "name");
+        if (name == null) {
+            throw new Fabric3Exception("Thread pool name not specified");
+        }
+        if (pools.containsKey(name)) {
+            throw new Fabric3Exception("Duplicate thread pool: " + name);
+        }
+        int maximumSize = parseInt(reader, "size", 10, name);
+        int coreSize = parseInt(reader, "coreSize", maximumSize, name);
+        if (maximumSize < 1 || coreSize < 0 || maximumSize < coreSize) {
+            throw new Fabric3Exception("Invalid sizes for thread pool: " + name);
+        }
+        int queueSize = parseInt(reader, "queueSize", 1000, name);
+        long keepAliveTime = parseLong(reader, "keepAliveTime", 60000, name);
+
+        RejectedExecutionHandler handler = new ThreadPoolExecutor.CallerRunsPolicy();
+        String handlerName = reader.getAttributeValue(null, "rejected.execution.handler");
+        if (handlerName != null) {
+            handler = RejectionPolicies.create(handlerName);
+            if (handler == null) {
+                throw new Fabric3Exception("Invalid rejected execution handler for thread pool " + name + ": " + handlerName);
+            }
+        }
+
+        NamedThreadPool pool = new NamedThreadPool(name, coreSize, maximumSize, queueSize, keepAliveTime, handler, monitor);
+        pools.put(name, pool);
+
+        String targets = reader.getAttributeValue(null, "targets");
+        if (targets != null) {
+            for (String target : targets.trim().split("\\s+")) {
+                if (target.isEmpty()) {
+                    continue;
+                }
+                NamedThreadPool existing = bindings.put(target, pool);
+                if (existing != null) {
+                    throw new Fabric3Exception(target + " is bound to thread pools " + existing.getName() + " and " + name);
+                }
+            }
+        }
+    }
+
+    private int parseInt(XMLStreamReader reader, String attribute, int defaultValue, String pool) {
+        String value = reader.getAttributeValue(null, attribute);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new Fabric3Exception("Invalid " + attribute + " for thread pool " + pool + ": " + value);
+        }
+    }
+
+    private long parseLong(XMLStreamReader reader, String attribute, long defaultValue, String pool) {
+        String value = reader.getAttributeValue(null, attribute);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new Fabric3Exception("Invalid " + attribute + " for thread pool " + pool + ": " + value);
+        }
+    }
+
+}
@@ -0,0 +1,265 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.threadpool;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.fabric3.api.annotation.management.Management;
+import org.fabric3.api.annotation.management.ManagementOperation;
+import org.fabric3.spi.util.LatencyHistogram;
+
+/**
+ * A named, isolated thread pool configured in the runtime system configuration.
+ *
+ * The pool records the number of rejected tasks and a histogram of task latencies, measured from submission to completion.
+ *
+ * Tasks that occupy a thread for as long as an artifact is active are submitted through {@link #getLongRunningView()}. The pool is enlarged by one thread
+ * while each of these tasks runs so they do not reduce the threads available to other work.
+ */
+@Management
+public class NamedThreadPool extends AbstractExecutorService {
+    private String name;
+    private ThreadPoolExecutor delegate;
+    private LinkedBlockingQueue<Runnable> queue;
+
+    private LongAdder rejected = new LongAdder();
+    private LatencyHistogram latencies = new LatencyHistogram();
+    private ExecutorService longRunningView = new LongRunningView();
+    private int longRunning;
+
+    /**
+     * Constructor.
+     *
+     * @param name          the pool name
+     * @param coreSize      the number of threads kept in the pool
+     * @param maximumSize   the maximum number of threads
+     * @param queueSize     the maximum number of queued tasks or 0 for an unbounded queue
+     * @param keepAliveTime the time in milliseconds idle threads above the core size are kept
+     * @param handler       the handler for tasks rejected when the queue is full
+     * @param monitor       the monitor
+     */
+    public NamedThreadPool(String name,
+                           int coreSize,
+                           int maximumSize,
+                           int queueSize,
+                           long keepAliveTime,
+                           RejectedExecutionHandler handler,
+                           ExecutorMonitor monitor) {
+        this.name = name;
+        queue = queueSize > 0 ? new LinkedBlockingQueue<>(queueSize) : new LinkedBlockingQueue<>();
+        RuntimeThreadFactory factory = new RuntimeThreadFactory(name + ":", monitor);
+        delegate = new ThreadPoolExecutor(coreSize, maximumSize, keepAliveTime, TimeUnit.MILLISECONDS, queue, factory, new CountingHandler(handler));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @ManagementOperation(description = "Returns the approximate number of threads actively executing tasks")
+    public int getActiveCount() {
+        return delegate.getActiveCount();
+    }
+
+    @ManagementOperation(description = "Returns the number of tasks waiting to be executed")
+    public int getQueuedCount() {
+        return queue.size();
+    }
+
+    @ManagementOperation(description = "Returns the remaining capacity the queue has before additional work will be rejected")
+    public int getRemainingCapacity() {
+        return queue.remainingCapacity();
+    }
+
+    @ManagementOperation(description = "Returns the number of tasks rejected because the queue was full")
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    @ManagementOperation(description = "Returns the number of completed tasks")
+    public long getCompletedCount() {
+        return delegate.getCompletedTaskCount();
+    }
+
+    @ManagementOperation(description = "The maximum thread pool size")
+    public int getMaximumPoolSize() {
+        return delegate.getMaximumPoolSize();
+    }
+
+    @ManagementOperation(description = "The core thread pool size")
+    public int getCorePoolSize() {
+        return delegate.getCorePoolSize();
+    }
+
+    @ManagementOperation(description = "The time in milliseconds idle threads above the core size are kept")
+    public long getKeepAliveTime() {
+        return delegate.getKeepAliveTime(TimeUnit.MILLISECONDS);
+    }
+
+    @ManagementOperation(description = "Returns the number of long-running tasks the pool has been enlarged for")
+    public synchronized int getLongRunningCount() {
+        return longRunning;
+    }
+
+    @ManagementOperation(description = "Approximate task latency percentiles in microseconds, measured from submission to completion")
+    public Map<String, Long> getLatencyPercentiles() {
+        return latencies.getPercentiles();
+    }
+
+    @ManagementOperation(description = "Clears recorded task latencies")
+    public void resetLatencies() {
+        latencies.reset();
+    }
+
+    public void execute(Runnable runnable) {
+        delegate.execute(new TimedTask(runnable));
+    }
+
+    /**
+     * Returns a view of the pool for tasks that occupy a thread for as long as they run.
+     *
+     * @return the view
+     */
+    public ExecutorService getLongRunningView() {
+        return longRunningView;
+    }
+
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+
+    /**
+     * Records the latency of a task.
+     */
+    private class TimedTask implements Runnable {
+        private Runnable delegate;
+        private long submitted = System.nanoTime();
+
+        public TimedTask(Runnable delegate) {
+            this.delegate = delegate;
+        }
+
+        public void run() {
+            try {
+                delegate.run();
+            } finally {
+                latencies.record((System.nanoTime() - submitted) / 1000);
+            }
+        }
+    }
+
+    /**
+     * Enlarges or shrinks the pool by one thread for a long-running task. The maximum size is raised before and lowered after the core size so it is never
+     * smaller than the core size.
+     *
+     * @param increase true if the pool is enlarged
+     */
+    private synchronized void resize(boolean increase) {
+        if (increase) {
+            longRunning++;
+            delegate.setMaximumPoolSize(delegate.getMaximumPoolSize() + 1);
+            delegate.setCorePoolSize(delegate.getCorePoolSize() + 1);
+        } else {
+            longRunning--;
+            delegate.setCorePoolSize(delegate.getCorePoolSize() - 1);
+            delegate.setMaximumPoolSize(delegate.getMaximumPoolSize() - 1);
+        }
+    }
+
+    /**
+     * Runs tasks on the pool, adding a thread for each task until it completes. Since the core size is raised before the task is submitted, the pool
+     * starts a thread for it instead of queueing it. Shutting down the view has no effect on the pool.
+     */
+    private class LongRunningView extends AbstractExecutorService {
+
+        public void execute(Runnable runnable) {
+            resize(true);
+            try {
+                delegate.execute(() -> {
+                    try {
+                        runnable.run();
+                    } finally {
+                        resize(false);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                resize(false);
+                throw e;
+            }
+        }
+
+        public void shutdown() {
+        }
+
+        public List<Runnable> shutdownNow() {
+            return Collections.emptyList();
+        }
+
+        public boolean isShutdown() {
+            return delegate.isShutdown();
+        }
+
+        public boolean isTerminated() {
+            return delegate.isTerminated();
+        }
+
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return delegate.awaitTermination(timeout, unit);
+        }
+    }
+
+    /**
+     * Counts rejected tasks before applying the configured policy.
+     */
+    private class CountingHandler implements RejectedExecutionHandler {
+        private RejectedExecutionHandler delegate;
+
+        public CountingHandler(RejectedExecutionHandler delegate) {
+            this.delegate = delegate;
+        }
+
+        public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+            rejected.increment();
+            delegate.rejectedExecution(r, executor);
+        }
+    }
+}
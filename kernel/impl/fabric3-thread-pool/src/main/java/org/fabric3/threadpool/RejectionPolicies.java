@@ -0,0 +1,48 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.threadpool;
+
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Creates rejected execution handlers from their configuration names.
+ */
+public final class RejectionPolicies {
+
+    private RejectionPolicies() {
+    }
+
+    /**
+     * Creates a handler.
+     *
+     * @param name the handler name: {@code abort}, {@code discard}, {@code discard.oldest} or {@code caller.runs}
+     * @return the handler or null if the name is invalid
+     */
+    public static RejectedExecutionHandler create(String name) {
+        if ("abort".equals(name)) {
+            return new ThreadPoolExecutor.AbortPolicy();
+        } else if ("discard".equals(name)) {
+            return new ThreadPoolExecutor.DiscardPolicy();
+        } else if ("discard.oldest".equals(name)) {
+            return new ThreadPoolExecutor.DiscardOldestPolicy();
+        } else if ("caller.runs".equals(name)) {
+            return new ThreadPoolExecutor.CallerRunsPolicy();
+        }
+        return null;
+    }
+}
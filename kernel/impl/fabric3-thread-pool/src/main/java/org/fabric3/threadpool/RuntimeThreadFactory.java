@@ -33,9 +33,13 @@ public class RuntimeThreadFactory implements ThreadFactory {
     private RuntimeUncaughtExceptionHandler handler;
 
     public RuntimeThreadFactory(ExecutorMonitor monitor) {
+        this("pooled:", monitor);
+    }
+
+    public RuntimeThreadFactory(String prefix, ExecutorMonitor monitor) {
         SecurityManager s = System.getSecurityManager();
         group = (s != null) ? s.getThreadGroup() : Thread.currentThread().getThreadGroup();
-        prefix = "pooled:";
+        this.prefix = prefix;
         handler = new RuntimeUncaughtExceptionHandler(monitor);
     }
 
@@ -51,6 +55,15 @@ public class RuntimeThreadFactory implements ThreadFactory {
         return thread;
     }
 
+    /**
+     * Returns the handler that forwards uncaught exceptions to the monitor.
+     *
+     * @return the handler
+     */
+    public Thread.UncaughtExceptionHandler getUncaughtExceptionHandler() {
+        return handler;
+    }
+
     private class RuntimeUncaughtExceptionHandler implements Thread.UncaughtExceptionHandler {
         private ExecutorMonitor monitor;
 
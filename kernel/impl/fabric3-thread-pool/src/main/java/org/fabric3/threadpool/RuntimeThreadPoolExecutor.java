@@ -20,10 +20,15 @@ package org.fabric3.threadpool;
 
 import java.util.List;
 import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.fabric3.api.annotation.Source;
 import org.fabric3.api.annotation.management.Management;
@@ -35,11 +40,25 @@ import org.oasisopen.sca.annotation.Init;
 import org.oasisopen.sca.annotation.Property;
 
 /**
- * Processes work using a delegate {@link ThreadPoolExecutor}. This executor records processing statistics as well as monitors for stalled threads. When a
- * stalled thread is encountered (i.e. when the processing time for a runnable has exceeded a threshold), an event is sent to the monitor.
+ * Processes work using a delegate executor engine selected by configuration:
  *
- * The default configuration uses a bounded queue to accept work. If the queue size is exceeded, work will be rejected. This allows the runtime to degrade
- * gracefully under load by pushing requests back to the client and avoid out-of-memory conditions.
+ * <ul>
+ * <li>{@code thread.pool} - the default; a {@link ThreadPoolExecutor} that accepts work using a bounded queue. If the queue size is exceeded, work
+ * will be rejected. This allows the runtime to degrade gracefully under load by pushing requests back to the client and avoid out-of-memory
+ * conditions.</li>
+ * <li>{@code fork.join} - a work-stealing {@link ForkJoinPool} operating in FIFO mode. Work is not bounded by a queue size.</li>
+ * <li>{@code virtual} - an executor that runs each task on a new virtual thread, suited to components that perform blocking I/O. Requires a JVM
+ * supporting virtual threads; otherwise the default engine is used.</li>
+ * </ul>
+ *
+ * Threads created by the default engine are {@link org.fabric3.spi.container.invocation.Fabric3Thread}s that cache the work context and message
+ * directly. Fork-join workers and virtual threads cannot extend that class, so the work context and message are cached in thread locals instead.
+ *
+ * Fork-join workers should not be occupied by tasks that run for as long as an artifact is active, such as ring buffer event processors and message
+ * receivers, since the pool is sized to the number of processors. With the {@code fork.join} engine, these tasks are run on dedicated threads obtained
+ * through {@link #getLongRunningExecutor()}.
+ *
+ * Pool sizes can only be changed for the default engine. For other engines, the sizes are exposed read-only and management updates are ignored.
  */
 @EagerInit
 @Management(name = "RuntimeThreadPoolExecutor",
@@ -47,17 +66,58 @@ import org.oasisopen.sca.annotation.Property;
         group = "kernel",
         description = "Manages the runtime thread pool")
 public class RuntimeThreadPoolExecutor extends AbstractExecutorService {
+    private static final String THREAD_POOL = "thread.pool";
+    private static final String FORK_JOIN = "fork.join";
+    private static final String VIRTUAL = "virtual";
+
+    private String engine = THREAD_POOL;
     private int coreSize = 100;
     private long keepAliveTime = 60000;
     private boolean allowCoreThreadTimeOut = true;
     private int maximumSize = 100;
     private int queueSize = 10000;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
     private RejectedExecutionHandler rejectedExecutionHandler = new ThreadPoolExecutor.CallerRunsPolicy();
 
-    private ThreadPoolExecutor delegate;
+    private ExecutorService delegate;
+    private ThreadPoolExecutor threadPool;
+    private ForkJoinPool forkJoinPool;
+    private ExecutorService longRunningExecutor;
     private LinkedBlockingQueue<Runnable> queue;
     private ExecutorMonitor monitor;
 
+    // tracks tasks running on virtual threads, which are not pooled
+    private AtomicInteger virtualActive = new AtomicInteger();
+    private AtomicInteger virtualLargest = new AtomicInteger();
+
+    /**
+     * Sets the executor engine.
+     *
+     * @param engine the engine: {@code thread.pool}, {@code fork.join} or {@code virtual}
+     */
+    @Property(required = false)
+    @Source("$systemConfig//f3:thread.pool/@engine")
+    public void setEngine(String engine) {
+        if (!THREAD_POOL.equals(engine) && !FORK_JOIN.equals(engine) && !VIRTUAL.equals(engine)) {
+            throw new IllegalArgumentException("Invalid executor engine: " + engine);
+        }
+        this.engine = engine;
+    }
+
+    /**
+     * Sets the target parallelism of the fork-join engine.
+     *
+     * @param parallelism the target number of active threads
+     */
+    @Property(required = false)
+    @Source("$systemConfig//f3:thread.pool/@parallelism")
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be greater than 0");
+        }
+        this.parallelism = parallelism;
+    }
+
     /**
      * Sets the number of threads always available to service the executor queue.
      *
@@ -100,17 +160,19 @@ public class RuntimeThreadPoolExecutor extends AbstractExecutorService {
     @Property(required = false)
     @Source("$systemConfig//f3:thread.pool/@rejected.execution.handler")
     public void setRejectedExecutionHandler(String handler) {
-        if ("abort".equals(handler)) {
-            this.rejectedExecutionHandler = new ThreadPoolExecutor.AbortPolicy();
-        } else if ("discard".equals(handler)) {
-            this.rejectedExecutionHandler = new ThreadPoolExecutor.DiscardPolicy();
-        } else if ("discard.oldest".equals(handler)) {
-            this.rejectedExecutionHandler = new ThreadPoolExecutor.DiscardOldestPolicy();
-        } else if (!"caller.runs".equals(handler)) {
+        RejectedExecutionHandler policy = RejectionPolicies.create(handler);
+        if (policy == null) {
             monitor.error("Invalid rejected execution handler configuration - setting to caller.runs: " + handler);
+        } else {
+            this.rejectedExecutionHandler = policy;
         }
     }
 
+    @ManagementOperation(description = "The executor engine: thread.pool, fork.join or virtual")
+    public String getEngine() {
+        return engine;
+    }
+
     @ManagementOperation(description = "Thread keep alive time in milliseconds")
     public long getKeepAliveTime() {
         return keepAliveTime;
@@ -141,44 +203,94 @@ public class RuntimeThreadPoolExecutor extends AbstractExecutorService {
 
     @ManagementOperation(description = "Returns the approximate number of threads actively executing tasks")
     public int getActiveCount() {
-        return delegate.getActiveCount();
+        if (threadPool != null) {
+            return threadPool.getActiveCount();
+        } else if (forkJoinPool != null) {
+            return forkJoinPool.getActiveThreadCount();
+        }
+        return virtualActive.get();
+    }
+
+    @ManagementOperation(description = "Returns the approximate number of tasks waiting to be executed")
+    public long getQueuedCount() {
+        if (threadPool != null) {
+            return queue.size();
+        } else if (forkJoinPool != null) {
+            return forkJoinPool.getQueuedSubmissionCount() + forkJoinPool.getQueuedTaskCount();
+        }
+        return 0;
     }
 
     @ManagementOperation(description = "The maximum thread pool size")
     public int getMaximumPoolSize() {
-        return delegate.getMaximumPoolSize();
+        if (threadPool != null) {
+            return threadPool.getMaximumPoolSize();
+        } else if (forkJoinPool != null) {
+            return forkJoinPool.getParallelism();
+        }
+        return Integer.MAX_VALUE;
     }
 
     @ManagementOperation(description = "The maximum thread pool size")
     public void setMaximumPoolSize(int size) {
-        delegate.setMaximumPoolSize(size);
+        if (threadPool != null) {
+            threadPool.setMaximumPoolSize(size);
+        }
     }
 
     @ManagementOperation(description = "The core thread pool size")
     public int getCorePoolSize() {
-        return delegate.getCorePoolSize();
+        if (threadPool != null) {
+            return threadPool.getCorePoolSize();
+        } else if (forkJoinPool != null) {
+            return forkJoinPool.getParallelism();
+        }
+        return 0;
     }
 
     @ManagementOperation(description = "The core thread pool size")
     public void setCorePoolSize(int size) {
-        delegate.setCorePoolSize(size);
+        if (threadPool != null) {
+            threadPool.setCorePoolSize(size);
+        }
     }
 
     @ManagementOperation(description = "Returns the largest size the thread pool reached")
     public int getLargestPoolSize() {
-        return delegate.getLargestPoolSize();
+        if (threadPool != null) {
+            return threadPool.getLargestPoolSize();
+        } else if (forkJoinPool != null) {
+            return forkJoinPool.getPoolSize();
+        }
+        return virtualLargest.get();
     }
 
     @ManagementOperation(description = "Returns the remaining capacity the receive queue has before additional work will be rejected")
     public int getRemainingCapacity() {
-        return queue.remainingCapacity();
+        return queue != null ? queue.remainingCapacity() : Integer.MAX_VALUE;
     }
+
     public RuntimeThreadPoolExecutor(@Monitor ExecutorMonitor monitor) {
         this.monitor = monitor;
     }
 
     @Init
     public void init() {
+        if (VIRTUAL.equals(engine)) {
+            delegate = createVirtualExecutor();
+            if (delegate != null) {
+                return;
+            }
+            monitor.virtualThreadsUnavailable();
+            engine = THREAD_POOL;
+        }
+        if (FORK_JOIN.equals(engine)) {
+            ForkJoinPool.ForkJoinWorkerThreadFactory factory = new RuntimeForkJoinThreadFactory();
+            forkJoinPool = new ForkJoinPool(parallelism, factory, new RuntimeThreadFactory(monitor).getUncaughtExceptionHandler(), true);
+            delegate = forkJoinPool;
+            longRunningExecutor = Executors.newCachedThreadPool(new RuntimeThreadFactory("pooled:long:", monitor));
+            return;
+        }
         if (maximumSize < coreSize) {
             throw new IllegalArgumentException("Maximum pool size cannot be less than core pool size");
         }
@@ -190,21 +302,39 @@ public class RuntimeThreadPoolExecutor extends AbstractExecutorService {
             queue = new LinkedBlockingQueue<>();
         }
         RuntimeThreadFactory factory = new RuntimeThreadFactory(monitor);
-        delegate = new ThreadPoolExecutor(coreSize, maximumSize, Long.MAX_VALUE, TimeUnit.SECONDS, queue, factory);
-        delegate.setKeepAliveTime(keepAliveTime, TimeUnit.MILLISECONDS);
-        delegate.allowCoreThreadTimeOut(allowCoreThreadTimeOut);
+        threadPool = new ThreadPoolExecutor(coreSize, maximumSize, Long.MAX_VALUE, TimeUnit.SECONDS, queue, factory);
+        threadPool.setKeepAliveTime(keepAliveTime, TimeUnit.MILLISECONDS);
+        threadPool.allowCoreThreadTimeOut(allowCoreThreadTimeOut);
 
         // set rejection strategy
-        delegate.setRejectedExecutionHandler(rejectedExecutionHandler);
+        threadPool.setRejectedExecutionHandler(rejectedExecutionHandler);
+        delegate = threadPool;
     }
 
     @Destroy
     public void stop() {
         delegate.shutdown();
+        if (longRunningExecutor != null) {
+            longRunningExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Returns the executor for tasks that occupy a thread for as long as they run. For the {@code fork.join} engine, each task is run on a dedicated
+     * thread so the tasks do not occupy fork-join workers. Otherwise, this executor is returned.
+     *
+     * @return the executor
+     */
+    public ExecutorService getLongRunningExecutor() {
+        return longRunningExecutor != null ? longRunningExecutor : this;
     }
 
     public void execute(Runnable runnable) {
-        delegate.execute(runnable);
+        if (threadPool == null && forkJoinPool == null) {
+            delegate.execute(new VirtualTask(runnable));
+        } else {
+            delegate.execute(runnable);
+        }
     }
 
     public void shutdown() {
@@ -227,4 +357,44 @@ public class RuntimeThreadPoolExecutor extends AbstractExecutorService {
         return false;
     }
 
+    /**
+     * Creates a virtual-thread-per-task executor. Reflection is used since the runtime is compiled for JVMs that do not support virtual threads.
+     *
+     * @return the executor or null if virtual threads are not supported
+     */
+    private ExecutorService createVirtualExecutor() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, "virtual:", 1L);
+            Thread.UncaughtExceptionHandler handler = new RuntimeThreadFactory(monitor).getUncaughtExceptionHandler();
+            builder = builderType.getMethod("uncaughtExceptionHandler", Thread.UncaughtExceptionHandler.class).invoke(builder, handler);
+            ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class).invoke(null, factory);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Tracks the number of tasks running on virtual threads.
+     */
+    private class VirtualTask implements Runnable {
+        private Runnable delegate;
+
+        public VirtualTask(Runnable delegate) {
+            this.delegate = delegate;
+        }
+
+        public void run() {
+            int active = virtualActive.incrementAndGet();
+            virtualLargest.accumulateAndGet(active, Math::max);
+            try {
+                delegate.run();
+            } finally {
+                virtualActive.decrementAndGet();
+            }
+        }
+    }
+
 }
@@ -0,0 +1,155 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.threadpool;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamReader;
+import java.io.StringReader;
+import java.net.URI;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+import org.easymock.EasyMock;
+import org.fabric3.api.host.Fabric3Exception;
+import org.fabric3.spi.management.ManagementService;
+
+/**
+ *
+ */
+public class ExecutorRegistryImplTestCase extends TestCase {
+    private static final String XML = "<thread.pools>"
+                                      + "<pool name=\"orders\" size=\"2\" queueSize=\"10\" targets=\"domain://OrderService domain://OrderChannel\"/>"
+                                      + "<pool name=\"billing\" size=\"1\" keepAliveTime=\"86400000000\" rejected.execution.handler=\"abort\" "
+                                      + "targets=\"domain://Billing\"/>"
+                                      + "</thread.pools>";
+
+    private ExecutorService executorService;
+    private ManagementService managementService;
+    private ExecutorRegistryImpl registry;
+
+    public void testBindings() throws Exception {
+        registry.setPools(createReader(XML));
+
+        ExecutorService orders = registry.getPool("orders");
+        assertNotNull(orders);
+        assertSame(orders, registry.getExecutor(URI.create("domain://OrderService")));
+        assertSame(orders, registry.getExecutor(URI.create("domain://OrderService#service")));
+        // only full URIs are bound
+        assertSame(executorService, registry.getExecutor(URI.create("domain://composite/OrderService")));
+        assertSame(executorService, registry.getExecutor(URI.create("domain://composite/OrderService#service")));
+        assertSame(orders, registry.getExecutor(URI.create("domain://OrderChannel")));
+        assertSame(registry.getPool("billing"), registry.getExecutor(URI.create("domain://Billing")));
+        assertSame(executorService, registry.getExecutor(URI.create("domain://Unbound")));
+        assertSame(executorService, registry.getExecutor(null));
+        assertSame(executorService, registry.getLongRunningExecutor(URI.create("domain://Unbound")));
+
+        NamedThreadPool billing = (NamedThreadPool) registry.getPool("billing");
+        assertEquals(86400000000L, billing.getKeepAliveTime());
+    }
+
+    public void testLongRunningTasksEnlargePool() throws Exception {
+        registry.setPools(createReader(XML));
+
+        NamedThreadPool pool = (NamedThreadPool) registry.getPool("billing");
+        ExecutorService executor = registry.getLongRunningExecutor(URI.create("domain://Billing"));
+        assertNotSame(pool, executor);
+
+        // the pool has a single thread, which the long-running tasks would otherwise occupy
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        for (int i = 0; i < 2; i++) {
+            executor.execute(() -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertEquals(2, pool.getLongRunningCount());
+        assertEquals(3, pool.getMaximumPoolSize());
+
+        CountDownLatch latch = new CountDownLatch(1);
+        pool.execute(latch::countDown);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+
+        release.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(0, pool.getLongRunningCount());
+        assertEquals(1, pool.getMaximumPoolSize());
+    }
+
+    public void testExecuteAndExport() throws Exception {
+        managementService.export(EasyMock.eq("threadpools/orders"), EasyMock.eq("kernel"), EasyMock.isA(String.class), EasyMock.isA(NamedThreadPool.class));
+        managementService.export(EasyMock.eq("threadpools/billing"), EasyMock.eq("kernel"), EasyMock.isA(String.class), EasyMock.isA(NamedThreadPool.class));
+        managementService.remove("threadpools/orders", "kernel");
+        managementService.remove("threadpools/billing", "kernel");
+        EasyMock.replay(managementService);
+
+        registry.setPools(createReader(XML));
+        registry.init();
+
+        NamedThreadPool pool = (NamedThreadPool) registry.getPool("orders");
+        CountDownLatch latch = new CountDownLatch(1);
+        pool.execute(latch::countDown);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+
+        registry.destroy();
+        assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(1, pool.getCompletedCount());
+
+        EasyMock.verify(managementService);
+    }
+
+    public void testDuplicateBinding() throws Exception {
+        String xml = "<thread.pools><pool name=\"a\" targets=\"Service\"/><pool name=\"b\" targets=\"Service\"/></thread.pools>";
+        try {
+            registry.setPools(createReader(xml));
+            fail();
+        } catch (Fabric3Exception e) {
+            // expected
+        }
+    }
+
+    public void testInvalidHandler() throws Exception {
+        String xml = "<thread.pools><pool name=\"a\" rejected.execution.handler=\"bogus\"/></thread.pools>";
+        try {
+            registry.setPools(createReader(xml));
+            fail();
+        } catch (Fabric3Exception e) {
+            // expected
+        }
+    }
+
+    public void setUp() throws Exception {
+        super.setUp();
+        managementService = EasyMock.createMock(ManagementService.class);
+        ExecutorMonitor monitor = EasyMock.createNiceMock(ExecutorMonitor.class);
+        EasyMock.replay(monitor);
+        executorService = EasyMock.createMock(ExecutorService.class);
+        registry = new ExecutorRegistryImpl(executorService, managementService, monitor);
+    }
+
+    private XMLStreamReader createReader(String xml) throws Exception {
+        return XMLInputFactory.newFactory().createXMLStreamReader(new StringReader(xml));
+    }
+}
@@ -1,10 +1,17 @@
 package org.fabric3.threadpool;
 
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import junit.framework.TestCase;
 import org.easymock.EasyMock;
+import org.fabric3.spi.container.invocation.WorkContext;
+import org.fabric3.spi.container.invocation.WorkContextCache;
 
 /**
  *
@@ -33,10 +40,86 @@ public class RuntimeThreadPoolExecutorTestCase extends TestCase {
         latch1.countDown();
     }
 
+    public void testForkJoinEngine() throws Exception {
+        executor.setEngine("fork.join");
+        executor.setParallelism(2);
+        executor.init();
+
+        assertEquals("fork.join", executor.getEngine());
+        assertEquals(2, executor.getMaximumPoolSize());
+
+        // pool sizes are read-only for the fork-join engine
+        executor.setMaximumPoolSize(10);
+        executor.setCorePoolSize(10);
+        assertEquals(2, executor.getMaximumPoolSize());
+        assertEquals(2, executor.getCorePoolSize());
+        assertWorkContextIsolated();
+        executor.stop();
+    }
+
+    public void testForkJoinLongRunningExecutor() throws Exception {
+        executor.setEngine("fork.join");
+        executor.init();
+
+        ExecutorService longRunning = executor.getLongRunningExecutor();
+        assertNotSame(executor, longRunning);
+        // long-running tasks do not occupy fork-join workers
+        Future<Boolean> worker = longRunning.submit(() -> Thread.currentThread() instanceof ForkJoinWorkerThread);
+        assertFalse(worker.get(10, TimeUnit.SECONDS));
+        executor.stop();
+    }
+
+    public void testThreadPoolLongRunningExecutor() throws Exception {
+        executor.init();
+        assertSame(executor, executor.getLongRunningExecutor());
+        executor.stop();
+    }
+
+    public void testVirtualEngine() throws Exception {
+        executor.setEngine("virtual");
+        executor.init();
+
+        // falls back to the thread pool engine on JVMs without virtual thread support
+        assertTrue("virtual".equals(executor.getEngine()) || "thread.pool".equals(executor.getEngine()));
+        assertWorkContextIsolated();
+        executor.stop();
+    }
+
+    public void testInvalidEngine() throws Exception {
+        try {
+            executor.setEngine("foo");
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Verifies that work executed by the engine has a work context that is reused across invocations on the same thread and is not shared with the
+     * submitting thread.
+     */
+    private void assertWorkContextIsolated() throws InterruptedException {
+        final WorkContext submitterContext = WorkContextCache.getThreadWorkContext();
+        final CountDownLatch latch = new CountDownLatch(10);
+        final AtomicBoolean isolated = new AtomicBoolean(true);
+        for (int i = 0; i < 10; i++) {
+            executor.execute(() -> {
+                WorkContext workContext = WorkContextCache.getThreadWorkContext();
+                if (workContext == submitterContext || workContext != WorkContextCache.getThreadWorkContext()) {
+                    isolated.set(false);
+                }
+                latch.countDown();
+            });
+        }
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertTrue(isolated.get());
+    }
+
     @Override
     protected void setUp() throws Exception {
         super.setUp();
-        ExecutorMonitor monitor = EasyMock.createMock(ExecutorMonitor.class);
+        ExecutorMonitor monitor = EasyMock.createNiceMock(ExecutorMonitor.class);
+        EasyMock.replay(monitor);
         executor = new RuntimeThreadPoolExecutor(monitor);
     }
 
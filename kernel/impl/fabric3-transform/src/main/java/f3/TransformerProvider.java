@@ -25,6 +25,8 @@ import org.fabric3.api.model.type.component.Composite;
 import org.fabric3.transform.DefaultTransformerRegistry;
 import org.fabric3.transform.binary.ByteArrayToByteArrayTransformer;
 import org.fabric3.transform.binary.TwoDimensionByteArrayTransformer;
+import org.fabric3.transform.codec.BinaryCodec;
+import org.fabric3.transform.codec.SerializationCodec;
 import org.fabric3.transform.java.Bytes2JavaTransformerFactory;
 import org.fabric3.transform.java.Java2BytesTransformerFactory;
 import org.fabric3.transform.java.Java2JavaTransformerFactory;
@@ -85,6 +87,8 @@ public class TransformerProvider {
         compositeBuilder.component(newBuilder(Java2JavaTransformerFactory.class).build());
         compositeBuilder.component(newBuilder(Java2BytesTransformerFactory.class).build());
         compositeBuilder.component(newBuilder(Bytes2JavaTransformerFactory.class).build());
+        compositeBuilder.component(newBuilder(BinaryCodec.class).build());
+        compositeBuilder.component(newBuilder(SerializationCodec.class).build());
         compositeBuilder.component(newBuilder(ByteArrayToByteArrayTransformer.class).build());
         compositeBuilder.component(newBuilder(TwoDimensionByteArrayTransformer.class).build());
 
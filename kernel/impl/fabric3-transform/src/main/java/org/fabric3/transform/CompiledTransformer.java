@@ -0,0 +1,110 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * Portions originally based on Apache Tuscany 2007
+ * licensed under the Apache 2.0 license.
+ */
+package org.fabric3.transform;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.fabric3.api.host.Fabric3Exception;
+import org.fabric3.spi.transform.Transformer;
+
+/**
+ * A transformer that applies a resolved sequence of transformers in a single pass, passing the output of each stage as the input to the next. If statistics
+ * are provided, the number of transformations performed and the time spent performing them are recorded.
+ */
+public class CompiledTransformer implements Transformer<Object, Object> {
+    private Transformer<Object, Object>[] stages;
+    private Statistics statistics;
+
+    /**
+     * Constructor.
+     *
+     * @param stages     the transformers to apply in order
+     * @param statistics the statistics to record to or null if statistics are not recorded
+     */
+    public CompiledTransformer(Transformer<Object, Object>[] stages, Statistics statistics) {
+        this.stages = stages;
+        this.statistics = statistics;
+    }
+
+    public Object transform(Object source, ClassLoader loader) throws Fabric3Exception {
+        if (statistics == null) {
+            return apply(source, loader);
+        }
+        long start = System.nanoTime();
+        try {
+            return apply(source, loader);
+        } finally {
+            statistics.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Returns the number of transformer stages.
+     *
+     * @return the number of transformer stages
+     */
+    public int getStageCount() {
+        return stages.length;
+    }
+
+    private Object apply(Object source, ClassLoader loader) throws Fabric3Exception {
+        Object value = source;
+        for (Transformer<Object, Object> stage : stages) {
+            value = stage.transform(value, loader);
+        }
+        return value;
+    }
+
+    /**
+     * Records the number of transformations performed and the time spent performing them.
+     */
+    public static class Statistics {
+        private LongAdder count = new LongAdder();
+        private LongAdder time = new LongAdder();
+
+        /**
+         * Records a transformation.
+         *
+         * @param nanos the time spent performing the transformation in nanoseconds
+         */
+        public void record(long nanos) {
+            time.add(nanos);
+            count.increment();
+        }
+
+        /**
+         * Returns the number of transformations performed.
+         *
+         * @return the number of transformations performed
+         */
+        public long getCount() {
+            return count.sum();
+        }
+
+        /**
+         * Returns the total time spent performing transformations in nanoseconds.
+         *
+         * @return the total time spent performing transformations
+         */
+        public long getTime() {
+            return time.sum();
+        }
+    }
+
+}
@@ -18,39 +18,79 @@
  */
 package org.fabric3.transform;
 
+import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
 
+import org.fabric3.api.annotation.Source;
+import org.fabric3.api.annotation.management.Management;
+import org.fabric3.api.annotation.management.ManagementOperation;
 import org.fabric3.api.host.Fabric3Exception;
 import org.fabric3.api.model.type.contract.DataType;
+import org.fabric3.spi.classloader.MultiParentClassLoader;
+import org.fabric3.spi.contribution.Contribution;
+import org.fabric3.spi.contribution.ContributionServiceListener;
 import org.fabric3.spi.transform.SingleTypeTransformer;
 import org.fabric3.spi.transform.Transformer;
 import org.fabric3.spi.transform.TransformerFactory;
 import org.fabric3.spi.transform.TransformerRegistry;
+import org.oasisopen.sca.annotation.Property;
 import org.oasisopen.sca.annotation.Reference;
 
 /**
  * Default TransformerRegistry implementation.
+ * <p/>
+ * Transformers are resolved in the following order: a single type transformer registered for the source and target pair; the first transformer factory
+ * capable of converting directly between the pair; and finally the cheapest chain of single type transformers and factories that converts from the source
+ * to the target through intermediate data types.
+ * <p/>
+ * Resolutions are cached as plans keyed by source and target data type. Transformers created by factories may hold per-wire state and are therefore created
+ * for each request from the cached plan rather than shared. Multi-stage plans are applied in a single pass by a {@link CompiledTransformer}. Plans involving
+ * types loaded by a contribution are evicted when the contribution is uninstalled.
  */
-public class DefaultTransformerRegistry implements TransformerRegistry {
+@Management(path = "/runtime/transformers", description = "Manages data transformers")
+public class DefaultTransformerRegistry implements TransformerRegistry, ContributionServiceListener {
     private static final Comparator<TransformerFactory> COMPARATOR = (first, second) -> first.getOrder() - second.getOrder();
 
+    // the maximum number of transformers chained to convert between two types
+    private static final int MAX_STAGES = 3;
+
+    // the base cost of a transformation stage; the factory order is added so that fewer stages are always preferred
+    private static final int STAGE_COST = 1000;
+
     // cache of single type transformers
-    private Map<Key, SingleTypeTransformer<?, ?>> transformers = new HashMap<>();
+    private volatile Map<Key, SingleTypeTransformer<?, ?>> transformers = new HashMap<>();
 
     // cache of transformer factories
-    private List<TransformerFactory> factories = new ArrayList<>();
+    private volatile List<TransformerFactory> factories = new ArrayList<>();
+
+    // cache of resolved transformation plans
+    private ConcurrentMap<PlanKey, Plan> plans = new ConcurrentHashMap<>();
+
+    private volatile boolean statistics;
+
+    private LongAdder creations = new LongAdder();
+    private LongAdder creationTime = new LongAdder();
 
     @Reference(required = false)
     public void setTransformers(List<SingleTypeTransformer<?, ?>> transformers) {
+        Map<Key, SingleTypeTransformer<?, ?>> map = new HashMap<>();
         for (SingleTypeTransformer<?, ?> transformer : transformers) {
             Key pair = new Key(transformer.getSourceType(), transformer.getTargetType());
-            this.transformers.put(pair, transformer);
+            map.put(pair, transformer);
         }
+        this.transformers = map;
+        plans.clear();
     }
 
     @Reference(required = false)
@@ -58,23 +98,356 @@ public class DefaultTransformerRegistry implements TransformerRegistry {
         List<TransformerFactory> sorted = new ArrayList<>(factories);
         Collections.sort(sorted, COMPARATOR);
         this.factories = sorted;
+        plans.clear();
+    }
+
+    /**
+     * Enables recording the number and duration of multi-stage transformations. Only applies to transformers created after the setting is changed.
+     *
+     * @param statistics true if statistics are recorded
+     */
+    @Property(required = false)
+    @Source("$systemConfig//f3:transform/@statistics")
+    @ManagementOperation(description = "Enables recording the number and duration of multi-stage transformations")
+    public void setStatistics(boolean statistics) {
+        this.statistics = statistics;
+    }
+
+    @ManagementOperation(description = "True if the number and duration of multi-stage transformations are recorded")
+    public boolean isStatistics() {
+        return statistics;
     }
 
     public Transformer<?, ?> getTransformer(DataType source, DataType target, List<Class<?>> inTypes, List<Class<?>> outTypes) throws Fabric3Exception {
-        Key key = new Key(source, target);
-        Transformer<?, ?> transformer = transformers.get(key);
+        PlanKey key = new PlanKey(source, target);
+        Plan plan = plans.get(key);
+        if (plan == null) {
+            plan = resolve(source, target);
+            if (plan == null) {
+                return null;
+            }
+            Plan previous = plans.putIfAbsent(key, plan);
+            plan = previous != null ? previous : plan;
+        }
+        long start = System.nanoTime();
+        Transformer<?, ?> transformer = plan.create(inTypes, outTypes);
+        creationTime.add(System.nanoTime() - start);
+        creations.increment();
+        return transformer;
+    }
+
+    public void onUninstall(Contribution contribution) {
+        URI uri = contribution.getUri();
+        plans.keySet().removeIf(key -> isLoadedBy(key.source.type, uri) || isLoadedBy(key.target.type, uri));
+    }
+
+    public void onStore(Contribution contribution) {
+    }
+
+    public void onProcessManifest(Contribution contribution) {
+    }
+
+    public void onInstall(Contribution contribution) {
+    }
+
+    public void onUpdate(Contribution contribution) {
+    }
+
+    public void onRemove(Contribution contribution) {
+    }
+
+    @ManagementOperation(description = "The number of cached transformation plans")
+    public int getCachedPlans() {
+        return plans.size();
+    }
+
+    @ManagementOperation(description = "The number of transformers created")
+    public long getCreatedTransformers() {
+        return creations.sum();
+    }
+
+    @ManagementOperation(description = "The total time spent creating transformers in microseconds")
+    public long getCreationTime() {
+        return creationTime.sum() / 1000;
+    }
+
+    @ManagementOperation(description = "The number of multi-stage transformations performed when statistics are enabled")
+    public long getTransformations() {
+        return plans.values().stream().mapToLong(plan -> plan.statistics.getCount()).sum();
+    }
+
+    @ManagementOperation(description = "The average multi-stage transformation time in nanoseconds for each cached plan when statistics are enabled")
+    public Map<String, Long> getAverageTransformTimes() {
+        Map<String, Long> times = new HashMap<>();
+        for (Plan plan : plans.values()) {
+            if (plan.stages.length < 2) {
+                continue;
+            }
+            long count = plan.statistics.getCount();
+            times.put(plan.description, count == 0 ? 0 : plan.statistics.getTime() / count);
+        }
+        return times;
+    }
+
+    /**
+     * Resolves the transformers or factories that convert from the source to the target data type.
+     *
+     * @param source the source data type
+     * @param target the target data type
+     * @return the plan or null if no conversion is possible
+     */
+    private Plan resolve(DataType source, DataType target) {
+        Object stage = getStage(source, target);
+        if (stage != null) {
+            return new Plan(new DataType[]{source, target}, new Object[]{stage});
+        }
+        List<DataType> path = findPath(source, target);
+        if (path == null) {
+            return null;
+        }
+        Object[] stages = new Object[path.size() - 1];
+        for (int i = 0; i < stages.length; i++) {
+            stages[i] = getStage(path.get(i), path.get(i + 1));
+            if (stages[i] == null) {
+                return null;
+            }
+        }
+        return new Plan(path.toArray(new DataType[path.size()]), stages);
+    }
+
+    /**
+     * Returns the lowest cost sequence of data types, starting with the source and ending with the target, for which a transformer exists between each
+     * consecutive pair. Intermediate data types are drawn from the source and target types of registered single type transformers and the intermediate
+     * types declared by transformer factories.
+     *
+     * @param source the source data type
+     * @param target the target data type
+     * @return the sequence of data types or null if no path exists
+     */
+    private List<DataType> findPath(DataType source, DataType target) {
+        // data types are keyed including their data binding since data types with the same Java type but different bindings are considered equal
+        Map<TypeKey, DataType> nodes = new LinkedHashMap<>();
+        for (Key key : transformers.keySet()) {
+            nodes.put(new TypeKey(key.source), key.source);
+            nodes.put(new TypeKey(key.target), key.target);
+        }
+        for (TransformerFactory factory : factories) {
+            for (DataType type : factory.getIntermediateTypes()) {
+                nodes.put(new TypeKey(type), type);
+            }
+        }
+        TypeKey targetKey = new TypeKey(target);
+        nodes.put(targetKey, target);
+        nodes.remove(new TypeKey(source));
+
+        Map<TypeKey, Integer> costs = new HashMap<>();
+        PriorityQueue<PathNode> queue = new PriorityQueue<>((first, second) -> first.cost - second.cost);
+        queue.add(new PathNode(source, null, 0, 0));
+        while (!queue.isEmpty()) {
+            PathNode current = queue.poll();
+            if (current.previous != null && targetKey.equals(new TypeKey(current.type))) {
+                List<DataType> path = new ArrayList<>();
+                for (PathNode node = current; node != null; node = node.previous) {
+                    path.add(0, node.type);
+                }
+                return path;
+            }
+            if (current.stages == MAX_STAGES) {
+                continue;
+            }
+            TypeKey currentKey = new TypeKey(current.type);
+            for (Map.Entry<TypeKey, DataType> entry : nodes.entrySet()) {
+                if (entry.getKey().equals(currentKey)) {
+                    continue;
+                }
+                DataType next = entry.getValue();
+                int cost = getCost(current.type, next);
+                if (cost < 0) {
+                    continue;
+                }
+                int total = current.cost + cost;
+                Integer best = costs.get(entry.getKey());
+                if (best != null && best <= total) {
+                    continue;
+                }
+                costs.put(entry.getKey(), total);
+                queue.add(new PathNode(next, current, total, current.stages + 1));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the cost of converting directly between two data types or -1 if a conversion is not possible.
+     *
+     * @param source the source data type
+     * @param target the target data type
+     * @return the cost or -1
+     */
+    private int getCost(DataType source, DataType target) {
+        if (transformers.containsKey(new Key(source, target))) {
+            return STAGE_COST;
+        }
+        for (TransformerFactory factory : factories) {
+            if (factory.canTransform(source, target)) {
+                return STAGE_COST + factory.getOrder();
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the single type transformer or the first factory that converts directly between two data types.
+     *
+     * @param source the source data type
+     * @param target the target data type
+     * @return the transformer, factory or null
+     */
+    private Object getStage(DataType source, DataType target) {
+        Transformer<?, ?> transformer = transformers.get(new Key(source, target));
         if (transformer != null) {
             return transformer;
         }
         for (TransformerFactory factory : factories) {
-            boolean canTransform = factory.canTransform(source, target);
-            if (canTransform) {
-                return factory.create(source, target, inTypes, outTypes);
+            if (factory.canTransform(source, target)) {
+                return factory;
             }
         }
         return null;
     }
 
+    private boolean isLoadedBy(DataType type, URI uri) {
+        Class<?> clazz = type.getType();
+        while (clazz.isArray()) {
+            clazz = clazz.getComponentType();
+        }
+        ClassLoader loader = clazz.getClassLoader();
+        return loader instanceof MultiParentClassLoader && uri.equals(((MultiParentClassLoader) loader).getName());
+    }
+
+    private static String describe(DataType type) {
+        String binding = type.getDatabinding();
+        return binding == null ? type.getType().getName() : type.getType().getName() + "/" + binding;
+    }
+
+    /**
+     * A resolved sequence of single type transformers and transformer factories converting between two data types.
+     */
+    private class Plan {
+        private final DataType[] types;
+        private final Object[] stages;
+        private final String description;
+        private final CompiledTransformer.Statistics statistics = new CompiledTransformer.Statistics();
+
+        public Plan(DataType[] types, Object[] stages) {
+            this.types = types;
+            this.stages = stages;
+            StringBuilder builder = new StringBuilder(describe(types[0]));
+            for (int i = 1; i < types.length; i++) {
+                builder.append(" -> ").append(describe(types[i]));
+            }
+            this.description = builder.toString();
+        }
+
+        /**
+         * Creates a transformer for the plan. Single stage plans return the transformer directly.
+         *
+         * @param inTypes  the physical types of the source data
+         * @param outTypes the physical types of the converted data
+         * @return the transformer
+         * @throws Fabric3Exception if there is an error creating the transformer
+         */
+        @SuppressWarnings("unchecked")
+        public Transformer<?, ?> create(List<Class<?>> inTypes, List<Class<?>> outTypes) throws Fabric3Exception {
+            if (stages.length == 1) {
+                return createStage(0, inTypes, outTypes);
+            }
+            Transformer<Object, Object>[] created = new Transformer[stages.length];
+            for (int i = 0; i < stages.length; i++) {
+                List<Class<?>> stageIn = i == 0 ? inTypes : Collections.singletonList(types[i].getType());
+                List<Class<?>> stageOut = i == stages.length - 1 ? outTypes : Collections.singletonList(types[i + 1].getType());
+                created[i] = (Transformer<Object, Object>) createStage(i, stageIn, stageOut);
+            }
+            return new CompiledTransformer(created, DefaultTransformerRegistry.this.statistics ? statistics : null);
+        }
+
+        private Transformer<?, ?> createStage(int index, List<Class<?>> inTypes, List<Class<?>> outTypes) throws Fabric3Exception {
+            Object stage = stages[index];
+            if (stage instanceof TransformerFactory) {
+                return ((TransformerFactory) stage).create(types[index], types[index + 1], inTypes, outTypes);
+            }
+            return (Transformer<?, ?>) stage;
+        }
+    }
+
+    private static class PathNode {
+        private final DataType type;
+        private final PathNode previous;
+        private final int cost;
+        private final int stages;
+
+        public PathNode(DataType type, PathNode previous, int cost, int stages) {
+            this.type = type;
+            this.previous = previous;
+            this.cost = cost;
+            this.stages = stages;
+        }
+    }
+
+    /**
+     * Keys a data type including its data binding.
+     */
+    private static class TypeKey {
+        private final DataType type;
+
+        public TypeKey(DataType type) {
+            this.type = type;
+        }
+
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            TypeKey that = (TypeKey) o;
+            return type.equals(that.type) && Objects.equals(type.getDatabinding(), that.type.getDatabinding());
+        }
+
+        public int hashCode() {
+            return Objects.hash(type, type.getDatabinding());
+        }
+    }
+
+    /**
+     * Keys cached plans. Data bindings are included since transformer factories select on them.
+     */
+    private static class PlanKey {
+        private final TypeKey source;
+        private final TypeKey target;
+
+        public PlanKey(DataType source, DataType target) {
+            this.source = new TypeKey(source);
+            this.target = new TypeKey(target);
+        }
+
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            PlanKey that = (PlanKey) o;
+            return source.equals(that.source) && target.equals(that.target);
+        }
+
+        public int hashCode() {
+            return 31 * source.hashCode() + target.hashCode();
+        }
+    }
+
     private static class Key {
         private final DataType source;
         private final DataType target;
@@ -0,0 +1,642 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.transform.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.fabric3.api.host.Fabric3Exception;
+import org.fabric3.spi.classloader.ClassLoaderObjectInputStream;
+import org.fabric3.spi.transform.Codec;
+
+/**
+ * A schema-less binary codec that is considerably faster and more compact than Java serialization.
+ *
+ * Strings, boxed primitives, arrays, enums, dates, big numbers and the common collection types are written with compact tags. Other serializable types
+ * are written field-by-field using cached {@link ClassDescriptor}s; class names are written once per payload. Shared references and cycles are preserved.
+ * Types that customize their serialized form are written using Java serialization so their semantics are retained.
+ *
+ * Payloads produced by Java serialization are recognized when decoding, so runtimes using this codec can read payloads sent by runtimes that use
+ * {@link SerializationCodec}.
+ */
+public class BinaryCodec implements Codec {
+    public static final String NAME = "binary";
+
+    private static final byte MAGIC = (byte) 0xF3;
+    private static final byte VERSION = 1;
+
+    private static final byte NULL = 0;
+    private static final byte TRUE = 1;
+    private static final byte FALSE = 2;
+    private static final byte BYTE = 3;
+    private static final byte SHORT = 4;
+    private static final byte CHAR = 5;
+    private static final byte INT = 6;
+    private static final byte LONG = 7;
+    private static final byte FLOAT = 8;
+    private static final byte DOUBLE = 9;
+    private static final byte STRING = 10;
+    private static final byte REFERENCE = 11;
+    private static final byte PRIMITIVE_ARRAY = 12;
+    private static final byte OBJECT_ARRAY = 13;
+    private static final byte ENUM = 14;
+    private static final byte COLLECTION = 15;
+    private static final byte MAP = 16;
+    private static final byte DATE = 17;
+    private static final byte BIG_INTEGER = 18;
+    private static final byte BIG_DECIMAL = 19;
+    private static final byte OBJECT = 20;
+    private static final byte SERIALIZED = 21;
+
+    private static final byte ARRAY_LIST = 0;
+    private static final byte LINKED_LIST = 1;
+    private static final byte HASH_SET = 2;
+    private static final byte LINKED_HASH_SET = 3;
+    private static final byte TREE_SET = 4;
+
+    private static final byte HASH_MAP = 0;
+    private static final byte LINKED_HASH_MAP = 1;
+    private static final byte TREE_MAP = 2;
+    private static final byte CONCURRENT_HASH_MAP = 3;
+
+    private ThreadLocal<BinaryOutput> outputs = ThreadLocal.withInitial(BinaryOutput::new);
+    private ThreadLocal<BinaryInput> inputs = ThreadLocal.withInitial(BinaryInput::new);
+
+    public String getName() {
+        return NAME;
+    }
+
+    public byte[] encode(Object object) throws Fabric3Exception {
+        BinaryOutput output = outputs.get();
+        if (output.inUse) {
+            // re-entrant call from a custom serialization method
+            output = new BinaryOutput();
+        }
+        output.inUse = true;
+        try {
+            output.writeByte(MAGIC);
+            output.writeByte(VERSION);
+            writeObject(object, output);
+            return output.toByteArray();
+        } catch (IOException | ReflectiveOperationException e) {
+            throw new Fabric3Exception(e);
+        } finally {
+            output.reset();
+            output.inUse = false;
+        }
+    }
+
+    public Object decode(byte[] bytes, ClassLoader loader) throws Fabric3Exception {
+        if (loader == null) {
+            loader = getClass().getClassLoader();
+        }
+        if (bytes.length >= 2 && bytes[0] == (byte) 0xAC && bytes[1] == (byte) 0xED) {
+            // Java serialization stream magic
+            return deserialize(bytes, loader);
+        }
+        if (bytes.length < 2 || bytes[0] != MAGIC) {
+            throw new Fabric3Exception("Payload was not encoded with the binary codec");
+        }
+        if (bytes[1] != VERSION) {
+            throw new Fabric3Exception("Unsupported binary codec version: " + bytes[1]);
+        }
+        BinaryInput input = inputs.get();
+        if (input.inUse) {
+            input = new BinaryInput();
+        }
+        input.inUse = true;
+        try {
+            input.init(bytes, 2, loader);
+            return readObject(input);
+        } catch (IOException | ReflectiveOperationException e) {
+            throw new Fabric3Exception(e);
+        } finally {
+            input.reset();
+            input.inUse = false;
+        }
+    }
+
+    private void writeObject(Object object, BinaryOutput output) throws IOException, ReflectiveOperationException {
+        if (object == null) {
+            output.writeByte(NULL);
+            return;
+        }
+        Class<?> type = object.getClass();
+        if (type == String.class) {
+            output.writeByte(STRING);
+            output.writeString((String) object);
+            return;
+        } else if (type == Integer.class) {
+            output.writeByte(INT);
+            output.writeZigZagInt((Integer) object);
+            return;
+        } else if (type == Long.class) {
+            output.writeByte(LONG);
+            output.writeZigZagLong((Long) object);
+            return;
+        } else if (type == Boolean.class) {
+            output.writeByte((Boolean) object ? TRUE : FALSE);
+            return;
+        } else if (type == Double.class) {
+            output.writeByte(DOUBLE);
+            output.writeLong(Double.doubleToRawLongBits((Double) object));
+            return;
+        } else if (type == Float.class) {
+            output.writeByte(FLOAT);
+            output.writeInt(Float.floatToRawIntBits((Float) object));
+            return;
+        } else if (type == Short.class) {
+            output.writeByte(SHORT);
+            output.writeShort((Short) object);
+            return;
+        } else if (type == Byte.class) {
+            output.writeByte(BYTE);
+            output.writeByte((Byte) object);
+            return;
+        } else if (type == Character.class) {
+            output.writeByte(CHAR);
+            output.writeShort((Character) object);
+            return;
+        } else if (object instanceof Enum) {
+            output.writeByte(ENUM);
+            output.writeClass(((Enum<?>) object).getDeclaringClass(), 0);
+            output.writeString(((Enum<?>) object).name());
+            return;
+        }
+
+        int handle = output.handle(object);
+        if (handle >= 0) {
+            output.writeByte(REFERENCE);
+            output.writeVarInt(handle);
+            return;
+        }
+
+        if (type.isArray()) {
+            writeArray(object, type, output);
+        } else if (type == ArrayList.class) {
+            writeCollection(ARRAY_LIST, (Collection<?>) object, output);
+        } else if (type == HashMap.class) {
+            writeMap(HASH_MAP, (Map<?, ?>) object, output);
+        } else if (type == LinkedHashMap.class) {
+            writeMap(LINKED_HASH_MAP, (Map<?, ?>) object, output);
+        } else if (type == HashSet.class) {
+            writeCollection(HASH_SET, (Collection<?>) object, output);
+        } else if (type == LinkedHashSet.class) {
+            writeCollection(LINKED_HASH_SET, (Collection<?>) object, output);
+        } else if (type == LinkedList.class) {
+            writeCollection(LINKED_LIST, (Collection<?>) object, output);
+        } else if (type == ConcurrentHashMap.class) {
+            writeMap(CONCURRENT_HASH_MAP, (Map<?, ?>) object, output);
+        } else if (type == TreeMap.class && ((TreeMap<?, ?>) object).comparator() == null) {
+            writeMap(TREE_MAP, (Map<?, ?>) object, output);
+        } else if (type == TreeSet.class && ((TreeSet<?>) object).comparator() == null) {
+            writeCollection(TREE_SET, (Collection<?>) object, output);
+        } else if (type == Date.class) {
+            output.writeByte(DATE);
+            output.writeZigZagLong(((Date) object).getTime());
+        } else if (type == BigInteger.class) {
+            output.writeByte(BIG_INTEGER);
+            output.writeBytes(((BigInteger) object).toByteArray());
+        } else if (type == BigDecimal.class) {
+            BigDecimal decimal = (BigDecimal) object;
+            output.writeByte(BIG_DECIMAL);
+            output.writeBytes(decimal.unscaledValue().toByteArray());
+            output.writeZigZagInt(decimal.scale());
+        } else {
+            ClassDescriptor descriptor = ClassDescriptor.get(type);
+            if (descriptor.isStructured()) {
+                writeFields(object, descriptor, output);
+            } else {
+                output.writeByte(SERIALIZED);
+                output.writeBytes(serialize(object));
+            }
+        }
+    }
+
+    private void writeArray(Object array, Class<?> type, BinaryOutput output) throws IOException, ReflectiveOperationException {
+        Class<?> componentType = type.getComponentType();
+        if (componentType.isPrimitive()) {
+            output.writeByte(PRIMITIVE_ARRAY);
+            if (componentType == Byte.TYPE) {
+                output.writeByte('B');
+                output.writeBytes((byte[]) array);
+                return;
+            }
+            int length = Array.getLength(array);
+            if (componentType == Integer.TYPE) {
+                output.writeByte('I');
+                output.writeVarInt(length);
+                for (int value : (int[]) array) {
+                    output.writeZigZagInt(value);
+                }
+            } else if (componentType == Long.TYPE) {
+                output.writeByte('J');
+                output.writeVarInt(length);
+                for (long value : (long[]) array) {
+                    output.writeZigZagLong(value);
+                }
+            } else if (componentType == Double.TYPE) {
+                output.writeByte('D');
+                output.writeVarInt(length);
+                for (double value : (double[]) array) {
+                    output.writeLong(Double.doubleToRawLongBits(value));
+                }
+            } else if (componentType == Float.TYPE) {
+                output.writeByte('F');
+                output.writeVarInt(length);
+                for (float value : (float[]) array) {
+                    output.writeInt(Float.floatToRawIntBits(value));
+                }
+            } else if (componentType == Boolean.TYPE) {
+                output.writeByte('Z');
+                output.writeVarInt(length);
+                for (boolean value : (boolean[]) array) {
+                    output.writeByte(value ? 1 : 0);
+                }
+            } else if (componentType == Short.TYPE) {
+                output.writeByte('S');
+                output.writeVarInt(length);
+                for (short value : (short[]) array) {
+                    output.writeShort(value);
+                }
+            } else {
+                output.writeByte('C');
+                output.writeVarInt(length);
+                for (char value : (char[]) array) {
+                    output.writeShort(value);
+                }
+            }
+        } else {
+            Object[] elements = (Object[]) array;
+            output.writeByte(OBJECT_ARRAY);
+            output.writeClass(componentType, 0);
+            output.writeVarInt(elements.length);
+            for (Object element : elements) {
+                writeObject(element, output);
+            }
+        }
+    }
+
+    private void writeCollection(byte kind, Collection<?> collection, BinaryOutput output) throws IOException, ReflectiveOperationException {
+        output.writeByte(COLLECTION);
+        output.writeByte(kind);
+        output.writeVarInt(collection.size());
+        for (Object element : collection) {
+            writeObject(element, output);
+        }
+    }
+
+    private void writeMap(byte kind, Map<?, ?> map, BinaryOutput output) throws IOException, ReflectiveOperationException {
+        output.writeByte(MAP);
+        output.writeByte(kind);
+        output.writeVarInt(map.size());
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            writeObject(entry.getKey(), output);
+            writeObject(entry.getValue(), output);
+        }
+    }
+
+    private void writeFields(Object object, ClassDescriptor descriptor, BinaryOutput output) throws IOException, ReflectiveOperationException {
+        output.writeByte(OBJECT);
+        output.writeClass(descriptor.getType(), descriptor.getFingerprint());
+        Field[] fields = descriptor.getFields();
+        char[] types = descriptor.getFieldTypes();
+        for (int i = 0; i < fields.length; i++) {
+            Field field = fields[i];
+            switch (types[i]) {
+                case 'I':
+                    output.writeZigZagInt(field.getInt(object));
+                    break;
+                case 'J':
+                    output.writeZigZagLong(field.getLong(object));
+                    break;
+                case 'Z':
+                    output.writeByte(field.getBoolean(object) ? 1 : 0);
+                    break;
+                case 'D':
+                    output.writeLong(Double.doubleToRawLongBits(field.getDouble(object)));
+                    break;
+                case 'F':
+                    output.writeInt(Float.floatToRawIntBits(field.getFloat(object)));
+                    break;
+                case 'S':
+                    output.writeShort(field.getShort(object));
+                    break;
+                case 'B':
+                    output.writeByte(field.getByte(object));
+                    break;
+                case 'C':
+                    output.writeShort(field.getChar(object));
+                    break;
+                default:
+                    writeObject(field.get(object), output);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object readObject(BinaryInput input) throws IOException, ReflectiveOperationException {
+        int tag = input.readByte();
+        switch (tag) {
+            case NULL:
+                return null;
+            case STRING:
+                return input.readString();
+            case INT:
+                return input.readZigZagInt();
+            case LONG:
+                return input.readZigZagLong();
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            case DOUBLE:
+                return Double.longBitsToDouble(input.readLong());
+            case FLOAT:
+                return Float.intBitsToFloat(input.readInt());
+            case SHORT:
+                return input.readShort();
+            case BYTE:
+                return (byte) input.readByte();
+            case CHAR:
+                return (char) input.readShort();
+            case ENUM:
+                Class<?> enumType = input.readClass();
+                if (!enumType.isEnum()) {
+                    throw new Fabric3Exception("Not an enum type: " + enumType.getName());
+                }
+                return Enum.valueOf(enumType.asSubclass(Enum.class), input.readString());
+            case REFERENCE:
+                return input.getHandle(input.readVarInt());
+            case PRIMITIVE_ARRAY:
+                return readPrimitiveArray(input);
+            case OBJECT_ARRAY:
+                Class<?> componentType = input.readClass();
+                int length = input.readLength();
+                Object[] array = (Object[]) Array.newInstance(componentType, length);
+                input.setHandle(input.reserveHandle(), array);
+                for (int i = 0; i < length; i++) {
+                    array[i] = readObject(input);
+                }
+                return array;
+            case COLLECTION:
+                return readCollection(input);
+            case MAP:
+                return readMap(input);
+            case DATE:
+                int dateHandle = input.reserveHandle();
+                Date date = new Date(input.readZigZagLong());
+                input.setHandle(dateHandle, date);
+                return date;
+            case BIG_INTEGER:
+                int integerHandle = input.reserveHandle();
+                BigInteger integer = new BigInteger(input.readBytes());
+                input.setHandle(integerHandle, integer);
+                return integer;
+            case BIG_DECIMAL:
+                int decimalHandle = input.reserveHandle();
+                BigDecimal decimal = new BigDecimal(new BigInteger(input.readBytes()), input.readZigZagInt());
+                input.setHandle(decimalHandle, decimal);
+                return decimal;
+            case OBJECT:
+                return readFields(input);
+            case SERIALIZED:
+                int serializedHandle = input.reserveHandle();
+                Object deserialized = deserialize(input.readBytes(), input.getClassLoader());
+                input.setHandle(serializedHandle, deserialized);
+                return deserialized;
+            default:
+                throw new Fabric3Exception("Invalid tag in payload: " + tag);
+        }
+    }
+
+    private Object readPrimitiveArray(BinaryInput input) {
+        int handle = input.reserveHandle();
+        int type = input.readByte();
+        Object array;
+        if (type == 'B') {
+            array = input.readBytes();
+        } else {
+            int length = input.readLength();
+            switch (type) {
+                case 'I':
+                    int[] ints = new int[length];
+                    for (int i = 0; i < length; i++) {
+                        ints[i] = input.readZigZagInt();
+                    }
+                    array = ints;
+                    break;
+                case 'J':
+                    long[] longs = new long[length];
+                    for (int i = 0; i < length; i++) {
+                        longs[i] = input.readZigZagLong();
+                    }
+                    array = longs;
+                    break;
+                case 'D':
+                    double[] doubles = new double[length];
+                    for (int i = 0; i < length; i++) {
+                        doubles[i] = Double.longBitsToDouble(input.readLong());
+                    }
+                    array = doubles;
+                    break;
+                case 'F':
+                    float[] floats = new float[length];
+                    for (int i = 0; i < length; i++) {
+                        floats[i] = Float.intBitsToFloat(input.readInt());
+                    }
+                    array = floats;
+                    break;
+                case 'Z':
+                    boolean[] booleans = new boolean[length];
+                    for (int i = 0; i < length; i++) {
+                        booleans[i] = input.readByte() != 0;
+                    }
+                    array = booleans;
+                    break;
+                case 'S':
+                    short[] shorts = new short[length];
+                    for (int i = 0; i < length; i++) {
+                        shorts[i] = input.readShort();
+                    }
+                    array = shorts;
+                    break;
+                case 'C':
+                    char[] chars = new char[length];
+                    for (int i = 0; i < length; i++) {
+                        chars[i] = (char) input.readShort();
+                    }
+                    array = chars;
+                    break;
+                default:
+                    throw new Fabric3Exception("Invalid array type in payload: " + type);
+            }
+        }
+        input.setHandle(handle, array);
+        return array;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object readCollection(BinaryInput input) throws IOException, ReflectiveOperationException {
+        int kind = input.readByte();
+        int size = input.readLength();
+        Collection<Object> collection;
+        switch (kind) {
+            case ARRAY_LIST:
+                collection = new ArrayList<>(size);
+                break;
+            case HASH_SET:
+                collection = new HashSet<>(capacity(size));
+                break;
+            case LINKED_HASH_SET:
+                collection = new LinkedHashSet<>(capacity(size));
+                break;
+            case LINKED_LIST:
+                collection = new LinkedList<>();
+                break;
+            case TREE_SET:
+                collection = new TreeSet<>();
+                break;
+            default:
+                throw new Fabric3Exception("Invalid collection type in payload: " + kind);
+        }
+        input.setHandle(input.reserveHandle(), collection);
+        for (int i = 0; i < size; i++) {
+            collection.add(readObject(input));
+        }
+        return collection;
+    }
+
+    private Object readMap(BinaryInput input) throws IOException, ReflectiveOperationException {
+        int kind = input.readByte();
+        int size = input.readLength();
+        Map<Object, Object> map;
+        switch (kind) {
+            case HASH_MAP:
+                map = new HashMap<>(capacity(size));
+                break;
+            case LINKED_HASH_MAP:
+                map = new LinkedHashMap<>(capacity(size));
+                break;
+            case TREE_MAP:
+                map = new TreeMap<>();
+                break;
+            case CONCURRENT_HASH_MAP:
+                map = new ConcurrentHashMap<>(capacity(size));
+                break;
+            default:
+                throw new Fabric3Exception("Invalid map type in payload: " + kind);
+        }
+        input.setHandle(input.reserveHandle(), map);
+        for (int i = 0; i < size; i++) {
+            Object key = readObject(input);
+            Object value = readObject(input);
+            map.put(key, value);
+        }
+        return map;
+    }
+
+    private Object readFields(BinaryInput input) throws IOException, ReflectiveOperationException {
+        Class<?> type = input.readClass();
+        ClassDescriptor descriptor = ClassDescriptor.get(type);
+        if (!descriptor.isStructured()) {
+            throw new Fabric3Exception("Incompatible version of class " + type.getName() + " in payload");
+        }
+        input.verifyFingerprint(descriptor.getFingerprint());
+        Object object = descriptor.newInstance();
+        input.setHandle(input.reserveHandle(), object);
+        Field[] fields = descriptor.getFields();
+        char[] types = descriptor.getFieldTypes();
+        for (int i = 0; i < fields.length; i++) {
+            Field field = fields[i];
+            switch (types[i]) {
+                case 'I':
+                    field.setInt(object, input.readZigZagInt());
+                    break;
+                case 'J':
+                    field.setLong(object, input.readZigZagLong());
+                    break;
+                case 'Z':
+                    field.setBoolean(object, input.readByte() != 0);
+                    break;
+                case 'D':
+                    field.setDouble(object, Double.longBitsToDouble(input.readLong()));
+                    break;
+                case 'F':
+                    field.setFloat(object, Float.intBitsToFloat(input.readInt()));
+                    break;
+                case 'S':
+                    field.setShort(object, input.readShort());
+                    break;
+                case 'B':
+                    field.setByte(object, (byte) input.readByte());
+                    break;
+                case 'C':
+                    field.setChar(object, (char) input.readShort());
+                    break;
+                default:
+                    Object value = readObject(input);
+                    try {
+                        field.set(object, value);
+                    } catch (IllegalArgumentException e) {
+                        throw new Fabric3Exception("Invalid value in payload for field " + field.getName() + " of class " + type.getName(), e);
+                    }
+            }
+        }
+        return object;
+    }
+
+    private byte[] serialize(Object object) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (ObjectOutputStream stream = new ObjectOutputStream(bos)) {
+            stream.writeObject(object);
+        }
+        return bos.toByteArray();
+    }
+
+    private Object deserialize(byte[] bytes, ClassLoader loader) throws Fabric3Exception {
+        try (ObjectInputStream stream = new ClassLoaderObjectInputStream(new ByteArrayInputStream(bytes), loader)) {
+            return stream.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            throw new Fabric3Exception(e);
+        }
+    }
+
+    private static int capacity(int size) {
+        return size < 3 ? size + 1 : (int) (size / 0.75f + 1);
+    }
+
+}
@@ -0,0 +1,217 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.transform.codec;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.fabric3.api.host.Fabric3Exception;
+
+/**
+ * Reads a payload written by {@link BinaryOutput}.
+ */
+final class BinaryInput {
+    private byte[] buffer;
+    private int position;
+    private ClassLoader loader;
+
+    private List<Object> handles = new ArrayList<>();
+    private List<Class<?>> classes = new ArrayList<>();
+    private List<Boolean> described = new ArrayList<>();
+    private int lastClass;
+
+    boolean inUse;
+
+    void init(byte[] buffer, int position, ClassLoader loader) {
+        this.buffer = buffer;
+        this.position = position;
+        this.loader = loader;
+    }
+
+    ClassLoader getClassLoader() {
+        return loader;
+    }
+
+    /**
+     * Reserves the next handle. The object must be set using {@link #setHandle(int, Object)} before any reference to it is read.
+     *
+     * @return the handle
+     */
+    int reserveHandle() {
+        handles.add(null);
+        return handles.size() - 1;
+    }
+
+    void setHandle(int handle, Object object) {
+        handles.set(handle, object);
+    }
+
+    Object getHandle(int handle) {
+        if (handle < 0 || handle >= handles.size()) {
+            throw new Fabric3Exception("Invalid object reference in payload: " + handle);
+        }
+        return handles.get(handle);
+    }
+
+    /**
+     * Reads a class reference written by {@link BinaryOutput#writeClass(Class, int)}.
+     *
+     * @return the class
+     */
+    Class<?> readClass() {
+        int index = readVarInt();
+        if (index == 0) {
+            String name = readString();
+            Class<?> type;
+            try {
+                type = ClassResolver.resolve(name, loader);
+            } catch (ClassNotFoundException e) {
+                throw new Fabric3Exception("Class not found decoding payload: " + name, e);
+            }
+            classes.add(type);
+            described.add(Boolean.FALSE);
+            lastClass = classes.size() - 1;
+            return type;
+        }
+        lastClass = index - 1;
+        if (lastClass >= classes.size()) {
+            throw new Fabric3Exception("Invalid class reference in payload: " + index);
+        }
+        return classes.get(lastClass);
+    }
+
+    /**
+     * Verifies the descriptor fingerprint of the class last read as a structured object. The fingerprint is only present the first time the class is
+     * written as a structured object in a payload.
+     *
+     * @param fingerprint the fingerprint computed from the local version of the class
+     */
+    void verifyFingerprint(int fingerprint) {
+        if (described.get(lastClass)) {
+            return;
+        }
+        described.set(lastClass, Boolean.TRUE);
+        if (readInt() != fingerprint) {
+            throw new Fabric3Exception("Incompatible version of class " + classes.get(lastClass).getName() + " in payload");
+        }
+    }
+
+    int readByte() {
+        checkAvailable(1);
+        return buffer[position++];
+    }
+
+    short readShort() {
+        checkAvailable(2);
+        return (short) (((buffer[position++] & 0xFF) << 8) | (buffer[position++] & 0xFF));
+    }
+
+    int readInt() {
+        checkAvailable(4);
+        return ((buffer[position++] & 0xFF) << 24) | ((buffer[position++] & 0xFF) << 16) | ((buffer[position++] & 0xFF) << 8) | (buffer[position++] & 0xFF);
+    }
+
+    long readLong() {
+        return ((long) readInt() << 32) | (readInt() & 0xFFFFFFFFL);
+    }
+
+    int readVarInt() {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new Fabric3Exception("Malformed variable-length int in payload");
+    }
+
+    int readZigZagInt() {
+        int value = readVarInt();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    long readZigZagLong() {
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (value >>> 1) ^ -(value & 1);
+            }
+        }
+        throw new Fabric3Exception("Malformed variable-length long in payload");
+    }
+
+    byte[] readBytes() {
+        int length = readLength();
+        checkAvailable(length);
+        byte[] bytes = new byte[length];
+        System.arraycopy(buffer, position, bytes, 0, length);
+        position += length;
+        return bytes;
+    }
+
+    String readString() {
+        int length = readLength();
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            int b = readByte() & 0xFF;
+            if (b < 0x80) {
+                chars[i] = (char) b;
+            } else if ((b & 0xE0) == 0xC0) {
+                chars[i] = (char) (((b & 0x1F) << 6) | (readByte() & 0x3F));
+            } else {
+                int b2 = readByte() & 0x3F;
+                chars[i] = (char) (((b & 0x0F) << 12) | (b2 << 6) | (readByte() & 0x3F));
+            }
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Reads a collection or array length, guarding against lengths that cannot be satisfied by the remaining payload.
+     *
+     * @return the length
+     */
+    int readLength() {
+        int length = readVarInt();
+        if (length < 0 || length > buffer.length - position) {
+            throw new Fabric3Exception("Invalid length in payload: " + length);
+        }
+        return length;
+    }
+
+    /**
+     * Releases references to the payload and decoded objects so the instance can be reused.
+     */
+    void reset() {
+        buffer = null;
+        loader = null;
+        handles.clear();
+        classes.clear();
+        described.clear();
+    }
+
+    private void checkAvailable(int length) {
+        if (position + length > buffer.length) {
+            throw new Fabric3Exception("Unexpected end of payload");
+        }
+    }
+
+}
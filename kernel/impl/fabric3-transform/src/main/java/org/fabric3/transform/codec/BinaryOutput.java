@@ -0,0 +1,199 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.transform.codec;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+/**
+ * A growable output buffer used by {@link BinaryCodec}. Instances are reused by a thread across encodings to avoid allocating buffers and tables for each
+ * payload.
+ */
+final class BinaryOutput {
+    private static final int INITIAL_SIZE = 256;
+    private static final int MAX_RETAINED_SIZE = 64 * 1024;
+    private static final int MAX_RETAINED_ENTRIES = 1024;
+
+    private byte[] buffer = new byte[INITIAL_SIZE];
+    private int position;
+
+    private IdentityHashMap<Object, Integer> handles = new IdentityHashMap<>();
+    private IdentityHashMap<Class<?>, ClassEntry> classes = new IdentityHashMap<>();
+
+    boolean inUse;
+
+    /**
+     * Returns the handle previously assigned to the object or registers a new handle and returns -1.
+     *
+     * @param object the object
+     * @return the existing handle or -1 if the object has not been written
+     */
+    int handle(Object object) {
+        Integer handle = handles.putIfAbsent(object, handles.size());
+        return handle == null ? -1 : handle;
+    }
+
+    /**
+     * Writes a class reference. The class name is written the first time the class is referenced and subsequent references are written as an index.
+     *
+     * @param type        the class
+     * @param fingerprint the class descriptor fingerprint to write the first time the class is written as a structured object or 0 if the class is not
+     *                    being written as a structured object
+     */
+    void writeClass(Class<?> type, int fingerprint) {
+        ClassEntry entry = classes.get(type);
+        if (entry == null) {
+            entry = new ClassEntry(classes.size());
+            classes.put(type, entry);
+            writeVarInt(0);
+            writeString(type.getName());
+        } else {
+            writeVarInt(entry.index + 1);
+        }
+        if (fingerprint != 0 && !entry.described) {
+            entry.described = true;
+            writeInt(fingerprint);
+        }
+    }
+
+    void writeByte(int value) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) value;
+    }
+
+    void writeShort(int value) {
+        ensureCapacity(2);
+        buffer[position++] = (byte) (value >>> 8);
+        buffer[position++] = (byte) value;
+    }
+
+    void writeInt(int value) {
+        ensureCapacity(4);
+        buffer[position++] = (byte) (value >>> 24);
+        buffer[position++] = (byte) (value >>> 16);
+        buffer[position++] = (byte) (value >>> 8);
+        buffer[position++] = (byte) value;
+    }
+
+    void writeLong(long value) {
+        writeInt((int) (value >>> 32));
+        writeInt((int) value);
+    }
+
+    /**
+     * Writes an unsigned variable-length int.
+     *
+     * @param value the value
+     */
+    void writeVarInt(int value) {
+        ensureCapacity(5);
+        while ((value & ~0x7F) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    /**
+     * Writes a signed variable-length int using zig-zag encoding so that small negative values are also compact.
+     *
+     * @param value the value
+     */
+    void writeZigZagInt(int value) {
+        writeVarInt((value << 1) ^ (value >> 31));
+    }
+
+    void writeZigZagLong(long value) {
+        long encoded = (value << 1) ^ (value >> 63);
+        ensureCapacity(10);
+        while ((encoded & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((encoded & 0x7F) | 0x80);
+            encoded >>>= 7;
+        }
+        buffer[position++] = (byte) encoded;
+    }
+
+    void writeBytes(byte[] bytes) {
+        writeVarInt(bytes.length);
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    /**
+     * Writes a string as its length in chars followed by the chars in modified UTF-8.
+     *
+     * @param value the string
+     */
+    void writeString(String value) {
+        int length = value.length();
+        writeVarInt(length);
+        ensureCapacity(length * 3);
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                buffer[position++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[position++] = (byte) (0xC0 | (c >> 6));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            } else {
+                buffer[position++] = (byte) (0xE0 | (c >> 12));
+                buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(buffer, position);
+    }
+
+    /**
+     * Resets the buffer for reuse, releasing buffers and tables grown by large payloads.
+     */
+    void reset() {
+        position = 0;
+        if (buffer.length > MAX_RETAINED_SIZE) {
+            buffer = new byte[INITIAL_SIZE];
+        }
+        if (handles.size() > MAX_RETAINED_ENTRIES) {
+            handles = new IdentityHashMap<>();
+        } else {
+            handles.clear();
+        }
+        if (classes.size() > MAX_RETAINED_ENTRIES) {
+            classes = new IdentityHashMap<>();
+        } else {
+            classes.clear();
+        }
+    }
+
+    private void ensureCapacity(int length) {
+        if (position + length > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length << 1, position + length));
+        }
+    }
+
+    private static class ClassEntry {
+        private int index;
+        private boolean described;
+
+        public ClassEntry(int index) {
+            this.index = index;
+        }
+    }
+}
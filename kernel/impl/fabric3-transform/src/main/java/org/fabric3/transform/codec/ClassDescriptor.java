@@ -0,0 +1,222 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.transform.codec;
+
+import java.io.Externalizable;
+import java.io.Serializable;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Describes how instances of a class are written as structured objects by {@link BinaryCodec}. Descriptors are computed once per class and cached
+ * with the class, so they are released along with the contribution classloader that defined it.
+ *
+ * Only classes whose serialized form is fully determined by their non-transient fields are structured. Classes that customize serialization, have a
+ * non-serializable superclass or are defined by the JDK are not structured and are written using Java serialization.
+ *
+ * As with Java serialization, instances are created without running the constructors or field initializers of the class: the serialization constructor
+ * provided by the JVM reflection factory only runs the {@code Object} constructor. If the JVM does not provide a reflection factory, all classes are
+ * written using Java serialization.
+ */
+final class ClassDescriptor {
+    private static final ClassValue<ClassDescriptor> CACHE = new ClassValue<ClassDescriptor>() {
+        protected ClassDescriptor computeValue(Class<?> type) {
+            return new ClassDescriptor(type);
+        }
+    };
+
+    private static final Object REFLECTION_FACTORY;
+    private static final Method NEW_SERIALIZATION_CONSTRUCTOR;
+
+    static {
+        Object factory = null;
+        Method method = null;
+        try {
+            Class<?> factoryClass = Class.forName("sun.reflect.ReflectionFactory");
+            factory = factoryClass.getMethod("getReflectionFactory").invoke(null);
+            method = factoryClass.getMethod("newConstructorForSerialization", Class.class, Constructor.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // not available on this JVM
+        }
+        REFLECTION_FACTORY = factory;
+        NEW_SERIALIZATION_CONSTRUCTOR = method;
+    }
+
+    private static final String[] SERIALIZATION_METHODS = {"writeObject", "readObject", "readObjectNoData", "writeReplace", "readResolve"};
+
+    private Class<?> type;
+    private Constructor<?> constructor;
+    private Field[] fields;
+    private char[] fieldTypes;
+    private int fingerprint;
+
+    static ClassDescriptor get(Class<?> type) {
+        return CACHE.get(type);
+    }
+
+    private ClassDescriptor(Class<?> type) {
+        this.type = type;
+        if (NEW_SERIALIZATION_CONSTRUCTOR == null || !isStructured(type)) {
+            return;
+        }
+        try {
+            // all classes in the hierarchy are serializable, so only the Object constructor is run
+            Constructor<?> objectConstructor = Object.class.getDeclaredConstructor();
+            Constructor<?> constructor = (Constructor<?>) NEW_SERIALIZATION_CONSTRUCTOR.invoke(REFLECTION_FACTORY, type, objectConstructor);
+            constructor.setAccessible(true);
+            List<Field> fields = new ArrayList<>();
+            for (Class<?> current : hierarchy(type)) {
+                Field[] declared = current.getDeclaredFields();
+                Arrays.sort(declared, Comparator.comparing(Field::getName));
+                for (Field field : declared) {
+                    int modifiers = field.getModifiers();
+                    if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers)) {
+                        continue;
+                    }
+                    field.setAccessible(true);
+                    fields.add(field);
+                }
+            }
+            this.fields = fields.toArray(new Field[fields.size()]);
+            this.fieldTypes = new char[this.fields.length];
+            int hash = type.getName().hashCode();
+            for (int i = 0; i < this.fields.length; i++) {
+                Field field = this.fields[i];
+                fieldTypes[i] = typeCode(field.getType());
+                hash = 31 * hash + field.getName().hashCode();
+                hash = 31 * hash + field.getType().getName().hashCode();
+            }
+            // 0 is reserved to signify no fingerprint
+            this.fingerprint = hash == 0 ? 1 : hash;
+            this.constructor = constructor;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // no serialization constructor or inaccessible fields: fall back to Java serialization
+            this.fields = null;
+            this.fieldTypes = null;
+        }
+    }
+
+    /**
+     * Returns true if instances are written as structured objects; otherwise they are written using Java serialization.
+     *
+     * @return true if instances are written as structured objects
+     */
+    boolean isStructured() {
+        return constructor != null;
+    }
+
+    Class<?> getType() {
+        return type;
+    }
+
+    Field[] getFields() {
+        return fields;
+    }
+
+    /**
+     * Returns the field type codes, which are the JVM descriptor characters for primitive fields and {@code L} for reference fields.
+     *
+     * @return the field type codes
+     */
+    char[] getFieldTypes() {
+        return fieldTypes;
+    }
+
+    int getFingerprint() {
+        return fingerprint;
+    }
+
+    Object newInstance() throws ReflectiveOperationException {
+        return constructor.newInstance();
+    }
+
+    private static boolean isStructured(Class<?> type) {
+        if (type.isInterface() || Modifier.isAbstract(type.getModifiers()) || type.isArray() || type.isEnum() || Proxy.isProxyClass(type)) {
+            return false;
+        }
+        if (!Serializable.class.isAssignableFrom(type) || Externalizable.class.isAssignableFrom(type)) {
+            return false;
+        }
+        for (Class<?> current = type; current != Object.class; current = current.getSuperclass()) {
+            if (isPlatformClass(current) || !Serializable.class.isAssignableFrom(current)) {
+                return false;
+            }
+            for (Method method : current.getDeclaredMethods()) {
+                for (String name : SERIALIZATION_METHODS) {
+                    if (name.equals(method.getName())) {
+                        return false;
+                    }
+                }
+            }
+            try {
+                current.getDeclaredField("serialPersistentFields");
+                return false;
+            } catch (NoSuchFieldException e) {
+                // expected
+            }
+        }
+        return true;
+    }
+
+    private static boolean isPlatformClass(Class<?> type) {
+        String name = type.getName();
+        return name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("sun.") || name.startsWith("jdk.");
+    }
+
+    /**
+     * Returns the class hierarchy below Object, starting with the topmost superclass.
+     *
+     * @param type the class
+     * @return the hierarchy
+     */
+    private static List<Class<?>> hierarchy(Class<?> type) {
+        List<Class<?>> hierarchy = new ArrayList<>();
+        for (Class<?> current = type; current != Object.class; current = current.getSuperclass()) {
+            hierarchy.add(0, current);
+        }
+        return hierarchy;
+    }
+
+    private static char typeCode(Class<?> type) {
+        if (type == Integer.TYPE) {
+            return 'I';
+        } else if (type == Long.TYPE) {
+            return 'J';
+        } else if (type == Boolean.TYPE) {
+            return 'Z';
+        } else if (type == Double.TYPE) {
+            return 'D';
+        } else if (type == Float.TYPE) {
+            return 'F';
+        } else if (type == Short.TYPE) {
+            return 'S';
+        } else if (type == Byte.TYPE) {
+            return 'B';
+        } else if (type == Character.TYPE) {
+            return 'C';
+        }
+        return 'L';
+    }
+
+}
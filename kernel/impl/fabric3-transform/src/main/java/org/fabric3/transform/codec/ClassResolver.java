@@ -0,0 +1,47 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.transform.codec;
+
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves class names against a classloader, caching results per classloader. Classloaders and classes are weakly referenced so the cache does not
+ * prevent contribution classloaders from being collected when a contribution is uninstalled.
+ */
+final class ClassResolver {
+    private static final Map<ClassLoader, Map<String, WeakReference<Class<?>>>> CACHE = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private ClassResolver() {
+    }
+
+    static Class<?> resolve(String name, ClassLoader loader) throws ClassNotFoundException {
+        Map<String, WeakReference<Class<?>>> classes = CACHE.computeIfAbsent(loader, l -> new ConcurrentHashMap<>());
+        WeakReference<Class<?>> reference = classes.get(name);
+        Class<?> type = reference == null ? null : reference.get();
+        if (type == null) {
+            // Class.forName() is used as ClassLoader.loadClass() does not resolve array types
+            type = Class.forName(name, true, loader);
+            classes.put(name, new WeakReference<>(type));
+        }
+        return type;
+    }
+
+}
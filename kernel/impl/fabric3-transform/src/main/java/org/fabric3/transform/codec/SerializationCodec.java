@@ -0,0 +1,84 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.transform.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import org.fabric3.api.host.Fabric3Exception;
+import org.fabric3.spi.classloader.ClassLoaderObjectInputStream;
+import org.fabric3.spi.transform.Codec;
+
+/**
+ * A codec that uses Java serialization. Output buffers are reused by a thread across encodings.
+ */
+public class SerializationCodec implements Codec {
+    public static final String NAME = "serialization";
+
+    private ThreadLocal<PooledOutputStream> buffers = ThreadLocal.withInitial(PooledOutputStream::new);
+
+    public String getName() {
+        return NAME;
+    }
+
+    public byte[] encode(Object object) throws Fabric3Exception {
+        PooledOutputStream bos = buffers.get();
+        try (ObjectOutputStream stream = new ObjectOutputStream(bos)) {
+            stream.writeObject(object);
+            stream.flush();
+            return bos.toByteArray();
+        } catch (IOException e) {
+            throw new Fabric3Exception(e);
+        } finally {
+            bos.release();
+        }
+    }
+
+    public Object decode(byte[] bytes, ClassLoader loader) throws Fabric3Exception {
+        try (ObjectInputStream stream = new ClassLoaderObjectInputStream(new ByteArrayInputStream(bytes), loader)) {
+            return stream.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            throw new Fabric3Exception(e);
+        }
+    }
+
+    /**
+     * An output stream whose buffer is retained after use unless it has grown beyond a threshold.
+     */
+    private static class PooledOutputStream extends ByteArrayOutputStream {
+        private static final int INITIAL_SIZE = 512;
+        private static final int MAX_RETAINED_SIZE = 64 * 1024;
+
+        public PooledOutputStream() {
+            super(INITIAL_SIZE);
+        }
+
+        public void close() {
+            // retain the buffer
+        }
+
+        public void release() {
+            reset();
+            if (buf.length > MAX_RETAINED_SIZE) {
+                buf = new byte[INITIAL_SIZE];
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.transform.java;
+
+import java.util.List;
+
+import org.fabric3.api.annotation.Source;
+import org.fabric3.api.host.Fabric3Exception;
+import org.fabric3.spi.transform.Codec;
+import org.fabric3.spi.transform.TransformerFactory;
+import org.fabric3.transform.codec.BinaryCodec;
+import org.fabric3.transform.codec.SerializationCodec;
+import org.oasisopen.sca.annotation.Property;
+import org.oasisopen.sca.annotation.Reference;
+
+/**
+ * Base class for factories that create transformers using a codec. The codec is selected by name using the {@code codec} attribute of the
+ * {@code transform} element in the runtime system configuration and defaults to the {@link SerializationCodec}, so the wire format is unchanged unless
+ * the {@link BinaryCodec} is enabled with {@code codec="binary"}. Runtimes using the binary codec can still read payloads sent by runtimes using Java
+ * serialization, but not the reverse.
+ */
+public abstract class AbstractCodecTransformerFactory implements TransformerFactory {
+    private List<Codec> codecs;
+    private String codecName = SerializationCodec.NAME;
+    private volatile Codec codec;
+
+    @Reference(required = false)
+    public void setCodecs(List<Codec> codecs) {
+        this.codecs = codecs;
+        this.codec = null;
+    }
+
+    @Property(required = false)
+    @Source("$systemConfig//f3:transform/@codec")
+    public void setCodec(String codecName) {
+        this.codecName = codecName.trim();
+        this.codec = null;
+    }
+
+    /**
+     * Returns the configured codec.
+     *
+     * @return the codec
+     * @throws Fabric3Exception if the configured codec is not installed
+     */
+    protected Codec getCodec() throws Fabric3Exception {
+        Codec codec = this.codec;
+        if (codec == null) {
+            codec = select();
+            this.codec = codec;
+        }
+        return codec;
+    }
+
+    private Codec select() {
+        if (codecs != null) {
+            for (Codec codec : codecs) {
+                if (codecName.equals(codec.getName())) {
+                    return codec;
+                }
+            }
+        }
+        if (SerializationCodec.NAME.equals(codecName)) {
+            return new SerializationCodec();
+        } else if (BinaryCodec.NAME.equals(codecName)) {
+            return new BinaryCodec();
+        }
+        throw new Fabric3Exception("Codec not installed: " + codecName);
+    }
+
+}
@@ -16,21 +16,21 @@
  */
 package org.fabric3.transform.java;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.Serializable;
 
 import org.fabric3.api.host.Fabric3Exception;
-import org.fabric3.spi.classloader.ClassLoaderObjectInputStream;
+import org.fabric3.spi.transform.Codec;
 import org.fabric3.spi.transform.Transformer;
 
 /**
- * Base case for transforming data using Java serialization.
+ * Base case for transforming data using a {@link Codec}.
  */
 public abstract class AbstractSerializingTransformer<S, T> implements Transformer<S, T> {
+    private Codec codec;
+
+    protected AbstractSerializingTransformer(Codec codec) {
+        this.codec = codec;
+    }
 
     protected byte[] serialize(Object o) throws Fabric3Exception {
         if (o == null) {
@@ -39,47 +39,11 @@ public abstract class AbstractSerializingTransformer<S, T> implements Transforme
         if (!(o instanceof Serializable)) {
             throw new IllegalArgumentException("Parameters for Java-to-Java transformations must implement Serializable: " + o.getClass());
         }
-        ObjectOutputStream stream = null;
-        try {
-            ByteArrayOutputStream bos = new ByteArrayOutputStream();
-            stream = new ObjectOutputStream(bos);
-            stream.writeObject(o);
-            stream.flush();
-            return bos.toByteArray();
-        } catch (IOException e) {
-            throw new Fabric3Exception(e);
-        } finally {
-            try {
-                if (stream != null) {
-                    stream.close();
-                }
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
-        }
+        return codec.encode(o);
     }
 
     protected Serializable deserialize(byte[] bytes, ClassLoader loader) throws Fabric3Exception {
-        ByteArrayInputStream bis = null;
-        ObjectInputStream stream = null;
-        try {
-            bis = new ByteArrayInputStream(bytes);
-            stream = new ClassLoaderObjectInputStream(bis, loader);
-            return (Serializable) stream.readObject();
-        } catch (IOException | ClassNotFoundException e) {
-            throw new Fabric3Exception(e);
-        } finally {
-            try {
-                if (stream != null) {
-                    stream.close();
-                }
-                if (bis != null) {
-                    bis.close();
-                }
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
-        }
+        return (Serializable) codec.decode(bytes, loader);
     }
 
-}
\ No newline at end of file
+}
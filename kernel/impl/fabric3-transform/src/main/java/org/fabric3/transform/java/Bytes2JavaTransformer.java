@@ -19,15 +19,19 @@ package org.fabric3.transform.java;
 import java.io.Serializable;
 
 import org.fabric3.api.host.Fabric3Exception;
+import org.fabric3.spi.transform.Codec;
 
 /**
  * Deserializes a Java object.
  */
 public class Bytes2JavaTransformer extends AbstractSerializingTransformer<byte[], Serializable> {
 
+    public Bytes2JavaTransformer(Codec codec) {
+        super(codec);
+    }
+
     public Serializable transform(byte[] source, ClassLoader loader) throws Fabric3Exception {
         return deserialize(source, loader);
     }
 
-
 }
\ No newline at end of file
@@ -21,12 +21,11 @@ import java.util.List;
 import org.fabric3.api.model.type.contract.DataType;
 import org.fabric3.spi.model.type.java.JavaType;
 import org.fabric3.spi.transform.Transformer;
-import org.fabric3.spi.transform.TransformerFactory;
 
 /**
  * Factory for transformers that deserialize Java types.
  */
-public class Bytes2JavaTransformerFactory implements TransformerFactory {
+public class Bytes2JavaTransformerFactory extends AbstractCodecTransformerFactory {
 
     public int getOrder() {
         return 10;
@@ -37,6 +36,6 @@ public class Bytes2JavaTransformerFactory implements TransformerFactory {
     }
 
     public Transformer<?, ?> create(DataType source, DataType target, List<Class<?>> inTypes, List<Class<?>> outTypes) {
-        return new Bytes2JavaTransformer();
+        return new Bytes2JavaTransformer(getCodec());
     }
 }
\ No newline at end of file
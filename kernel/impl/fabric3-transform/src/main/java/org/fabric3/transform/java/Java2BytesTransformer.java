@@ -19,15 +19,19 @@ package org.fabric3.transform.java;
 import java.io.Serializable;
 
 import org.fabric3.api.host.Fabric3Exception;
+import org.fabric3.spi.transform.Codec;
 
 /**
  * Serializes a Java object.
  */
 public class Java2BytesTransformer extends AbstractSerializingTransformer<Serializable, byte[]> {
 
+    public Java2BytesTransformer(Codec codec) {
+        super(codec);
+    }
+
     public byte[] transform(Serializable source, ClassLoader loader) throws Fabric3Exception {
         return serialize(source);
     }
 
-
 }
\ No newline at end of file
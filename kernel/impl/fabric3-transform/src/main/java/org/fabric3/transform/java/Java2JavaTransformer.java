@@ -19,16 +19,20 @@ package org.fabric3.transform.java;
 import java.io.Serializable;
 
 import org.fabric3.api.host.Fabric3Exception;
+import org.fabric3.spi.transform.Codec;
 
 /**
- * Transforms data from one classloader to another using Java serialization.
+ * Transforms data from one classloader to another by encoding and decoding it with a codec.
  */
 public class Java2JavaTransformer extends AbstractSerializingTransformer<Serializable, Serializable> {
 
+    public Java2JavaTransformer(Codec codec) {
+        super(codec);
+    }
+
     public Serializable transform(Serializable source, ClassLoader loader) throws Fabric3Exception {
         byte[] bytes = serialize(source);
         return deserialize(bytes, loader);
     }
 
-
 }
\ No newline at end of file
@@ -21,12 +21,11 @@ import java.util.List;
 import org.fabric3.api.model.type.contract.DataType;
 import org.fabric3.spi.model.type.java.JavaType;
 import org.fabric3.spi.transform.Transformer;
-import org.fabric3.spi.transform.TransformerFactory;
 
 /**
- * Factory for a transformer that passes Java types from one classloader to another using Java serialization.
+ * Factory for a transformer that passes Java types from one classloader to another using the configured codec.
  */
-public class Java2JavaTransformerFactory implements TransformerFactory {
+public class Java2JavaTransformerFactory extends AbstractCodecTransformerFactory {
 
     public int getOrder() {
         return 10;
@@ -37,6 +36,6 @@ public class Java2JavaTransformerFactory implements TransformerFactory {
     }
 
     public Transformer<?, ?> create(DataType source, DataType target, List<Class<?>> inTypes, List<Class<?>> outTypes) {
-        return new Java2JavaTransformer();
+        return new Java2JavaTransformer(getCodec());
     }
 }
\ No newline at end of file
@@ -18,13 +18,21 @@
  */
 package org.fabric3.transform;
 
+import java.net.URI;
+import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import junit.framework.TestCase;
+import org.easymock.EasyMock;
 import org.fabric3.api.model.type.contract.DataType;
+import org.fabric3.spi.classloader.MultiParentClassLoader;
+import org.fabric3.spi.contribution.Contribution;
 import org.fabric3.spi.model.type.TypeConstants;
 import org.fabric3.spi.model.type.java.JavaType;
+import org.fabric3.spi.transform.SingleTypeTransformer;
 import org.fabric3.spi.transform.Transformer;
 import org.fabric3.spi.transform.TransformerFactory;
 
@@ -44,7 +52,127 @@ public class DefaultTransformerRegistryTestCase extends TestCase {
         assertNotNull(registry.getTransformer(TypeConstants.PROPERTY_TYPE, target, targets, targets));
     }
 
+    public void testPlanCached() throws Exception {
+        MockFactory factory = new MockFactory();
+        registry.setFactories(Collections.singletonList(factory));
+        JavaType target = new JavaType(Integer.class);
+        List<Class<?>> targets = Collections.singletonList(Integer.class);
+
+        Transformer<?, ?> transformer = registry.getTransformer(TypeConstants.PROPERTY_TYPE, target, targets, targets);
+        // factory-created transformers are not shared
+        assertNotSame(transformer, registry.getTransformer(TypeConstants.PROPERTY_TYPE, target, targets, targets));
+        assertTrue(transformer instanceof MockTransformer);
+        assertEquals(2, factory.created);
+        assertEquals(1, registry.getCachedPlans());
+    }
+
+    public void testPlanEvictedOnUninstall() throws Exception {
+        registry.setFactories(Collections.singletonList(new MockFactory()));
+        URI uri = URI.create("test");
+        URL location = getClass().getProtectionDomain().getCodeSource().getLocation();
+        MultiParentClassLoader loader = new MultiParentClassLoader(uri, new URL[]{location}, ClassLoader.getSystemClassLoader().getParent());
+        Class<?> contributionType = loader.loadClass(Payload.class.getName());
+
+        registry.getTransformer(TypeConstants.PROPERTY_TYPE, new JavaType(Integer.class), null, null);
+        registry.getTransformer(TypeConstants.PROPERTY_TYPE, new JavaType(contributionType), null, null);
+        assertEquals(2, registry.getCachedPlans());
+
+        registry.onUninstall(new Contribution(uri));
+        assertEquals(1, registry.getCachedPlans());
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testSingleStageNotWrapped() throws Exception {
+        SingleTypeTransformer<String, Integer> string2Integer = EasyMock.createMock(SingleTypeTransformer.class);
+        EasyMock.expect(string2Integer.getSourceType()).andReturn(TypeConstants.STRING_TYPE);
+        EasyMock.expect(string2Integer.getTargetType()).andReturn(new JavaType(Integer.class));
+        EasyMock.replay(string2Integer);
+        registry.setTransformers(Collections.singletonList(string2Integer));
+
+        assertSame(string2Integer, registry.getTransformer(TypeConstants.STRING_TYPE, new JavaType(Integer.class), null, null));
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testFactoryIntermediateType() throws Exception {
+        JavaType json = new JavaType(String.class, "JSON");
+        TransformerFactory object2Json = EasyMock.createMock(TransformerFactory.class);
+        EasyMock.expect(object2Json.getOrder()).andReturn(0).anyTimes();
+        EasyMock.expect(object2Json.getIntermediateTypes()).andReturn(Collections.singletonList(json)).anyTimes();
+        EasyMock.expect(object2Json.canTransform(EasyMock.isA(DataType.class), EasyMock.isA(DataType.class))).andAnswer(() -> {
+            Object[] args = EasyMock.getCurrentArguments();
+            DataType target = (DataType) args[1];
+            return Integer.class.equals(((DataType) args[0]).getType()) && "JSON".equals(target.getDatabinding());
+        }).anyTimes();
+        Transformer stage1 = (Transformer<Integer, String>) (source, loader) -> source.toString();
+        EasyMock.expect(object2Json.create(EasyMock.isA(DataType.class), EasyMock.isA(DataType.class), EasyMock.anyObject(), EasyMock.anyObject())).andReturn(
+                stage1);
+
+        TransformerFactory json2Long = EasyMock.createMock(TransformerFactory.class);
+        EasyMock.expect(json2Long.getOrder()).andReturn(1).anyTimes();
+        EasyMock.expect(json2Long.getIntermediateTypes()).andReturn(Collections.emptyList()).anyTimes();
+        EasyMock.expect(json2Long.canTransform(EasyMock.isA(DataType.class), EasyMock.isA(DataType.class))).andAnswer(() -> {
+            Object[] args = EasyMock.getCurrentArguments();
+            return "JSON".equals(((DataType) args[0]).getDatabinding()) && Long.class.equals(((DataType) args[1]).getType());
+        }).anyTimes();
+        Transformer stage2 = (Transformer<String, Long>) (source, loader) -> Long.valueOf(source);
+        EasyMock.expect(json2Long.create(EasyMock.isA(DataType.class), EasyMock.isA(DataType.class), EasyMock.anyObject(), EasyMock.anyObject())).andReturn(stage2);
+        EasyMock.replay(object2Json, json2Long);
+        registry.setFactories(Arrays.asList(object2Json, json2Long));
+
+        Transformer<Object, Object> transformer = (Transformer<Object, Object>) registry.getTransformer(new JavaType(Integer.class),
+                                                                                                         new JavaType(Long.class),
+                                                                                                         null,
+                                                                                                         null);
+        assertEquals(2, ((CompiledTransformer) transformer).getStageCount());
+        assertEquals(1L, transformer.transform(1, null));
+        EasyMock.verify(object2Json, json2Long);
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testMultiStageTransformer() throws Exception {
+        SingleTypeTransformer<String, Integer> string2Integer = EasyMock.createMock(SingleTypeTransformer.class);
+        EasyMock.expect(string2Integer.getSourceType()).andReturn(TypeConstants.STRING_TYPE);
+        EasyMock.expect(string2Integer.getTargetType()).andReturn(new JavaType(Integer.class));
+        EasyMock.expect(string2Integer.transform("1", null)).andReturn(1);
+        EasyMock.replay(string2Integer);
+        registry.setTransformers(Collections.singletonList(string2Integer));
+
+        TransformerFactory integer2Long = EasyMock.createMock(TransformerFactory.class);
+        EasyMock.expect(integer2Long.getOrder()).andReturn(0).anyTimes();
+        EasyMock.expect(integer2Long.getIntermediateTypes()).andReturn(Collections.emptyList()).anyTimes();
+        EasyMock.expect(integer2Long.canTransform(EasyMock.isA(DataType.class), EasyMock.isA(DataType.class))).andAnswer(() -> {
+            Object[] args = EasyMock.getCurrentArguments();
+            return Integer.class.equals(((DataType) args[0]).getType()) && Long.class.equals(((DataType) args[1]).getType());
+        }).anyTimes();
+        Transformer stage = (Transformer<Integer, Long>) (source, loader) -> source.longValue();
+        EasyMock.expect(integer2Long.create(EasyMock.isA(DataType.class),
+                                            EasyMock.isA(DataType.class),
+                                            EasyMock.eq(Collections.<Class<?>>singletonList(Integer.class)),
+                                            EasyMock.eq(Collections.<Class<?>>singletonList(Long.class)))).andReturn(stage);
+        EasyMock.replay(integer2Long);
+        registry.setFactories(Collections.singletonList(integer2Long));
+        registry.setStatistics(true);
+
+        List<Class<?>> in = Collections.singletonList(String.class);
+        List<Class<?>> out = Collections.singletonList(Long.class);
+        Transformer<Object, Object> transformer = (Transformer<Object, Object>) registry.getTransformer(TypeConstants.STRING_TYPE,
+                                                                                                         new JavaType(Long.class),
+                                                                                                         in,
+                                                                                                         out);
+        assertEquals(2, ((CompiledTransformer) transformer).getStageCount());
+        assertEquals(1L, transformer.transform("1", null));
+        assertEquals(1, registry.getTransformations());
+        EasyMock.verify(string2Integer, integer2Long);
+    }
+
+    public void testNoPath() throws Exception {
+        JavaType target = new JavaType(Integer.class);
+        List<Class<?>> targets = Collections.singletonList(Integer.class);
+        assertNull(registry.getTransformer(TypeConstants.STRING_TYPE, target, targets, targets));
+    }
+
     private class MockFactory implements TransformerFactory {
+        private int created;
 
         public int getOrder() {
             return 0;
@@ -55,6 +183,7 @@ public class DefaultTransformerRegistryTestCase extends TestCase {
         }
 
         public Transformer<Object, Object> create(DataType source, DataType target, List<Class<?>> sourceTypes, List<Class<?>> targetTypes) {
+            created++;
             return new MockTransformer();
         }
 
@@ -68,6 +197,9 @@ public class DefaultTransformerRegistryTestCase extends TestCase {
 
     }
 
+    public static class Payload {
+    }
+
     protected void setUp() throws Exception {
         super.setUp();
         registry = new DefaultTransformerRegistry();
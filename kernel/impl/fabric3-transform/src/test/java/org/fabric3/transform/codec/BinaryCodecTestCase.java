@@ -0,0 +1,199 @@
+/*
+ * Fabric3
+ * Copyright (c) 2009-2015 Metaform Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fabric3.transform.codec;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+import org.fabric3.api.host.Fabric3Exception;
+
+/**
+ *
+ */
+public class BinaryCodecTestCase extends TestCase {
+    private BinaryCodec codec = new BinaryCodec();
+    private ClassLoader loader = getClass().getClassLoader();
+
+    public void testScalars() throws Exception {
+        Object[] values = {"test", "é中", 1, -1, Integer.MIN_VALUE, Long.MAX_VALUE, -5L, true, false, 1.5d, 2.5f, (short) 3, (byte) 4, 'c'};
+        for (Object value : values) {
+            assertEquals(value, codec.decode(codec.encode(value), loader));
+        }
+        assertNull(codec.decode(codec.encode(null), loader));
+    }
+
+    public void testArrays() throws Exception {
+        int[] ints = {1, -2, Integer.MAX_VALUE};
+        assertTrue(Arrays.equals(ints, (int[]) codec.decode(codec.encode(ints), loader)));
+        long[] longs = {1, -2, Long.MIN_VALUE};
+        assertTrue(Arrays.equals(longs, (long[]) codec.decode(codec.encode(longs), loader)));
+        byte[] bytes = {1, 2, 3};
+        assertTrue(Arrays.equals(bytes, (byte[]) codec.decode(codec.encode(bytes), loader)));
+        double[] doubles = {1.1, -2.2};
+        assertTrue(Arrays.equals(doubles, (double[]) codec.decode(codec.encode(doubles), loader)));
+        String[] strings = {"a", null, "b"};
+        assertTrue(Arrays.equals(strings, (String[]) codec.decode(codec.encode(strings), loader)));
+        int[][] matrix = {{1}, {2, 3}};
+        assertTrue(Arrays.deepEquals(matrix, (int[][]) codec.decode(codec.encode(matrix), loader)));
+    }
+
+    public void testCollections() throws Exception {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("list", new ArrayList<>(Arrays.asList(1, "two", 3L)));
+        map.put("set", new TreeSet<>(Arrays.asList("b", "a")));
+        map.put("date", new Date());
+        map.put("integer", new BigInteger("123456789012345678901234567890"));
+        map.put("decimal", new BigDecimal("-1234.5678"));
+        map.put("enum", TimeUnit.SECONDS);
+        map.put("unmodifiable", Collections.singletonList("x"));
+        assertEquals(map, codec.decode(codec.encode(map), loader));
+    }
+
+    public void testObjectGraph() throws Exception {
+        Order order = new Order();
+        order.id = 10;
+        order.amount = 99.5;
+        order.customer = "customer";
+        order.tags = new String[]{"a", "b"};
+        Item item = new Item();
+        item.order = order;
+        item.quantity = 2;
+        order.items.add(item);
+        order.items.add(item);
+        order.cache = "cache";
+
+        Order decoded = (Order) codec.decode(codec.encode(order), loader);
+        assertEquals(10, decoded.id);
+        assertEquals(99.5, decoded.amount);
+        assertEquals("customer", decoded.customer);
+        assertTrue(Arrays.equals(order.tags, decoded.tags));
+        assertNull(decoded.cache);
+        assertEquals(2, decoded.items.size());
+        assertSame(decoded.items.get(0), decoded.items.get(1));
+        assertSame(decoded, decoded.items.get(0).order);
+        assertEquals(2, decoded.items.get(0).quantity);
+    }
+
+    public void testCustomSerialization() throws Exception {
+        Custom custom = new Custom("value");
+        Custom decoded = (Custom) codec.decode(codec.encode(custom), loader);
+        assertEquals("value", decoded.value);
+        assertTrue(decoded.customized);
+    }
+
+    public void testConstructorNotRun() throws Exception {
+        Account account = new Account("account");
+        assertTrue(ClassDescriptor.get(Account.class).isStructured());
+
+        // as with Java serialization, transient fields are not initialized since the constructor is not run
+        Account decoded = (Account) codec.decode(codec.encode(account), loader);
+        assertEquals("account", decoded.name);
+        assertFalse(decoded.constructed);
+    }
+
+    public void testDecodeJavaSerialization() throws Exception {
+        byte[] bytes = new SerializationCodec().encode(new ArrayList<>(Arrays.asList("a", "b")));
+        assertEquals(Arrays.asList("a", "b"), codec.decode(bytes, loader));
+    }
+
+    public void testCompactComparedToSerialization() throws Exception {
+        Order order = new Order();
+        order.customer = "customer";
+        assertTrue(codec.encode(order).length < new SerializationCodec().encode(order).length);
+    }
+
+    public void testInvalidPayload() throws Exception {
+        try {
+            codec.decode(new byte[]{1, 2, 3}, loader);
+            fail();
+        } catch (Fabric3Exception e) {
+            // expected
+        }
+        byte[] bytes = codec.encode("test");
+        try {
+            codec.decode(Arrays.copyOf(bytes, bytes.length - 1), loader);
+            fail();
+        } catch (Fabric3Exception e) {
+            // expected
+        }
+    }
+
+    private static class Base implements Serializable {
+        private static final long serialVersionUID = 1L;
+        protected int id;
+    }
+
+    private static class Order extends Base {
+        private static final long serialVersionUID = 1L;
+        private double amount;
+        private String customer;
+        private String[] tags;
+        private List<Item> items = new ArrayList<>();
+        private transient String cache;
+    }
+
+    private static class Item implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private Order order;
+        private int quantity;
+    }
+
+    private static class Account implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private String name;
+        private transient boolean constructed = true;
+
+        public Account(String name) {
+            this.name = name;
+        }
+    }
+
+    private static class Custom implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private String value;
+        private transient boolean customized;
+
+        public Custom(String value) {
+            this.value = value;
+        }
+
+        private void writeObject(ObjectOutputStream stream) throws IOException {
+            stream.defaultWriteObject();
+        }
+
+        private void readObject(ObjectInputStream stream) throws IOException, ClassNotFoundException {
+            stream.defaultReadObject();
+            customized = true;
+        }
+    }
+
+}
@@ -19,12 +19,14 @@ package org.fabric3.transform.java;
 import java.io.Serializable;
 
 import junit.framework.TestCase;
+import org.fabric3.transform.codec.BinaryCodec;
+import org.fabric3.transform.codec.SerializationCodec;
 
 /**
  *
  */
 public class SerializableTransformerTestCase extends TestCase {
-    private Java2JavaTransformer transformer = new Java2JavaTransformer();
+    private Java2JavaTransformer transformer = new Java2JavaTransformer(new BinaryCodec());
 
     public void testTransform() throws Exception {
         Foo foo = new Foo();
@@ -33,6 +35,22 @@ public class SerializableTransformerTestCase extends TestCase {
         assertTrue(ret instanceof Foo);
     }
 
+    public void testTransformSerializationCodec() throws Exception {
+        Java2JavaTransformer transformer = new Java2JavaTransformer(new SerializationCodec());
+        Object ret = transformer.transform(new Foo(), getClass().getClassLoader());
+        assertTrue(ret instanceof Foo);
+    }
+
+    public void testDefaultCodec() throws Exception {
+        // the binary codec must be enabled explicitly since runtimes using Java serialization cannot read its payloads
+        Java2JavaTransformerFactory factory = new Java2JavaTransformerFactory();
+        assertTrue(factory.getCodec() instanceof SerializationCodec);
+
+        factory = new Java2JavaTransformerFactory();
+        factory.setCodec(BinaryCodec.NAME);
+        assertTrue(factory.getCodec() instanceof BinaryCodec);
+    }
+
     private static class Foo implements Serializable {
         private static final long serialVersionUID = -4552015224133581697L;
     }